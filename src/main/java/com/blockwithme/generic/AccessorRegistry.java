@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+/**
+ * AccessorRegistry finds the IGenericObjectAccessor implementations
+ * registered in "META-INF/services/com.blockwithme.generic.IGenericObjectAccessor",
+ * through the ServiceLoader, and selects one at runtime, either by name, or
+ * by Requirements. This allows switching the implementation per deployment,
+ * in the configuration, without recompiling the call sites.
+ *
+ * Every accessor is instantiated once per registry, and the result of
+ * every lookup is cached, so the same (stateless) accessor is always
+ * returned for the same query. Accessors are tried in the order of the
+ * service files.
+ *
+ * getConfigured() returns the accessor named by the system property
+ * ACCESSOR_PROPERTY, which can be either the simple or the full class name.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class AccessorRegistry {
+
+    /** The system property naming the accessor returned by getConfigured(). */
+    public static final String ACCESSOR_PROPERTY = "com.blockwithme.generic.accessor";
+
+    /** The default registry, lazily created. */
+    private static AccessorRegistry defaultRegistry;
+
+    /**
+     * Requirements on an accessor. Requirements are immutable; every method
+     * returns new requirements.
+     */
+    public static final class Requirements {
+        /** No requirements. */
+        public static final Requirements NONE = new Requirements(false,
+                false, false, 0);
+
+        /** Must the instances be thread-safe? */
+        private final boolean threadSafe;
+        /** Must long use one single primitive slot? */
+        private final boolean longInOneSlot;
+        /** Must double use one single primitive slot? */
+        private final boolean doubleInOneSlot;
+        /** The minimum number of boolean slots. */
+        private final int minBooleans;
+
+        /** Creates requirements. */
+        private Requirements(final boolean threadSafe,
+                final boolean longInOneSlot, final boolean doubleInOneSlot,
+                final int minBooleans) {
+            this.threadSafe = threadSafe;
+            this.longInOneSlot = longInOneSlot;
+            this.doubleInOneSlot = doubleInOneSlot;
+            this.minBooleans = minBooleans;
+        }
+
+        /** Requires thread-safe instances. */
+        public Requirements threadSafe() {
+            return new Requirements(true, longInOneSlot, doubleInOneSlot,
+                    minBooleans);
+        }
+
+        /** Requires long values to use one single primitive slot. */
+        public Requirements longInOneSlot() {
+            return new Requirements(threadSafe, true, doubleInOneSlot,
+                    minBooleans);
+        }
+
+        /** Requires double values to use one single primitive slot. */
+        public Requirements doubleInOneSlot() {
+            return new Requirements(threadSafe, longInOneSlot, true,
+                    minBooleans);
+        }
+
+        /**
+         * Requires at least minBooleans boolean slots.
+         *
+         * @throws IllegalArgumentException if minBooleans is negative
+         */
+        public Requirements minBooleans(final int minBooleans) {
+            if (minBooleans < 0) {
+                throw new IllegalArgumentException("minBooleans: "
+                        + minBooleans);
+            }
+            return new Requirements(threadSafe, longInOneSlot,
+                    doubleInOneSlot, minBooleans);
+        }
+
+        /** Returns true, if the accessor matches the requirements. */
+        public boolean matches(final IGenericObjectAccessor<?> accessor) {
+            if (threadSafe && !accessor.isThreadSafeInstancesUsed()) {
+                return false;
+            }
+            if (longInOneSlot && accessor.isLongUsingTwoPrimitiveSlots()) {
+                return false;
+            }
+            if (doubleInOneSlot && accessor.isDoubleUsingTwoPrimitiveSlots()) {
+                return false;
+            }
+            return !accessor.isBooleanValuesIDSpaceFixed()
+                    || (minBooleans <= accessor
+                            .getBooleanValuesIDSpaceFixedSize());
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            int result = minBooleans * 8;
+            result += threadSafe ? 1 : 0;
+            result += longInOneSlot ? 2 : 0;
+            result += doubleInOneSlot ? 4 : 0;
+            return result;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Requirements)) {
+                return false;
+            }
+            final Requirements other = (Requirements) obj;
+            return (threadSafe == other.threadSafe)
+                    && (longInOneSlot == other.longInOneSlot)
+                    && (doubleInOneSlot == other.doubleInOneSlot)
+                    && (minBooleans == other.minBooleans);
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "Requirements(threadSafe=" + threadSafe
+                    + ", longInOneSlot=" + longInOneSlot
+                    + ", doubleInOneSlot=" + doubleInOneSlot
+                    + ", minBooleans=" + minBooleans + ")";
+        }
+    }
+
+    /** The accessors, in the order of the service files. */
+    private final List<IGenericObjectAccessor<?>> accessors;
+
+    /** The cached lookups, by name, Requirements, or storage type and Requirements. */
+    private final Map<Object, IGenericObjectAccessor<?>> cache = new HashMap<>();
+
+    /**
+     * Creates a registry over the given accessors.
+     *
+     * @throws NullPointerException if accessors, or one accessor, is null
+     */
+    public AccessorRegistry(
+            final Iterable<? extends IGenericObjectAccessor<?>> accessors) {
+        final List<IGenericObjectAccessor<?>> list = new ArrayList<>();
+        for (final IGenericObjectAccessor<?> accessor : Objects
+                .requireNonNull(accessors, "accessors")) {
+            list.add(Objects.requireNonNull(accessor, "accessor"));
+        }
+        this.accessors = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Creates a registry over the accessors registered as services, in the
+     * given class loader.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public static AccessorRegistry load(final ClassLoader classLoader) {
+        final ServiceLoader loader = ServiceLoader.load(
+                IGenericObjectAccessor.class, classLoader);
+        return new AccessorRegistry(loader);
+    }
+
+    /**
+     * Returns the default registry, over the accessors registered as
+     * services in the class loader of this class.
+     */
+    public static synchronized AccessorRegistry getDefault() {
+        if (defaultRegistry == null) {
+            defaultRegistry = load(AccessorRegistry.class.getClassLoader());
+        }
+        return defaultRegistry;
+    }
+
+    /** Returns the accessors, in the order of the service files. */
+    public List<IGenericObjectAccessor<?>> getAccessors() {
+        return accessors;
+    }
+
+    /**
+     * Returns the accessor with the given simple or full class name.
+     *
+     * @throws NullPointerException if name is null
+     * @throws IllegalArgumentException if there is no such accessor
+     */
+    public synchronized IGenericObjectAccessor<?> get(final String name) {
+        Objects.requireNonNull(name, "name");
+        IGenericObjectAccessor<?> result = cache.get(name);
+        if (result == null) {
+            for (final IGenericObjectAccessor<?> accessor : accessors) {
+                final Class<?> type = accessor.getClass();
+                if (name.equals(type.getName())
+                        || name.equals(type.getSimpleName())) {
+                    result = accessor;
+                    break;
+                }
+            }
+            if (result == null) {
+                throw new IllegalArgumentException("Unknown accessor: " + name);
+            }
+            cache.put(name, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the first accessor matching the requirements, or null if none
+     * does.
+     *
+     * @throws NullPointerException if requirements is null
+     */
+    public synchronized IGenericObjectAccessor<?> find(
+            final Requirements requirements) {
+        Objects.requireNonNull(requirements, "requirements");
+        IGenericObjectAccessor<?> result = cache.get(requirements);
+        if (result == null) {
+            for (final IGenericObjectAccessor<?> accessor : accessors) {
+                if (requirements.matches(accessor)) {
+                    result = accessor;
+                    cache.put(requirements, result);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the first accessor matching the requirements, that uses the
+     * given storage type, or null if none does.
+     *
+     * @throws NullPointerException if a parameter is null
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <STORAGE> IGenericObjectAccessor<STORAGE> find(
+            final Class<STORAGE> storageType, final Requirements requirements) {
+        Objects.requireNonNull(storageType, "storageType");
+        Objects.requireNonNull(requirements, "requirements");
+        final List<Object> key = Arrays.<Object> asList(storageType,
+                requirements);
+        IGenericObjectAccessor<?> result = cache.get(key);
+        if (result == null) {
+            for (final IGenericObjectAccessor<?> accessor : accessors) {
+                if (requirements.matches(accessor)
+                        && storageType.isInstance(accessor
+                                .newEmptyGenericObject())) {
+                    result = accessor;
+                    cache.put(key, result);
+                    break;
+                }
+            }
+        }
+        return (IGenericObjectAccessor<STORAGE>) result;
+    }
+
+    /**
+     * Returns the accessor named by the system property ACCESSOR_PROPERTY,
+     * or the first accessor, if the property is not set.
+     *
+     * @throws IllegalStateException if there is no accessor at all
+     * @throws IllegalArgumentException if there is no such accessor
+     */
+    public IGenericObjectAccessor<?> getConfigured() {
+        final String name = System.getProperty(ACCESSOR_PROPERTY);
+        if (name != null) {
+            return get(name);
+        }
+        if (accessors.isEmpty()) {
+            throw new IllegalStateException("No accessor registered");
+        }
+        return accessors.get(0);
+    }
+}
@@ -0,0 +1,919 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * An IGenericObject that profiles how often each value type is accessed,
+ * and migrates it's storage to the StorageLayout with the lowest estimated
+ * access cost.
+ *
+ * Every sampleSize accesses, the access counts are weighted by the
+ * StorageLayout access costs. If another layout would save at least 1/8
+ * of the current cost, the values are copied to a new storage instance
+ * in that layout. The outcome is described by a Report.
+ *
+ * Since the generic object implementations do not store the type of the
+ * values, AdaptiveGenericObject records the type of the last value written
+ * to each primitive index. A migration is only performed if every value can
+ * keep it's index in the new layout; for example, the INT layout needs two
+ * primitive slots for long and double values, and the fixed boolean layouts
+ * only support a limited number of boolean values. Primitive index 0 is not
+ * available in the LONG and DOUBLE layouts, so it should not be used, if
+ * migrations are desired. Replacing the storage with
+ * setGenericObjectStorage() disables migrations, since the value types are
+ * then unknown.
+ *
+ * Note that the methods that depend on the boolean ID space (for example,
+ * getBooleanValuesSlotsAvailable()) follow the current layout, and so can
+ * stop, or start, throwing UnsupportedOperationException after a migration.
+ * The same applies to getGenericObjectAccessor().
+ *
+ * Instances are not thread-safe.
+ *
+ * @see StorageLayout
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public class AdaptiveGenericObject implements IGenericObject<Object[]> {
+
+    /** The default number of accesses between two evaluations. */
+    public static final int DEFAULT_SAMPLE_SIZE = 10000;
+
+    /** Migration requires saving at least 1/(2^MIN_GAIN_SHIFT) of the cost. */
+    private static final int MIN_GAIN_SHIFT = 3;
+
+    /** The value types. */
+    private static final ValueType[] TYPES = ValueType.values();
+
+    /** The storage layouts. */
+    private static final StorageLayout[] LAYOUTS = StorageLayout.values();
+
+    /**
+     * An immutable report of the evaluation of the access profile.
+     */
+    public static final class Report {
+        /** The layout after the evaluation. */
+        private final StorageLayout layout;
+        /** The layout with the lowest estimated cost. */
+        private final StorageLayout lowestCostLayout;
+        /** The sampled accesses, per type. */
+        private final long[] accesses;
+        /** The estimated cost of the sampled accesses, per layout. */
+        private final long[] costs;
+        /** The number of migrations so far. */
+        private final int migrations;
+        /** Explains the choice. */
+        private final String reason;
+
+        /** Creates a report. */
+        Report(final StorageLayout layout,
+                final StorageLayout lowestCostLayout, final long[] accesses,
+                final long[] costs, final int migrations, final String reason) {
+            this.layout = layout;
+            this.lowestCostLayout = lowestCostLayout;
+            this.accesses = accesses;
+            this.costs = costs;
+            this.migrations = migrations;
+            this.reason = reason;
+        }
+
+        /** @return The layout after the evaluation. */
+        public StorageLayout getStorageLayout() {
+            return layout;
+        }
+
+        /** @return The layout with the lowest estimated access cost. */
+        public StorageLayout getLowestCostLayout() {
+            return lowestCostLayout;
+        }
+
+        /**
+         * @param type The value type
+         * @return The number of sampled accesses for the given type.
+         */
+        public long getAccesses(final ValueType type) {
+            return accesses[type.ordinal()];
+        }
+
+        /**
+         * @param layout The storage layout
+         * @return The estimated cost of the sampled accesses, in the given layout.
+         */
+        public long getCost(final StorageLayout layout) {
+            return costs[layout.ordinal()];
+        }
+
+        /** @return The number of migrations so far. */
+        public int getMigrations() {
+            return migrations;
+        }
+
+        /** @return Why the layout was, or was not, changed. */
+        public String getReason() {
+            return reason;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            final StringBuilder buf = new StringBuilder();
+            buf.append("Report(layout=").append(layout);
+            buf.append(", lowestCostLayout=").append(lowestCostLayout);
+            buf.append(", costs={");
+            for (final StorageLayout l : LAYOUTS) {
+                if (l.ordinal() > 0) {
+                    buf.append(", ");
+                }
+                buf.append(l).append('=').append(costs[l.ordinal()]);
+            }
+            buf.append("}, accesses={");
+            for (final ValueType type : TYPES) {
+                if (type.ordinal() > 0) {
+                    buf.append(", ");
+                }
+                buf.append(type).append('=').append(accesses[type.ordinal()]);
+            }
+            buf.append("}, migrations=").append(migrations);
+            buf.append(", reason=").append(reason).append(')');
+            return buf.toString();
+        }
+    }
+
+    /** The growth policy of all layouts. */
+    private final IGrowthPolicy growthPolicy;
+
+    /** The number of accesses between two evaluations. */
+    private final int sampleSize;
+
+    /** The current layout. */
+    private StorageLayout layout;
+
+    /** The generic object accessor implementation of the current layout. */
+    private IGenericObjectAccessor<Object[]> accessor;
+
+    /** The generic object storage instance. */
+    private Object[] instance;
+
+    /** The accesses in the current sample, per type. */
+    private final int[] accesses = new int[TYPES.length];
+
+    /** The number of accesses in the current sample. */
+    private int sampled;
+
+    /** The type ordinal + 1 of the last value written, per primitive index. */
+    private byte[] primitiveTypes = new byte[0];
+
+    /** The boolean indexes written. */
+    private boolean[] booleans = new boolean[0];
+
+    /** False, once the storage was replaced, since the types are unknown. */
+    private boolean typesKnown = true;
+
+    /** The number of migrations. */
+    private int migrations;
+
+    /** The last report. */
+    private Report report;
+
+    /**
+     * Creates a new empty adaptive generic object, using the DOUBLE layout,
+     * the default growth policy, and the default sample size.
+     */
+    public AdaptiveGenericObject() {
+        this(StorageLayout.DOUBLE, GrowthPolicies.POWER_OF_TWO,
+                DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Creates a new empty adaptive generic object.
+     *
+     * @param layout The initial storage layout.
+     * @param growthPolicy The growth policy, used by all layouts.
+     * @param sampleSize The number of accesses between two evaluations.
+     *
+     * @throws NullPointerException if layout or growthPolicy is null
+     * @throws IllegalArgumentException if sampleSize is not positive
+     */
+    public AdaptiveGenericObject(final StorageLayout layout,
+            final IGrowthPolicy growthPolicy, final int sampleSize) {
+        this(layout, growthPolicy, sampleSize, 0, 0);
+    }
+
+    /**
+     * Creates a new adaptive generic object with *at least* the required
+     * number of slots, depending on the use of "optimal packing".
+     *
+     * @param layout The initial storage layout.
+     * @param growthPolicy The growth policy, used by all layouts.
+     * @param sampleSize The number of accesses between two evaluations.
+     * @param requiredPrimitiveSlots The minimum desired number of primitive slots.
+     * @param requiredObjectSlots The minimum desired number of object slots.
+     *
+     * @throws NullPointerException if layout or growthPolicy is null
+     * @throws IllegalArgumentException if sampleSize is not positive
+     */
+    public AdaptiveGenericObject(final StorageLayout layout,
+            final IGrowthPolicy growthPolicy, final int sampleSize,
+            final int requiredPrimitiveSlots, final int requiredObjectSlots) {
+        this.layout = Objects.requireNonNull(layout, "layout");
+        this.growthPolicy = Objects.requireNonNull(growthPolicy,
+                "growthPolicy");
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be positive: "
+                    + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+        accessor = layout.newAccessor(growthPolicy);
+        instance = accessor.newGenericObject(requiredPrimitiveSlots,
+                requiredObjectSlots);
+        report = new Report(layout, layout, new long[TYPES.length],
+                new long[LAYOUTS.length], 0, "not evaluated yet");
+    }
+
+    /**
+     * Returns the current storage layout.
+     *
+     * @return the current storage layout.
+     */
+    public final StorageLayout getStorageLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns the growth policy.
+     *
+     * @return the growth policy.
+     */
+    public final IGrowthPolicy getGrowthPolicy() {
+        return growthPolicy;
+    }
+
+    /**
+     * Returns the number of accesses between two evaluations.
+     *
+     * @return the number of accesses between two evaluations.
+     */
+    public final int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Returns the report of the last evaluation.
+     *
+     * @return the report of the last evaluation.
+     */
+    public final Report getReport() {
+        return report;
+    }
+
+    /** Records one access, and evaluates the profile if the sample is full. */
+    private void sample(final ValueType type) {
+        accesses[type.ordinal()]++;
+        if (++sampled == sampleSize) {
+            evaluate();
+        }
+    }
+
+    /** Records the type of the value written at a primitive index. */
+    private void track(final int index, final ValueType type) {
+        if (index >= primitiveTypes.length) {
+            final byte[] newTypes = new byte[Math.max(index + 1,
+                    primitiveTypes.length * 2)];
+            System.arraycopy(primitiveTypes, 0, newTypes, 0,
+                    primitiveTypes.length);
+            primitiveTypes = newTypes;
+        }
+        primitiveTypes[index] = (byte) (type.ordinal() + 1);
+    }
+
+    /** Records that a boolean index was written. */
+    private void trackBoolean(final int index) {
+        if (index >= booleans.length) {
+            final boolean[] newBooleans = new boolean[Math.max(index + 1,
+                    booleans.length * 2)];
+            System.arraycopy(booleans, 0, newBooleans, 0, booleans.length);
+            booleans = newBooleans;
+        }
+        booleans[index] = true;
+    }
+
+    /** Returns the type of the value at a primitive index, or null. */
+    private ValueType primitiveType(final int index) {
+        if ((index < 0) || (index >= primitiveTypes.length)
+                || (primitiveTypes[index] == 0)) {
+            return null;
+        }
+        return TYPES[primitiveTypes[index] - 1];
+    }
+
+    /** Returns true, if the boolean index was written. */
+    private boolean booleanUsed(final int index) {
+        return (index >= 0) && (index < booleans.length) && booleans[index];
+    }
+
+    /** Returns true for the types that need two slots in some layouts. */
+    private static boolean isWide(final ValueType type) {
+        return (type == ValueType.LONG) || (type == ValueType.DOUBLE);
+    }
+
+    /** Forgets the indexes that were removed by a resize, or trim. */
+    private void forgetUnreachable() {
+        final int maxPrimitive = accessor
+                .getPrimitiveValuesMaximumIndex(instance);
+        for (int i = maxPrimitive + 1; i < primitiveTypes.length; i++) {
+            primitiveTypes[i] = 0;
+        }
+        final int maxBoolean = accessor
+                .isBooleanValuesIDSpaceIndependentFromPrimitive() ? accessor
+                .getBooleanValuesMaximumIndex(instance) : maxPrimitive;
+        for (int i = maxBoolean + 1; i < booleans.length; i++) {
+            booleans[i] = false;
+        }
+    }
+
+    /** Returns the highest non-null Object index, or -1. */
+    private int lastObjectIndex() {
+        final int start = accessor.getObjectValuesStartIndex();
+        final int max = accessor.getObjectValuesMaximumIndex(instance);
+        for (int i = max; i >= start; i--) {
+            if (accessor.getObjectValue(instance, i) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks that all values can keep their index in the target layout.
+     * Returns null if they can, and otherwise the reason why they cannot.
+     */
+    private String checkMigration(final IGenericObjectAccessor<Object[]> to) {
+        if (!typesKnown) {
+            return "value types unknown, since the storage was replaced";
+        }
+        final int primitiveStart = to.getPrimitiveValuesStartIndex();
+        final boolean twoSlots = to.isLongUsingTwoPrimitiveSlots();
+        final boolean independent = to
+                .isBooleanValuesIDSpaceIndependentFromPrimitive();
+        for (int i = 0; i < primitiveTypes.length; i++) {
+            final ValueType type = primitiveType(i);
+            if (type != null) {
+                if (i < primitiveStart) {
+                    return "primitive index " + i + " is not supported";
+                }
+                if (twoSlots
+                        && isWide(type)
+                        && ((primitiveType(i + 1) != null) || (!independent
+                                && booleanUsed(i + 1)))) {
+                    return type + " at index " + i + " would overlap index "
+                            + (i + 1);
+                }
+            }
+        }
+        final int booleanStart = independent ? to.getBooleanValuesStartIndex()
+                : primitiveStart;
+        final int booleanSize = independent ? to
+                .getBooleanValuesIDSpaceFixedSize() : -1;
+        for (int i = 0; i < booleans.length; i++) {
+            if (booleans[i]) {
+                if ((i < booleanStart)
+                        || ((booleanSize >= 0) && (i >= booleanStart
+                                + booleanSize))) {
+                    return "boolean index " + i + " is not supported";
+                }
+                if (!independent) {
+                    final ValueType before = primitiveType(i - 1);
+                    if ((primitiveType(i) != null)
+                            || (twoSlots && (before != null)
+                                    && isWide(before))) {
+                        return "boolean at index " + i
+                                + " would overlap a primitive value";
+                    }
+                }
+            }
+        }
+        final int lastObject = lastObjectIndex();
+        if ((lastObject >= 0)
+                && (lastObject < to.getObjectValuesStartIndex())) {
+            return "Object index " + lastObject + " is not supported";
+        }
+        return null;
+    }
+
+    /** Copies all values to a new storage instance, in the target layout. */
+    private void migrate(final StorageLayout target,
+            final IGenericObjectAccessor<Object[]> to) {
+        final boolean twoSlots = to.isLongUsingTwoPrimitiveSlots();
+        int lastPrimitive = -1;
+        for (int i = 0; i < primitiveTypes.length; i++) {
+            final ValueType type = primitiveType(i);
+            if (type != null) {
+                lastPrimitive = (twoSlots && isWide(type)) ? i + 1 : i;
+            }
+        }
+        if (!to.isBooleanValuesIDSpaceIndependentFromPrimitive()) {
+            for (int i = lastPrimitive + 1; i < booleans.length; i++) {
+                if (booleans[i]) {
+                    lastPrimitive = i;
+                }
+            }
+        }
+        final int lastObject = lastObjectIndex();
+        // Every index valid before the migration must stay valid after it
+        final int maxPrimitive = Math.max(lastPrimitive,
+                accessor.getPrimitiveValuesMaximumIndex(instance));
+        final int maxObject = Math.max(lastObject,
+                accessor.getObjectValuesMaximumIndex(instance));
+        Object[] result = to.newGenericObject(
+                Math.max(0, maxPrimitive - to.getPrimitiveValuesStartIndex()
+                        + 1),
+                Math.max(0, maxObject - to.getObjectValuesStartIndex() + 1));
+        for (int i = 0; i < primitiveTypes.length; i++) {
+            final ValueType type = primitiveType(i);
+            if (type != null) {
+                result = copy(to, result, i, type);
+            }
+        }
+        for (int i = 0; i < booleans.length; i++) {
+            if (booleans[i]) {
+                result = to.setBooleanValue(result, i,
+                        accessor.getBooleanValue(instance, i));
+            }
+        }
+        for (int i = to.getObjectValuesStartIndex(); i <= lastObject; i++) {
+            result = to.setObjectValue(result, i,
+                    accessor.getObjectValue(instance, i));
+        }
+        layout = target;
+        accessor = to;
+        instance = result;
+        migrations++;
+    }
+
+    /** Copies one primitive value to the target storage. */
+    private Object[] copy(final IGenericObjectAccessor<Object[]> to,
+            final Object[] result, final int index, final ValueType type) {
+        switch (type) {
+        case BYTE:
+            return to.setByteValue(result, index,
+                    accessor.getByteValue(instance, index));
+        case CHAR:
+            return to.setCharValue(result, index,
+                    accessor.getCharValue(instance, index));
+        case SHORT:
+            return to.setShortValue(result, index,
+                    accessor.getShortValue(instance, index));
+        case INT:
+            return to.setIntValue(result, index,
+                    accessor.getIntValue(instance, index));
+        case FLOAT:
+            return to.setFloatValue(result, index,
+                    accessor.getFloatValue(instance, index));
+        case LONG:
+            return to.setLongValue(result, index,
+                    accessor.getLongValue(instance, index));
+        case DOUBLE:
+            return to.setDoubleValue(result, index,
+                    accessor.getDoubleValue(instance, index));
+        default:
+            throw new IllegalStateException("Not a primitive value type: "
+                    + type);
+        }
+    }
+
+    /**
+     * Evaluates the accesses sampled since the last evaluation, migrates to
+     * the layout with the lowest estimated cost if worthwhile and possible,
+     * and starts a new sample. This is called automatically every
+     * sampleSize accesses.
+     *
+     * @return the report of this evaluation.
+     */
+    public final Report evaluate() {
+        final long[] sampledAccesses = new long[TYPES.length];
+        final long[] costs = new long[LAYOUTS.length];
+        for (final ValueType type : TYPES) {
+            final long count = accesses[type.ordinal()];
+            sampledAccesses[type.ordinal()] = count;
+            for (final StorageLayout l : LAYOUTS) {
+                costs[l.ordinal()] += count * l.getAccessCost(type);
+            }
+        }
+        StorageLayout best = layout;
+        for (final StorageLayout l : LAYOUTS) {
+            if (costs[l.ordinal()] < costs[best.ordinal()]) {
+                best = l;
+            }
+        }
+        final long currentCost = costs[layout.ordinal()];
+        final String reason;
+        if (best == layout) {
+            reason = "the current layout has the lowest cost";
+        } else if (costs[best.ordinal()] + (currentCost >>> MIN_GAIN_SHIFT)
+                >= currentCost) {
+            reason = "the gain of " + best + " is too small";
+        } else {
+            forgetUnreachable();
+            final IGenericObjectAccessor<Object[]> to = best
+                    .newAccessor(growthPolicy);
+            final String problem = checkMigration(to);
+            if (problem == null) {
+                reason = "migrated from " + layout;
+                migrate(best, to);
+            } else {
+                reason = "cannot migrate to " + best + ": " + problem;
+            }
+        }
+        for (int i = 0; i < accesses.length; i++) {
+            accesses[i] = 0;
+        }
+        sampled = 0;
+        report = new Report(layout, best, sampledAccesses, costs, migrations,
+                reason);
+        return report;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectAccessor()
+     */
+    @Override
+    public final IGenericObjectAccessor<Object[]> getGenericObjectAccessor() {
+        return accessor;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectStorage()
+     */
+    @Override
+    public final Object[] getGenericObjectStorage() {
+        return instance;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setGenericObjectStorage(STORAGE)
+     */
+    @Override
+    public final AdaptiveGenericObject setGenericObjectStorage(
+            final Object[] instance) {
+        this.instance = Objects.requireNonNull(instance, "instance");
+        typesKnown = false;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesMaximumIndex()
+     */
+    @Override
+    public final int getPrimitiveValuesMaximumIndex() {
+        return accessor.getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesMaximumIndex()
+     */
+    @Override
+    public final int getBooleanValuesMaximumIndex()
+            throws UnsupportedOperationException {
+        return accessor.getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesMaximumIndex()
+     */
+    @Override
+    public final int getObjectValuesMaximumIndex() {
+        return accessor.getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesSlotsAvailable()
+     */
+    @Override
+    public final int getPrimitiveValuesSlotsAvailable() {
+        return accessor.getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesSlotsAvailable()
+     */
+    @Override
+    public final int getBooleanValuesSlotsAvailable()
+            throws UnsupportedOperationException {
+        return accessor.getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesSlotsAvailable()
+     */
+    @Override
+    public final int getObjectValuesSlotsAvailable() {
+        return accessor.getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesReservedSize()
+     */
+    @Override
+    public final int getPrimitiveValuesReservedSize()
+            throws UnsupportedOperationException {
+        return accessor.getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesReservedSize()
+     */
+    @Override
+    public final int getBooleanValuesReservedSize()
+            throws UnsupportedOperationException {
+        return accessor.getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesReservedSize()
+     */
+    @Override
+    public final int getObjectValuesReservedSize()
+            throws UnsupportedOperationException {
+        return accessor.getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizePrimitiveValues(int)
+     */
+    @Override
+    public final AdaptiveGenericObject resizePrimitiveValues(
+            final int reservedSize) {
+        instance = accessor.resizePrimitiveValues(instance, reservedSize);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeBooleanValues(int)
+     */
+    @Override
+    public final AdaptiveGenericObject resizeBooleanValues(
+            final int reservedSize) throws UnsupportedOperationException {
+        instance = accessor.resizeBooleanValues(instance, reservedSize);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeObjectValues(int)
+     */
+    @Override
+    public final AdaptiveGenericObject resizeObjectValues(
+            final int reservedSize) {
+        instance = accessor.resizeObjectValues(instance, reservedSize);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimPrimitiveValues()
+     */
+    @Override
+    public final AdaptiveGenericObject trimPrimitiveValues() {
+        instance = accessor.trimPrimitiveValues(instance);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimObjectValues()
+     */
+    @Override
+    public final AdaptiveGenericObject trimObjectValues() {
+        instance = accessor.trimObjectValues(instance);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValue(int)
+     */
+    @Override
+    public final boolean getBooleanValue(final int index) {
+        sample(ValueType.BOOLEAN);
+        return accessor.getBooleanValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setBooleanValue(int, boolean)
+     */
+    @Override
+    public final AdaptiveGenericObject setBooleanValue(final int index,
+            final boolean value) {
+        instance = accessor.setBooleanValue(instance, index, value);
+        trackBoolean(index);
+        sample(ValueType.BOOLEAN);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getByteValue(int)
+     */
+    @Override
+    public final byte getByteValue(final int index) {
+        sample(ValueType.BYTE);
+        return accessor.getByteValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setByteValue(int, byte)
+     */
+    @Override
+    public final AdaptiveGenericObject setByteValue(final int index,
+            final byte value) {
+        instance = accessor.setByteValue(instance, index, value);
+        track(index, ValueType.BYTE);
+        sample(ValueType.BYTE);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getCharValue(int)
+     */
+    @Override
+    public final char getCharValue(final int index) {
+        sample(ValueType.CHAR);
+        return accessor.getCharValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setCharValue(int, char)
+     */
+    @Override
+    public final AdaptiveGenericObject setCharValue(final int index,
+            final char value) {
+        instance = accessor.setCharValue(instance, index, value);
+        track(index, ValueType.CHAR);
+        sample(ValueType.CHAR);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getShortValue(int)
+     */
+    @Override
+    public final short getShortValue(final int index) {
+        sample(ValueType.SHORT);
+        return accessor.getShortValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setShortValue(int, short)
+     */
+    @Override
+    public final AdaptiveGenericObject setShortValue(final int index,
+            final short value) {
+        instance = accessor.setShortValue(instance, index, value);
+        track(index, ValueType.SHORT);
+        sample(ValueType.SHORT);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getIntValue(int)
+     */
+    @Override
+    public final int getIntValue(final int index) {
+        sample(ValueType.INT);
+        return accessor.getIntValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setIntValue(int, int)
+     */
+    @Override
+    public final AdaptiveGenericObject setIntValue(final int index,
+            final int value) {
+        instance = accessor.setIntValue(instance, index, value);
+        track(index, ValueType.INT);
+        sample(ValueType.INT);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getFloatValue(int)
+     */
+    @Override
+    public final float getFloatValue(final int index) {
+        sample(ValueType.FLOAT);
+        return accessor.getFloatValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setFloatValue(int, float)
+     */
+    @Override
+    public final AdaptiveGenericObject setFloatValue(final int index,
+            final float value) {
+        instance = accessor.setFloatValue(instance, index, value);
+        track(index, ValueType.FLOAT);
+        sample(ValueType.FLOAT);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getLongValue(int)
+     */
+    @Override
+    public final long getLongValue(final int index) {
+        sample(ValueType.LONG);
+        return accessor.getLongValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setLongValue(int, long)
+     */
+    @Override
+    public final AdaptiveGenericObject setLongValue(final int index,
+            final long value) {
+        instance = accessor.setLongValue(instance, index, value);
+        track(index, ValueType.LONG);
+        sample(ValueType.LONG);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getDoubleValue(int)
+     */
+    @Override
+    public final double getDoubleValue(final int index) {
+        sample(ValueType.DOUBLE);
+        return accessor.getDoubleValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setDoubleValue(int, double)
+     */
+    @Override
+    public final AdaptiveGenericObject setDoubleValue(final int index,
+            final double value) {
+        instance = accessor.setDoubleValue(instance, index, value);
+        track(index, ValueType.DOUBLE);
+        sample(ValueType.DOUBLE);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValue(int)
+     */
+    @Override
+    public final Object getObjectValue(final int index) {
+        sample(ValueType.OBJECT);
+        return accessor.getObjectValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setObjectValue(int, Object)
+     */
+    @Override
+    public final AdaptiveGenericObject setObjectValue(final int index,
+            final Object value) {
+        instance = accessor.setObjectValue(instance, index, value);
+        sample(ValueType.OBJECT);
+        return this;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An IObjectCodec for null, String, and the boxed primitive types. Each
+ * value is written as a one-byte tag, followed by the value itself.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class BasicObjectCodec implements IObjectCodec {
+
+    /** The shared instance; BasicObjectCodec is stateless. */
+    public static final BasicObjectCodec INSTANCE = new BasicObjectCodec();
+
+    /** The tag of null. */
+    private static final int NULL = 0;
+    /** The tag of String. */
+    private static final int STRING = 1;
+    /** The tag of Boolean. */
+    private static final int BOOLEAN = 2;
+    /** The tag of Byte. */
+    private static final int BYTE = 3;
+    /** The tag of Character. */
+    private static final int CHAR = 4;
+    /** The tag of Short. */
+    private static final int SHORT = 5;
+    /** The tag of Integer. */
+    private static final int INT = 6;
+    /** The tag of Float. */
+    private static final int FLOAT = 7;
+    /** The tag of Long. */
+    private static final int LONG = 8;
+    /** The tag of Double. */
+    private static final int DOUBLE = 9;
+
+    /** Use INSTANCE. */
+    private BasicObjectCodec() {
+        // NOP
+    }
+
+    /* (non-Javadoc)
+     * @see IObjectCodec#encode(Object, DataOutput)
+     */
+    @Override
+    public void encode(final Object value, final DataOutput out)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else {
+            throw new IllegalArgumentException("Unsupported type: "
+                    + value.getClass().getName());
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IObjectCodec#decode(DataInput)
+     */
+    @Override
+    public Object decode(final DataInput in) throws IOException {
+        final int tag = in.readByte();
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING:
+            return in.readUTF();
+        case BOOLEAN:
+            return in.readBoolean();
+        case BYTE:
+            return in.readByte();
+        case CHAR:
+            return in.readChar();
+        case SHORT:
+            return in.readShort();
+        case INT:
+            return in.readInt();
+        case FLOAT:
+            return in.readFloat();
+        case LONG:
+            return in.readLong();
+        case DOUBLE:
+            return in.readDouble();
+        default:
+            throw new IOException("Unknown tag: " + tag);
+        }
+    }
+}
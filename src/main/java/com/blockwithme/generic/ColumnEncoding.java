@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The encodings of the primitive columns of the columnar file format. The
+ * values of a column are handled as long; the "width" is the number of
+ * bytes of the primitive type (1 for byte, 2 for char and short, 4 for
+ * int and float, 8 for long and double). Floating-point values are stored
+ * as their raw bits.
+ *
+ * The values are encoded from a Values view, and written to an
+ * OutputStream, and decoded from a DataInput, so that neither the encoder
+ * nor the decoder need a copy of the whole column.
+ *
+ * @see GenericObjectColumnWriter
+ * @see GenericObjectColumnReader
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public enum ColumnEncoding {
+    /** Every value, in "width" bytes. */
+    PLAIN {
+        @Override
+        boolean encode(final Values values, final int width,
+                final OutputStream out) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                final long value = values.get(i);
+                for (int shift = (width - 1) * 8; shift >= 0; shift -= 8) {
+                    out.write((int) (value >>> shift));
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void decode(final DataInput in, final int width, final long[] values)
+                throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                switch (width) {
+                case 1:
+                    values[i] = in.readByte();
+                    break;
+                case 2:
+                    values[i] = in.readShort();
+                    break;
+                case 4:
+                    values[i] = in.readInt();
+                    break;
+                default:
+                    values[i] = in.readLong();
+                }
+            }
+        }
+    },
+    /** The first value, and then the differences, as zigzag varints. */
+    DELTA {
+        @Override
+        boolean encode(final Values values, final int width,
+                final OutputStream out) throws IOException {
+            long previous = 0;
+            for (int i = 0; i < values.size(); i++) {
+                final long value = values.get(i);
+                writeSigned(out, value - previous);
+                previous = value;
+            }
+            return true;
+        }
+
+        @Override
+        void decode(final DataInput in, final int width, final long[] values)
+                throws IOException {
+            long previous = 0;
+            for (int i = 0; i < values.length; i++) {
+                previous += readSigned(in);
+                values[i] = previous;
+            }
+        }
+    },
+    /** (value, run length) pairs, as varints. */
+    RUN_LENGTH {
+        @Override
+        boolean encode(final Values values, final int width,
+                final OutputStream out) throws IOException {
+            final int size = values.size();
+            int i = 0;
+            while (i < size) {
+                final long value = values.get(i);
+                int end = i + 1;
+                while ((end < size) && (values.get(end) == value)) {
+                    end++;
+                }
+                writeSigned(out, value);
+                writeUnsigned(out, end - i);
+                i = end;
+            }
+            return true;
+        }
+
+        @Override
+        void decode(final DataInput in, final int width, final long[] values)
+                throws IOException {
+            int i = 0;
+            while (i < values.length) {
+                final long value = readSigned(in);
+                final int end = i + (int) readUnsigned(in);
+                while (i < end) {
+                    values[i++] = value;
+                }
+            }
+        }
+    },
+    /**
+     * The distinct values, as zigzag varints, followed by the bit-packed
+     * index of the value of each row. Only used for at most
+     * MAX_DICTIONARY_SIZE distinct values.
+     */
+    DICTIONARY {
+        @Override
+        boolean encode(final Values values, final int width,
+                final OutputStream out) throws IOException {
+            // The ids are assigned in insertion order
+            final Map<Long, Integer> ids = new LinkedHashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                final Long value = values.get(i);
+                if (!ids.containsKey(value)) {
+                    if (ids.size() == MAX_DICTIONARY_SIZE) {
+                        return false;
+                    }
+                    ids.put(value, ids.size());
+                }
+            }
+            writeUnsigned(out, ids.size());
+            for (final Long value : ids.keySet()) {
+                writeSigned(out, value);
+            }
+            writeBits(out, new Values() {
+                @Override
+                public int size() {
+                    return values.size();
+                }
+
+                @Override
+                public long get(final int row) {
+                    return ids.get(values.get(row));
+                }
+            }, bits(ids.size()));
+            return true;
+        }
+
+        @Override
+        void decode(final DataInput in, final int width, final long[] values)
+                throws IOException {
+            final long[] dictionary = new long[(int) readUnsigned(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readSigned(in);
+            }
+            readBits(in, values, bits(dictionary.length));
+            for (int i = 0; i < values.length; i++) {
+                values[i] = dictionary[(int) values[i]];
+            }
+        }
+    },
+    /** One bit per value; only for boolean columns. */
+    BIT_PACKED {
+        @Override
+        boolean encode(final Values values, final int width,
+                final OutputStream out) throws IOException {
+            writeBits(out, values, 1);
+            return true;
+        }
+
+        @Override
+        void decode(final DataInput in, final int width, final long[] values)
+                throws IOException {
+            readBits(in, values, 1);
+        }
+    },
+    /** Object values, encoded with an IObjectCodec. */
+    CODEC {
+        @Override
+        boolean encode(final Values values, final int width,
+                final OutputStream out) throws IOException {
+            throw new UnsupportedOperationException("Object values only");
+        }
+
+        @Override
+        void decode(final DataInput in, final int width, final long[] values)
+                throws IOException {
+            throw new UnsupportedOperationException("Object values only");
+        }
+    };
+
+    /** The maximum number of distinct values of a DICTIONARY column. */
+    public static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    /**
+     * The values of a column, as long. The values can be read multiple
+     * times, and out of order.
+     */
+    interface Values {
+        /** Returns the number of values. */
+        int size();
+
+        /** Returns the value of a row. */
+        long get(int row);
+    }
+
+    /**
+     * Encodes the values. Nothing is written if false is returned.
+     *
+     * @return false, if this encoding cannot encode those values.
+     */
+    abstract boolean encode(Values values, int width, OutputStream out)
+            throws IOException;
+
+    /** Decodes values.length values. */
+    abstract void decode(DataInput in, int width, long[] values)
+            throws IOException;
+
+    /** Returns the number of bits needed to store ids in [0, size[. */
+    static int bits(final int size) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(size - 1));
+    }
+
+    /** Writes an unsigned varint. */
+    static void writeUnsigned(final OutputStream out, final long value)
+            throws IOException {
+        long rest = value;
+        while ((rest & ~0x7FL) != 0) {
+            out.write((int) ((rest & 0x7F) | 0x80));
+            rest >>>= 7;
+        }
+        out.write((int) rest);
+    }
+
+    /** Writes a signed varint, in zigzag encoding. */
+    static void writeSigned(final OutputStream out, final long value)
+            throws IOException {
+        writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    /** Reads an unsigned varint. */
+    static long readUnsigned(final DataInput in) throws IOException {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readByte();
+            result |= ((long) (b & 0x7F)) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    /** Reads a signed varint, in zigzag encoding. */
+    static long readSigned(final DataInput in) throws IOException {
+        final long value = readUnsigned(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Writes the low "bits" bits of each value, LSB first. */
+    static void writeBits(final OutputStream out, final Values values,
+            final int bits) throws IOException {
+        long buffer = 0;
+        int buffered = 0;
+        for (int i = 0; i < values.size(); i++) {
+            buffer |= (values.get(i) & ((1L << bits) - 1)) << buffered;
+            buffered += bits;
+            while (buffered >= 8) {
+                out.write((int) buffer);
+                buffer >>>= 8;
+                buffered -= 8;
+            }
+        }
+        if (buffered > 0) {
+            out.write((int) buffer);
+        }
+    }
+
+    /** Reads values written by writeBits(). */
+    static void readBits(final DataInput in, final long[] values,
+            final int bits) throws IOException {
+        final long mask = (1L << bits) - 1;
+        long buffer = 0;
+        int buffered = 0;
+        for (int i = 0; i < values.length; i++) {
+            while (buffered < bits) {
+                buffer |= ((long) in.readUnsignedByte()) << buffered;
+                buffered += 8;
+            }
+            values[i] = buffer & mask;
+            buffer >>>= bits;
+            buffered -= bits;
+        }
+    }
+}
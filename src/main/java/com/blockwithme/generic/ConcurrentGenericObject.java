@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentGenericObject allows one writer, and many readers, to access a
+ * generic object concurrently. It is meant for objects that are read much
+ * more often than they are written.
+ *
+ * The storage instance seen by the readers is never modified. Updates, done
+ * with update(), or the batch setters, are applied to a private copy, made
+ * by the copy-on-write of GenericObject, which is then published through a
+ * volatile field. Readers do a single volatile read, and then read an
+ * instance that will never change, so multi-slot updates are atomic for the
+ * readers under the Java memory model alone, without fences. The read path
+ * never writes any shared state, so it does not cause cache-line bouncing
+ * between the readers. Writers are serialized with a lock, and pay for one
+ * copy of the storage per update.
+ *
+ * Updates spanning multiple instances can be done with a
+ * GenericObjectTransaction.
+ *
+ * @see IGenericObjectReader
+ * @see IGenericObjectUpdater
+ * @see GenericObjectTransaction
+ *
+ * @author monster
+ */
+public final class ConcurrentGenericObject<STORAGE> {
+
+    /** The source of the instance IDs. */
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    /** The instance ID, defining the lock order of transactions. */
+    final long id = NEXT_ID.incrementAndGet();
+
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /**
+     * The generic object of the writers, only accessed while holding the
+     * lock. Its storage is shared with current, until the next write.
+     */
+    final GenericObject<STORAGE> object;
+
+    /** The writer lock. */
+    final ReentrantLock lock = new ReentrantLock();
+
+    /** The published storage instance; never modified. */
+    volatile STORAGE current;
+
+    /** True, while a transaction publishes this instance, among others. */
+    volatile boolean publishing;
+
+    /**
+     * Creates a new empty concurrent generic object.
+     *
+     * @param accessor The generic object accessor implementation.
+     *
+     * @throws NullPointerException if accessor is null
+     */
+    public ConcurrentGenericObject(
+            final IGenericObjectAccessor<STORAGE> accessor) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+        object = new GenericObject<>(accessor);
+        current = object.share();
+    }
+
+    /**
+     * Creates a new concurrent generic object, with the given storage. The
+     * storage must not be accessed directly anymore afterward.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instance The generic object storage instance.
+     *
+     * @throws NullPointerException if accessor is null
+     * @throws NullPointerException if instance is null
+     */
+    public ConcurrentGenericObject(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+        object = new GenericObject<>(accessor, instance);
+        current = object.share();
+    }
+
+    /** @return The generic object accessor implementation. */
+    public IGenericObjectAccessor<STORAGE> getGenericObjectAccessor() {
+        return accessor;
+    }
+
+    /**
+     * Returns the current storage instance. It is never modified afterward,
+     * so it can be read with the accessor, without any lock, and its values
+     * are always consistent. Later updates are only visible through a new
+     * call.
+     *
+     * @return the current storage instance; must not be modified.
+     */
+    public STORAGE getGenericObjectStorage() {
+        return current;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads some values consistently. The reader is called once, with a
+     * snapshot of the current values.
+     *
+     * @param reader The reader.
+     * @return The result of the reader.
+     *
+     * @throws NullPointerException if reader is null
+     */
+    public <R> R read(final IGenericObjectReader<STORAGE, R> reader) {
+        Objects.requireNonNull(reader, "reader");
+        return reader.read(snapshot());
+    }
+
+    /** Checks that indexes and values have the same length. */
+    private static void checkLength(final int[] indexes, final int length) {
+        if (indexes.length != length) {
+            throw new IllegalArgumentException(
+                    "indexes and values differ in length");
+        }
+    }
+
+    /**
+     * Reads multiple int values consistently.
+     *
+     * @param indexes The indexes to read.
+     * @param values The array receiving the values.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void getIntValues(final int[] indexes, final int[] values) {
+        checkLength(indexes, values.length);
+        final STORAGE instance = current;
+        for (int i = 0; i < indexes.length; i++) {
+            values[i] = accessor.getIntValue(instance, indexes[i]);
+        }
+    }
+
+    /**
+     * Reads multiple long values consistently.
+     *
+     * @param indexes The indexes to read.
+     * @param values The array receiving the values.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void getLongValues(final int[] indexes, final long[] values) {
+        checkLength(indexes, values.length);
+        final STORAGE instance = current;
+        for (int i = 0; i < indexes.length; i++) {
+            values[i] = accessor.getLongValue(instance, indexes[i]);
+        }
+    }
+
+    /**
+     * Reads multiple double values consistently.
+     *
+     * @param indexes The indexes to read.
+     * @param values The array receiving the values.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void getDoubleValues(final int[] indexes, final double[] values) {
+        checkLength(indexes, values.length);
+        final STORAGE instance = current;
+        for (int i = 0; i < indexes.length; i++) {
+            values[i] = accessor.getDoubleValue(instance, indexes[i]);
+        }
+    }
+
+    /**
+     * Returns an immutable snapshot of the current values. Nothing is
+     * copied, and no lock is taken.
+     *
+     * @return an immutable snapshot of the current values.
+     *
+     * @see GenericObject#snapshot()
+     */
+    public GenericObjectSnapshot<STORAGE> snapshot() {
+        return new GenericObjectSnapshot<>(accessor, current);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Publishes the changes of the writers. Called with the lock held. */
+    void publish() {
+        current = object.share();
+    }
+
+    /**
+     * Returns true, if the writers changed the storage since the last
+     * publication. Called with the lock held.
+     */
+    boolean modified() {
+        return object.getGenericObjectStorage() != current;
+    }
+
+    /** Discards the unpublished changes, if any, and releases the lock. */
+    void release() {
+        if (modified()) {
+            object.setGenericObjectStorage(current);
+            object.share();
+        }
+        lock.unlock();
+    }
+
+    /**
+     * Performs a multi-slot update atomically, for the readers. If the
+     * updater throws an exception, none of its changes become visible.
+     *
+     * @param updater The updater.
+     *
+     * @throws NullPointerException if updater is null
+     */
+    public void update(final IGenericObjectUpdater<STORAGE> updater) {
+        Objects.requireNonNull(updater, "updater");
+        lock.lock();
+        try {
+            updater.update(object);
+            publish();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Writes multiple int values atomically, for the readers.
+     *
+     * @param indexes The indexes to write.
+     * @param values The values to write.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void setIntValues(final int[] indexes, final int[] values) {
+        checkLength(indexes, values.length);
+        lock.lock();
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                object.setIntValue(indexes[i], values[i]);
+            }
+            publish();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Writes multiple long values atomically, for the readers.
+     *
+     * @param indexes The indexes to write.
+     * @param values The values to write.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void setLongValues(final int[] indexes, final long[] values) {
+        checkLength(indexes, values.length);
+        lock.lock();
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                object.setLongValue(indexes[i], values[i]);
+            }
+            publish();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Writes multiple double values atomically, for the readers.
+     *
+     * @param indexes The indexes to write.
+     * @param values The values to write.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public void setDoubleValues(final int[] indexes, final double[] values) {
+        checkLength(indexes, values.length);
+        lock.lock();
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                object.setDoubleValue(indexes[i], values[i]);
+            }
+            publish();
+        } finally {
+            release();
+        }
+    }
+}
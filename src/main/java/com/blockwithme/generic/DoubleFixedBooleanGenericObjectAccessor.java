@@ -15,6 +15,8 @@
  */
 package com.blockwithme.generic;
 
+import java.util.Objects;
+
 /**
  * DoubleFixedBooleanGenericObjectAccessor implements IGenericObjectAccessor using doubles.
  * Booleans are fixed to 52. Instances are not immutable/thread-safe.
@@ -87,31 +89,83 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
     }
 
     /** Computes a "new size" */
-    private static int newSize(final int reservedSize, final String name) {
+    private static int newSize(final IGrowthPolicy policy,
+            final int currentSlots, final int reservedSize, final String name) {
         if ((reservedSize < 0) || (reservedSize > MAX_SIZE)) {
             throw new IllegalArgumentException(name + ": " + reservedSize);
         }
-        final int newSize;
-        if (reservedSize > (MIN_SIZE - START_INDEX)) {
-            final int powerOfTwo = 32 - Integer
-                    .numberOfLeadingZeros(reservedSize - 1);
-            if (powerOfTwo == 31) {
-                // Cannot represent (1 << 31) correctly
-                newSize = Integer.MAX_VALUE;
-            } else {
-                newSize = (1 << powerOfTwo) + 1 /* For booleans */;
-            }
-        } else {
-            newSize = MIN_SIZE;
-        }
-        return newSize;
+        return policy.computeSlots(currentSlots, reservedSize,
+                MIN_SIZE - START_INDEX, MAX_SIZE)
+                + START_INDEX /* For booleans */;
     }
 
     /** Returns the primitive array */
-    private static double[] getPrimitiveArray(final Object[] instance) {
+    static double[] getPrimitiveArray(final Object[] instance) {
         return (double[]) instance[0];
     }
 
+    /** Returns the number of primitive slots actually used. */
+    private static int usedPrimitiveSlots(final double[] data) {
+        for (int i = data.length - 1; i >= START_INDEX; i--) {
+            // Also keeps -0.0, and NaN
+            if ((data[i] != 0) || ((1 / data[i]) < 0)) {
+                return i + 1 - START_INDEX;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of primitive slots to keep when trimming. In the
+     * GWT client, longs use two slots, so the slot after the last used one is
+     * kept too, as it can be the (zero) high half of a two-slot value.
+     */
+    private static int keptPrimitiveSlots(final double[] data) {
+        final int used = usedPrimitiveSlots(data);
+        if (!GWT || (used == 0)) {
+            return used;
+        }
+        return Math.min(used + 1, data.length - START_INDEX);
+    }
+
+    /**
+     * Returns true, if the slot i (not an index) of both arrays holds the
+     * same value, bitwise.
+     */
+    private static boolean sameSlot(final double[] data,
+            final double[] otherData, final int i) {
+        if (GWT) {
+            // Longs are stored as two ints, so NaN payloads do not matter
+            final double value = data[i];
+            final double other = otherData[i];
+            if (value == other) {
+                return (value != 0) || ((1 / value) == (1 / other));
+            }
+            return (value != value) && (other != other);
+        }
+        return _getLongValue2(data, i - START_INDEX) == _getLongValue2(
+                otherData, i - START_INDEX);
+    }
+
+    /** Returns the hash code of the slot i (not an index), like sameSlot(). */
+    private static int slotHashCode(final double[] data, final int i) {
+        if (GWT) {
+            return (int) data[i];
+        }
+        final long value = _getLongValue2(data, i - START_INDEX);
+        return (int) (value ^ (value >>> 32));
+    }
+
+    /** Returns the number of Object slots actually used. */
+    private static int usedObjectSlots(final Object[] data) {
+        for (int i = data.length - 1; i >= START_INDEX; i--) {
+            if (data[i] != null) {
+                return i + 1 - START_INDEX;
+            }
+        }
+        return 0;
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /**
@@ -254,6 +308,14 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
         return result;
     }
 
+    /**
+     * @see IGenericObjectAccessor#newEmptyGenericObject()
+     */
+    public static Object[] _newEmptyGenericObject(final IGrowthPolicy policy) {
+        return _newGenericObject(policy, MIN_SIZE - START_INDEX, MIN_SIZE
+                - START_INDEX);
+    }
+
     /**
      * @see IGenericObjectAccessor#newGenericObject(int,int,int)
      */
@@ -268,12 +330,24 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      */
     public static Object[] _newGenericObject(final int requiredPrimitiveSlots,
             final int requiredObjectSlots) {
-        final int newPrimitiveSize = newSize(requiredPrimitiveSlots,
-                "requiredPrimitiveSlots");
-        final int newObjectSize = newSize(requiredObjectSlots,
+        return _newGenericObject(GrowthPolicies.POWER_OF_TWO,
+                requiredPrimitiveSlots, requiredObjectSlots);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#newGenericObject(int,int)
+     */
+    public static Object[] _newGenericObject(final IGrowthPolicy policy,
+            final int requiredPrimitiveSlots, final int requiredObjectSlots) {
+        final int newPrimitiveSize = newSize(policy, 0,
+                requiredPrimitiveSlots, "requiredPrimitiveSlots");
+        final int newObjectSize = newSize(policy, 0, requiredObjectSlots,
                 "requiredObjectSlots");
         final Object[] result = new Object[newObjectSize];
         result[0] = new double[newPrimitiveSize];
+        GenericObjectEvents.fireNew(
+                DoubleFixedBooleanGenericObjectAccessor.class, newPrimitiveSize,
+                newObjectSize);
         return result;
     }
 
@@ -336,6 +410,19 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
                 "Reserved size is not available");
     }
 
+    /**
+     * @see IGenericObjectAccessor#getPrimitiveValuesReservedSize(Object)
+     */
+    public static int _getPrimitiveValuesReservedSize(
+            final IGrowthPolicy policy, final Object[] instance)
+            throws UnsupportedOperationException {
+        if (!policy.isOptimalPacking()) {
+            throw new UnsupportedOperationException(
+                    "Reserved size is not available");
+        }
+        return _getPrimitiveValuesSlotsAvailable(instance);
+    }
+
     /**
      * @see IGenericObjectAccessor#getBooleanValuesReservedSize(Object)
      */
@@ -354,6 +441,18 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
                 "Reserved size is not available");
     }
 
+    /**
+     * @see IGenericObjectAccessor#getObjectValuesReservedSize(Object)
+     */
+    public static int _getObjectValuesReservedSize(final IGrowthPolicy policy,
+            final Object[] instance) throws UnsupportedOperationException {
+        if (!policy.isOptimalPacking()) {
+            throw new UnsupportedOperationException(
+                    "Reserved size is not available");
+        }
+        return _getObjectValuesSlotsAvailable(instance);
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /**
@@ -361,13 +460,28 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      */
     public static Object[] _resizePrimitiveValues(final Object[] instance,
             final int reservedSize) {
+        return _resizePrimitiveValues(GrowthPolicies.POWER_OF_TWO, instance,
+                reservedSize);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#resizePrimitiveValues(Object, int)
+     */
+    public static Object[] _resizePrimitiveValues(final IGrowthPolicy policy,
+            final Object[] instance, final int reservedSize) {
         final double[] oldData = getPrimitiveArray(instance);
         final int oldSize = oldData.length;
-        final int newSize = newSize(reservedSize, "reservedSize");
-        if (oldSize < newSize) {
+        final int newSize = newSize(policy, oldSize - START_INDEX,
+                reservedSize, "reservedSize");
+        if ((oldSize < newSize)
+                || ((oldSize > newSize) && policy.isOptimalPacking())) {
             final double[] newData = new double[newSize];
-            System.arraycopy(oldData, 0, newData, 0, oldSize);
+            System.arraycopy(oldData, 0, newData, 0,
+                    Math.min(oldSize, newSize));
             instance[0] = newData;
+            GenericObjectEvents.firePrimitiveResized(
+                    DoubleFixedBooleanGenericObjectAccessor.class, oldSize,
+                    newSize);
         }
         return instance;
     }
@@ -385,12 +499,80 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      */
     public static Object[] _resizeObjectValues(final Object[] instance,
             final int reservedSize) {
+        return _resizeObjectValues(GrowthPolicies.POWER_OF_TWO, instance,
+                reservedSize);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#resizeObjectValues(Object, int)
+     */
+    public static Object[] _resizeObjectValues(final IGrowthPolicy policy,
+            final Object[] instance, final int reservedSize) {
         final Object[] oldData = instance;
         final int oldSize = oldData.length;
-        final int newSize = newSize(reservedSize, "reservedSize");
-        if (oldSize < newSize) {
+        final int newSize = newSize(policy, oldSize - START_INDEX,
+                reservedSize, "reservedSize");
+        if ((oldSize < newSize)
+                || ((oldSize > newSize) && policy.isOptimalPacking())) {
+            final Object[] newData = new Object[newSize];
+            System.arraycopy(oldData, 0, newData, 0,
+                    Math.min(oldSize, newSize));
+            GenericObjectEvents.fireObjectResized(
+                    DoubleFixedBooleanGenericObjectAccessor.class, oldSize,
+                    newSize);
+            return newData;
+        }
+        return instance;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    public static Object[] _trimPrimitiveValues(final Object[] instance) {
+        return _trimPrimitiveValues(GrowthPolicies.POWER_OF_TWO, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    public static Object[] _trimPrimitiveValues(final IGrowthPolicy policy,
+            final Object[] instance) {
+        final double[] oldData = getPrimitiveArray(instance);
+        final int newSize = newSize(policy, 0, keptPrimitiveSlots(oldData),
+                "usedSlots");
+        if (newSize < oldData.length) {
+            final double[] newData = new double[newSize];
+            System.arraycopy(oldData, 0, newData, 0, newSize);
+            instance[0] = newData;
+            GenericObjectEvents.firePrimitiveResized(
+                    DoubleFixedBooleanGenericObjectAccessor.class,
+                    oldData.length, newSize);
+        }
+        return instance;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public static Object[] _trimObjectValues(final Object[] instance) {
+        return _trimObjectValues(GrowthPolicies.POWER_OF_TWO, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public static Object[] _trimObjectValues(final IGrowthPolicy policy,
+            final Object[] instance) {
+        final int newSize = newSize(policy, 0, usedObjectSlots(instance),
+                "usedSlots");
+        if (newSize < instance.length) {
             final Object[] newData = new Object[newSize];
-            System.arraycopy(oldData, 0, newData, 0, oldSize);
+            System.arraycopy(instance, 0, newData, 0, newSize);
+            GenericObjectEvents.fireObjectResized(
+                    DoubleFixedBooleanGenericObjectAccessor.class,
+                    instance.length, newSize);
             return newData;
         }
         return instance;
@@ -398,13 +580,241 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
 
     //////////////////////////////////////////////////////////////////////////
 
+    /**
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    public static int _contentHashCode(final Object[] instance) {
+        final double[] data = getPrimitiveArray(instance);
+        final int primitiveEnd = START_INDEX + usedPrimitiveSlots(data);
+        int result = 1;
+        for (int i = 0; i < primitiveEnd; i++) {
+            result = 31 * result + slotHashCode(data, i);
+        }
+        final int objectEnd = START_INDEX + usedObjectSlots(instance);
+        for (int i = START_INDEX; i < objectEnd; i++) {
+            result = 31 * result + Objects.hashCode(instance[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    public static boolean _contentEquals(final Object[] instance,
+            final Object[] other) {
+        if (instance == other) {
+            return true;
+        }
+        final double[] data = getPrimitiveArray(instance);
+        final double[] otherData = getPrimitiveArray(other);
+        final int primitiveEnd = START_INDEX + usedPrimitiveSlots(data);
+        if (primitiveEnd != START_INDEX + usedPrimitiveSlots(otherData)) {
+            return false;
+        }
+        for (int i = 0; i < primitiveEnd; i++) {
+            if (!sameSlot(data, otherData, i)) {
+                return false;
+            }
+        }
+        final int objectEnd = START_INDEX + usedObjectSlots(instance);
+        if (objectEnd != START_INDEX + usedObjectSlots(other)) {
+            return false;
+        }
+        for (int i = START_INDEX; i < objectEnd; i++) {
+            if (!Objects.equals(instance[i], other[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    public static Object[] _copy(final Object[] instance) {
+        final double[] data = getPrimitiveArray(instance);
+        final double[] newData = new double[data.length];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        final Object[] result = new Object[instance.length];
+        System.arraycopy(instance, 0, result, 0, instance.length);
+        result[0] = newData;
+        GenericObjectEvents.fireNew(
+                DoubleFixedBooleanGenericObjectAccessor.class, newData.length,
+                result.length);
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    public static Object[] _cloneStorage(final Object[] instance,
+            final IObjectCopier copier) {
+        return _cloneStorage(GrowthPolicies.POWER_OF_TWO, instance, copier);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    public static Object[] _cloneStorage(final IGrowthPolicy policy,
+            final Object[] instance, final IObjectCopier copier) {
+        final double[] data = getPrimitiveArray(instance);
+        final int primitiveSize = newSize(policy, 0,
+                keptPrimitiveSlots(data), "usedSlots");
+        final int objectSize = newSize(policy, 0,
+                usedObjectSlots(instance), "usedSlots");
+        final double[] newData = new double[primitiveSize];
+        System.arraycopy(data, 0, newData, 0,
+                Math.min(data.length, primitiveSize));
+        final Object[] result = new Object[objectSize];
+        System.arraycopy(instance, 0, result, 0,
+                Math.min(instance.length, objectSize));
+        result[0] = newData;
+        if (copier != null) {
+            for (int i = START_INDEX; i < objectSize; i++) {
+                if (result[i] != null) {
+                    result[i] = copier.copy(result[i]);
+                }
+            }
+        }
+        GenericObjectEvents.fireNew(
+                DoubleFixedBooleanGenericObjectAccessor.class, primitiveSize,
+                objectSize);
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    public static Object[] _copyPrimitiveValues(final Object[] instance) {
+        final double[] data = getPrimitiveArray(instance);
+        final double[] newData = new double[data.length];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        instance[0] = newData;
+        GenericObjectEvents.firePrimitiveResized(
+                DoubleFixedBooleanGenericObjectAccessor.class, data.length,
+                newData.length);
+        return instance;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    public static Object[] _copyObjectValues(final Object[] instance) {
+        final Object[] result = new Object[instance.length];
+        System.arraycopy(instance, 0, result, 0, instance.length);
+        GenericObjectEvents.fireObjectResized(
+                DoubleFixedBooleanGenericObjectAccessor.class, instance.length,
+                result.length);
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds a changed primitive slot to a diff. In the GWT client, longs use
+     * two slots, so the neighbours of the slot are added too.
+     */
+    private static void addPrimitive(final GenericObjectDiff.Builder builder,
+            final int slot, final int limit) {
+        if (GWT) {
+            builder.addPrimitivePair(slot, limit);
+        } else {
+            builder.addPrimitive(slot);
+        }
+    }
+
+    /**
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    public static GenericObjectDiff _diff(final Object[] base,
+            final Object[] changed) {
+        final GenericObjectDiff.Builder builder =
+                new GenericObjectDiff.Builder();
+        final double[] a = getPrimitiveArray(base);
+        final double[] b = getPrimitiveArray(changed);
+        builder.addBooleans((long) a[0] ^ (long) b[0], START_BOOLEAN_INDEX);
+        final int common = Math.min(a.length, b.length);
+        final double[] longer = (a.length > b.length) ? a : b;
+        final int limit = longer.length - START_INDEX;
+        for (int i = START_INDEX; i < common; i++) {
+            if (!sameSlot(a, b, i)) {
+                addPrimitive(builder, i - START_INDEX, limit);
+            }
+        }
+        for (int i = Math.max(common, START_INDEX); i < longer.length; i++) {
+            // Also keeps -0.0, and NaN
+            if ((longer[i] != 0) || ((1 / longer[i]) < 0)) {
+                addPrimitive(builder, i - START_INDEX, limit);
+            }
+        }
+        builder.addObjects(base, changed, START_INDEX);
+        return builder.build();
+    }
+
+    /**
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    public static Object[] _merge(final Object[] target,
+            final Object[] changed, final GenericObjectDiff diff) {
+        return _merge(GrowthPolicies.POWER_OF_TWO, target, changed, diff);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    public static Object[] _merge(final IGrowthPolicy policy,
+            final Object[] target, final Object[] changed,
+            final GenericObjectDiff diff) {
+        Object[] result = target;
+        final int[] primitiveSlots = diff.primitiveSlots;
+        if (primitiveSlots.length > 0) {
+            final int max = primitiveSlots[primitiveSlots.length - 1];
+            if (max >= _getPrimitiveValuesSlotsAvailable(result)) {
+                result = _resizePrimitiveValues(policy, result, max + 1);
+            }
+        }
+        final int[] objectSlots = diff.objectSlots;
+        if (objectSlots.length > 0) {
+            final int max = objectSlots[objectSlots.length - 1];
+            if (max >= _getObjectValuesSlotsAvailable(result)) {
+                result = _resizeObjectValues(policy, result, max + 1);
+            }
+        }
+        final double[] source = getPrimitiveArray(changed);
+        final double[] dest = getPrimitiveArray(result);
+        if (diff.booleanSlots.length > 0) {
+            long booleans = (long) dest[0];
+            for (final int slot : diff.booleanSlots) {
+                final long mask = 1L << (slot - START_BOOLEAN_INDEX);
+                booleans = (booleans & ~mask) | ((long) source[0] & mask);
+            }
+            dest[0] = booleans;
+        }
+        for (final int slot : primitiveSlots) {
+            final int i = slot + START_INDEX;
+            dest[i] = (i < source.length) ? source[i] : 0;
+        }
+        for (final int slot : objectSlots) {
+            final int i = slot + START_INDEX;
+            result[i] = (i < changed.length) ? changed[i] : null;
+        }
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
     /**
      * @see IGenericObjectAccessor#getBooleanValue(Object, int)
      */
     public static boolean _getBooleanValue(final Object[] instance,
             final int index) {
+        return getBooleanValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a boolean value, directly from the primitive array. */
+    static boolean getBooleanValue(final double[] array, final int index) {
         checkBooleanIndex(index);
-        final long booleans = (long) getPrimitiveArray(instance)[0];
+        final long booleans = (long) array[0];
         return (booleans & (1L << index)) != 0;
     }
 
@@ -430,8 +840,13 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getByteValue(Object, int)
      */
     public static byte _getByteValue(final Object[] instance, final int index) {
+        return getByteValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a byte value, directly from the primitive array. */
+    static byte getByteValue(final double[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (byte) getPrimitiveArray(instance)[index + START_INDEX];
+        return (byte) array[index + START_INDEX];
     }
 
     /**
@@ -450,8 +865,13 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getCharValue(Object, int)
      */
     public static char _getCharValue(final Object[] instance, final int index) {
+        return getCharValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a char value, directly from the primitive array. */
+    static char getCharValue(final double[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (char) getPrimitiveArray(instance)[index + START_INDEX];
+        return (char) array[index + START_INDEX];
     }
 
     /**
@@ -470,8 +890,13 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getShortValue(Object, int)
      */
     public static short _getShortValue(final Object[] instance, final int index) {
+        return getShortValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a short value, directly from the primitive array. */
+    static short getShortValue(final double[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (short) getPrimitiveArray(instance)[index + START_INDEX];
+        return (short) array[index + START_INDEX];
     }
 
     /**
@@ -490,8 +915,13 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getIntValue(Object, int)
      */
     public static int _getIntValue(final Object[] instance, final int index) {
+        return getIntValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads an int value, directly from the primitive array. */
+    static int getIntValue(final double[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (int) getPrimitiveArray(instance)[index + START_INDEX];
+        return (int) array[index + START_INDEX];
     }
 
     /**
@@ -510,8 +940,13 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getFloatValue(Object, int)
      */
     public static float _getFloatValue(final Object[] instance, final int index) {
+        return getFloatValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a float value, directly from the primitive array. */
+    static float getFloatValue(final double[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (float) getPrimitiveArray(instance)[index + START_INDEX];
+        return (float) array[index + START_INDEX];
     }
 
     /**
@@ -530,23 +965,26 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getLongValue(Object, int)
      */
     public static long _getLongValue(final Object[] instance, final int index) {
+        return getLongValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a long value, directly from the primitive array. */
+    static long getLongValue(final double[] array, final int index) {
         checkNonBooleanIndex(index);
         if (GWT) {
-            final double[] array = getPrimitiveArray(instance);
             final int low = (int) array[index + START_INDEX];
             final int high = (int) array[index + START_INDEX + 1];
             return (((long) high) << 32) | (low & 0xFFFFFFFFL);
         }
-        return _getLongValue2(instance, index);
+        return _getLongValue2(array, index);
     }
 
     /**
      * @see IGenericObjectAccessor#getLongValue(Object, int)
      */
     @GwtIncompatible
-    private static long _getLongValue2(final Object[] instance, final int index) {
-        return Double.doubleToRawLongBits(getPrimitiveArray(instance)[index
-                + START_INDEX]);
+    private static long _getLongValue2(final double[] array, final int index) {
+        return Double.doubleToRawLongBits(array[index + START_INDEX]);
     }
 
     /**
@@ -573,8 +1011,13 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      */
     public static double _getDoubleValue(final Object[] instance,
             final int index) {
+        return getDoubleValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a double value, directly from the primitive array. */
+    static double getDoubleValue(final double[] array, final int index) {
         checkNonBooleanIndex(index);
-        return getPrimitiveArray(instance)[index + START_INDEX];
+        return array[index + START_INDEX];
     }
 
     /**
@@ -610,6 +1053,38 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
 
     //////////////////////////////////////////////////////////////////////////
 
+    /** The growth policy of this accessor. */
+    private final IGrowthPolicy growthPolicy;
+
+    /** Creates an accessor using the default POWER_OF_TWO growth policy. */
+    public DoubleFixedBooleanGenericObjectAccessor() {
+        this(GrowthPolicies.POWER_OF_TWO);
+    }
+
+    /**
+     * Creates an accessor using the given growth policy.
+     *
+     * @param growthPolicy The growth policy
+     *
+     * @throws NullPointerException if growthPolicy is null
+     */
+    public DoubleFixedBooleanGenericObjectAccessor(
+            final IGrowthPolicy growthPolicy) {
+        this.growthPolicy = Objects.requireNonNull(growthPolicy,
+                "growthPolicy");
+    }
+
+    /**
+     * Returns the growth policy of this accessor.
+     *
+     * @return the growth policy of this accessor.
+     */
+    public final IGrowthPolicy getGrowthPolicy() {
+        return growthPolicy;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
     /**
      * @see IGenericObjectAccessor#isBooleanValuesIDSpaceIndependentFromPrimitive()
      */
@@ -681,7 +1156,7 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      */
     @Override
     public final boolean isOptimalPackingUsedForPrimitiveValues() {
-        return _isOptimalPackingUsedForPrimitiveValues();
+        return growthPolicy.isOptimalPacking();
     }
 
     /**
@@ -698,7 +1173,7 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      */
     @Override
     public final boolean isOptimalPackingUsedForObjectValues() {
-        return _isOptimalPackingUsedForObjectValues();
+        return growthPolicy.isOptimalPacking();
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -762,7 +1237,7 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
      */
     @Override
     public final Object[] newEmptyGenericObject() {
-        return _newEmptyGenericObject();
+        return _newEmptyGenericObject(growthPolicy);
     }
 
     /**
@@ -782,7 +1257,8 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
     @Override
     public final Object[] newGenericObject(final int requiredPrimitiveSlots,
             final int requiredObjectSlots) {
-        return _newGenericObject(requiredPrimitiveSlots, requiredObjectSlots);
+        return _newGenericObject(growthPolicy, requiredPrimitiveSlots,
+                requiredObjectSlots);
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -847,7 +1323,7 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
     @Override
     public final int getPrimitiveValuesReservedSize(final Object[] instance)
             throws UnsupportedOperationException {
-        return _getPrimitiveValuesReservedSize(instance);
+        return _getPrimitiveValuesReservedSize(growthPolicy, instance);
     }
 
     /**
@@ -865,7 +1341,7 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
     @Override
     public final int getObjectValuesReservedSize(final Object[] instance)
             throws UnsupportedOperationException {
-        return _getObjectValuesReservedSize(instance);
+        return _getObjectValuesReservedSize(growthPolicy, instance);
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -876,7 +1352,7 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
     @Override
     public final Object[] resizePrimitiveValues(final Object[] instance,
             final int reservedSize) {
-        return _resizePrimitiveValues(instance, reservedSize);
+        return _resizePrimitiveValues(growthPolicy, instance, reservedSize);
     }
 
     /**
@@ -894,7 +1370,97 @@ public class DoubleFixedBooleanGenericObjectAccessor implements
     @Override
     public final Object[] resizeObjectValues(final Object[] instance,
             final int reservedSize) {
-        return _resizeObjectValues(instance, reservedSize);
+        return _resizeObjectValues(growthPolicy, instance, reservedSize);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    @Override
+    public final Object[] trimPrimitiveValues(final Object[] instance) {
+        return _trimPrimitiveValues(growthPolicy, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    @Override
+    public final Object[] trimObjectValues(final Object[] instance) {
+        return _trimObjectValues(growthPolicy, instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    @Override
+    public final int contentHashCode(final Object[] instance) {
+        return _contentHashCode(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    @Override
+    public final boolean contentEquals(final Object[] instance,
+            final Object[] other) {
+        return _contentEquals(instance, other);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    @Override
+    public final Object[] copy(final Object[] instance) {
+        return _copy(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    @Override
+    public final Object[] cloneStorage(final Object[] instance,
+            final IObjectCopier copier) {
+        return _cloneStorage(growthPolicy, instance, copier);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    @Override
+    public final Object[] copyPrimitiveValues(final Object[] instance) {
+        return _copyPrimitiveValues(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    @Override
+    public final Object[] copyObjectValues(final Object[] instance) {
+        return _copyObjectValues(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    @Override
+    public final GenericObjectDiff diff(final Object[] base,
+            final Object[] changed) {
+        return _diff(base, changed);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    @Override
+    public final Object[] merge(final Object[] target,
+            final Object[] changed, final GenericObjectDiff diff) {
+        return _merge(growthPolicy, target, changed, diff);
     }
 
     //////////////////////////////////////////////////////////////////////////
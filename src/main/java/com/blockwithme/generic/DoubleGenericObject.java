@@ -0,0 +1,440 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * A generic object bound to a DoubleFixedBooleanGenericObjectAccessor.
+ *
+ * Unlike GenericObject, DoubleGenericObject has no accessor field; every
+ * method calls the static methods of DoubleFixedBooleanGenericObjectAccessor
+ * directly. Since the class is final, and the static calls cannot be
+ * polymorphic, the call sites stay monomorphic (and inlinable) even when
+ * several implementations are used in the same application.
+ *
+ * The static methods use the default growth policy.
+ *
+ * @see GenericObject
+ *
+ * @author monster
+ */
+public final class DoubleGenericObject implements IGenericObject<Object[]> {
+    /** The shared accessor, returned by getGenericObjectAccessor(). */
+    private static final DoubleFixedBooleanGenericObjectAccessor ACCESSOR = new DoubleFixedBooleanGenericObjectAccessor();
+
+    /** The generic object storage instance. */
+    private Object[] instance;
+
+    /** Creates a new empty generic object. */
+    public DoubleGenericObject() {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._newEmptyGenericObject();
+    }
+
+    /**
+     * Creates a new generic object, with the given storage.
+     *
+     * @throws NullPointerException if instance is null
+     */
+    public DoubleGenericObject(final Object[] instance) {
+        this.instance = Objects.requireNonNull(instance, "instance");
+    }
+
+    /**
+     * Creates a new generic object with *at least* the required number of slots,
+     * depending on the use of "optimal packing".
+     *
+     * @param requiredPrimitiveSlots The minimum desired number of primitive slots.
+     * @param requiredObjectSlots The minimum desired number of Object slots.
+     */
+    public DoubleGenericObject(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._newGenericObject(requiredPrimitiveSlots, requiredObjectSlots);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectAccessor()
+     */
+    @Override
+    public IGenericObjectAccessor<Object[]> getGenericObjectAccessor() {
+        return ACCESSOR;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectStorage()
+     */
+    @Override
+    public Object[] getGenericObjectStorage() {
+        return instance;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setGenericObjectStorage(STORAGE)
+     */
+    @Override
+    public DoubleGenericObject setGenericObjectStorage(
+            final Object[] instance) {
+        this.instance = Objects.requireNonNull(instance, "instance");
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesMaximumIndex()
+     */
+    @Override
+    public int getPrimitiveValuesMaximumIndex() {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesMaximumIndex()
+     */
+    @Override
+    public int getBooleanValuesMaximumIndex()
+            throws UnsupportedOperationException {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesMaximumIndex()
+     */
+    @Override
+    public int getObjectValuesMaximumIndex() {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesSlotsAvailable()
+     */
+    @Override
+    public int getPrimitiveValuesSlotsAvailable() {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesSlotsAvailable()
+     */
+    @Override
+    public int getBooleanValuesSlotsAvailable()
+            throws UnsupportedOperationException {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesSlotsAvailable()
+     */
+    @Override
+    public int getObjectValuesSlotsAvailable() {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesReservedSize()
+     */
+    @Override
+    public int getPrimitiveValuesReservedSize()
+            throws UnsupportedOperationException {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesReservedSize()
+     */
+    @Override
+    public int getBooleanValuesReservedSize()
+            throws UnsupportedOperationException {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesReservedSize()
+     */
+    @Override
+    public int getObjectValuesReservedSize()
+            throws UnsupportedOperationException {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizePrimitiveValues(int)
+     */
+    @Override
+    public DoubleGenericObject resizePrimitiveValues(
+            final int reservedSize) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._resizePrimitiveValues(instance, reservedSize);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeBooleanValues(int)
+     */
+    @Override
+    public DoubleGenericObject resizeBooleanValues(
+            final int reservedSize) throws UnsupportedOperationException {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._resizeBooleanValues(instance, reservedSize);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeObjectValues(int)
+     */
+    @Override
+    public DoubleGenericObject resizeObjectValues(
+            final int reservedSize) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._resizeObjectValues(instance, reservedSize);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimPrimitiveValues()
+     */
+    @Override
+    public DoubleGenericObject trimPrimitiveValues() {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._trimPrimitiveValues(instance);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimObjectValues()
+     */
+    @Override
+    public DoubleGenericObject trimObjectValues() {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._trimObjectValues(instance);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValue(int)
+     */
+    @Override
+    public boolean getBooleanValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getBooleanValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setBooleanValue(int, boolean)
+     */
+    @Override
+    public DoubleGenericObject setBooleanValue(final int index,
+            final boolean value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setBooleanValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getByteValue(int)
+     */
+    @Override
+    public byte getByteValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getByteValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setByteValue(int, byte)
+     */
+    @Override
+    public DoubleGenericObject setByteValue(final int index,
+            final byte value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setByteValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getCharValue(int)
+     */
+    @Override
+    public char getCharValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getCharValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setCharValue(int, char)
+     */
+    @Override
+    public DoubleGenericObject setCharValue(final int index,
+            final char value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setCharValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getShortValue(int)
+     */
+    @Override
+    public short getShortValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getShortValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setShortValue(int, short)
+     */
+    @Override
+    public DoubleGenericObject setShortValue(final int index,
+            final short value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setShortValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getIntValue(int)
+     */
+    @Override
+    public int getIntValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getIntValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setIntValue(int, int)
+     */
+    @Override
+    public DoubleGenericObject setIntValue(final int index,
+            final int value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setIntValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getFloatValue(int)
+     */
+    @Override
+    public float getFloatValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getFloatValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setFloatValue(int, float)
+     */
+    @Override
+    public DoubleGenericObject setFloatValue(final int index,
+            final float value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setFloatValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getLongValue(int)
+     */
+    @Override
+    public long getLongValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getLongValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setLongValue(int, long)
+     */
+    @Override
+    public DoubleGenericObject setLongValue(final int index,
+            final long value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setLongValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getDoubleValue(int)
+     */
+    @Override
+    public double getDoubleValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getDoubleValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setDoubleValue(int, double)
+     */
+    @Override
+    public DoubleGenericObject setDoubleValue(final int index,
+            final double value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setDoubleValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValue(int)
+     */
+    @Override
+    public Object getObjectValue(final int index) {
+        return DoubleFixedBooleanGenericObjectAccessor
+                ._getObjectValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setObjectValue(int, Object)
+     */
+    @Override
+    public DoubleGenericObject setObjectValue(final int index,
+            final Object value) {
+        instance = DoubleFixedBooleanGenericObjectAccessor
+                ._setObjectValue(instance, index, value);
+        return this;
+    }
+}
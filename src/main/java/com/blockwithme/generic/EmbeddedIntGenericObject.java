@@ -0,0 +1,442 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * A variant of IntGenericObject, that caches the primitive array of its
+ * storage instance in a field, so that primitive reads need one dependent
+ * load less: this.primitives[i], instead of ((int[]) this.instance[0])[i].
+ * The layout is the one of IntGenericObjectAccessor, so the storage instance
+ * can still be used with the accessor.
+ *
+ * This object owns its storage instance. getGenericObjectStorage() can be
+ * used to read it with the accessor, but resizing or trimming it through
+ * the accessor replaces the primitive array behind the cache; the instance
+ * must then be passed back with setGenericObjectStorage(), which refreshes
+ * the cache. Reads do not check the cache, since that would cost the
+ * dependent loads this class saves.
+ *
+ * Only reads benefit: setters still go through the storage instance, as in
+ * IntGenericObject.
+ *
+ * @see IntGenericObject
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class EmbeddedIntGenericObject implements
+        IGenericObject<Object[]> {
+    /** The shared accessor, returned by getGenericObjectAccessor(). */
+    private static final IntGenericObjectAccessor ACCESSOR = new IntGenericObjectAccessor();
+
+    /** The generic object storage instance. */
+    private Object[] instance;
+
+    /** The primitive array of the storage instance, instance[0]. */
+    private int[] primitives;
+
+    /** Creates a new empty generic object. */
+    public EmbeddedIntGenericObject() {
+        setInstance(IntGenericObjectAccessor._newEmptyGenericObject());
+    }
+
+    /**
+     * Creates a new generic object, with the given storage.
+     *
+     * @throws NullPointerException if instance is null
+     */
+    public EmbeddedIntGenericObject(final Object[] instance) {
+        setInstance(Objects.requireNonNull(instance, "instance"));
+    }
+
+    /**
+     * Creates a new generic object with *at least* the required number of slots,
+     * depending on the use of "optimal packing".
+     *
+     * @param requiredPrimitiveSlots The minimum desired number of primitive slots.
+     * @param requiredObjectSlots The minimum desired number of Object slots.
+     */
+    public EmbeddedIntGenericObject(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        setInstance(IntGenericObjectAccessor
+                ._newGenericObject(requiredPrimitiveSlots,
+                        requiredObjectSlots));
+    }
+
+    /** Sets the storage instance, and caches its primitive array. */
+    private void setInstance(final Object[] newInstance) {
+        instance = newInstance;
+        primitives = IntGenericObjectAccessor.getPrimitiveArray(newInstance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectAccessor()
+     */
+    @Override
+    public IGenericObjectAccessor<Object[]> getGenericObjectAccessor() {
+        return ACCESSOR;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectStorage()
+     */
+    @Override
+    public Object[] getGenericObjectStorage() {
+        return instance;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setGenericObjectStorage(STORAGE)
+     */
+    @Override
+    public EmbeddedIntGenericObject setGenericObjectStorage(
+            final Object[] instance) {
+        setInstance(Objects.requireNonNull(instance, "instance"));
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesMaximumIndex()
+     */
+    @Override
+    public int getPrimitiveValuesMaximumIndex() {
+        return IntGenericObjectAccessor
+                ._getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesMaximumIndex()
+     */
+    @Override
+    public int getBooleanValuesMaximumIndex()
+            throws UnsupportedOperationException {
+        return IntGenericObjectAccessor._getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesMaximumIndex()
+     */
+    @Override
+    public int getObjectValuesMaximumIndex() {
+        return IntGenericObjectAccessor._getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesSlotsAvailable()
+     */
+    @Override
+    public int getPrimitiveValuesSlotsAvailable() {
+        return IntGenericObjectAccessor
+                ._getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesSlotsAvailable()
+     */
+    @Override
+    public int getBooleanValuesSlotsAvailable()
+            throws UnsupportedOperationException {
+        return IntGenericObjectAccessor
+                ._getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesSlotsAvailable()
+     */
+    @Override
+    public int getObjectValuesSlotsAvailable() {
+        return IntGenericObjectAccessor
+                ._getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesReservedSize()
+     */
+    @Override
+    public int getPrimitiveValuesReservedSize()
+            throws UnsupportedOperationException {
+        return IntGenericObjectAccessor
+                ._getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesReservedSize()
+     */
+    @Override
+    public int getBooleanValuesReservedSize()
+            throws UnsupportedOperationException {
+        return IntGenericObjectAccessor._getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesReservedSize()
+     */
+    @Override
+    public int getObjectValuesReservedSize()
+            throws UnsupportedOperationException {
+        return IntGenericObjectAccessor._getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizePrimitiveValues(int)
+     */
+    @Override
+    public EmbeddedIntGenericObject resizePrimitiveValues(
+            final int reservedSize) {
+        setInstance(IntGenericObjectAccessor
+                ._resizePrimitiveValues(instance, reservedSize));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeBooleanValues(int)
+     */
+    @Override
+    public EmbeddedIntGenericObject resizeBooleanValues(
+            final int reservedSize) throws UnsupportedOperationException {
+        setInstance(IntGenericObjectAccessor
+                ._resizeBooleanValues(instance, reservedSize));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeObjectValues(int)
+     */
+    @Override
+    public EmbeddedIntGenericObject resizeObjectValues(
+            final int reservedSize) {
+        setInstance(IntGenericObjectAccessor
+                ._resizeObjectValues(instance, reservedSize));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimPrimitiveValues()
+     */
+    @Override
+    public EmbeddedIntGenericObject trimPrimitiveValues() {
+        setInstance(IntGenericObjectAccessor._trimPrimitiveValues(instance));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimObjectValues()
+     */
+    @Override
+    public EmbeddedIntGenericObject trimObjectValues() {
+        setInstance(IntGenericObjectAccessor._trimObjectValues(instance));
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValue(int)
+     */
+    @Override
+    public boolean getBooleanValue(final int index) {
+        return IntGenericObjectAccessor.getBooleanValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setBooleanValue(int, boolean)
+     */
+    @Override
+    public EmbeddedIntGenericObject setBooleanValue(final int index,
+            final boolean value) {
+        instance = IntGenericObjectAccessor
+                ._setBooleanValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getByteValue(int)
+     */
+    @Override
+    public byte getByteValue(final int index) {
+        return IntGenericObjectAccessor.getByteValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setByteValue(int, byte)
+     */
+    @Override
+    public EmbeddedIntGenericObject setByteValue(final int index,
+            final byte value) {
+        instance = IntGenericObjectAccessor
+                ._setByteValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getCharValue(int)
+     */
+    @Override
+    public char getCharValue(final int index) {
+        return IntGenericObjectAccessor.getCharValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setCharValue(int, char)
+     */
+    @Override
+    public EmbeddedIntGenericObject setCharValue(final int index,
+            final char value) {
+        instance = IntGenericObjectAccessor
+                ._setCharValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getShortValue(int)
+     */
+    @Override
+    public short getShortValue(final int index) {
+        return IntGenericObjectAccessor.getShortValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setShortValue(int, short)
+     */
+    @Override
+    public EmbeddedIntGenericObject setShortValue(final int index,
+            final short value) {
+        instance = IntGenericObjectAccessor
+                ._setShortValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getIntValue(int)
+     */
+    @Override
+    public int getIntValue(final int index) {
+        return IntGenericObjectAccessor.getIntValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setIntValue(int, int)
+     */
+    @Override
+    public EmbeddedIntGenericObject setIntValue(final int index,
+            final int value) {
+        instance = IntGenericObjectAccessor
+                ._setIntValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getFloatValue(int)
+     */
+    @Override
+    public float getFloatValue(final int index) {
+        return IntGenericObjectAccessor.getFloatValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setFloatValue(int, float)
+     */
+    @Override
+    public EmbeddedIntGenericObject setFloatValue(final int index,
+            final float value) {
+        instance = IntGenericObjectAccessor
+                ._setFloatValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getLongValue(int)
+     */
+    @Override
+    public long getLongValue(final int index) {
+        return IntGenericObjectAccessor.getLongValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setLongValue(int, long)
+     */
+    @Override
+    public EmbeddedIntGenericObject setLongValue(final int index,
+            final long value) {
+        instance = IntGenericObjectAccessor
+                ._setLongValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getDoubleValue(int)
+     */
+    @Override
+    public double getDoubleValue(final int index) {
+        return IntGenericObjectAccessor.getDoubleValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setDoubleValue(int, double)
+     */
+    @Override
+    public EmbeddedIntGenericObject setDoubleValue(final int index,
+            final double value) {
+        instance = IntGenericObjectAccessor
+                ._setDoubleValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValue(int)
+     */
+    @Override
+    public Object getObjectValue(final int index) {
+        return IntGenericObjectAccessor._getObjectValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setObjectValue(int, Object)
+     */
+    @Override
+    public EmbeddedIntGenericObject setObjectValue(final int index,
+            final Object value) {
+        instance = IntGenericObjectAccessor
+                ._setObjectValue(instance, index, value);
+        return this;
+    }
+}
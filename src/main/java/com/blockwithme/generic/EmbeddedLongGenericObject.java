@@ -0,0 +1,454 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * A variant of LongGenericObject, that caches the primitive array of its
+ * storage instance in a field, so that primitive reads need one dependent
+ * load less: this.primitives[i], instead of ((long[]) this.instance[0])[i].
+ * The layout is the one of LongFixedBooleanGenericObjectAccessor, so the
+ * storage instance can still be used with the accessor.
+ *
+ * As for EmbeddedIntGenericObject, this object owns its storage instance:
+ * after resizing or trimming it through the accessor, pass it back with
+ * setGenericObjectStorage(), as reads use the cached array unchecked. Only
+ * reads benefit; setters still go through the storage instance.
+ *
+ * @see LongGenericObject
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class EmbeddedLongGenericObject implements
+        IGenericObject<Object[]> {
+    /** The shared accessor, returned by getGenericObjectAccessor(). */
+    private static final LongFixedBooleanGenericObjectAccessor ACCESSOR = new LongFixedBooleanGenericObjectAccessor();
+
+    /** The generic object storage instance. */
+    private Object[] instance;
+
+    /** The primitive array of the storage instance, instance[0]. */
+    private long[] primitives;
+
+    /** Creates a new empty generic object. */
+    public EmbeddedLongGenericObject() {
+        setInstance(LongFixedBooleanGenericObjectAccessor
+                ._newEmptyGenericObject());
+    }
+
+    /**
+     * Creates a new generic object, with the given storage.
+     *
+     * @throws NullPointerException if instance is null
+     */
+    public EmbeddedLongGenericObject(final Object[] instance) {
+        setInstance(Objects.requireNonNull(instance, "instance"));
+    }
+
+    /**
+     * Creates a new generic object with *at least* the required number of slots,
+     * depending on the use of "optimal packing".
+     *
+     * @param requiredPrimitiveSlots The minimum desired number of primitive slots.
+     * @param requiredObjectSlots The minimum desired number of Object slots.
+     */
+    public EmbeddedLongGenericObject(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        setInstance(LongFixedBooleanGenericObjectAccessor
+                ._newGenericObject(requiredPrimitiveSlots,
+                        requiredObjectSlots));
+    }
+
+    /** Sets the storage instance, and caches its primitive array. */
+    private void setInstance(final Object[] newInstance) {
+        instance = newInstance;
+        primitives = LongFixedBooleanGenericObjectAccessor
+                .getPrimitiveArray(newInstance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectAccessor()
+     */
+    @Override
+    public IGenericObjectAccessor<Object[]> getGenericObjectAccessor() {
+        return ACCESSOR;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectStorage()
+     */
+    @Override
+    public Object[] getGenericObjectStorage() {
+        return instance;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setGenericObjectStorage(STORAGE)
+     */
+    @Override
+    public EmbeddedLongGenericObject setGenericObjectStorage(
+            final Object[] instance) {
+        setInstance(Objects.requireNonNull(instance, "instance"));
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesMaximumIndex()
+     */
+    @Override
+    public int getPrimitiveValuesMaximumIndex() {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesMaximumIndex()
+     */
+    @Override
+    public int getBooleanValuesMaximumIndex()
+            throws UnsupportedOperationException {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesMaximumIndex()
+     */
+    @Override
+    public int getObjectValuesMaximumIndex() {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesSlotsAvailable()
+     */
+    @Override
+    public int getPrimitiveValuesSlotsAvailable() {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesSlotsAvailable()
+     */
+    @Override
+    public int getBooleanValuesSlotsAvailable()
+            throws UnsupportedOperationException {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesSlotsAvailable()
+     */
+    @Override
+    public int getObjectValuesSlotsAvailable() {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesReservedSize()
+     */
+    @Override
+    public int getPrimitiveValuesReservedSize()
+            throws UnsupportedOperationException {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesReservedSize()
+     */
+    @Override
+    public int getBooleanValuesReservedSize()
+            throws UnsupportedOperationException {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesReservedSize()
+     */
+    @Override
+    public int getObjectValuesReservedSize()
+            throws UnsupportedOperationException {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizePrimitiveValues(int)
+     */
+    @Override
+    public EmbeddedLongGenericObject resizePrimitiveValues(
+            final int reservedSize) {
+        setInstance(LongFixedBooleanGenericObjectAccessor
+                ._resizePrimitiveValues(instance, reservedSize));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeBooleanValues(int)
+     */
+    @Override
+    public EmbeddedLongGenericObject resizeBooleanValues(
+            final int reservedSize) throws UnsupportedOperationException {
+        setInstance(LongFixedBooleanGenericObjectAccessor
+                ._resizeBooleanValues(instance, reservedSize));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeObjectValues(int)
+     */
+    @Override
+    public EmbeddedLongGenericObject resizeObjectValues(
+            final int reservedSize) {
+        setInstance(LongFixedBooleanGenericObjectAccessor
+                ._resizeObjectValues(instance, reservedSize));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimPrimitiveValues()
+     */
+    @Override
+    public EmbeddedLongGenericObject trimPrimitiveValues() {
+        setInstance(LongFixedBooleanGenericObjectAccessor
+                ._trimPrimitiveValues(instance));
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimObjectValues()
+     */
+    @Override
+    public EmbeddedLongGenericObject trimObjectValues() {
+        setInstance(LongFixedBooleanGenericObjectAccessor
+                ._trimObjectValues(instance));
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValue(int)
+     */
+    @Override
+    public boolean getBooleanValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getBooleanValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setBooleanValue(int, boolean)
+     */
+    @Override
+    public EmbeddedLongGenericObject setBooleanValue(final int index,
+            final boolean value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setBooleanValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getByteValue(int)
+     */
+    @Override
+    public byte getByteValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getByteValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setByteValue(int, byte)
+     */
+    @Override
+    public EmbeddedLongGenericObject setByteValue(final int index,
+            final byte value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setByteValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getCharValue(int)
+     */
+    @Override
+    public char getCharValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getCharValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setCharValue(int, char)
+     */
+    @Override
+    public EmbeddedLongGenericObject setCharValue(final int index,
+            final char value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setCharValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getShortValue(int)
+     */
+    @Override
+    public short getShortValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getShortValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setShortValue(int, short)
+     */
+    @Override
+    public EmbeddedLongGenericObject setShortValue(final int index,
+            final short value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setShortValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getIntValue(int)
+     */
+    @Override
+    public int getIntValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getIntValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setIntValue(int, int)
+     */
+    @Override
+    public EmbeddedLongGenericObject setIntValue(final int index,
+            final int value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setIntValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getFloatValue(int)
+     */
+    @Override
+    public float getFloatValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getFloatValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setFloatValue(int, float)
+     */
+    @Override
+    public EmbeddedLongGenericObject setFloatValue(final int index,
+            final float value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setFloatValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getLongValue(int)
+     */
+    @Override
+    public long getLongValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getLongValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setLongValue(int, long)
+     */
+    @Override
+    public EmbeddedLongGenericObject setLongValue(final int index,
+            final long value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setLongValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getDoubleValue(int)
+     */
+    @Override
+    public double getDoubleValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                .getDoubleValue(primitives, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setDoubleValue(int, double)
+     */
+    @Override
+    public EmbeddedLongGenericObject setDoubleValue(final int index,
+            final double value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setDoubleValue(instance, index, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValue(int)
+     */
+    @Override
+    public Object getObjectValue(final int index) {
+        return LongFixedBooleanGenericObjectAccessor
+                ._getObjectValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setObjectValue(int, Object)
+     */
+    @Override
+    public EmbeddedLongGenericObject setObjectValue(final int index,
+            final Object value) {
+        instance = LongFixedBooleanGenericObjectAccessor
+                ._setObjectValue(instance, index, value);
+        return this;
+    }
+}
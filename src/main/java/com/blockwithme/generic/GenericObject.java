@@ -22,8 +22,21 @@ import java.util.Objects;
  * a storage instance together, for easier use.
  *
  * Note that currently, GenericObject neither override equals, hashcode,
- * nor toString, since the underlying generic object implementations do
- * not currently provide that functionality.
+ * nor toString. The content of two storage instances can be compared with
+ * IGenericObjectAccessor.contentEquals() and contentHashCode().
+ *
+ * A GenericObject can share a canonical storage instance from a
+ * GenericObjectInterner, by calling intern(). The shared instance is then
+ * copied ("copy-on-write") the first time the GenericObject is modified.
+ * Since canonical instances are trimmed, the copy is then grown back to
+ * the number of slots that were available before intern().
+ *
+ * snapshot() returns an immutable point-in-time view, that shares the
+ * storage of the GenericObject. The next write only copies the storage
+ * part that it touches. Object writes only copy the Object values. Since
+ * the Object[] based implementations hold the primitive array in the
+ * Object values, the first primitive write copies both, unless the Object
+ * values were already copied.
  *
  * @see IGenericObjectAccessor for more information.
  *
@@ -38,6 +51,18 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     /** The generic object storage instance. */
     private STORAGE instance;
 
+    /** True, if the primitive values must be copied before any write. */
+    private boolean primitiveShared;
+
+    /** True, if the Object values must be copied before any write. */
+    private boolean objectShared;
+
+    /** The primitive slots available before intern(), restored on write. */
+    private int internedPrimitiveSlots;
+
+    /** The Object slots available before intern(), restored on write. */
+    private int internedObjectSlots;
+
     /**
      * Creates a new empty generic object.
      *
@@ -128,9 +153,124 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     public final GenericObject<STORAGE> setGenericObjectStorage(
             final STORAGE instance) {
         this.instance = Objects.requireNonNull(instance, "instance");
+        primitiveShared = false;
+        objectShared = false;
+        internedPrimitiveSlots = 0;
+        internedObjectSlots = 0;
         return this;
     }
 
+    /**
+     * Replaces the storage instance by the canonical instance with the same
+     * content from the interner. The canonical instance is shared, and so
+     * will be copied before the next modification of this GenericObject.
+     * The canonical instance is trimmed, so until then, the slots available
+     * are those of the canonical instance. The copy is grown back to the
+     * slots available before this call.
+     *
+     * @param interner The interner holding the canonical instances.
+     * @return this
+     *
+     * @throws NullPointerException if interner is null
+     * @throws IllegalArgumentException if interner uses another accessor,
+     *         or if the storage instance is indexed
+     */
+    public final GenericObject<STORAGE> intern(
+            final GenericObjectInterner<STORAGE> interner) {
+        if (interner.getAccessor() != accessor) {
+            throw new IllegalArgumentException("Different accessor");
+        }
+        final STORAGE canonical = interner.intern(instance);
+        internedPrimitiveSlots = Math.max(internedPrimitiveSlots,
+                accessor.getPrimitiveValuesSlotsAvailable(instance));
+        internedObjectSlots = Math.max(internedObjectSlots,
+                accessor.getObjectValuesSlotsAvailable(instance));
+        instance = canonical;
+        primitiveShared = true;
+        objectShared = true;
+        return this;
+    }
+
+    /**
+     * Returns an immutable view of the current content of this
+     * GenericObject. The storage is shared until the next modification of
+     * this GenericObject, so creating a snapshot does not copy anything.
+     * The snapshot can be passed to other threads, which will see a
+     * consistent view, while this GenericObject is being modified.
+     *
+     * @return an immutable view of the current content.
+     */
+    public final GenericObjectSnapshot<STORAGE> snapshot() {
+        return new GenericObjectSnapshot<>(accessor, share());
+    }
+
+    /**
+     * Marks the storage instance as shared, so that it is copied before the
+     * next modification, and returns it. The returned instance is then
+     * never modified by this GenericObject anymore.
+     */
+    final STORAGE share() {
+        primitiveShared = true;
+        objectShared = true;
+        return instance;
+    }
+
+    /**
+     * Returns true, if the storage instance is currently shared, in part
+     * or completely, and so would be copied before the next modification.
+     *
+     * @return true, if the storage instance is currently shared.
+     */
+    public final boolean isShared() {
+        return primitiveShared || objectShared;
+    }
+
+    /** Copies the primitive values, if they are shared. */
+    private void beforePrimitiveWrite() {
+        if (primitiveShared) {
+            if (objectShared) {
+                // Not copy(): the copy must replace the instance in indexes
+                instance = accessor.copyPrimitiveValues(accessor
+                        .copyObjectValues(instance));
+                restoreObjectSlots();
+            } else {
+                instance = accessor.copyPrimitiveValues(instance);
+            }
+            primitiveShared = false;
+            objectShared = false;
+            restorePrimitiveSlots();
+        }
+    }
+
+    /** Copies the Object values, if they are shared. */
+    private void beforeObjectWrite() {
+        if (objectShared) {
+            instance = accessor.copyObjectValues(instance);
+            objectShared = false;
+            restoreObjectSlots();
+        }
+    }
+
+    /** Grows the copied primitive values back to their size before intern(). */
+    private void restorePrimitiveSlots() {
+        if (internedPrimitiveSlots > accessor
+                .getPrimitiveValuesSlotsAvailable(instance)) {
+            instance = accessor.resizePrimitiveValues(instance,
+                    internedPrimitiveSlots);
+        }
+        internedPrimitiveSlots = 0;
+    }
+
+    /** Grows the copied Object values back to their size before intern(). */
+    private void restoreObjectSlots() {
+        if (internedObjectSlots > accessor
+                .getObjectValuesSlotsAvailable(instance)) {
+            instance = accessor.resizeObjectValues(instance,
+                    internedObjectSlots);
+        }
+        internedObjectSlots = 0;
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /* (non-Javadoc)
@@ -222,6 +362,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> resizePrimitiveValues(
             final int reservedSize) {
+        beforePrimitiveWrite();
         instance = accessor.resizePrimitiveValues(instance, reservedSize);
         return this;
     }
@@ -232,6 +373,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> resizeBooleanValues(
             final int reservedSize) throws UnsupportedOperationException {
+        beforePrimitiveWrite();
         instance = accessor.resizeBooleanValues(instance, reservedSize);
         return this;
     }
@@ -242,10 +384,90 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> resizeObjectValues(
             final int reservedSize) {
+        beforeObjectWrite();
         instance = accessor.resizeObjectValues(instance, reservedSize);
         return this;
     }
 
+    /* (non-Javadoc)
+     * @see IGenericObject#trimPrimitiveValues()
+     */
+    @Override
+    public final GenericObject<STORAGE> trimPrimitiveValues() {
+        beforePrimitiveWrite();
+        instance = accessor.trimPrimitiveValues(instance);
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimObjectValues()
+     */
+    @Override
+    public final GenericObject<STORAGE> trimObjectValues() {
+        beforeObjectWrite();
+        instance = accessor.trimObjectValues(instance);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns a shallow copy of this GenericObject. The storage is copied
+     * up to the highest slots used, but the Object values are shared.
+     *
+     * @return a shallow copy of this GenericObject.
+     *
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    public final GenericObject<STORAGE> copy() {
+        return new GenericObject<>(accessor, accessor.cloneStorage(instance,
+                null));
+    }
+
+    /**
+     * Returns a copy of this GenericObject, using the copier on each
+     * non-null Object value. Use a new GenericObjectCopier for a deep copy.
+     *
+     * @param copier The Object values copier.
+     * @return a copy of this GenericObject.
+     *
+     * @throws NullPointerException if copier is null
+     *
+     * @see GenericObjectCopier
+     */
+    public final GenericObject<STORAGE> copy(final IObjectCopier copier) {
+        if (copier instanceof GenericObjectCopier) {
+            // Registers this instance too, in case of cycles
+            return ((GenericObjectCopier) copier).copyGenericObject(this);
+        }
+        return new GenericObject<>(accessor, accessor.cloneStorage(instance,
+                Objects.requireNonNull(copier, "copier")));
+    }
+
+    /**
+     * Applies the writes recorded in a batch writer, growing the storage at
+     * most once.
+     *
+     * @param batch The batch writer.
+     * @return this
+     *
+     * @throws NullPointerException if batch is null
+     * @throws IllegalArgumentException if batch uses another accessor
+     *
+     * @see GenericObjectBatchWriter#applyTo(Object)
+     */
+    @GwtIncompatible
+    public final GenericObject<STORAGE> write(
+            final GenericObjectBatchWriter<STORAGE> batch) {
+        if (batch.getAccessor() != accessor) {
+            throw new IllegalArgumentException("Different accessor");
+        }
+        beforePrimitiveWrite();
+        beforeObjectWrite();
+        instance = batch.applyTo(instance);
+        return this;
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /* (non-Javadoc)
@@ -262,6 +484,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setBooleanValue(final int index,
             final boolean value) {
+        beforePrimitiveWrite();
         instance = accessor.setBooleanValue(instance, index, value);
         return this;
     }
@@ -282,6 +505,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setByteValue(final int index,
             final byte value) {
+        beforePrimitiveWrite();
         instance = accessor.setByteValue(instance, index, value);
         return this;
     }
@@ -302,6 +526,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setCharValue(final int index,
             final char value) {
+        beforePrimitiveWrite();
         instance = accessor.setCharValue(instance, index, value);
         return this;
     }
@@ -322,6 +547,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setShortValue(final int index,
             final short value) {
+        beforePrimitiveWrite();
         instance = accessor.setShortValue(instance, index, value);
         return this;
     }
@@ -342,6 +568,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setIntValue(final int index,
             final int value) {
+        beforePrimitiveWrite();
         instance = accessor.setIntValue(instance, index, value);
         return this;
     }
@@ -362,6 +589,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setFloatValue(final int index,
             final float value) {
+        beforePrimitiveWrite();
         instance = accessor.setFloatValue(instance, index, value);
         return this;
     }
@@ -382,6 +610,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setLongValue(final int index,
             final long value) {
+        beforePrimitiveWrite();
         instance = accessor.setLongValue(instance, index, value);
         return this;
     }
@@ -402,6 +631,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setDoubleValue(final int index,
             final double value) {
+        beforePrimitiveWrite();
         instance = accessor.setDoubleValue(instance, index, value);
         return this;
     }
@@ -422,6 +652,7 @@ public class GenericObject<STORAGE> implements IGenericObject<STORAGE> {
     @Override
     public final GenericObject<STORAGE> setObjectValue(final int index,
             final Object value) {
+        beforeObjectWrite();
         instance = accessor.setObjectValue(instance, index, value);
         return this;
     }
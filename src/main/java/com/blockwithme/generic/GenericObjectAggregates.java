@@ -0,0 +1,494 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * GenericObjectAggregates computes sums, minimums, maximums and histograms
+ * of one primitive slot, across many generic objects.
+ *
+ * The values are first gathered in a "column" (a primitive array). For the
+ * three Object[] layouts of this package, the values are read directly
+ * from the primitive array of each instance, using the static getters of
+ * the layout, so that each encoding is decoded correctly (for example,
+ * the two int halves of a long in IntGenericObjectAccessor, or the raw
+ * long bits in the double[] of DoubleFixedBooleanGenericObjectAccessor).
+ * Instances of other accessors are read through the accessor.
+ * The aggregations then run over the column, using four independent
+ * accumulators, so that the JIT can unroll, and possibly vectorize, the
+ * loops. A column can be reused for multiple aggregations.
+ *
+ * Note that, due to the use of multiple accumulators, the double sum is
+ * not computed in strict left-to-right order, and the result can differ
+ * in the last bits from a naive loop. int and long sums overflow silently.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectAggregates {
+
+    /** No instance. */
+    private GenericObjectAggregates() {
+        // NOP
+    }
+
+    /** Checks that the column is not empty. */
+    private static void checkNotEmpty(final int length) {
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty column");
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Gathers the int value of one primitive slot of all instances.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     * @return The column of values, in the order of instances.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> int[] intColumn(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        Objects.requireNonNull(accessor, "accessor");
+        final int[] result = new int[instances.length];
+        final int layout = GenericObjectLayouts.layout(accessor);
+        if (layout == GenericObjectLayouts.OTHER) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = accessor.getIntValue(instances[i], index);
+            }
+        } else {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = GenericObjectLayouts.getIntValue(layout,
+                        ((Object[]) instances[i])[0], index);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gathers the long value of one primitive slot of all instances.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     * @return The column of values, in the order of instances.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> long[] longColumn(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        Objects.requireNonNull(accessor, "accessor");
+        final long[] result = new long[instances.length];
+        final int layout = GenericObjectLayouts.layout(accessor);
+        if (layout == GenericObjectLayouts.OTHER) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = accessor.getLongValue(instances[i], index);
+            }
+        } else {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = GenericObjectLayouts.getLongValue(layout,
+                        ((Object[]) instances[i])[0], index);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gathers the double value of one primitive slot of all instances.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     * @return The column of values, in the order of instances.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> double[] doubleColumn(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        Objects.requireNonNull(accessor, "accessor");
+        final double[] result = new double[instances.length];
+        final int layout = GenericObjectLayouts.layout(accessor);
+        if (layout == GenericObjectLayouts.OTHER) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = accessor.getDoubleValue(instances[i], index);
+            }
+        } else {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = GenericObjectLayouts.getDoubleValue(layout,
+                        ((Object[]) instances[i])[0], index);
+            }
+        }
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Sums an int column, as a long.
+     *
+     * @param column The values.
+     * @return The sum of the values.
+     */
+    public static long sum(final int[] column) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            s0 += column[i];
+            s1 += column[i + 1];
+            s2 += column[i + 2];
+            s3 += column[i + 3];
+        }
+        for (; i < column.length; i++) {
+            s0 += column[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sums a long column.
+     *
+     * @param column The values.
+     * @return The sum of the values.
+     */
+    public static long sum(final long[] column) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            s0 += column[i];
+            s1 += column[i + 1];
+            s2 += column[i + 2];
+            s3 += column[i + 3];
+        }
+        for (; i < column.length; i++) {
+            s0 += column[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sums a double column.
+     *
+     * @param column The values.
+     * @return The sum of the values.
+     */
+    public static double sum(final double[] column) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            s0 += column[i];
+            s1 += column[i + 1];
+            s2 += column[i + 2];
+            s3 += column[i + 3];
+        }
+        for (; i < column.length; i++) {
+            s0 += column[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the minimum of an int column.
+     *
+     * @param column The values.
+     * @return The minimum value.
+     *
+     * @throws IllegalArgumentException if the column is empty
+     */
+    public static int min(final int[] column) {
+        checkNotEmpty(column.length);
+        int m0 = column[0], m1 = m0, m2 = m0, m3 = m0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            m0 = Math.min(m0, column[i]);
+            m1 = Math.min(m1, column[i + 1]);
+            m2 = Math.min(m2, column[i + 2]);
+            m3 = Math.min(m3, column[i + 3]);
+        }
+        for (; i < column.length; i++) {
+            m0 = Math.min(m0, column[i]);
+        }
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    /**
+     * Returns the maximum of an int column.
+     *
+     * @param column The values.
+     * @return The maximum value.
+     *
+     * @throws IllegalArgumentException if the column is empty
+     */
+    public static int max(final int[] column) {
+        checkNotEmpty(column.length);
+        int m0 = column[0], m1 = m0, m2 = m0, m3 = m0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            m0 = Math.max(m0, column[i]);
+            m1 = Math.max(m1, column[i + 1]);
+            m2 = Math.max(m2, column[i + 2]);
+            m3 = Math.max(m3, column[i + 3]);
+        }
+        for (; i < column.length; i++) {
+            m0 = Math.max(m0, column[i]);
+        }
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    /**
+     * Returns the minimum of a long column.
+     *
+     * @param column The values.
+     * @return The minimum value.
+     *
+     * @throws IllegalArgumentException if the column is empty
+     */
+    public static long min(final long[] column) {
+        checkNotEmpty(column.length);
+        long m0 = column[0], m1 = m0, m2 = m0, m3 = m0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            m0 = Math.min(m0, column[i]);
+            m1 = Math.min(m1, column[i + 1]);
+            m2 = Math.min(m2, column[i + 2]);
+            m3 = Math.min(m3, column[i + 3]);
+        }
+        for (; i < column.length; i++) {
+            m0 = Math.min(m0, column[i]);
+        }
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    /**
+     * Returns the maximum of a long column.
+     *
+     * @param column The values.
+     * @return The maximum value.
+     *
+     * @throws IllegalArgumentException if the column is empty
+     */
+    public static long max(final long[] column) {
+        checkNotEmpty(column.length);
+        long m0 = column[0], m1 = m0, m2 = m0, m3 = m0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            m0 = Math.max(m0, column[i]);
+            m1 = Math.max(m1, column[i + 1]);
+            m2 = Math.max(m2, column[i + 2]);
+            m3 = Math.max(m3, column[i + 3]);
+        }
+        for (; i < column.length; i++) {
+            m0 = Math.max(m0, column[i]);
+        }
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    /**
+     * Returns the minimum of a double column. Like Math.min(), returns NaN
+     * if any value is NaN.
+     *
+     * @param column The values.
+     * @return The minimum value.
+     *
+     * @throws IllegalArgumentException if the column is empty
+     */
+    public static double min(final double[] column) {
+        checkNotEmpty(column.length);
+        double m0 = column[0], m1 = m0, m2 = m0, m3 = m0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            m0 = Math.min(m0, column[i]);
+            m1 = Math.min(m1, column[i + 1]);
+            m2 = Math.min(m2, column[i + 2]);
+            m3 = Math.min(m3, column[i + 3]);
+        }
+        for (; i < column.length; i++) {
+            m0 = Math.min(m0, column[i]);
+        }
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    /**
+     * Returns the maximum of a double column. Like Math.max(), returns NaN
+     * if any value is NaN.
+     *
+     * @param column The values.
+     * @return The maximum value.
+     *
+     * @throws IllegalArgumentException if the column is empty
+     */
+    public static double max(final double[] column) {
+        checkNotEmpty(column.length);
+        double m0 = column[0], m1 = m0, m2 = m0, m3 = m0;
+        final int end = column.length & ~3;
+        int i = 0;
+        for (; i < end; i += 4) {
+            m0 = Math.max(m0, column[i]);
+            m1 = Math.max(m1, column[i + 1]);
+            m2 = Math.max(m2, column[i + 2]);
+            m3 = Math.max(m3, column[i + 3]);
+        }
+        for (; i < column.length; i++) {
+            m0 = Math.max(m0, column[i]);
+        }
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Checks the histogram parameters. */
+    private static void checkHistogram(final long min, final long max,
+            final int bins) {
+        checkBins(bins);
+        if (min >= max) {
+            throw new IllegalArgumentException("min (" + min
+                    + ") must be less than max (" + max + ")");
+        }
+    }
+
+    /** Checks the histogram parameters. */
+    private static void checkHistogram(final double min, final double max,
+            final int bins) {
+        checkBins(bins);
+        if (!(min < max)) {
+            throw new IllegalArgumentException("min (" + min
+                    + ") must be less than max (" + max + ")");
+        }
+    }
+
+    /** Checks the number of histogram bins. */
+    private static void checkBins(final int bins) {
+        if (bins <= 0) {
+            throw new IllegalArgumentException("bins must be positive: "
+                    + bins);
+        }
+    }
+
+    /**
+     * Converts a long, interpreted as unsigned, to a double. Used for
+     * differences of long values, which can exceed Long.MAX_VALUE.
+     */
+    private static double unsignedToDouble(final long value) {
+        if (value >= 0) {
+            return value;
+        }
+        // Halve, keeping the lowest bit for correct rounding, then double.
+        return ((value >>> 1) | (value & 1)) * 2.0;
+    }
+
+    /**
+     * Computes a histogram of an int column, with bins of equal width
+     * over [min, max]. Values outside of the range are not counted.
+     * max itself is counted in the last bin.
+     *
+     * @param column The values.
+     * @param min The lower bound of the first bin.
+     * @param max The upper bound of the last bin.
+     * @param bins The number of bins.
+     * @return The number of values in each bin.
+     *
+     * @throws IllegalArgumentException if bins is not positive, or min >= max
+     */
+    public static int[] histogram(final int[] column, final int min,
+            final int max, final int bins) {
+        checkHistogram(min, max, bins);
+        final int[] result = new int[bins];
+        // The range of two ints is exact in a long, and in a double.
+        final double scale = bins / (double) ((long) max - min);
+        for (final int value : column) {
+            if ((value >= min) && (value <= max)) {
+                final int bin = (int) (((long) value - min) * scale);
+                result[bin < bins ? bin : bins - 1]++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes a histogram of a long column, with bins of equal width
+     * over [min, max]. Values outside of the range are not counted.
+     * max itself is counted in the last bin. The bins are computed in
+     * double, so if max - min exceeds 2^53, a value very close to a bin
+     * boundary can be counted in the neighbouring bin.
+     *
+     * @param column The values.
+     * @param min The lower bound of the first bin.
+     * @param max The upper bound of the last bin.
+     * @param bins The number of bins.
+     * @return The number of values in each bin.
+     *
+     * @throws IllegalArgumentException if bins is not positive, or min >= max
+     */
+    public static int[] histogram(final long[] column, final long min,
+            final long max, final int bins) {
+        checkHistogram(min, max, bins);
+        final int[] result = new int[bins];
+        // The differences are computed in long, and can be "unsigned", so
+        // that distinct min and max never collapse to a zero range.
+        final double scale = bins / unsignedToDouble(max - min);
+        for (final long value : column) {
+            if ((value >= min) && (value <= max)) {
+                final int bin = (int) (unsignedToDouble(value - min) * scale);
+                result[bin < bins ? bin : bins - 1]++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes a histogram of a double column, with bins of equal width
+     * over [min, max]. Values outside of the range, and NaN, are not
+     * counted. max itself is counted in the last bin.
+     *
+     * @param column The values.
+     * @param min The lower bound of the first bin.
+     * @param max The upper bound of the last bin.
+     * @param bins The number of bins.
+     * @return The number of values in each bin.
+     *
+     * @throws IllegalArgumentException if bins is not positive, or min >= max
+     */
+    public static int[] histogram(final double[] column, final double min,
+            final double max, final int bins) {
+        checkHistogram(min, max, bins);
+        final int[] result = new int[bins];
+        final double scale = bins / (max - min);
+        for (final double value : column) {
+            if ((value >= min) && (value <= max)) {
+                final int bin = (int) ((value - min) * scale);
+                result[bin < bins ? bin : bins - 1]++;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * GenericObjectArena hands out Object[] based storage instances for a
+ * "scope", like one request, or one simulation tick, and releases them all
+ * at once, when the scope ends.
+ *
+ * A JVM array cannot be carved out of a bigger array, so instead of one
+ * backing array, the arena keeps one pool of pre-allocated instances per
+ * "shape" (required primitive and Object slots). allocate() just bumps the
+ * index of the pool, and only creates a new instance when the pool is
+ * exhausted. reset() (or close()) zeroes all the instances handed out
+ * during the scope, and makes them available again; after a few scopes,
+ * the arena does not allocate at all anymore. The pools are found in an
+ * open-addressing table keyed by the shape as a primitive long, so the
+ * lookup does not box the shape either.
+ *
+ * The instances are read and written with the accessor, as usual. They
+ * must not be used after the end of their scope, and this also applies to
+ * the new instances returned by a resize, since they can share arrays with
+ * the original instance.
+ *
+ * The arena is not thread-safe; use one arena per thread.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectArena implements AutoCloseable {
+
+    /** The pool of one shape. */
+    private static final class Pool {
+        /** The instances; the first "next" were handed out. */
+        Object[][] instances = new Object[8][];
+        /** The number of instances in the pool. */
+        int count;
+        /** The index of the next instance to hand out. */
+        int next;
+    }
+
+    /** The initial capacity of the pool table; a power of two. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<Object[]> accessor;
+
+    /** The shapes of the pool table. */
+    private long[] shapes = new long[INITIAL_CAPACITY];
+
+    /** The pools of the pool table, by shape; null means free. */
+    private Pool[] pools = new Pool[INITIAL_CAPACITY];
+
+    /** The number of pools. */
+    private int poolCount;
+
+    /** The shape of the last pool used. */
+    private long lastShape = -1;
+
+    /** The last pool used. */
+    private Pool lastPool;
+
+    /**
+     * Creates an empty arena.
+     *
+     * @param accessor The generic object accessor implementation.
+     *
+     * @throws NullPointerException if accessor is null
+     * @throws IllegalArgumentException if the accessor does not use the
+     *         Object[] layout, with the primitive array in the first slot.
+     */
+    public GenericObjectArena(final IGenericObjectAccessor<Object[]> accessor) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+        final Object primitives = accessor.newEmptyGenericObject()[0];
+        if (!(primitives instanceof int[]) && !(primitives instanceof long[])
+                && !(primitives instanceof double[])) {
+            throw new IllegalArgumentException("Unsupported accessor: "
+                    + accessor);
+        }
+    }
+
+    /** Computes the hash of a shape. */
+    private static int hash(final long shape) {
+        long h = shape * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) h;
+    }
+
+    /** Returns the position of the shape, or (-insertion position - 1). */
+    private int find(final long shape) {
+        final int mask = shapes.length - 1;
+        int i = hash(shape) & mask;
+        while (pools[i] != null) {
+            if (shapes[i] == shape) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -i - 1;
+    }
+
+    /** Doubles the capacity of the pool table. */
+    private void growTable() {
+        final long[] oldShapes = shapes;
+        final Pool[] oldPools = pools;
+        shapes = new long[oldShapes.length * 2];
+        pools = new Pool[shapes.length];
+        for (int i = 0; i < oldShapes.length; i++) {
+            if (oldPools[i] != null) {
+                final int pos = -find(oldShapes[i]) - 1;
+                shapes[pos] = oldShapes[i];
+                pools[pos] = oldPools[i];
+            }
+        }
+    }
+
+    /** Returns the pool of the shape. */
+    private Pool pool(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        if ((requiredPrimitiveSlots < 0) || (requiredObjectSlots < 0)) {
+            throw new IllegalArgumentException("requiredPrimitiveSlots: "
+                    + requiredPrimitiveSlots + " requiredObjectSlots: "
+                    + requiredObjectSlots);
+        }
+        final long shape = (((long) requiredPrimitiveSlots) << 32)
+                | requiredObjectSlots;
+        if (shape == lastShape) {
+            return lastPool;
+        }
+        int pos = find(shape);
+        if (pos < 0) {
+            if ((poolCount + 1) * 2 > shapes.length) {
+                growTable();
+                pos = find(shape);
+            }
+            pos = -pos - 1;
+            shapes[pos] = shape;
+            pools[pos] = new Pool();
+            poolCount++;
+        }
+        final Pool pool = pools[pos];
+        lastShape = shape;
+        lastPool = pool;
+        return pool;
+    }
+
+    /** Adds a new instance to the pool. */
+    private void grow(final Pool pool, final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        if (pool.count == pool.instances.length) {
+            pool.instances = Arrays.copyOf(pool.instances, pool.count * 2);
+        }
+        pool.instances[pool.count++] = accessor.newGenericObject(
+                requiredPrimitiveSlots, requiredObjectSlots);
+    }
+
+    /** Zeroes an instance. */
+    private static void clear(final Object[] instance) {
+        final Object primitives = instance[0];
+        if (primitives instanceof int[]) {
+            Arrays.fill((int[]) primitives, 0);
+        } else if (primitives instanceof long[]) {
+            Arrays.fill((long[]) primitives, 0L);
+        } else {
+            Arrays.fill((double[]) primitives, 0.0);
+        }
+        Arrays.fill(instance, 1, instance.length, null);
+    }
+
+    /** Returns the generic object accessor implementation. */
+    public IGenericObjectAccessor<Object[]> getAccessor() {
+        return accessor;
+    }
+
+    /**
+     * Makes sure that at least count instances of the given shape can be
+     * allocated in this scope without creating new instances.
+     *
+     * @return this arena
+     *
+     * @throws IllegalArgumentException if a parameter is negative
+     */
+    public GenericObjectArena preallocate(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count: " + count);
+        }
+        final Pool pool = pool(requiredPrimitiveSlots, requiredObjectSlots);
+        while (pool.count - pool.next < count) {
+            grow(pool, requiredPrimitiveSlots, requiredObjectSlots);
+        }
+        return this;
+    }
+
+    /**
+     * Returns a zeroed storage instance, with *at least* the required number
+     * of slots, that is valid until the end of the scope.
+     *
+     * @throws IllegalArgumentException if a parameter is negative
+     */
+    public Object[] allocate(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        final Pool pool = pool(requiredPrimitiveSlots, requiredObjectSlots);
+        if (pool.next == pool.count) {
+            grow(pool, requiredPrimitiveSlots, requiredObjectSlots);
+        }
+        return pool.instances[pool.next++];
+    }
+
+    /** Returns the number of instances handed out in the current scope. */
+    public int getAllocated() {
+        int result = 0;
+        for (final Pool pool : pools) {
+            if (pool != null) {
+                result += pool.next;
+            }
+        }
+        return result;
+    }
+
+    /** Returns the number of instances owned by the arena. */
+    public int getCapacity() {
+        int result = 0;
+        for (final Pool pool : pools) {
+            if (pool != null) {
+                result += pool.count;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ends the current scope: all instances handed out are zeroed, and can
+     * be handed out again.
+     */
+    public void reset() {
+        for (final Pool pool : pools) {
+            if (pool != null) {
+                for (int i = 0; i < pool.next; i++) {
+                    clear(pool.instances[i]);
+                }
+                pool.next = 0;
+            }
+        }
+    }
+
+    /**
+     * Ends the current scope, like reset(). The arena can still be used
+     * for the next scope.
+     */
+    @Override
+    public void close() {
+        reset();
+    }
+
+    /** Drops all instances, so that they can be garbage-collected. */
+    public void release() {
+        shapes = new long[INITIAL_CAPACITY];
+        pools = new Pool[INITIAL_CAPACITY];
+        poolCount = 0;
+        lastShape = -1;
+        lastPool = null;
+    }
+}
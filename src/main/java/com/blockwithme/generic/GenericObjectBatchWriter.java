@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * GenericObjectBatchWriter records a sequence of typed writes, and then
+ * applies them to a storage instance in one go.
+ *
+ * The accessors never grow the storage on a write, so initializing an
+ * object normally requires either a resize before each write, or
+ * computing the required size by hand. The batch writer tracks the
+ * highest primitive, boolean and Object index written (including the
+ * second slot of long and double values, when they use two primitive
+ * slots), so that applyTo() resizes each storage part at most once, and
+ * create() allocates a new instance of the right size directly.
+ *
+ * The writes are recorded in primitive arrays, so primitive values are
+ * never boxed. A batch writer can be reused, after calling clear(), so
+ * that loading many records does not produce any garbage besides the
+ * records themselves.
+ *
+ * Instances are not thread-safe.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectBatchWriter<STORAGE> {
+
+    /** The initial capacity of the log. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /** Do booleans use their own, growable, ID space? */
+    private final boolean growableBooleans;
+
+    /** Do booleans use the primitive ID space? */
+    private final boolean primitiveBooleans;
+
+    /** Extra primitive slots used by a long value. */
+    private final int longExtraSlots;
+
+    /** Extra primitive slots used by a double value. */
+    private final int doubleExtraSlots;
+
+    /** The index of each write. */
+    private int[] indexes = new int[INITIAL_CAPACITY];
+
+    /** The value type of each write. */
+    private ValueType[] types = new ValueType[INITIAL_CAPACITY];
+
+    /** The raw value bits of each primitive write. */
+    private long[] bits = new long[INITIAL_CAPACITY];
+
+    /** The value of each Object write; allocated on demand. */
+    private Object[] values;
+
+    /** The number of writes. */
+    private int size;
+
+    /** The highest primitive index written, or -1. */
+    private int maxPrimitiveIndex = -1;
+
+    /** The highest boolean index written, or -1. */
+    private int maxBooleanIndex = -1;
+
+    /** The highest Object index written, or -1. */
+    private int maxObjectIndex = -1;
+
+    /**
+     * Creates a batch writer.
+     *
+     * @param accessor The generic object accessor implementation.
+     *
+     * @throws NullPointerException if accessor is null
+     */
+    public GenericObjectBatchWriter(
+            final IGenericObjectAccessor<STORAGE> accessor) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+        primitiveBooleans = !accessor
+                .isBooleanValuesIDSpaceIndependentFromPrimitive();
+        growableBooleans = !primitiveBooleans
+                && !accessor.isBooleanValuesIDSpaceFixed();
+        longExtraSlots = accessor.isLongUsingTwoPrimitiveSlots() ? 1 : 0;
+        doubleExtraSlots = accessor.isDoubleUsingTwoPrimitiveSlots() ? 1 : 0;
+    }
+
+    /** @return The generic object accessor implementation. */
+    public IGenericObjectAccessor<STORAGE> getAccessor() {
+        return accessor;
+    }
+
+    /** @return The number of writes recorded. */
+    public int size() {
+        return size;
+    }
+
+    /** Discards all the recorded writes. */
+    public void clear() {
+        if (values != null) {
+            Arrays.fill(values, 0, size, null);
+        }
+        size = 0;
+        maxPrimitiveIndex = -1;
+        maxBooleanIndex = -1;
+        maxObjectIndex = -1;
+    }
+
+    /** Appends a write to the log. */
+    private void add(final int index, final ValueType type, final long value) {
+        if (size == indexes.length) {
+            final int capacity = size * 2;
+            indexes = Arrays.copyOf(indexes, capacity);
+            types = Arrays.copyOf(types, capacity);
+            bits = Arrays.copyOf(bits, capacity);
+            if (values != null) {
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+        indexes[size] = index;
+        types[size] = type;
+        bits[size] = value;
+        size++;
+    }
+
+    /** Records a primitive write, using extraSlots slots after index. */
+    private GenericObjectBatchWriter<STORAGE> primitive(final int index,
+            final int extraSlots, final ValueType type, final long value) {
+        add(index, type, value);
+        maxPrimitiveIndex = Math.max(maxPrimitiveIndex, index + extraSlots);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Records the write of a boolean value.
+     *
+     * @param index The boolean index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setBooleanValue(final int index,
+            final boolean value) {
+        if (primitiveBooleans) {
+            return primitive(index, 0, ValueType.BOOLEAN, value ? 1 : 0);
+        }
+        add(index, ValueType.BOOLEAN, value ? 1 : 0);
+        maxBooleanIndex = Math.max(maxBooleanIndex, index);
+        return this;
+    }
+
+    /**
+     * Records the write of a byte value.
+     *
+     * @param index The primitive index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setByteValue(final int index,
+            final byte value) {
+        return primitive(index, 0, ValueType.BYTE, value);
+    }
+
+    /**
+     * Records the write of a char value.
+     *
+     * @param index The primitive index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setCharValue(final int index,
+            final char value) {
+        return primitive(index, 0, ValueType.CHAR, value);
+    }
+
+    /**
+     * Records the write of a short value.
+     *
+     * @param index The primitive index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setShortValue(final int index,
+            final short value) {
+        return primitive(index, 0, ValueType.SHORT, value);
+    }
+
+    /**
+     * Records the write of an int value.
+     *
+     * @param index The primitive index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setIntValue(final int index,
+            final int value) {
+        return primitive(index, 0, ValueType.INT, value);
+    }
+
+    /**
+     * Records the write of a float value.
+     *
+     * @param index The primitive index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setFloatValue(final int index,
+            final float value) {
+        return primitive(index, 0, ValueType.FLOAT,
+                Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Records the write of a long value.
+     *
+     * @param index The primitive index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setLongValue(final int index,
+            final long value) {
+        return primitive(index, longExtraSlots, ValueType.LONG, value);
+    }
+
+    /**
+     * Records the write of a double value.
+     *
+     * @param index The primitive index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setDoubleValue(final int index,
+            final double value) {
+        return primitive(index, doubleExtraSlots, ValueType.DOUBLE,
+                Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Records the write of an Object value.
+     *
+     * @param index The Object index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectBatchWriter<STORAGE> setObjectValue(final int index,
+            final Object value) {
+        if (values == null) {
+            values = new Object[indexes.length];
+        }
+        add(index, ValueType.OBJECT, 0);
+        values[size - 1] = value;
+        maxObjectIndex = Math.max(maxObjectIndex, index);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a new instance, just big enough for the recorded writes
+     * (subject to the growth policy of the accessor), and applies the
+     * writes to it.
+     *
+     * @return The new generic object storage instance.
+     */
+    public STORAGE create() {
+        final STORAGE instance;
+        if (growableBooleans) {
+            instance = accessor.newGenericObject(maxPrimitiveIndex + 1,
+                    maxBooleanIndex + 1, maxObjectIndex + 1);
+        } else {
+            instance = accessor.newGenericObject(maxPrimitiveIndex + 1,
+                    maxObjectIndex + 1);
+        }
+        return write(instance);
+    }
+
+    /**
+     * Applies the recorded writes to an instance, growing each part of the
+     * storage at most once, if needed. The recorded writes are kept.
+     *
+     * @param instance The generic object storage instance.
+     * @return The new replacement, or modified, generic object storage instance.
+     */
+    public STORAGE applyTo(final STORAGE instance) {
+        STORAGE result = instance;
+        if (maxPrimitiveIndex >= accessor
+                .getPrimitiveValuesSlotsAvailable(result)) {
+            result = accessor.resizePrimitiveValues(result,
+                    maxPrimitiveIndex + 1);
+        }
+        if (growableBooleans
+                && (maxBooleanIndex >= accessor
+                        .getBooleanValuesSlotsAvailable(result))) {
+            result = accessor.resizeBooleanValues(result, maxBooleanIndex + 1);
+        }
+        if (maxObjectIndex >= accessor.getObjectValuesSlotsAvailable(result)) {
+            result = accessor.resizeObjectValues(result, maxObjectIndex + 1);
+        }
+        return write(result);
+    }
+
+    /** Applies the recorded writes, to a big enough instance. */
+    private STORAGE write(final STORAGE instance) {
+        STORAGE result = instance;
+        for (int i = 0; i < size; i++) {
+            final int index = indexes[i];
+            final long value = bits[i];
+            switch (types[i]) {
+            case BOOLEAN:
+                result = accessor.setBooleanValue(result, index, value != 0);
+                break;
+            case BYTE:
+                result = accessor.setByteValue(result, index, (byte) value);
+                break;
+            case CHAR:
+                result = accessor.setCharValue(result, index, (char) value);
+                break;
+            case SHORT:
+                result = accessor.setShortValue(result, index, (short) value);
+                break;
+            case INT:
+                result = accessor.setIntValue(result, index, (int) value);
+                break;
+            case FLOAT:
+                result = accessor.setFloatValue(result, index,
+                        Float.intBitsToFloat((int) value));
+                break;
+            case LONG:
+                result = accessor.setLongValue(result, index, value);
+                break;
+            case DOUBLE:
+                result = accessor.setDoubleValue(result, index,
+                        Double.longBitsToDouble(value));
+                break;
+            default:
+                result = accessor.setObjectValue(result, index, values[i]);
+                break;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GenericObjectCache is a concurrent cache of generic object storage
+ * instances, bounded by an (estimated) number of bytes, instead of a number
+ * of entries. Each entry is charged GenericObjectMetrics.estimateBytes(),
+ * computed from the slots available in its storage instance when it is
+ * put in the cache.
+ *
+ * The keys are spread over segments. Every segment evicts independently,
+ * once its share of the budget is exceeded, using the CLOCK algorithm: the
+ * entries form a ring, a get() marks an entry as referenced, and the
+ * "hand" evicts the first entry that was not referenced since it last
+ * passed, clearing the mark of the others ("second chance"). get() does not
+ * lock; put() and remove() lock one segment.
+ *
+ * An instance bigger than the budget of a segment is not cached. If an
+ * instance is resized after put(), it should be put again, so that its new
+ * size is charged. Evicted entries can be passed to an
+ * IGenericObjectCacheListener, for example an OffHeapGenericObjectStore.
+ * The listener is notified after the segment is unlocked, so that slow
+ * listeners do not block the segment, and can call back into the cache.
+ *
+ * @see GenericObjectMetrics#estimateBytes(IGenericObjectAccessor, Object)
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectCache<K, STORAGE> {
+
+    /** The default number of segments. */
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    /** A cache entry; also a node of the CLOCK ring of its segment. */
+    private static final class Entry<K, STORAGE> {
+        /** The key. */
+        final K key;
+        /** The storage instance. */
+        final STORAGE value;
+        /** The estimated size of the value. */
+        final long bytes;
+        /** Was this entry read, since the hand last passed? */
+        volatile boolean referenced;
+        /** The previous entry in the ring. */
+        Entry<K, STORAGE> prev;
+        /** The next entry in the ring. */
+        Entry<K, STORAGE> next;
+
+        /** Creates an entry. */
+        Entry(final K key, final STORAGE value, final long bytes) {
+            this.key = key;
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    /** A segment; the lock of the ring. */
+    private static final class Segment<K, STORAGE> {
+        /** The CLOCK hand; null if the ring is empty. */
+        Entry<K, STORAGE> hand;
+        /** The bytes used by the entries of this segment. */
+        long bytes;
+    }
+
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /** The entries. */
+    private final ConcurrentHashMap<K, Entry<K, STORAGE>> map = new ConcurrentHashMap<>();
+
+    /** The segments. */
+    private final Segment<K, STORAGE>[] segments;
+
+    /** The maximum number of bytes of all entries. */
+    private final long maxBytes;
+
+    /** The maximum number of bytes of the entries of one segment. */
+    private final long maxSegmentBytes;
+
+    /** The bytes used by all entries. */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /** The number of evicted entries. */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** The eviction listener, if any. */
+    private volatile IGenericObjectCacheListener<K, STORAGE> evictionListener;
+
+    /**
+     * Creates a cache, with DEFAULT_SEGMENTS segments.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param maxBytes The maximum number of bytes of all entries.
+     *
+     * @throws NullPointerException if accessor is null
+     * @throws IllegalArgumentException if maxBytes is not positive
+     */
+    public GenericObjectCache(final IGenericObjectAccessor<STORAGE> accessor,
+            final long maxBytes) {
+        this(accessor, maxBytes, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates a cache. Each segment gets an equal share of maxBytes.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param maxBytes The maximum number of bytes of all entries.
+     * @param segments The number of segments.
+     *
+     * @throws NullPointerException if accessor is null
+     * @throws IllegalArgumentException if maxBytes or segments is not positive
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public GenericObjectCache(final IGenericObjectAccessor<STORAGE> accessor,
+            final long maxBytes, final int segments) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes: " + maxBytes);
+        }
+        if (segments <= 0) {
+            throw new IllegalArgumentException("segments: " + segments);
+        }
+        this.maxBytes = maxBytes;
+        maxSegmentBytes = maxBytes / segments;
+        this.segments = new Segment[segments];
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new Segment<>();
+        }
+    }
+
+    /** Returns the segment of a key. */
+    private Segment<K, STORAGE> segment(final Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[(h & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /** Adds an entry to the ring, just behind the hand. */
+    private static <K, STORAGE> void link(final Segment<K, STORAGE> segment,
+            final Entry<K, STORAGE> entry) {
+        final Entry<K, STORAGE> hand = segment.hand;
+        if (hand == null) {
+            entry.prev = entry;
+            entry.next = entry;
+            segment.hand = entry;
+        } else {
+            entry.prev = hand.prev;
+            entry.next = hand;
+            hand.prev.next = entry;
+            hand.prev = entry;
+        }
+        segment.bytes += entry.bytes;
+    }
+
+    /** Removes an entry from the ring. */
+    private static <K, STORAGE> void unlink(
+            final Segment<K, STORAGE> segment, final Entry<K, STORAGE> entry) {
+        if (entry.next == entry) {
+            segment.hand = null;
+        } else {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            if (segment.hand == entry) {
+                segment.hand = entry.next;
+            }
+        }
+        entry.prev = null;
+        entry.next = null;
+        segment.bytes -= entry.bytes;
+    }
+
+    /**
+     * Evicts entries, until the segment is within its budget. Returns the
+     * evicted entries, in eviction order, chained through their next field,
+     * or null if none, so that the listener can be notified after the
+     * segment is unlocked.
+     */
+    private Entry<K, STORAGE> evict(final Segment<K, STORAGE> segment) {
+        Entry<K, STORAGE> first = null;
+        Entry<K, STORAGE> last = null;
+        while (segment.bytes > maxSegmentBytes) {
+            final Entry<K, STORAGE> hand = segment.hand;
+            if (hand.referenced) {
+                hand.referenced = false;
+                segment.hand = hand.next;
+            } else {
+                unlink(segment, hand);
+                map.remove(hand.key, hand);
+                bytes.addAndGet(-hand.bytes);
+                evictions.incrementAndGet();
+                if (first == null) {
+                    first = hand;
+                } else {
+                    last.next = hand;
+                }
+                last = hand;
+            }
+        }
+        return first;
+    }
+
+    /** Passes the chained evicted entries to the listener, if any. */
+    private void evicted(final Entry<K, STORAGE> first) {
+        final IGenericObjectCacheListener<K, STORAGE> listener = evictionListener;
+        Entry<K, STORAGE> entry = first;
+        while (entry != null) {
+            final Entry<K, STORAGE> next = entry.next;
+            entry.next = null;
+            if (listener != null) {
+                listener.evicted(entry.key, entry.value);
+            }
+            entry = next;
+        }
+    }
+
+    /** Returns the generic object accessor implementation. */
+    public IGenericObjectAccessor<STORAGE> getAccessor() {
+        return accessor;
+    }
+
+    /** Returns the eviction listener, if any. */
+    public IGenericObjectCacheListener<K, STORAGE> getEvictionListener() {
+        return evictionListener;
+    }
+
+    /**
+     * Sets the eviction listener. null removes the current listener.
+     */
+    public void setEvictionListener(
+            final IGenericObjectCacheListener<K, STORAGE> listener) {
+        evictionListener = listener;
+    }
+
+    /**
+     * Returns the storage instance of the key, or null if none.
+     *
+     * @throws NullPointerException if key is null
+     */
+    public STORAGE get(final K key) {
+        final Entry<K, STORAGE> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Caches the storage instance, under the given key, and then evicts
+     * entries of the segment of the key, if it is over budget. The eviction
+     * listener is notified after the segment is unlocked. An instance
+     * bigger than the budget of a segment is not cached, but still replaces
+     * the previous entry.
+     *
+     * @return the previous instance of the key, or null if none.
+     *
+     * @throws NullPointerException if key or instance is null
+     */
+    public STORAGE put(final K key, final STORAGE instance) {
+        Objects.requireNonNull(instance, "instance");
+        final long size = GenericObjectMetrics.estimateBytes(accessor,
+                instance);
+        final Segment<K, STORAGE> segment = segment(key);
+        final Entry<K, STORAGE> old;
+        final Entry<K, STORAGE> evicted;
+        synchronized (segment) {
+            if (size > maxSegmentBytes) {
+                old = map.remove(key);
+            } else {
+                final Entry<K, STORAGE> entry = new Entry<>(key, instance,
+                        size);
+                old = map.put(key, entry);
+                link(segment, entry);
+                bytes.addAndGet(size);
+            }
+            if (old != null) {
+                unlink(segment, old);
+                bytes.addAndGet(-old.bytes);
+            }
+            evicted = evict(segment);
+        }
+        evicted(evicted);
+        return (old == null) ? null : old.value;
+    }
+
+    /**
+     * Removes the storage instance of the key.
+     *
+     * @return the removed instance, or null if none.
+     *
+     * @throws NullPointerException if key is null
+     */
+    public STORAGE remove(final K key) {
+        final Segment<K, STORAGE> segment = segment(key);
+        synchronized (segment) {
+            final Entry<K, STORAGE> old = map.remove(key);
+            if (old == null) {
+                return null;
+            }
+            unlink(segment, old);
+            bytes.addAndGet(-old.bytes);
+            return old.value;
+        }
+    }
+
+    /** Removes all entries. */
+    public void clear() {
+        for (final Segment<K, STORAGE> segment : segments) {
+            synchronized (segment) {
+                while (segment.hand != null) {
+                    final Entry<K, STORAGE> entry = segment.hand;
+                    unlink(segment, entry);
+                    map.remove(entry.key, entry);
+                    bytes.addAndGet(-entry.bytes);
+                }
+            }
+        }
+    }
+
+    /** Returns the number of entries. */
+    public int size() {
+        return map.size();
+    }
+
+    /** Returns the estimated number of bytes of all entries. */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /** Returns the maximum number of bytes of all entries. */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /** Returns the number of entries evicted so far. */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "GenericObjectCache(size=" + size() + ", bytes=" + getBytes()
+                + ", maxBytes=" + maxBytes + ", evictions=" + getEvictions()
+                + ")";
+    }
+}
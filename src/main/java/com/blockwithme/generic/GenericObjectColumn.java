@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * Describes one column of the columnar file format: one slot of the
+ * generic objects, and the type of its values. The encoding is only known
+ * for the columns of a file; it is null for the columns to write.
+ *
+ * @see GenericObjectColumnWriter
+ * @see GenericObjectColumnReader
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectColumn {
+    /** The slot index. */
+    private final int index;
+
+    /** The value type. */
+    private final ValueType type;
+
+    /** The encoding; null if not yet written. */
+    private final ColumnEncoding encoding;
+
+    /**
+     * Creates a column to write.
+     *
+     * @param index The slot index; a boolean index, for BOOLEAN.
+     * @param type The value type.
+     *
+     * @throws NullPointerException if type is null
+     * @throws IllegalArgumentException if index is negative
+     */
+    public GenericObjectColumn(final int index, final ValueType type) {
+        this(index, type, null);
+    }
+
+    /** Creates a column. */
+    GenericObjectColumn(final int index, final ValueType type,
+            final ColumnEncoding encoding) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index: " + index);
+        }
+        this.index = index;
+        this.type = Objects.requireNonNull(type, "type");
+        this.encoding = encoding;
+    }
+
+    /** Returns the slot index. */
+    public int getIndex() {
+        return index;
+    }
+
+    /** Returns the value type. */
+    public ValueType getType() {
+        return type;
+    }
+
+    /** Returns the encoding, or null if the column was not written yet. */
+    public ColumnEncoding getEncoding() {
+        return encoding;
+    }
+
+    /** Returns the number of bytes of a value, in the PLAIN encoding. */
+    int getWidth() {
+        switch (type) {
+        case BOOLEAN:
+        case BYTE:
+            return 1;
+        case CHAR:
+        case SHORT:
+            return 2;
+        case INT:
+        case FLOAT:
+            return 4;
+        default:
+            return 8;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return index * 31 + type.ordinal();
+    }
+
+    /**
+     * Two columns are equal, if they have the same index and type; the
+     * encoding is ignored.
+     *
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof GenericObjectColumn)) {
+            return false;
+        }
+        final GenericObjectColumn other = (GenericObjectColumn) obj;
+        return (index == other.index) && (type == other.type);
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "GenericObjectColumn(index=" + index + ", type=" + type
+                + ", encoding=" + encoding + ")";
+    }
+}
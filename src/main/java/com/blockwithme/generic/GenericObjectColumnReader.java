@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * GenericObjectColumnReader imports generic objects from a file written by
+ * GenericObjectColumnWriter. Only the columns of the "projection" are
+ * read from the file. Each column is decoded while it is streamed, with
+ * positional reads, through one direct buffer of bounded size, that is
+ * reused for all the columns.
+ *
+ * @see GenericObjectColumnWriter
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectColumnReader implements Closeable {
+
+    /**
+     * Reads one region of the file, through a reusable direct buffer.
+     * Closing it does not close the channel.
+     */
+    private static final class ChannelInput extends InputStream {
+        /** The file channel. */
+        private final FileChannel channel;
+        /** The direct buffer. */
+        private final ByteBuffer buffer = ByteBuffer
+                .allocateDirect(GenericObjectColumnWriter.BUFFER_SIZE);
+        /** The file position of the next byte to load in the buffer. */
+        private long position;
+        /** The number of bytes of the region not loaded yet. */
+        private long remaining;
+
+        /** Creates a ChannelInput. */
+        ChannelInput(final FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        /** Starts reading length bytes, at position. */
+        void seek(final long position, final long length) {
+            this.position = position;
+            remaining = length;
+            buffer.clear();
+            buffer.limit(0);
+        }
+
+        /** Loads the next part of the region; false at its end. */
+        private boolean fill() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            buffer.clear();
+            if (remaining < buffer.capacity()) {
+                buffer.limit((int) remaining);
+            }
+            while (buffer.hasRemaining()) {
+                final int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("At " + position);
+                }
+                position += read;
+                remaining -= read;
+            }
+            buffer.flip();
+            return true;
+        }
+
+        /* (non-Javadoc)
+         * @see java.io.InputStream#read()
+         */
+        @Override
+        public int read() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        /* (non-Javadoc)
+         * @see java.io.InputStream#read(byte[], int, int)
+         */
+        @Override
+        public int read(final byte[] b, final int off, final int len)
+                throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            final int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+    }
+
+    /** The file channel. */
+    private final FileChannel channel;
+
+    /** The input, used for the header, the directory and the columns. */
+    private final ChannelInput input;
+
+    /** The data input, over input. */
+    private final DataInputStream data;
+
+    /** The number of rows. */
+    private final int rowCount;
+
+    /** The columns, in file order. */
+    private final List<GenericObjectColumn> columns;
+
+    /** The offset of each column. */
+    private final long[] offsets;
+
+    /** The length of each column. */
+    private final long[] lengths;
+
+    /**
+     * Opens a columnar file, and reads its column directory.
+     *
+     * @throws NullPointerException if file is null
+     * @throws IOException if the file cannot be read, or is not a columnar
+     *         file of a supported version, or a column lies outside of the
+     *         file.
+     */
+    public GenericObjectColumnReader(final Path file) throws IOException {
+        channel = FileChannel.open(Objects.requireNonNull(file, "file"),
+                StandardOpenOption.READ);
+        try {
+            input = new ChannelInput(channel);
+            data = new DataInputStream(input);
+            final long size = channel.size();
+            input.seek(0, GenericObjectColumnWriter.HEADER_BYTES);
+            if (data.readInt() != GenericObjectColumnWriter.MAGIC) {
+                throw new IOException("Not a generic object column file: "
+                        + file);
+            }
+            final int version = data.readInt();
+            if (version != GenericObjectColumnWriter.VERSION) {
+                throw new IOException("Unsupported version: " + version);
+            }
+            rowCount = data.readInt();
+            final int count = data.readInt();
+            if (count < 0) {
+                throw new IOException("Invalid column count: " + count);
+            }
+            input.seek(GenericObjectColumnWriter.HEADER_BYTES, count
+                    * (long) GenericObjectColumnWriter.ENTRY_BYTES);
+            final ValueType[] types = ValueType.values();
+            final ColumnEncoding[] encodings = ColumnEncoding.values();
+            final List<GenericObjectColumn> list = new ArrayList<>();
+            offsets = new long[count];
+            lengths = new long[count];
+            for (int i = 0; i < count; i++) {
+                final int index = data.readInt();
+                final ValueType type = types[data.readByte()];
+                final ColumnEncoding encoding = encodings[data.readByte()];
+                final GenericObjectColumn column = new GenericObjectColumn(
+                        index, type, encoding);
+                list.add(column);
+                offsets[i] = data.readLong();
+                lengths[i] = data.readLong();
+                // Columns are streamed, so they can be larger than 2 GiB,
+                // but a corrupt length must not be read past the file end
+                if ((offsets[i] < 0) || (lengths[i] < 0)
+                        || (lengths[i] > size - offsets[i])) {
+                    throw new IOException("Column " + column + " at "
+                            + offsets[i] + " of length " + lengths[i]
+                            + " is outside of the file, of size " + size);
+                }
+            }
+            columns = Collections.unmodifiableList(list);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Returns the number of rows. */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** Returns the columns, in file order. */
+    public List<GenericObjectColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the column with the given index and type, or null if the
+     * file has no such column.
+     */
+    public GenericObjectColumn getColumn(final int index,
+            final ValueType type) {
+        final int position = columns.indexOf(new GenericObjectColumn(index,
+                type));
+        return (position < 0) ? null : columns.get(position);
+    }
+
+    /** Returns the minimum number of primitive slots for the column. */
+    private static int primitiveSlots(
+            final IGenericObjectAccessor<?> accessor,
+            final GenericObjectColumn column) {
+        final int index = column.getIndex();
+        switch (column.getType()) {
+        case OBJECT:
+            return 0;
+        case BOOLEAN:
+            return accessor.isBooleanValuesIDSpaceIndependentFromPrimitive() ? 0
+                    : index + 1;
+        case LONG:
+            return index + (accessor.isLongUsingTwoPrimitiveSlots() ? 2 : 1);
+        case DOUBLE:
+            return index
+                    + (accessor.isDoubleUsingTwoPrimitiveSlots() ? 2 : 1);
+        default:
+            return index + 1;
+        }
+    }
+
+    /** Writes the decoded values of a primitive column to the rows. */
+    private static <STORAGE> void setValues(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] rows, final int index, final ValueType type,
+            final long[] values) {
+        for (int i = 0; i < rows.length; i++) {
+            final long value = values[i];
+            final STORAGE row = rows[i];
+            switch (type) {
+            case BOOLEAN:
+                rows[i] = accessor.setBooleanValue(row, index, value != 0);
+                break;
+            case BYTE:
+                rows[i] = accessor.setByteValue(row, index, (byte) value);
+                break;
+            case CHAR:
+                rows[i] = accessor.setCharValue(row, index, (char) value);
+                break;
+            case SHORT:
+                rows[i] = accessor.setShortValue(row, index, (short) value);
+                break;
+            case INT:
+                rows[i] = accessor.setIntValue(row, index, (int) value);
+                break;
+            case FLOAT:
+                rows[i] = accessor.setFloatValue(row, index,
+                        Float.intBitsToFloat((int) value));
+                break;
+            case LONG:
+                rows[i] = accessor.setLongValue(row, index, value);
+                break;
+            default:
+                rows[i] = accessor.setDoubleValue(row, index,
+                        Double.longBitsToDouble(value));
+            }
+        }
+    }
+
+    /**
+     * Reads all the columns into the rows, with a BasicObjectCodec for the
+     * Object columns.
+     *
+     * @see #read(IGenericObjectAccessor, Object[], IObjectCodec,
+     *      GenericObjectColumn...)
+     */
+    public <STORAGE> STORAGE[] read(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] rows) throws IOException {
+        return read(accessor, rows, BasicObjectCodec.INSTANCE,
+                columns.toArray(new GenericObjectColumn[columns.size()]));
+    }
+
+    /**
+     * Reads the projected columns into the rows. The null rows are first
+     * created with enough slots for the projected columns; the other rows
+     * must already have enough slots. Only the projected columns are read
+     * from the file.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param rows The storage instances; one per row.
+     * @param codec The codec of the Object columns.
+     * @param projection The columns to read; the encoding is ignored.
+     * @return rows
+     *
+     * @throws NullPointerException if a parameter is null
+     * @throws IllegalArgumentException if rows does not have one instance
+     *         per row, or if a column is not in the file
+     * @throws IOException if the file cannot be read
+     */
+    public <STORAGE> STORAGE[] read(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] rows, final IObjectCodec codec,
+            final GenericObjectColumn... projection) throws IOException {
+        Objects.requireNonNull(accessor, "accessor");
+        Objects.requireNonNull(codec, "codec");
+        if (rows.length != rowCount) {
+            throw new IllegalArgumentException("rows.length: " + rows.length
+                    + " rowCount: " + rowCount);
+        }
+        final int[] positions = new int[projection.length];
+        int requiredPrimitiveSlots = 0;
+        int requiredObjectSlots = 0;
+        for (int i = 0; i < projection.length; i++) {
+            final GenericObjectColumn column = projection[i];
+            positions[i] = columns.indexOf(column);
+            if (positions[i] < 0) {
+                throw new IllegalArgumentException("Unknown column: "
+                        + column);
+            }
+            requiredPrimitiveSlots = Math.max(requiredPrimitiveSlots,
+                    primitiveSlots(accessor, column));
+            if (column.getType() == ValueType.OBJECT) {
+                requiredObjectSlots = Math.max(requiredObjectSlots,
+                        column.getIndex() + 1);
+            }
+        }
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == null) {
+                rows[i] = accessor.newGenericObject(requiredPrimitiveSlots,
+                        requiredObjectSlots);
+            }
+        }
+        long[] values = null;
+        for (final int position : positions) {
+            final GenericObjectColumn column = columns.get(position);
+            input.seek(offsets[position], lengths[position]);
+            final int index = column.getIndex();
+            if (column.getType() == ValueType.OBJECT) {
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = accessor.setObjectValue(rows[i], index,
+                            codec.decode(data));
+                }
+            } else {
+                if (values == null) {
+                    values = new long[rowCount];
+                }
+                column.getEncoding().decode(data, column.getWidth(), values);
+                setValues(accessor, rows, index, column.getType(), values);
+            }
+        }
+        return rows;
+    }
+
+    /* (non-Javadoc)
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
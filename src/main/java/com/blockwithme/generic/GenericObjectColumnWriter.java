@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * GenericObjectColumnWriter exports many generic objects to a columnar
+ * file, where every slot is stored as one column, so that a reader can
+ * load only the columns it needs.
+ *
+ * Each primitive column is stored with the smallest of the PLAIN, DELTA,
+ * RUN_LENGTH and DICTIONARY encodings; boolean columns are BIT_PACKED, and
+ * Object columns are encoded with an IObjectCodec.
+ *
+ * The file starts with a header (magic, version, row count, column count),
+ * followed by the column directory (index, type, encoding, offset and
+ * length of each column), and then the columns. The file is written with a
+ * FileChannel, through a large direct buffer.
+ *
+ * The columns are encoded directly into the direct buffer, and the values
+ * are read from the rows on demand, so that the heap usage does not grow
+ * with the number of rows (except for the distinct values of a DICTIONARY
+ * candidate). The size of each candidate encoding is first computed by
+ * encoding into a byte counter, so the values are read from the rows once
+ * per candidate, and once more to write the chosen encoding.
+ *
+ * @see GenericObjectColumnReader
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectColumnWriter {
+
+    /** The magic number of the file format: "GOCF". */
+    static final int MAGIC = 0x474F4346;
+
+    /** The version of the file format. */
+    static final int VERSION = 1;
+
+    /** The size of the header. */
+    static final int HEADER_BYTES = 4 * 4;
+
+    /** The size of one entry of the column directory. */
+    static final int ENTRY_BYTES = 4 + 1 + 1 + 8 + 8;
+
+    /** The size of the direct buffer used for the I/O. */
+    static final int BUFFER_SIZE = 1 << 20;
+
+    /** The encodings tried for the non-boolean primitive columns. */
+    private static final ColumnEncoding[] CANDIDATES = {
+            ColumnEncoding.PLAIN, ColumnEncoding.DELTA,
+            ColumnEncoding.RUN_LENGTH, ColumnEncoding.DICTIONARY };
+
+    /** The values of a primitive column, read from the rows, as long. */
+    private static final class RowValues<STORAGE> implements
+            ColumnEncoding.Values {
+        /** The generic object accessor implementation. */
+        private final IGenericObjectAccessor<STORAGE> accessor;
+        /** The rows. */
+        private final STORAGE[] rows;
+        /** The slot index. */
+        private final int index;
+        /** The value type. */
+        private final ValueType type;
+
+        /** Creates a RowValues. */
+        RowValues(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE[] rows, final int index, final ValueType type) {
+            this.accessor = accessor;
+            this.rows = rows;
+            this.index = index;
+            this.type = type;
+        }
+
+        /* (non-Javadoc)
+         * @see com.blockwithme.generic.ColumnEncoding.Values#size()
+         */
+        @Override
+        public int size() {
+            return rows.length;
+        }
+
+        /* (non-Javadoc)
+         * @see com.blockwithme.generic.ColumnEncoding.Values#get(int)
+         */
+        @Override
+        public long get(final int row) {
+            final STORAGE instance = rows[row];
+            switch (type) {
+            case BOOLEAN:
+                return accessor.getBooleanValue(instance, index) ? 1 : 0;
+            case BYTE:
+                return accessor.getByteValue(instance, index);
+            case CHAR:
+                return accessor.getCharValue(instance, index);
+            case SHORT:
+                return accessor.getShortValue(instance, index);
+            case INT:
+                return accessor.getIntValue(instance, index);
+            case FLOAT:
+                return Float.floatToRawIntBits(accessor.getFloatValue(
+                        instance, index));
+            case LONG:
+                return accessor.getLongValue(instance, index);
+            default:
+                return Double.doubleToRawLongBits(accessor.getDoubleValue(
+                        instance, index));
+            }
+        }
+    }
+
+    /** Counts the bytes written, without keeping them. */
+    private static final class ByteCounter extends OutputStream {
+        /** The number of bytes written. */
+        long count;
+
+        /* (non-Javadoc)
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+    }
+
+    /**
+     * Writes to the file channel, from a given position, through a
+     * direct buffer. Closing it does not close the channel.
+     */
+    private static final class ChannelOutput extends OutputStream {
+        /** The file channel. */
+        private final FileChannel channel;
+        /** The direct buffer. */
+        private final ByteBuffer buffer;
+        /** The file position of the start of the buffer. */
+        private long position;
+
+        /** Creates a ChannelOutput. */
+        ChannelOutput(final FileChannel channel, final ByteBuffer buffer,
+                final long position) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.position = position;
+            buffer.clear();
+        }
+
+        /** Returns the file position of the next byte. */
+        long position() {
+            return position + buffer.position();
+        }
+
+        /* (non-Javadoc)
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(final int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) b);
+        }
+
+        /* (non-Javadoc)
+         * @see java.io.OutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            int done = 0;
+            while (done < len) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                final int length = Math.min(buffer.remaining(), len - done);
+                buffer.put(b, off + done, length);
+                done += length;
+            }
+        }
+
+        /* (non-Javadoc)
+         * @see java.io.OutputStream#flush()
+         */
+        @Override
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+
+    /** No instance. */
+    private GenericObjectColumnWriter() {
+        // NOP
+    }
+
+    /**
+     * Returns the candidate with the smallest encoding of the values. Only
+     * the size of each encoding is computed.
+     */
+    private static ColumnEncoding smallest(
+            final ColumnEncoding.Values values, final int width)
+            throws IOException {
+        ColumnEncoding result = null;
+        long size = 0;
+        for (final ColumnEncoding candidate : CANDIDATES) {
+            final ByteCounter counter = new ByteCounter();
+            if (candidate.encode(values, width, counter)
+                    && ((result == null) || (counter.count < size))) {
+                result = candidate;
+                size = counter.count;
+            }
+        }
+        return result;
+    }
+
+    /** Writes all the bytes, at the given position, through the buffer. */
+    static void writeFully(final FileChannel channel, final ByteBuffer buffer,
+            final byte[] bytes, final long position) throws IOException {
+        long pos = position;
+        int done = 0;
+        while (done < bytes.length) {
+            final int length = Math.min(buffer.capacity(), bytes.length
+                    - done);
+            buffer.clear();
+            buffer.put(bytes, done, length);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                pos += channel.write(buffer, pos);
+            }
+            done += length;
+        }
+    }
+
+    /**
+     * Writes the columns of the rows to the file, with a BasicObjectCodec
+     * for the Object columns.
+     *
+     * @see #write(Path, IGenericObjectAccessor, Object[], IObjectCodec,
+     *      GenericObjectColumn...)
+     */
+    public static <STORAGE> List<GenericObjectColumn> write(final Path file,
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] rows, final GenericObjectColumn... columns)
+            throws IOException {
+        return write(file, accessor, rows, BasicObjectCodec.INSTANCE, columns);
+    }
+
+    /**
+     * Writes the columns of the rows to the file, replacing it if it
+     * exists.
+     *
+     * @param file The file.
+     * @param accessor The generic object accessor implementation.
+     * @param rows The storage instances; one per row.
+     * @param codec The codec of the Object columns.
+     * @param columns The columns to write.
+     * @return The columns written, with their encoding.
+     *
+     * @throws NullPointerException if a parameter, or a row, is null
+     * @throws IllegalArgumentException if a column is specified twice, or
+     *         is not valid for the accessor, or if the codec does not
+     *         support an Object value
+     * @throws IOException if the file cannot be written
+     */
+    public static <STORAGE> List<GenericObjectColumn> write(final Path file,
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] rows, final IObjectCodec codec,
+            final GenericObjectColumn... columns) throws IOException {
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(accessor, "accessor");
+        Objects.requireNonNull(rows, "rows");
+        Objects.requireNonNull(codec, "codec");
+        final Set<GenericObjectColumn> unique = new HashSet<>();
+        for (final GenericObjectColumn column : columns) {
+            if (!unique.add(Objects.requireNonNull(column, "column"))) {
+                throw new IllegalArgumentException("Duplicate column: "
+                        + column);
+            }
+        }
+        final List<GenericObjectColumn> result = new ArrayList<>();
+        final ByteBuffer directory = ByteBuffer.allocate(HEADER_BYTES
+                + columns.length * ENTRY_BYTES);
+        directory.putInt(MAGIC);
+        directory.putInt(VERSION);
+        directory.putInt(rows.length);
+        directory.putInt(columns.length);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ChannelOutput out = new ChannelOutput(channel, buffer,
+                    directory.capacity());
+            // DataOutputStream does not buffer, so it never needs flushing
+            final DataOutputStream data = new DataOutputStream(out);
+            for (final GenericObjectColumn column : columns) {
+                final int index = column.getIndex();
+                final ValueType type = column.getType();
+                final long position = out.position();
+                final ColumnEncoding encoding;
+                if (type == ValueType.OBJECT) {
+                    encoding = ColumnEncoding.CODEC;
+                    for (final STORAGE row : rows) {
+                        codec.encode(accessor.getObjectValue(row, index), data);
+                    }
+                } else {
+                    final RowValues<STORAGE> values = new RowValues<>(
+                            accessor, rows, index, type);
+                    if (type == ValueType.BOOLEAN) {
+                        encoding = ColumnEncoding.BIT_PACKED;
+                        encoding.encode(values, 1, out);
+                    } else {
+                        encoding = smallest(values, column.getWidth());
+                        encoding.encode(values, column.getWidth(), out);
+                    }
+                }
+                directory.putInt(index);
+                directory.put((byte) type.ordinal());
+                directory.put((byte) encoding.ordinal());
+                directory.putLong(position);
+                directory.putLong(out.position() - position);
+                result.add(new GenericObjectColumn(index, type, encoding));
+            }
+            out.flush();
+            writeFully(channel, buffer, directory.array(), 0);
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
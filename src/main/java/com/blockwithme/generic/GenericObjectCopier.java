@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An IObjectCopier that recursively copies nested GenericObject values,
+ * and shares all other values. Subclasses can override copyValue(), to
+ * also copy other types.
+ *
+ * Every GenericObject is only copied once, so shared references and
+ * cycles are preserved in the copy. Since it remembers the copies, an
+ * instance should only be used for a single deep copy.
+ *
+ * @see GenericObject#copy(IObjectCopier)
+ *
+ * @author monster
+ */
+public class GenericObjectCopier implements IObjectCopier {
+
+    /** The copies made so far, by original. */
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+    /* (non-Javadoc)
+     * @see IObjectCopier#copy(Object)
+     */
+    @Override
+    public final Object copy(final Object value) {
+        final Object done = copies.get(value);
+        if (done != null) {
+            return done;
+        }
+        if (value instanceof GenericObject) {
+            return copyGenericObject((GenericObject<?>) value);
+        }
+        final Object result = copyValue(value);
+        copies.put(value, result);
+        return result;
+    }
+
+    /** Copies a GenericObject, registering the copy before the values. */
+    <STORAGE> GenericObject<STORAGE> copyGenericObject(
+            final GenericObject<STORAGE> value) {
+        final IGenericObjectAccessor<STORAGE> accessor = value
+                .getGenericObjectAccessor();
+        final GenericObject<STORAGE> result = new GenericObject<>(accessor,
+                accessor.cloneStorage(value.getGenericObjectStorage(), null));
+        copies.put(value, result);
+        final int max = result.getObjectValuesMaximumIndex();
+        for (int i = accessor.getObjectValuesStartIndex(); i <= max; i++) {
+            final Object slot = result.getObjectValue(i);
+            if (slot != null) {
+                result.setObjectValue(i, copy(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies a value that is not a GenericObject. Returns the value itself,
+     * so that it is shared, by default.
+     *
+     * @param value The value to copy; never null.
+     * @return The copy of the value.
+     */
+    protected Object copyValue(final Object value) {
+        return value;
+    }
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * GenericObjectCursor is a reusable "flyweight" IGenericObject, over one
+ * row of a table of generic object storage instances (a STORAGE[]), so
+ * that a single cursor can walk any number of rows, without allocating one
+ * GenericObject per row.
+ *
+ * moveTo() selects a row; next() moves to the next row, and returns false
+ * after the last one. The cursor starts before the first row. All getters
+ * and setters apply to the current row; setters, resizes and trims write
+ * the (possibly new) storage instance back to the table. They must only
+ * be called while the cursor is on a row, and throw IllegalStateException
+ * otherwise. Only getGenericObjectStorage() can be called anywhere; it
+ * returns null when the cursor is not on a row.
+ *
+ * A cursor is not thread-safe, but any number of cursors can read the same
+ * table concurrently, as long as it is not modified.
+ *
+ * @author monster
+ */
+public final class GenericObjectCursor<STORAGE> implements
+        IGenericObject<STORAGE> {
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /** The table. */
+    private final STORAGE[] rows;
+
+    /** The first row, inclusive. */
+    private final int from;
+
+    /** The last row, exclusive. */
+    private final int to;
+
+    /** The current row; from - 1 before the first row. */
+    private int row;
+
+    /** The storage instance of the current row. */
+    private STORAGE instance;
+
+    /**
+     * Creates a cursor over all the rows of the table.
+     *
+     * @throws NullPointerException if accessor or rows is null
+     */
+    public GenericObjectCursor(final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] rows) {
+        this(accessor, rows, 0, rows.length);
+    }
+
+    /**
+     * Creates a cursor over the rows [from, to[ of the table.
+     *
+     * @throws NullPointerException if accessor or rows is null
+     * @throws IllegalArgumentException if the range is not within the table
+     */
+    public GenericObjectCursor(final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] rows, final int from, final int to) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+        this.rows = Objects.requireNonNull(rows, "rows");
+        if ((from < 0) || (from > to) || (to > rows.length)) {
+            throw new IllegalArgumentException("[" + from + ", " + to
+                    + "[ not within [0, " + rows.length + "[");
+        }
+        this.from = from;
+        this.to = to;
+        row = from - 1;
+    }
+
+    /**
+     * Moves to the given row.
+     *
+     * @return this cursor
+     *
+     * @throws IllegalArgumentException if the row is out of range
+     */
+    public GenericObjectCursor<STORAGE> moveTo(final int row) {
+        if ((row < from) || (row >= to)) {
+            throw new IllegalArgumentException("row: " + row
+                    + " must be within [" + from + ", " + to + "[");
+        }
+        this.row = row;
+        instance = rows[row];
+        return this;
+    }
+
+    /**
+     * Moves to the next row.
+     *
+     * @return false, if there was no next row.
+     */
+    public boolean next() {
+        final int nextRow = row + 1;
+        if (nextRow >= to) {
+            row = to;
+            instance = null;
+            return false;
+        }
+        row = nextRow;
+        instance = rows[nextRow];
+        return true;
+    }
+
+    /**
+     * Checks that the cursor is on a row, before reading or writing it.
+     *
+     * @throws IllegalStateException if the cursor is before the first row,
+     *         or after the last one
+     */
+    private void checkRow() {
+        if ((row < from) || (row >= to)) {
+            throw new IllegalStateException("Cursor is not on a row: " + row);
+        }
+    }
+
+    /** Moves the cursor back before the first row. */
+    public void reset() {
+        row = from - 1;
+        instance = null;
+    }
+
+    /** Returns the current row. */
+    public int getRow() {
+        return row;
+    }
+
+    /** Returns the number of rows of the cursor. */
+    public int getRowCount() {
+        return to - from;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectAccessor()
+     */
+    @Override
+    public IGenericObjectAccessor<STORAGE> getGenericObjectAccessor() {
+        return accessor;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectStorage()
+     */
+    @Override
+    public STORAGE getGenericObjectStorage() {
+        return instance;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setGenericObjectStorage(STORAGE)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setGenericObjectStorage(
+            final STORAGE instance) {
+        checkRow();
+        this.instance = Objects.requireNonNull(instance, "instance");
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesMaximumIndex()
+     */
+    @Override
+    public int getPrimitiveValuesMaximumIndex() {
+        checkRow();
+        return accessor.getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesMaximumIndex()
+     */
+    @Override
+    public int getBooleanValuesMaximumIndex()
+            throws UnsupportedOperationException {
+        checkRow();
+        return accessor.getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesMaximumIndex()
+     */
+    @Override
+    public int getObjectValuesMaximumIndex() {
+        checkRow();
+        return accessor.getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesSlotsAvailable()
+     */
+    @Override
+    public int getPrimitiveValuesSlotsAvailable() {
+        checkRow();
+        return accessor.getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesSlotsAvailable()
+     */
+    @Override
+    public int getBooleanValuesSlotsAvailable()
+            throws UnsupportedOperationException {
+        checkRow();
+        return accessor.getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesSlotsAvailable()
+     */
+    @Override
+    public int getObjectValuesSlotsAvailable() {
+        checkRow();
+        return accessor.getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesReservedSize()
+     */
+    @Override
+    public int getPrimitiveValuesReservedSize()
+            throws UnsupportedOperationException {
+        checkRow();
+        return accessor.getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesReservedSize()
+     */
+    @Override
+    public int getBooleanValuesReservedSize()
+            throws UnsupportedOperationException {
+        checkRow();
+        return accessor.getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesReservedSize()
+     */
+    @Override
+    public int getObjectValuesReservedSize()
+            throws UnsupportedOperationException {
+        checkRow();
+        return accessor.getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizePrimitiveValues(int)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> resizePrimitiveValues(
+            final int reservedSize) {
+        checkRow();
+        instance = accessor.resizePrimitiveValues(instance, reservedSize);
+        rows[row] = instance;
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeBooleanValues(int)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> resizeBooleanValues(
+            final int reservedSize) throws UnsupportedOperationException {
+        checkRow();
+        instance = accessor.resizeBooleanValues(instance, reservedSize);
+        rows[row] = instance;
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeObjectValues(int)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> resizeObjectValues(
+            final int reservedSize) {
+        checkRow();
+        instance = accessor.resizeObjectValues(instance, reservedSize);
+        rows[row] = instance;
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimPrimitiveValues()
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> trimPrimitiveValues() {
+        checkRow();
+        instance = accessor.trimPrimitiveValues(instance);
+        rows[row] = instance;
+        return this;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimObjectValues()
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> trimObjectValues() {
+        checkRow();
+        instance = accessor.trimObjectValues(instance);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValue(int)
+     */
+    @Override
+    public boolean getBooleanValue(final int index) {
+        checkRow();
+        return accessor.getBooleanValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setBooleanValue(int, boolean)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setBooleanValue(final int index,
+            final boolean value) {
+        checkRow();
+        instance = accessor.setBooleanValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getByteValue(int)
+     */
+    @Override
+    public byte getByteValue(final int index) {
+        checkRow();
+        return accessor.getByteValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setByteValue(int, byte)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setByteValue(final int index,
+            final byte value) {
+        checkRow();
+        instance = accessor.setByteValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getCharValue(int)
+     */
+    @Override
+    public char getCharValue(final int index) {
+        checkRow();
+        return accessor.getCharValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setCharValue(int, char)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setCharValue(final int index,
+            final char value) {
+        checkRow();
+        instance = accessor.setCharValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getShortValue(int)
+     */
+    @Override
+    public short getShortValue(final int index) {
+        checkRow();
+        return accessor.getShortValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setShortValue(int, short)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setShortValue(final int index,
+            final short value) {
+        checkRow();
+        instance = accessor.setShortValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getIntValue(int)
+     */
+    @Override
+    public int getIntValue(final int index) {
+        checkRow();
+        return accessor.getIntValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setIntValue(int, int)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setIntValue(final int index,
+            final int value) {
+        checkRow();
+        instance = accessor.setIntValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getFloatValue(int)
+     */
+    @Override
+    public float getFloatValue(final int index) {
+        checkRow();
+        return accessor.getFloatValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setFloatValue(int, float)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setFloatValue(final int index,
+            final float value) {
+        checkRow();
+        instance = accessor.setFloatValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getLongValue(int)
+     */
+    @Override
+    public long getLongValue(final int index) {
+        checkRow();
+        return accessor.getLongValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setLongValue(int, long)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setLongValue(final int index,
+            final long value) {
+        checkRow();
+        instance = accessor.setLongValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getDoubleValue(int)
+     */
+    @Override
+    public double getDoubleValue(final int index) {
+        checkRow();
+        return accessor.getDoubleValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setDoubleValue(int, double)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setDoubleValue(final int index,
+            final double value) {
+        checkRow();
+        instance = accessor.setDoubleValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValue(int)
+     */
+    @Override
+    public Object getObjectValue(final int index) {
+        checkRow();
+        return accessor.getObjectValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setObjectValue(int, Object)
+     */
+    @Override
+    public GenericObjectCursor<STORAGE> setObjectValue(final int index,
+            final Object value) {
+        checkRow();
+        instance = accessor.setObjectValue(instance, index, value);
+        rows[row] = instance;
+        return this;
+    }
+}
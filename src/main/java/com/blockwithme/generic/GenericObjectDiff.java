@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The result of comparing two generic object storage instances, with
+ * IGenericObjectAccessor.diff(). It lists the primitive, boolean and
+ * Object slots that differ. The slots are sorted in ascending order.
+ *
+ * Primitive slots are compared "raw", without knowing their type. When
+ * longs or doubles use two primitive slots, a changed slot could be either
+ * half of a two-slot value, so both of its neighbours are reported too. This
+ * way, a merge never combines the halves of a value written on different
+ * sides, at the cost of reporting changes to adjacent slots as conflicts.
+ * Booleans only have their own slots, when they use their own ID space;
+ * otherwise, they are primitive slots.
+ *
+ * A diff can be applied to a third instance with
+ * IGenericObjectAccessor.merge(), for a three-way merge:
+ * <pre>
+ * mine = accessor.diff(base, client);
+ * theirs = accessor.diff(base, server);
+ * if (mine.intersect(theirs).isEmpty()) {
+ *     server = accessor.merge(server, client, mine);
+ * }
+ * </pre>
+ *
+ * Instances are immutable.
+ *
+ * @see IGenericObjectAccessor#diff(Object, Object)
+ * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+ *
+ * @author monster
+ */
+public final class GenericObjectDiff {
+
+    /** Builds a diff, one slot at a time, in ascending order. */
+    static final class Builder {
+        /** The changed primitive slots. */
+        private int[] primitiveSlots = new int[8];
+        /** The number of changed primitive slots. */
+        private int primitiveCount;
+        /** The changed boolean slots. */
+        private int[] booleanSlots = new int[0];
+        /** The number of changed boolean slots. */
+        private int booleanCount;
+        /** The changed Object slots. */
+        private int[] objectSlots = new int[8];
+        /** The number of changed Object slots. */
+        private int objectCount;
+
+        /** Appends a value to an array, growing it if needed. */
+        private static int[] add(final int[] array, final int count,
+                final int value) {
+            final int[] result = (count == array.length) ? Arrays.copyOf(
+                    array, Math.max(8, count * 2)) : array;
+            result[count] = value;
+            return result;
+        }
+
+        /** Adds a changed primitive slot. */
+        void addPrimitive(final int slot) {
+            primitiveSlots = add(primitiveSlots, primitiveCount++, slot);
+        }
+
+        /**
+         * Adds a changed primitive slot, of a layout where longs or doubles
+         * use two slots, with both of its neighbours. limit is the number of
+         * primitive slots of the bigger instance.
+         */
+        void addPrimitivePair(final int slot, final int limit) {
+            final int last = (primitiveCount == 0) ? -1
+                    : primitiveSlots[primitiveCount - 1];
+            final int end = Math.min(slot + 1, limit - 1);
+            for (int i = Math.max(slot - 1, last + 1); i <= end; i++) {
+                addPrimitive(i);
+            }
+        }
+
+        /** Adds the changed booleans, as bits, starting at slot first. */
+        void addBooleans(final long changedBits, final int first) {
+            long bits = changedBits;
+            while (bits != 0) {
+                final int bit = Long.numberOfTrailingZeros(bits);
+                booleanSlots = add(booleanSlots, booleanCount++, first + bit);
+                bits &= bits - 1;
+            }
+        }
+
+        /**
+         * Compares the Object slots of two Object arrays, from start on. The
+         * slots are numbered from start.
+         */
+        void addObjects(final Object[] base, final Object[] changed,
+                final int start) {
+            final int common = Math.min(base.length, changed.length);
+            for (int i = start; i < common; i++) {
+                if (!Objects.equals(base[i], changed[i])) {
+                    objectSlots = add(objectSlots, objectCount++, i - start);
+                }
+            }
+            final Object[] longer = (base.length > changed.length) ? base
+                    : changed;
+            for (int i = Math.max(common, start); i < longer.length; i++) {
+                if (longer[i] != null) {
+                    objectSlots = add(objectSlots, objectCount++, i - start);
+                }
+            }
+        }
+
+        /** Creates the diff. */
+        GenericObjectDiff build() {
+            return new GenericObjectDiff(Arrays.copyOf(primitiveSlots,
+                    primitiveCount), Arrays.copyOf(booleanSlots, booleanCount),
+                    Arrays.copyOf(objectSlots, objectCount));
+        }
+    }
+
+    /** The changed primitive slots. */
+    final int[] primitiveSlots;
+
+    /** The changed boolean slots. */
+    final int[] booleanSlots;
+
+    /** The changed Object slots. */
+    final int[] objectSlots;
+
+    /** Creates a diff. */
+    private GenericObjectDiff(final int[] primitiveSlots,
+            final int[] booleanSlots, final int[] objectSlots) {
+        this.primitiveSlots = primitiveSlots;
+        this.booleanSlots = booleanSlots;
+        this.objectSlots = objectSlots;
+    }
+
+    /** @return a copy of the changed primitive slots. */
+    public int[] getPrimitiveSlots() {
+        return Arrays.copyOf(primitiveSlots, primitiveSlots.length);
+    }
+
+    /** @return a copy of the changed boolean slots. */
+    public int[] getBooleanSlots() {
+        return Arrays.copyOf(booleanSlots, booleanSlots.length);
+    }
+
+    /** @return a copy of the changed Object slots. */
+    public int[] getObjectSlots() {
+        return Arrays.copyOf(objectSlots, objectSlots.length);
+    }
+
+    /** @return true, if no slot changed. */
+    public boolean isEmpty() {
+        return (primitiveSlots.length == 0) && (booleanSlots.length == 0)
+                && (objectSlots.length == 0);
+    }
+
+    /** Returns the values in both sorted arrays. */
+    private static int[] intersect(final int[] a, final int[] b) {
+        final int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while ((i < a.length) && (j < b.length)) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the slots changed in both diffs. When both diffs are relative
+     * to the same base instance, these are the potential conflicts of a
+     * three-way merge.
+     *
+     * @param other The other diff.
+     * @return the slots changed in both diffs.
+     */
+    public GenericObjectDiff intersect(final GenericObjectDiff other) {
+        return new GenericObjectDiff(intersect(primitiveSlots,
+                other.primitiveSlots), intersect(booleanSlots,
+                other.booleanSlots), intersect(objectSlots, other.objectSlots));
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "GenericObjectDiff(primitiveSlots="
+                + Arrays.toString(primitiveSlots) + ", booleanSlots="
+                + Arrays.toString(booleanSlots) + ", objectSlots="
+                + Arrays.toString(objectSlots) + ")";
+    }
+}
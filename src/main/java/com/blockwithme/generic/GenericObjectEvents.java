@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * GenericObjectEvents holds the IGenericObjectEventListener called by all
+ * the generic object implementations, when they allocate storage.
+ *
+ * When no listener is set (the default), the cost is one field read, and
+ * only on the allocation paths.
+ *
+ * @author monster
+ */
+public final class GenericObjectEvents {
+
+    /** The current listener, or null. */
+    static volatile IGenericObjectEventListener listener;
+
+    /** No instance. */
+    private GenericObjectEvents() {
+        // NOP
+    }
+
+    /**
+     * Returns the current listener, or null.
+     *
+     * @return the current listener, or null.
+     */
+    public static IGenericObjectEventListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the current listener. null disables the events.
+     *
+     * @param newListener The new listener, or null.
+     */
+    public static void setListener(
+            final IGenericObjectEventListener newListener) {
+        listener = newListener;
+    }
+
+    /** Notifies the listener, if any, of a new storage instance. */
+    static void fireNew(final Class<?> implementation,
+            final int primitiveSize, final int objectSize) {
+        final IGenericObjectEventListener current = listener;
+        if (current != null) {
+            current.newGenericObject(implementation, primitiveSize,
+                    objectSize);
+        }
+    }
+
+    /** Notifies the listener, if any, of resized primitive values. */
+    static void firePrimitiveResized(final Class<?> implementation,
+            final int oldSize, final int newSize) {
+        final IGenericObjectEventListener current = listener;
+        if (current != null) {
+            current.primitiveValuesResized(implementation, oldSize, newSize);
+        }
+    }
+
+    /** Notifies the listener, if any, of resized Object values. */
+    static void fireObjectResized(final Class<?> implementation,
+            final int oldSize, final int newSize) {
+        final IGenericObjectEventListener current = listener;
+        if (current != null) {
+            current.objectValuesResized(implementation, oldSize, newSize);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * GenericObjectInterner canonicalizes generic object storage instances by
+ * content ("flyweight"), so that many identical instances, like
+ * configuration or template records, can share a single storage instance.
+ *
+ * Equality is defined by IGenericObjectAccessor.contentEquals() and
+ * contentHashCode(), so instances that only differ in their reserved size
+ * are considered identical. The canonical instances are trimmed private
+ * copies; the instances passed to intern() are never stored.
+ *
+ * The canonical instances must NOT be modified. GenericObject.intern()
+ * takes care of that, by copying the shared instance before the first
+ * modification. The canonical instances are strongly referenced, until
+ * clear() is called.
+ *
+ * @see GenericObject#intern(GenericObjectInterner)
+ *
+ * @author monster
+ */
+public final class GenericObjectInterner<STORAGE> {
+
+    /** The initial capacity; a power of two. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /** The canonical instances; null means the entry is free. */
+    private Object[] entries = new Object[INITIAL_CAPACITY];
+
+    /** The content hash codes of the canonical instances. */
+    private int[] hashes = new int[INITIAL_CAPACITY];
+
+    /** The number of canonical instances. */
+    private int size;
+
+    /**
+     * Creates an interner.
+     *
+     * @param accessor The generic object accessor implementation.
+     *
+     * @throws NullPointerException if accessor is null
+     */
+    public GenericObjectInterner(final IGenericObjectAccessor<STORAGE> accessor) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+    }
+
+    /** @return The generic object accessor implementation. */
+    public IGenericObjectAccessor<STORAGE> getAccessor() {
+        return accessor;
+    }
+
+    /** Returns the canonical instance at the given position. */
+    @SuppressWarnings("unchecked")
+    private STORAGE entry(final int pos) {
+        return (STORAGE) entries[pos];
+    }
+
+    /** Spreads the hash code bits. */
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /** Returns the position of the instance, or (-insertion position - 1). */
+    private int find(final STORAGE instance, final int hash) {
+        final int mask = entries.length - 1;
+        int i = spread(hash) & mask;
+        while (entries[i] != null) {
+            if ((hashes[i] == hash)
+                    && accessor.contentEquals(entry(i), instance)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -i - 1;
+    }
+
+    /** Doubles the capacity. */
+    private void grow() {
+        final Object[] oldEntries = entries;
+        final int[] oldHashes = hashes;
+        entries = new Object[oldEntries.length * 2];
+        hashes = new int[entries.length];
+        final int mask = entries.length - 1;
+        for (int i = 0; i < oldEntries.length; i++) {
+            if (oldEntries[i] != null) {
+                int pos = spread(oldHashes[i]) & mask;
+                while (entries[pos] != null) {
+                    pos = (pos + 1) & mask;
+                }
+                entries[pos] = oldEntries[i];
+                hashes[pos] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the canonical instance with the same content as the given
+     * instance. If there is none yet, a trimmed copy of the given instance
+     * becomes the canonical instance.
+     *
+     * @param instance The generic object storage instance.
+     * @return The canonical instance; never the given instance.
+     *
+     * @throws NullPointerException if instance is null
+     * @throws IllegalArgumentException if the accessor is an
+     *         IndexingGenericObjectAccessor, and the instance is indexed.
+     *         The canonical instance is shared, so it cannot take the
+     *         place of the instance in the indexes.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized STORAGE intern(final STORAGE instance) {
+        Objects.requireNonNull(instance, "instance");
+        if ((accessor instanceof IndexingGenericObjectAccessor)
+                && ((IndexingGenericObjectAccessor<STORAGE>) accessor)
+                        .isIndexed(instance)) {
+            throw new IllegalArgumentException(
+                    "Indexed instances cannot be interned");
+        }
+        final int hash = accessor.contentHashCode(instance);
+        int pos = find(instance, hash);
+        if (pos >= 0) {
+            return entry(pos);
+        }
+        if ((size + 1) * 2 > entries.length) {
+            grow();
+            pos = find(instance, hash);
+        }
+        pos = -pos - 1;
+        final STORAGE canonical = accessor.cloneStorage(instance, null);
+        entries[pos] = canonical;
+        hashes[pos] = hash;
+        size++;
+        return canonical;
+    }
+
+    /** @return The number of canonical instances. */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Forgets all canonical instances. */
+    public synchronized void clear() {
+        entries = new Object[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+}
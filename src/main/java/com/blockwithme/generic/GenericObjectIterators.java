@@ -0,0 +1,473 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * GenericObjectIterators creates primitive iterators over either a range
+ * of primitive slots of one generic object, or one primitive slot of many
+ * generic objects (a "column").
+ *
+ * The values are read directly from the primitive arrays of the layouts of
+ * this package, and through the accessor typed getters otherwise, so no
+ * value is boxed, and all encodings are decoded correctly. The iterators
+ * over the slots of one instance read the primitive array it has when the
+ * iterator is created. The iterators can be split, to process the values
+ * in parallel (for example with a ForkJoinPool), as long as the generic
+ * objects are not modified concurrently.
+ *
+ * Note that when the accessor uses two primitive slots for long, or
+ * double, values, the long and double iterators over a range of slots
+ * only visit every second slot.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectIterators {
+
+    /** No instance. */
+    private GenericObjectIterators() {
+        // NOP
+    }
+
+    /** Base class of the iterators: visits positions from, from+step, ... */
+    private abstract static class AbstractIterator {
+        /** The next position. */
+        protected int position;
+        /** The end position, exclusive. */
+        protected final int end;
+        /** The step between two positions. */
+        protected final int step;
+
+        /** Creates an iterator. */
+        AbstractIterator(final int position, final int end, final int step) {
+            this.position = position;
+            this.end = end;
+            this.step = step;
+        }
+
+        /** @see IIntIterator#hasNext() */
+        public final boolean hasNext() {
+            return position < end;
+        }
+
+        /** @see IIntIterator#estimateSize() */
+        public final int estimateSize() {
+            return (position < end) ? (end - position + step - 1) / step : 0;
+        }
+
+        /** Returns the current position, and moves to the next one. */
+        protected final int nextPosition() {
+            final int result = position;
+            if (result >= end) {
+                throw new NoSuchElementException();
+            }
+            position += step;
+            return result;
+        }
+
+        /**
+         * Returns the start position of the second half, after moving this
+         * iterator to it, or -1 if too small to split.
+         */
+        protected final int split() {
+            final int size = estimateSize();
+            if (size < 2) {
+                return -1;
+            }
+            final int start = position;
+            position = start + (size / 2) * step;
+            return start;
+        }
+    }
+
+    /** Checks a range of slots. */
+    private static void checkRange(final int from, final int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("from (" + from
+                    + ") > to (" + to + ")");
+        }
+    }
+
+    /** Returns the step between long, or double, values. */
+    private static int wideStep(final boolean twoSlots) {
+        return twoSlots ? 2 : 1;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Iterates over int slots of one instance. */
+    private static final class SlotsIntIterator<STORAGE> extends
+            AbstractIterator implements IIntIterator {
+        /** The generic object accessor implementation. */
+        private final IGenericObjectAccessor<STORAGE> accessor;
+        /** The generic object storage instance. */
+        private final STORAGE instance;
+        /** The layout of the accessor. */
+        private final int layout;
+        /** The primitive array of the instance, if the layout is known. */
+        private final Object primitives;
+
+        /** Creates an iterator. */
+        SlotsIntIterator(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE instance, final int from, final int to,
+                final int step) {
+            super(from, to, step);
+            this.accessor = accessor;
+            this.instance = instance;
+            layout = GenericObjectLayouts.layout(accessor);
+            primitives = GenericObjectLayouts.primitives(layout, instance);
+        }
+
+        @Override
+        public int nextInt() {
+            final int slot = nextPosition();
+            if (layout == GenericObjectLayouts.OTHER) {
+                return accessor.getIntValue(instance, slot);
+            }
+            return GenericObjectLayouts.getIntValue(layout, primitives, slot);
+        }
+
+        @Override
+        public IIntIterator trySplit() {
+            final int start = split();
+            return (start < 0) ? null : new SlotsIntIterator<>(accessor,
+                    instance, start, position, step);
+        }
+    }
+
+    /** Iterates over one int slot of many instances. */
+    private static final class ColumnIntIterator<STORAGE> extends
+            AbstractIterator implements IIntIterator {
+        /** The generic object accessor implementation. */
+        private final IGenericObjectAccessor<STORAGE> accessor;
+        /** The generic object storage instances. */
+        private final STORAGE[] instances;
+        /** The primitive index. */
+        private final int index;
+        /** The layout of the accessor. */
+        private final int layout;
+
+        /** Creates an iterator. */
+        ColumnIntIterator(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE[] instances, final int index, final int from,
+                final int to) {
+            super(from, to, 1);
+            this.accessor = accessor;
+            this.instances = instances;
+            this.index = index;
+            layout = GenericObjectLayouts.layout(accessor);
+        }
+
+        @Override
+        public int nextInt() {
+            return GenericObjectLayouts.getIntValue(layout, accessor,
+                    instances[nextPosition()], index);
+        }
+
+        @Override
+        public IIntIterator trySplit() {
+            final int start = split();
+            return (start < 0) ? null : new ColumnIntIterator<>(accessor,
+                    instances, index, start, position);
+        }
+    }
+
+    /**
+     * Returns an iterator over the int values of the primitive slots
+     * [from, to) of one generic object.
+     *
+     * @param object The generic object.
+     * @param from The first primitive index, inclusive.
+     * @param to The last primitive index, exclusive.
+     * @return a new iterator.
+     *
+     * @throws NullPointerException if object is null
+     * @throws IllegalArgumentException if from > to
+     */
+    public static <STORAGE> IIntIterator intSlots(
+            final IGenericObject<STORAGE> object, final int from,
+            final int to) {
+        checkRange(from, to);
+        final IGenericObjectAccessor<STORAGE> accessor = object
+                .getGenericObjectAccessor();
+        return new SlotsIntIterator<>(accessor,
+                object.getGenericObjectStorage(), from, to, 1);
+    }
+
+    /**
+     * Returns an iterator over the int value of one primitive slot of
+     * many generic object storage instances.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     * @return a new iterator.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> IIntIterator intColumn(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        return new ColumnIntIterator<>(Objects.requireNonNull(accessor,
+                "accessor"), instances, index, 0, instances.length);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Iterates over long slots of one instance. */
+    private static final class SlotsLongIterator<STORAGE> extends
+            AbstractIterator implements ILongIterator {
+        /** The generic object accessor implementation. */
+        private final IGenericObjectAccessor<STORAGE> accessor;
+        /** The generic object storage instance. */
+        private final STORAGE instance;
+        /** The layout of the accessor. */
+        private final int layout;
+        /** The primitive array of the instance, if the layout is known. */
+        private final Object primitives;
+
+        /** Creates an iterator. */
+        SlotsLongIterator(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE instance, final int from, final int to,
+                final int step) {
+            super(from, to, step);
+            this.accessor = accessor;
+            this.instance = instance;
+            layout = GenericObjectLayouts.layout(accessor);
+            primitives = GenericObjectLayouts.primitives(layout, instance);
+        }
+
+        @Override
+        public long nextLong() {
+            final int slot = nextPosition();
+            if (layout == GenericObjectLayouts.OTHER) {
+                return accessor.getLongValue(instance, slot);
+            }
+            return GenericObjectLayouts.getLongValue(layout, primitives, slot);
+        }
+
+        @Override
+        public ILongIterator trySplit() {
+            final int start = split();
+            return (start < 0) ? null : new SlotsLongIterator<>(accessor,
+                    instance, start, position, step);
+        }
+    }
+
+    /** Iterates over one long slot of many instances. */
+    private static final class ColumnLongIterator<STORAGE> extends
+            AbstractIterator implements ILongIterator {
+        /** The generic object accessor implementation. */
+        private final IGenericObjectAccessor<STORAGE> accessor;
+        /** The generic object storage instances. */
+        private final STORAGE[] instances;
+        /** The primitive index. */
+        private final int index;
+        /** The layout of the accessor. */
+        private final int layout;
+
+        /** Creates an iterator. */
+        ColumnLongIterator(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE[] instances, final int index, final int from,
+                final int to) {
+            super(from, to, 1);
+            this.accessor = accessor;
+            this.instances = instances;
+            this.index = index;
+            layout = GenericObjectLayouts.layout(accessor);
+        }
+
+        @Override
+        public long nextLong() {
+            return GenericObjectLayouts.getLongValue(layout, accessor,
+                    instances[nextPosition()], index);
+        }
+
+        @Override
+        public ILongIterator trySplit() {
+            final int start = split();
+            return (start < 0) ? null : new ColumnLongIterator<>(accessor,
+                    instances, index, start, position);
+        }
+    }
+
+    /**
+     * Returns an iterator over the long values of the primitive slots
+     * [from, to) of one generic object.
+     *
+     * @param object The generic object.
+     * @param from The first primitive index, inclusive.
+     * @param to The last primitive index, exclusive.
+     * @return a new iterator.
+     *
+     * @throws NullPointerException if object is null
+     * @throws IllegalArgumentException if from > to
+     */
+    public static <STORAGE> ILongIterator longSlots(
+            final IGenericObject<STORAGE> object, final int from,
+            final int to) {
+        checkRange(from, to);
+        final IGenericObjectAccessor<STORAGE> accessor = object
+                .getGenericObjectAccessor();
+        final int step = wideStep(accessor
+                .isLongUsingTwoPrimitiveSlots());
+        return new SlotsLongIterator<>(accessor,
+                object.getGenericObjectStorage(), from, to, step);
+    }
+
+    /**
+     * Returns an iterator over the long value of one primitive slot of
+     * many generic object storage instances.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     * @return a new iterator.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> ILongIterator longColumn(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        return new ColumnLongIterator<>(Objects.requireNonNull(accessor,
+                "accessor"), instances, index, 0, instances.length);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Iterates over double slots of one instance. */
+    private static final class SlotsDoubleIterator<STORAGE> extends
+            AbstractIterator implements IDoubleIterator {
+        /** The generic object accessor implementation. */
+        private final IGenericObjectAccessor<STORAGE> accessor;
+        /** The generic object storage instance. */
+        private final STORAGE instance;
+        /** The layout of the accessor. */
+        private final int layout;
+        /** The primitive array of the instance, if the layout is known. */
+        private final Object primitives;
+
+        /** Creates an iterator. */
+        SlotsDoubleIterator(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE instance, final int from, final int to,
+                final int step) {
+            super(from, to, step);
+            this.accessor = accessor;
+            this.instance = instance;
+            layout = GenericObjectLayouts.layout(accessor);
+            primitives = GenericObjectLayouts.primitives(layout, instance);
+        }
+
+        @Override
+        public double nextDouble() {
+            final int slot = nextPosition();
+            if (layout == GenericObjectLayouts.OTHER) {
+                return accessor.getDoubleValue(instance, slot);
+            }
+            return GenericObjectLayouts.getDoubleValue(layout, primitives,
+                    slot);
+        }
+
+        @Override
+        public IDoubleIterator trySplit() {
+            final int start = split();
+            return (start < 0) ? null : new SlotsDoubleIterator<>(accessor,
+                    instance, start, position, step);
+        }
+    }
+
+    /** Iterates over one double slot of many instances. */
+    private static final class ColumnDoubleIterator<STORAGE> extends
+            AbstractIterator implements IDoubleIterator {
+        /** The generic object accessor implementation. */
+        private final IGenericObjectAccessor<STORAGE> accessor;
+        /** The generic object storage instances. */
+        private final STORAGE[] instances;
+        /** The primitive index. */
+        private final int index;
+        /** The layout of the accessor. */
+        private final int layout;
+
+        /** Creates an iterator. */
+        ColumnDoubleIterator(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE[] instances, final int index, final int from,
+                final int to) {
+            super(from, to, 1);
+            this.accessor = accessor;
+            this.instances = instances;
+            this.index = index;
+            layout = GenericObjectLayouts.layout(accessor);
+        }
+
+        @Override
+        public double nextDouble() {
+            return GenericObjectLayouts.getDoubleValue(layout, accessor,
+                    instances[nextPosition()], index);
+        }
+
+        @Override
+        public IDoubleIterator trySplit() {
+            final int start = split();
+            return (start < 0) ? null : new ColumnDoubleIterator<>(accessor,
+                    instances, index, start, position);
+        }
+    }
+
+    /**
+     * Returns an iterator over the double values of the primitive slots
+     * [from, to) of one generic object.
+     *
+     * @param object The generic object.
+     * @param from The first primitive index, inclusive.
+     * @param to The last primitive index, exclusive.
+     * @return a new iterator.
+     *
+     * @throws NullPointerException if object is null
+     * @throws IllegalArgumentException if from > to
+     */
+    public static <STORAGE> IDoubleIterator doubleSlots(
+            final IGenericObject<STORAGE> object, final int from,
+            final int to) {
+        checkRange(from, to);
+        final IGenericObjectAccessor<STORAGE> accessor = object
+                .getGenericObjectAccessor();
+        final int step = wideStep(accessor
+                .isDoubleUsingTwoPrimitiveSlots());
+        return new SlotsDoubleIterator<>(accessor,
+                object.getGenericObjectStorage(), from, to, step);
+    }
+
+    /**
+     * Returns an iterator over the double value of one primitive slot of
+     * many generic object storage instances.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     * @return a new iterator.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> IDoubleIterator doubleColumn(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        return new ColumnDoubleIterator<>(Objects.requireNonNull(accessor,
+                "accessor"), instances, index, 0, instances.length);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * GenericObjectLayouts reads primitive values directly from the primitive
+ * arrays of the Object[] layouts of this package, so that bulk readers,
+ * like the iterators and the aggregates, do not make one interface call
+ * per value. Instances of other accessors are read through the accessor.
+ *
+ * The typed getters of the layouts are final, so subclasses of the layout
+ * accessors are read directly too.
+ *
+ * @see GenericObjectIterators
+ * @see GenericObjectAggregates
+ *
+ * @author monster
+ */
+@GwtIncompatible
+final class GenericObjectLayouts {
+
+    /** Any other accessor; values are read through the accessor. */
+    static final int OTHER = 0;
+
+    /** IntGenericObjectAccessor; the primitive array is an int[]. */
+    static final int INT = 1;
+
+    /** LongFixedBooleanGenericObjectAccessor; a long[]. */
+    static final int LONG = 2;
+
+    /** DoubleFixedBooleanGenericObjectAccessor; a double[]. */
+    static final int DOUBLE = 3;
+
+    /** No instance. */
+    private GenericObjectLayouts() {
+        // NOP
+    }
+
+    /**
+     * Returns the layout of the accessor, or OTHER if its primitive arrays
+     * cannot be read directly.
+     */
+    static int layout(final IGenericObjectAccessor<?> accessor) {
+        if (accessor instanceof IntGenericObjectAccessor) {
+            return INT;
+        }
+        if (accessor instanceof LongFixedBooleanGenericObjectAccessor) {
+            return LONG;
+        }
+        if (accessor instanceof DoubleFixedBooleanGenericObjectAccessor) {
+            return DOUBLE;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Returns the primitive array of an instance of a layout other than
+     * OTHER, or null for OTHER.
+     */
+    static Object primitives(final int layout, final Object instance) {
+        return (layout == OTHER) ? null : ((Object[]) instance)[0];
+    }
+
+    /** Reads an int value from the primitive array of a layout. */
+    static int getIntValue(final int layout, final Object primitives,
+            final int index) {
+        switch (layout) {
+        case INT:
+            return IntGenericObjectAccessor.getIntValue((int[]) primitives,
+                    index);
+        case LONG:
+            return LongFixedBooleanGenericObjectAccessor.getIntValue(
+                    (long[]) primitives, index);
+        default:
+            return DoubleFixedBooleanGenericObjectAccessor.getIntValue(
+                    (double[]) primitives, index);
+        }
+    }
+
+    /** Reads a long value from the primitive array of a layout. */
+    static long getLongValue(final int layout, final Object primitives,
+            final int index) {
+        switch (layout) {
+        case INT:
+            return IntGenericObjectAccessor.getLongValue((int[]) primitives,
+                    index);
+        case LONG:
+            return LongFixedBooleanGenericObjectAccessor.getLongValue(
+                    (long[]) primitives, index);
+        default:
+            return DoubleFixedBooleanGenericObjectAccessor.getLongValue(
+                    (double[]) primitives, index);
+        }
+    }
+
+    /** Reads a double value from the primitive array of a layout. */
+    static double getDoubleValue(final int layout, final Object primitives,
+            final int index) {
+        switch (layout) {
+        case INT:
+            return IntGenericObjectAccessor.getDoubleValue((int[]) primitives,
+                    index);
+        case LONG:
+            return LongFixedBooleanGenericObjectAccessor.getDoubleValue(
+                    (long[]) primitives, index);
+        default:
+            return DoubleFixedBooleanGenericObjectAccessor.getDoubleValue(
+                    (double[]) primitives, index);
+        }
+    }
+
+    /** Reads an int value of an instance, directly if possible. */
+    static <STORAGE> int getIntValue(final int layout,
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance, final int index) {
+        if (layout == OTHER) {
+            return accessor.getIntValue(instance, index);
+        }
+        return getIntValue(layout, ((Object[]) instance)[0], index);
+    }
+
+    /** Reads a long value of an instance, directly if possible. */
+    static <STORAGE> long getLongValue(final int layout,
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance, final int index) {
+        if (layout == OTHER) {
+            return accessor.getLongValue(instance, index);
+        }
+        return getLongValue(layout, ((Object[]) instance)[0], index);
+    }
+
+    /** Reads a double value of an instance, directly if possible. */
+    static <STORAGE> double getDoubleValue(final int layout,
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance, final int index) {
+        if (layout == OTHER) {
+            return accessor.getDoubleValue(instance, index);
+        }
+        return getDoubleValue(layout, ((Object[]) instance)[0], index);
+    }
+}
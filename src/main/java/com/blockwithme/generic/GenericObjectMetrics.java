@@ -0,0 +1,410 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * GenericObjectMetrics holds the counters updated by a
+ * MetricsGenericObjectAccessor. The counters are StripedCounter, so they
+ * can be updated concurrently at a low cost.
+ *
+ * The counters can be read either through an immutable Snapshot, or
+ * through JMX, after calling registerMBean().
+ *
+ * Allocated bytes are *estimated* from the number of slots available,
+ * assuming 4 bytes per Object reference, and 16 bytes per array header.
+ *
+ * @see MetricsGenericObjectAccessor
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectMetrics implements GenericObjectMetricsMXBean {
+
+    /** The JMX domain used by registerMBean(). */
+    public static final String JMX_DOMAIN = "com.blockwithme.generic";
+
+    /** Estimated size of an array header. */
+    static final int ARRAY_HEADER_BYTES = 16;
+
+    /** Estimated size of an Object reference. */
+    static final int REFERENCE_BYTES = 4;
+
+    /** The value types. */
+    private static final ValueType[] TYPES = ValueType.values();
+
+    /**
+     * An immutable snapshot of the counters of a GenericObjectMetrics.
+     */
+    public static final class Snapshot {
+        /** Get calls, per type. */
+        private final long[] gets;
+        /** Set calls, per type. */
+        private final long[] sets;
+        /** New generic object instances. */
+        private final long newGenericObjects;
+        /** Primitive values reallocations. */
+        private final long primitiveResizes;
+        /** Object values reallocations. */
+        private final long objectResizes;
+        /** Estimated bytes allocated. */
+        private final long bytesAllocated;
+        /** Failed index checks. */
+        private final long failedIndexChecks;
+
+        /** Creates a snapshot. */
+        Snapshot(final long[] gets, final long[] sets,
+                final long newGenericObjects, final long primitiveResizes,
+                final long objectResizes, final long bytesAllocated,
+                final long failedIndexChecks) {
+            this.gets = gets;
+            this.sets = sets;
+            this.newGenericObjects = newGenericObjects;
+            this.primitiveResizes = primitiveResizes;
+            this.objectResizes = objectResizes;
+            this.bytesAllocated = bytesAllocated;
+            this.failedIndexChecks = failedIndexChecks;
+        }
+
+        /**
+         * @param type The value type
+         * @return The number of get calls for the given type.
+         */
+        public long getGets(final ValueType type) {
+            return gets[type.ordinal()];
+        }
+
+        /**
+         * @param type The value type
+         * @return The number of set calls for the given type.
+         */
+        public long getSets(final ValueType type) {
+            return sets[type.ordinal()];
+        }
+
+        /** @return The total number of get calls. */
+        public long getTotalGets() {
+            return sum(gets);
+        }
+
+        /** @return The total number of set calls. */
+        public long getTotalSets() {
+            return sum(sets);
+        }
+
+        /** @return The number of new generic object instances. */
+        public long getNewGenericObjects() {
+            return newGenericObjects;
+        }
+
+        /** @return The number of times the primitive values were reallocated. */
+        public long getPrimitiveResizes() {
+            return primitiveResizes;
+        }
+
+        /** @return The number of times the Object values were reallocated. */
+        public long getObjectResizes() {
+            return objectResizes;
+        }
+
+        /** @return The estimated number of bytes allocated. */
+        public long getBytesAllocated() {
+            return bytesAllocated;
+        }
+
+        /** @return The number of accesses that failed the index check. */
+        public long getFailedIndexChecks() {
+            return failedIndexChecks;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "Snapshot(gets=" + toMap(gets) + ", sets=" + toMap(sets)
+                    + ", newGenericObjects=" + newGenericObjects
+                    + ", primitiveResizes=" + primitiveResizes
+                    + ", objectResizes=" + objectResizes
+                    + ", bytesAllocated=" + bytesAllocated
+                    + ", failedIndexChecks=" + failedIndexChecks + ")";
+        }
+    }
+
+    /** Get calls, per type. */
+    private final StripedCounter[] gets = newCounters();
+    /** Set calls, per type. */
+    private final StripedCounter[] sets = newCounters();
+    /** New generic object instances. */
+    private final StripedCounter newGenericObjects = new StripedCounter();
+    /** Primitive values reallocations. */
+    private final StripedCounter primitiveResizes = new StripedCounter();
+    /** Object values reallocations. */
+    private final StripedCounter objectResizes = new StripedCounter();
+    /** Estimated bytes allocated. */
+    private final StripedCounter bytesAllocated = new StripedCounter();
+    /** Failed index checks. */
+    private final StripedCounter failedIndexChecks = new StripedCounter();
+
+    /**
+     * Estimates the size of the primitive values of an instance. Primitive
+     * slots are 4 bytes, if long uses two slots, and 8 bytes otherwise.
+     */
+    static <STORAGE> long primitiveBytes(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance) {
+        final int slotBytes = accessor.isLongUsingTwoPrimitiveSlots() ? 4 : 8;
+        return ARRAY_HEADER_BYTES
+                + ((long) accessor.getPrimitiveValuesSlotsAvailable(instance))
+                * slotBytes;
+    }
+
+    /** Estimates the size of the Object values of an instance. */
+    static <STORAGE> long objectBytes(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance) {
+        return ARRAY_HEADER_BYTES
+                + ((long) accessor.getObjectValuesSlotsAvailable(instance))
+                * REFERENCE_BYTES;
+    }
+
+    /**
+     * Estimates the number of bytes used by the arrays of a storage
+     * instance, from the number of slots available. The referenced Objects
+     * are not included.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instance The generic object storage instance.
+     * @return the estimated size of the storage instance, in bytes.
+     */
+    public static <STORAGE> long estimateBytes(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance) {
+        return primitiveBytes(accessor, instance)
+                + objectBytes(accessor, instance);
+    }
+
+    /** Creates one counter per value type. */
+    private static StripedCounter[] newCounters() {
+        final StripedCounter[] result = new StripedCounter[TYPES.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new StripedCounter();
+        }
+        return result;
+    }
+
+    /** Sums the values. */
+    private static long sum(final long[] values) {
+        long result = 0;
+        for (final long value : values) {
+            result += value;
+        }
+        return result;
+    }
+
+    /** Reads the counters. */
+    private static long[] read(final StripedCounter[] counters) {
+        final long[] result = new long[counters.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = counters[i].sum();
+        }
+        return result;
+    }
+
+    /** Converts per-type values to a Map. */
+    private static Map<String, Long> toMap(final long[] values) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (final ValueType type : TYPES) {
+            result.put(type.name(), values[type.ordinal()]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Records a get call. */
+    void recordGet(final ValueType type) {
+        gets[type.ordinal()].increment();
+    }
+
+    /** Records a set call. */
+    void recordSet(final ValueType type) {
+        sets[type.ordinal()].increment();
+    }
+
+    /** Records a new generic object. */
+    void recordNewGenericObject(final long bytes) {
+        newGenericObjects.increment();
+        bytesAllocated.add(bytes);
+    }
+
+    /** Records a reallocation of the primitive values. */
+    void recordPrimitiveResize(final long bytes) {
+        primitiveResizes.increment();
+        bytesAllocated.add(bytes);
+    }
+
+    /** Records a reallocation of the Object values. */
+    void recordObjectResize(final long bytes) {
+        objectResizes.increment();
+        bytesAllocated.add(bytes);
+    }
+
+    /** Records a failed index check. */
+    void recordFailedIndexCheck() {
+        failedIndexChecks.increment();
+    }
+
+    /**
+     * Returns an immutable snapshot of the counters. Not atomic, if the
+     * counters are updated concurrently.
+     *
+     * @return an immutable snapshot of the counters.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(read(gets), read(sets), newGenericObjects.sum(),
+                primitiveResizes.sum(), objectResizes.sum(),
+                bytesAllocated.sum(), failedIndexChecks.sum());
+    }
+
+    /**
+     * Registers this instance in the platform MBeanServer, under the
+     * JMX_DOMAIN, with the given name.
+     *
+     * @param name The name of this metrics instance.
+     * @return The ObjectName used for the registration.
+     *
+     * @throws NullPointerException if name is null
+     * @throws IllegalStateException if the registration fails.
+     */
+    public ObjectName registerMBean(final String name) {
+        Objects.requireNonNull(name, "name");
+        try {
+            final ObjectName objectName = new ObjectName(JMX_DOMAIN
+                    + ":type=GenericObjectMetrics,name="
+                    + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    objectName);
+            return objectName;
+        } catch (final JMException e) {
+            throw new IllegalStateException("Could not register " + name, e);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getGetsPerType()
+     */
+    @Override
+    public Map<String, Long> getGetsPerType() {
+        return toMap(read(gets));
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getSetsPerType()
+     */
+    @Override
+    public Map<String, Long> getSetsPerType() {
+        return toMap(read(sets));
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getTotalGets()
+     */
+    @Override
+    public long getTotalGets() {
+        return sum(read(gets));
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getTotalSets()
+     */
+    @Override
+    public long getTotalSets() {
+        return sum(read(sets));
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getNewGenericObjects()
+     */
+    @Override
+    public long getNewGenericObjects() {
+        return newGenericObjects.sum();
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getPrimitiveResizes()
+     */
+    @Override
+    public long getPrimitiveResizes() {
+        return primitiveResizes.sum();
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getObjectResizes()
+     */
+    @Override
+    public long getObjectResizes() {
+        return objectResizes.sum();
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getBytesAllocated()
+     */
+    @Override
+    public long getBytesAllocated() {
+        return bytesAllocated.sum();
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#getFailedIndexChecks()
+     */
+    @Override
+    public long getFailedIndexChecks() {
+        return failedIndexChecks.sum();
+    }
+
+    /* (non-Javadoc)
+     * @see GenericObjectMetricsMXBean#reset()
+     */
+    @Override
+    public void reset() {
+        for (final StripedCounter counter : gets) {
+            counter.sumThenReset();
+        }
+        for (final StripedCounter counter : sets) {
+            counter.sumThenReset();
+        }
+        newGenericObjects.sumThenReset();
+        primitiveResizes.sumThenReset();
+        objectResizes.sumThenReset();
+        bytesAllocated.sumThenReset();
+        failedIndexChecks.sumThenReset();
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Map;
+
+/**
+ * JMX view of GenericObjectMetrics.
+ *
+ * @see GenericObjectMetrics for more documentation.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public interface GenericObjectMetricsMXBean {
+    /** @return The number of get calls, per value type. */
+    Map<String, Long> getGetsPerType();
+
+    /** @return The number of set calls, per value type. */
+    Map<String, Long> getSetsPerType();
+
+    /** @return The total number of get calls. */
+    long getTotalGets();
+
+    /** @return The total number of set calls. */
+    long getTotalSets();
+
+    /** @return The number of new generic object instances. */
+    long getNewGenericObjects();
+
+    /** @return The number of times the primitive values were reallocated. */
+    long getPrimitiveResizes();
+
+    /** @return The number of times the Object values were reallocated. */
+    long getObjectResizes();
+
+    /** @return The estimated number of bytes allocated for new, or resized, storage. */
+    long getBytesAllocated();
+
+    /** @return The number of accesses that failed the index check. */
+    long getFailedIndexChecks();
+
+    /** Resets all counters to 0. */
+    void reset();
+}
@@ -0,0 +1,620 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * GenericObjectQuery filters a fixed set of generic object storage
+ * instances, on the values of their primitive slots, and then counts,
+ * selects, projects, or sums the matching instances.
+ *
+ * Filters use primitive predicates, so no value is boxed. All filters must
+ * match (AND). Queries are immutable; whereXXX() and the execution settings
+ * return a new query. By default, queries run in the calling thread. After
+ * parallel(), they are split in chunks of at most "threshold" instances,
+ * and run in a ForkJoinPool; the results are always in the order of the
+ * instances.
+ *
+ * The instances must not be modified while a parallel query runs, since
+ * the generic object implementations are not thread-safe.
+ *
+ * @see GenericObjectAggregates to compute more aggregates, from a projection.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectQuery<STORAGE> {
+
+    /** The default maximum number of instances processed by one task. */
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    /** No filters. */
+    private static final Filter[] NO_FILTER = new Filter[0];
+
+    /** Lazily creates the shared pool. */
+    private static final class PoolHolder {
+        /** The shared pool, used by parallel(). */
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+
+    /** A filter on one primitive slot. */
+    private abstract static class Filter {
+        /** The primitive index. */
+        protected final int index;
+
+        /** Creates a filter. */
+        Filter(final int index) {
+            this.index = index;
+        }
+
+        /** Returns true if the instance matches. */
+        abstract <S> boolean matches(IGenericObjectAccessor<S> accessor,
+                S instance);
+    }
+
+    /** A filter on an int slot. */
+    private static final class IntFilter extends Filter {
+        /** The predicate. */
+        private final IIntPredicate predicate;
+
+        /** Creates a filter. */
+        IntFilter(final int index, final IIntPredicate predicate) {
+            super(index);
+            this.predicate = predicate;
+        }
+
+        @Override
+        <S> boolean matches(final IGenericObjectAccessor<S> accessor,
+                final S instance) {
+            return predicate.test(accessor.getIntValue(instance, index));
+        }
+    }
+
+    /** A filter on a long slot. */
+    private static final class LongFilter extends Filter {
+        /** The predicate. */
+        private final ILongPredicate predicate;
+
+        /** Creates a filter. */
+        LongFilter(final int index, final ILongPredicate predicate) {
+            super(index);
+            this.predicate = predicate;
+        }
+
+        @Override
+        <S> boolean matches(final IGenericObjectAccessor<S> accessor,
+                final S instance) {
+            return predicate.test(accessor.getLongValue(instance, index));
+        }
+    }
+
+    /** A filter on a double slot. */
+    private static final class DoubleFilter extends Filter {
+        /** The predicate. */
+        private final IDoublePredicate predicate;
+
+        /** Creates a filter. */
+        DoubleFilter(final int index, final IDoublePredicate predicate) {
+            super(index);
+            this.predicate = predicate;
+        }
+
+        @Override
+        <S> boolean matches(final IGenericObjectAccessor<S> accessor,
+                final S instance) {
+            return predicate.test(accessor.getDoubleValue(instance, index));
+        }
+    }
+
+    /** Computes a partial result over a range, and combines two of them. */
+    private interface Reducer<R> {
+        /** Computes the result for instances [from, to). */
+        R reduce(int from, int to);
+
+        /** Combines the results of two consecutive ranges. */
+        R combine(R left, R right);
+    }
+
+    /** Splits the range in two, until it is below the threshold. */
+    private static final class ReduceTask<R> extends RecursiveTask<R> {
+        /** serialVersionUID */
+        private static final long serialVersionUID = 1L;
+
+        /** The reducer. */
+        private final Reducer<R> reducer;
+        /** The threshold. */
+        private final int threshold;
+        /** The start of the range, inclusive. */
+        private final int from;
+        /** The end of the range, exclusive. */
+        private final int to;
+
+        /** Creates a task. */
+        ReduceTask(final Reducer<R> reducer, final int threshold,
+                final int from, final int to) {
+            this.reducer = reducer;
+            this.threshold = threshold;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) {
+                return reducer.reduce(from, to);
+            }
+            final int middle = (from + to) >>> 1;
+            final ReduceTask<R> left = new ReduceTask<>(reducer, threshold,
+                    from, middle);
+            left.fork();
+            final R right = new ReduceTask<>(reducer, threshold, middle, to)
+                    .compute();
+            return reducer.combine(left.join(), right);
+        }
+    }
+
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /** The generic object storage instances. */
+    private final Object[] instances;
+
+    /** The filters. */
+    private final Filter[] filters;
+
+    /** The pool, or null, to run in the calling thread. */
+    private final ForkJoinPool pool;
+
+    /** The maximum number of instances processed by one task. */
+    private final int threshold;
+
+    /** Creates a query. */
+    private GenericObjectQuery(final IGenericObjectAccessor<STORAGE> accessor,
+            final Object[] instances, final Filter[] filters,
+            final ForkJoinPool pool, final int threshold) {
+        this.accessor = accessor;
+        this.instances = instances;
+        this.filters = filters;
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates a query over an array of instances. The array is not copied.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @return a new query, without filters, running in the calling thread.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> GenericObjectQuery<STORAGE> from(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances) {
+        return new GenericObjectQuery<>(Objects.requireNonNull(accessor,
+                "accessor"), Objects.requireNonNull(instances, "instances"),
+                NO_FILTER, null, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a query over a collection of instances. The collection is
+     * copied.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @return a new query, without filters, running in the calling thread.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> GenericObjectQuery<STORAGE> from(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final Collection<? extends STORAGE> instances) {
+        return new GenericObjectQuery<>(Objects.requireNonNull(accessor,
+                "accessor"), instances.toArray(), NO_FILTER, null,
+                DEFAULT_THRESHOLD);
+    }
+
+    /** Returns a copy of this query, with one more filter. */
+    private GenericObjectQuery<STORAGE> where(final Filter filter) {
+        final Filter[] newFilters = new Filter[filters.length + 1];
+        System.arraycopy(filters, 0, newFilters, 0, filters.length);
+        newFilters[filters.length] = filter;
+        return new GenericObjectQuery<>(accessor, instances, newFilters, pool,
+                threshold);
+    }
+
+    /**
+     * Adds a filter on an int slot.
+     *
+     * @param index The primitive index.
+     * @param predicate The predicate.
+     * @return a new query, with the added filter.
+     *
+     * @throws NullPointerException if predicate is null
+     */
+    public GenericObjectQuery<STORAGE> whereInt(final int index,
+            final IIntPredicate predicate) {
+        return where(new IntFilter(index, Objects.requireNonNull(predicate,
+                "predicate")));
+    }
+
+    /**
+     * Adds a filter on a long slot.
+     *
+     * @param index The primitive index.
+     * @param predicate The predicate.
+     * @return a new query, with the added filter.
+     *
+     * @throws NullPointerException if predicate is null
+     */
+    public GenericObjectQuery<STORAGE> whereLong(final int index,
+            final ILongPredicate predicate) {
+        return where(new LongFilter(index, Objects.requireNonNull(predicate,
+                "predicate")));
+    }
+
+    /**
+     * Adds a filter on a double slot.
+     *
+     * @param index The primitive index.
+     * @param predicate The predicate.
+     * @return a new query, with the added filter.
+     *
+     * @throws NullPointerException if predicate is null
+     */
+    public GenericObjectQuery<STORAGE> whereDouble(final int index,
+            final IDoublePredicate predicate) {
+        return where(new DoubleFilter(index, Objects.requireNonNull(
+                predicate, "predicate")));
+    }
+
+    /**
+     * Returns a copy of this query, running in a shared ForkJoinPool.
+     *
+     * @return a copy of this query, running in a shared ForkJoinPool.
+     */
+    public GenericObjectQuery<STORAGE> parallel() {
+        return parallel(PoolHolder.POOL);
+    }
+
+    /**
+     * Returns a copy of this query, running in the given ForkJoinPool.
+     *
+     * @param pool The pool.
+     * @return a copy of this query, running in the given ForkJoinPool.
+     *
+     * @throws NullPointerException if pool is null
+     */
+    public GenericObjectQuery<STORAGE> parallel(final ForkJoinPool pool) {
+        return new GenericObjectQuery<>(accessor, instances, filters,
+                Objects.requireNonNull(pool, "pool"), threshold);
+    }
+
+    /**
+     * Returns a copy of this query, running in the calling thread.
+     *
+     * @return a copy of this query, running in the calling thread.
+     */
+    public GenericObjectQuery<STORAGE> sequential() {
+        return new GenericObjectQuery<>(accessor, instances, filters, null,
+                threshold);
+    }
+
+    /**
+     * Returns a copy of this query, with the given threshold.
+     *
+     * @param threshold The maximum number of instances processed by one task.
+     * @return a copy of this query, with the given threshold.
+     *
+     * @throws IllegalArgumentException if threshold is not positive
+     */
+    public GenericObjectQuery<STORAGE> threshold(final int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive: "
+                    + threshold);
+        }
+        return new GenericObjectQuery<>(accessor, instances, filters, pool,
+                threshold);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Returns the instance at the given position. */
+    @SuppressWarnings("unchecked")
+    private STORAGE instance(final int i) {
+        return (STORAGE) instances[i];
+    }
+
+    /** Returns true if the instance matches all filters. */
+    private boolean matches(final STORAGE instance) {
+        for (final Filter filter : filters) {
+            if (!filter.matches(accessor, instance)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Runs the reducer, either in the calling thread, or in the pool. */
+    private <R> R run(final Reducer<R> reducer) {
+        if ((pool == null) || (instances.length <= threshold)) {
+            return reducer.reduce(0, instances.length);
+        }
+        return pool.invoke(new ReduceTask<>(reducer, threshold, 0,
+                instances.length));
+    }
+
+    /** Returns the positions of the matching instances in [from, to). */
+    private int[] matching(final int from, final int to) {
+        int[] result = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (matches(instance(i))) {
+                result[count++] = i;
+            }
+        }
+        if (count < result.length) {
+            final int[] trimmed = new int[count];
+            System.arraycopy(result, 0, trimmed, 0, count);
+            result = trimmed;
+        }
+        return result;
+    }
+
+    /**
+     * Counts the matching instances.
+     *
+     * @return the number of matching instances.
+     */
+    public int count() {
+        return run(new Reducer<Integer>() {
+            @Override
+            public Integer reduce(final int from, final int to) {
+                int result = 0;
+                for (int i = from; i < to; i++) {
+                    if (matches(instance(i))) {
+                        result++;
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public Integer combine(final Integer left, final Integer right) {
+                return left + right;
+            }
+        });
+    }
+
+    /**
+     * Returns the matching instances.
+     *
+     * @return a new list of the matching instances.
+     */
+    public List<STORAGE> select() {
+        return run(new Reducer<List<STORAGE>>() {
+            @Override
+            public List<STORAGE> reduce(final int from, final int to) {
+                final List<STORAGE> result = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    final STORAGE instance = instance(i);
+                    if (matches(instance)) {
+                        result.add(instance);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public List<STORAGE> combine(final List<STORAGE> left,
+                    final List<STORAGE> right) {
+                left.addAll(right);
+                return left;
+            }
+        });
+    }
+
+    /** Concatenates two int arrays. */
+    private static int[] concat(final int[] left, final int[] right) {
+        final int[] result = new int[left.length + right.length];
+        System.arraycopy(left, 0, result, 0, left.length);
+        System.arraycopy(right, 0, result, left.length, right.length);
+        return result;
+    }
+
+    /** Concatenates two long arrays. */
+    private static long[] concat(final long[] left, final long[] right) {
+        final long[] result = new long[left.length + right.length];
+        System.arraycopy(left, 0, result, 0, left.length);
+        System.arraycopy(right, 0, result, left.length, right.length);
+        return result;
+    }
+
+    /** Concatenates two double arrays. */
+    private static double[] concat(final double[] left, final double[] right) {
+        final double[] result = new double[left.length + right.length];
+        System.arraycopy(left, 0, result, 0, left.length);
+        System.arraycopy(right, 0, result, left.length, right.length);
+        return result;
+    }
+
+    /**
+     * Returns the int value of one primitive slot of the matching instances.
+     *
+     * @param index The primitive index.
+     * @return the values, in the order of the instances.
+     */
+    public int[] projectInt(final int index) {
+        return run(new Reducer<int[]>() {
+            @Override
+            public int[] reduce(final int from, final int to) {
+                final int[] positions = matching(from, to);
+                final int[] result = new int[positions.length];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = accessor.getIntValue(instance(positions[i]),
+                            index);
+                }
+                return result;
+            }
+
+            @Override
+            public int[] combine(final int[] left, final int[] right) {
+                return concat(left, right);
+            }
+        });
+    }
+
+    /**
+     * Returns the long value of one primitive slot of the matching instances.
+     *
+     * @param index The primitive index.
+     * @return the values, in the order of the instances.
+     */
+    public long[] projectLong(final int index) {
+        return run(new Reducer<long[]>() {
+            @Override
+            public long[] reduce(final int from, final int to) {
+                final int[] positions = matching(from, to);
+                final long[] result = new long[positions.length];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = accessor.getLongValue(instance(positions[i]),
+                            index);
+                }
+                return result;
+            }
+
+            @Override
+            public long[] combine(final long[] left, final long[] right) {
+                return concat(left, right);
+            }
+        });
+    }
+
+    /**
+     * Returns the double value of one primitive slot of the matching
+     * instances.
+     *
+     * @param index The primitive index.
+     * @return the values, in the order of the instances.
+     */
+    public double[] projectDouble(final int index) {
+        return run(new Reducer<double[]>() {
+            @Override
+            public double[] reduce(final int from, final int to) {
+                final int[] positions = matching(from, to);
+                final double[] result = new double[positions.length];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = accessor.getDoubleValue(
+                            instance(positions[i]), index);
+                }
+                return result;
+            }
+
+            @Override
+            public double[] combine(final double[] left, final double[] right) {
+                return concat(left, right);
+            }
+        });
+    }
+
+    /**
+     * Sums the int value of one primitive slot of the matching instances.
+     *
+     * @param index The primitive index.
+     * @return the sum, as a long.
+     */
+    public long sumInt(final int index) {
+        return run(new Reducer<Long>() {
+            @Override
+            public Long reduce(final int from, final int to) {
+                long result = 0;
+                for (int i = from; i < to; i++) {
+                    final STORAGE instance = instance(i);
+                    if (matches(instance)) {
+                        result += accessor.getIntValue(instance, index);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public Long combine(final Long left, final Long right) {
+                return left + right;
+            }
+        });
+    }
+
+    /**
+     * Sums the long value of one primitive slot of the matching instances.
+     *
+     * @param index The primitive index.
+     * @return the sum.
+     */
+    public long sumLong(final int index) {
+        return run(new Reducer<Long>() {
+            @Override
+            public Long reduce(final int from, final int to) {
+                long result = 0;
+                for (int i = from; i < to; i++) {
+                    final STORAGE instance = instance(i);
+                    if (matches(instance)) {
+                        result += accessor.getLongValue(instance, index);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public Long combine(final Long left, final Long right) {
+                return left + right;
+            }
+        });
+    }
+
+    /**
+     * Sums the double value of one primitive slot of the matching instances.
+     * In parallel, the order of the additions depends on the threshold.
+     *
+     * @param index The primitive index.
+     * @return the sum.
+     */
+    public double sumDouble(final int index) {
+        return run(new Reducer<Double>() {
+            @Override
+            public Double reduce(final int from, final int to) {
+                double result = 0;
+                for (int i = from; i < to; i++) {
+                    final STORAGE instance = instance(i);
+                    if (matches(instance)) {
+                        result += accessor.getDoubleValue(instance, index);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(final Double left, final Double right) {
+                return left + right;
+            }
+        });
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * An immutable view of the content of a GenericObject, at the time
+ * GenericObject.snapshot() was called. The storage instance is shared
+ * with the GenericObject, which copies it before modifying it, so that
+ * the snapshot is never affected by later writes. All modifying methods
+ * throw an UnsupportedOperationException.
+ *
+ * Since the snapshot never changes, it can be read by multiple threads
+ * concurrently, without locking.
+ *
+ * @see GenericObject#snapshot()
+ *
+ * @author monster
+ */
+public final class GenericObjectSnapshot<STORAGE> implements
+        IGenericObject<STORAGE> {
+    /** The generic object accessor implementation. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /** The shared generic object storage instance. */
+    private final STORAGE instance;
+
+    /** Creates a snapshot. */
+    GenericObjectSnapshot(final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance) {
+        this.accessor = accessor;
+        this.instance = instance;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectAccessor()
+     */
+    @Override
+    public IGenericObjectAccessor<STORAGE> getGenericObjectAccessor() {
+        return accessor;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getGenericObjectStorage()
+     */
+    @Override
+    public STORAGE getGenericObjectStorage() {
+        return instance;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setGenericObjectStorage(STORAGE)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setGenericObjectStorage(
+            final STORAGE instance) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesMaximumIndex()
+     */
+    @Override
+    public int getPrimitiveValuesMaximumIndex() {
+        return accessor.getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesMaximumIndex()
+     */
+    @Override
+    public int getBooleanValuesMaximumIndex()
+            throws UnsupportedOperationException {
+        return accessor.getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesMaximumIndex()
+     */
+    @Override
+    public int getObjectValuesMaximumIndex() {
+        return accessor.getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesSlotsAvailable()
+     */
+    @Override
+    public int getPrimitiveValuesSlotsAvailable() {
+        return accessor.getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesSlotsAvailable()
+     */
+    @Override
+    public int getBooleanValuesSlotsAvailable()
+            throws UnsupportedOperationException {
+        return accessor.getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesSlotsAvailable()
+     */
+    @Override
+    public int getObjectValuesSlotsAvailable() {
+        return accessor.getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getPrimitiveValuesReservedSize()
+     */
+    @Override
+    public int getPrimitiveValuesReservedSize()
+            throws UnsupportedOperationException {
+        return accessor.getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValuesReservedSize()
+     */
+    @Override
+    public int getBooleanValuesReservedSize()
+            throws UnsupportedOperationException {
+        return accessor.getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValuesReservedSize()
+     */
+    @Override
+    public int getObjectValuesReservedSize()
+            throws UnsupportedOperationException {
+        return accessor.getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizePrimitiveValues(int)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> resizePrimitiveValues(
+            final int reservedSize) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeBooleanValues(int)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> resizeBooleanValues(
+            final int reservedSize) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#resizeObjectValues(int)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> resizeObjectValues(
+            final int reservedSize) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimPrimitiveValues()
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> trimPrimitiveValues() {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#trimObjectValues()
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> trimObjectValues() {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getBooleanValue(int)
+     */
+    @Override
+    public boolean getBooleanValue(final int index) {
+        return accessor.getBooleanValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setBooleanValue(int, boolean)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setBooleanValue(final int index,
+            final boolean value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getByteValue(int)
+     */
+    @Override
+    public byte getByteValue(final int index) {
+        return accessor.getByteValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setByteValue(int, byte)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setByteValue(final int index,
+            final byte value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getCharValue(int)
+     */
+    @Override
+    public char getCharValue(final int index) {
+        return accessor.getCharValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setCharValue(int, char)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setCharValue(final int index,
+            final char value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getShortValue(int)
+     */
+    @Override
+    public short getShortValue(final int index) {
+        return accessor.getShortValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setShortValue(int, short)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setShortValue(final int index,
+            final short value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getIntValue(int)
+     */
+    @Override
+    public int getIntValue(final int index) {
+        return accessor.getIntValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setIntValue(int, int)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setIntValue(final int index,
+            final int value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getFloatValue(int)
+     */
+    @Override
+    public float getFloatValue(final int index) {
+        return accessor.getFloatValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setFloatValue(int, float)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setFloatValue(final int index,
+            final float value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getLongValue(int)
+     */
+    @Override
+    public long getLongValue(final int index) {
+        return accessor.getLongValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setLongValue(int, long)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setLongValue(final int index,
+            final long value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getDoubleValue(int)
+     */
+    @Override
+    public double getDoubleValue(final int index) {
+        return accessor.getDoubleValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setDoubleValue(int, double)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setDoubleValue(final int index,
+            final double value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObject#getObjectValue(int)
+     */
+    @Override
+    public Object getObjectValue(final int index) {
+        return accessor.getObjectValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObject#setObjectValue(int, Object)
+     */
+    @Override
+    public GenericObjectSnapshot<STORAGE> setObjectValue(final int index,
+            final Object value) {
+        throw new UnsupportedOperationException("Immutable snapshot");
+    }
+}
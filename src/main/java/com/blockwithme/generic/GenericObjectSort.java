@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * GenericObjectSort sorts arrays of generic object storage instances by
+ * the value of primitive slots.
+ *
+ * Instead of calling the accessor O(n log n) times through a Comparator,
+ * the keys are read once into a primitive long array, the positions are
+ * sorted with a stable LSD radix sort over those keys, and the instances
+ * are then permuted accordingly. Byte positions where all keys are equal
+ * are skipped, so small int keys only cost a few passes.
+ *
+ * The keys are read through the accessor typed getters, so all encodings
+ * (like the raw long bits of doubles in LongFixedBooleanGenericObjectAccessor)
+ * are decoded correctly. Doubles are ordered like Double.compare(): -0.0
+ * is less than 0.0, and NaN is greater then all other values.
+ *
+ * Since the sort is stable, sorting by several keys is done by sorting by
+ * each key, from the last to the first.
+ *
+ * @author monster
+ */
+public final class GenericObjectSort {
+
+    /** Number of bits sorted in each pass. */
+    private static final int RADIX_BITS = 8;
+
+    /** Number of buckets per pass. */
+    private static final int BUCKETS = 1 << RADIX_BITS;
+
+    /** Mask to extract a bucket. */
+    private static final int MASK = BUCKETS - 1;
+
+    /**
+     * A sort key: one primitive slot, and a direction.
+     */
+    public static final class SortKey {
+        /** The type of the slot. */
+        private final ValueType type;
+        /** The primitive index. */
+        private final int index;
+        /** Sort in descending order? */
+        private final boolean descending;
+
+        /** Creates a sort key. */
+        private SortKey(final ValueType type, final int index,
+                final boolean descending) {
+            this.type = type;
+            this.index = index;
+            this.descending = descending;
+        }
+
+        /**
+         * Returns an ascending sort key on an int slot.
+         *
+         * @param index The primitive index.
+         * @return an ascending sort key on an int slot.
+         */
+        public static SortKey ofInt(final int index) {
+            return new SortKey(ValueType.INT, index, false);
+        }
+
+        /**
+         * Returns an ascending sort key on a long slot.
+         *
+         * @param index The primitive index.
+         * @return an ascending sort key on a long slot.
+         */
+        public static SortKey ofLong(final int index) {
+            return new SortKey(ValueType.LONG, index, false);
+        }
+
+        /**
+         * Returns an ascending sort key on a double slot.
+         *
+         * @param index The primitive index.
+         * @return an ascending sort key on a double slot.
+         */
+        public static SortKey ofDouble(final int index) {
+            return new SortKey(ValueType.DOUBLE, index, false);
+        }
+
+        /**
+         * Returns the same sort key, but in descending order.
+         *
+         * @return the same sort key, but in descending order.
+         */
+        public SortKey descending() {
+            return new SortKey(type, index, true);
+        }
+
+        /** Reads the key of an instance, as a sortable long. */
+        <STORAGE> long key(final IGenericObjectAccessor<STORAGE> accessor,
+                final STORAGE instance) {
+            final long result;
+            if (type == ValueType.INT) {
+                result = accessor.getIntValue(instance, index);
+            } else if (type == ValueType.LONG) {
+                result = accessor.getLongValue(instance, index);
+            } else {
+                result = SlotIndex.encode(accessor.getDoubleValue(instance,
+                        index));
+            }
+            return descending ? ~result : result;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "SortKey(" + type + "," + index
+                    + (descending ? ",descending)" : ")");
+        }
+    }
+
+    /** No instance. */
+    private GenericObjectSort() {
+        // NOP
+    }
+
+    /**
+     * Returns the stable sorting permutation of the keys: the position of
+     * the smallest key first.
+     *
+     * @param keys The keys; they are not modified.
+     * @return the positions of the keys, in ascending key order.
+     */
+    public static int[] order(final long[] keys) {
+        final int n = keys.length;
+        int[] order = new int[n];
+        int[] orderTemp = new int[n];
+        long[] sortable = new long[n];
+        long[] sortableTemp = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            // Flipping the sign bit makes the unsigned order the signed order
+            sortable[i] = keys[i] ^ Long.MIN_VALUE;
+        }
+        final int[] counts = new int[BUCKETS + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            for (int b = 0; b < counts.length; b++) {
+                counts[b] = 0;
+            }
+            for (int i = 0; i < n; i++) {
+                counts[(int) ((sortable[i] >>> shift) & MASK) + 1]++;
+            }
+            boolean skip = false;
+            for (int b = 1; b <= BUCKETS; b++) {
+                if (counts[b] == n) {
+                    skip = true;
+                    break;
+                }
+                counts[b] += counts[b - 1];
+            }
+            if (!skip) {
+                for (int i = 0; i < n; i++) {
+                    final int bucket = (int) ((sortable[i] >>> shift) & MASK);
+                    final int pos = counts[bucket]++;
+                    orderTemp[pos] = order[i];
+                    sortableTemp[pos] = sortable[i];
+                }
+                final int[] o = order;
+                order = orderTemp;
+                orderTemp = o;
+                final long[] s = sortable;
+                sortable = sortableTemp;
+                sortableTemp = s;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Sorts the instances by one key. The sort is stable.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param key The sort key.
+     *
+     * @throws NullPointerException if any parameter is null
+     */
+    public static <STORAGE> void sort(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final SortKey key) {
+        Objects.requireNonNull(accessor, "accessor");
+        Objects.requireNonNull(key, "key");
+        final long[] keys = new long[instances.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.key(accessor, instances[i]);
+        }
+        final int[] order = order(keys);
+        final STORAGE[] copy = instances.clone();
+        for (int i = 0; i < order.length; i++) {
+            instances[i] = copy[order[i]];
+        }
+    }
+
+    /**
+     * Sorts the instances by several keys; the first key is the most
+     * significant. The sort is stable.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param keys The sort keys.
+     *
+     * @throws NullPointerException if any parameter is null
+     */
+    public static <STORAGE> void sort(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final SortKey... keys) {
+        for (int i = keys.length - 1; i >= 0; i--) {
+            sort(accessor, instances, keys[i]);
+        }
+    }
+
+    /**
+     * Sorts the instances by an int slot, in ascending order.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> void sortByInt(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        sort(accessor, instances, SortKey.ofInt(index));
+    }
+
+    /**
+     * Sorts the instances by a long slot, in ascending order.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> void sortByLong(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        sort(accessor, instances, SortKey.ofLong(index));
+    }
+
+    /**
+     * Sorts the instances by a double slot, in ascending order.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @param index The primitive index.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> void sortByDouble(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances, final int index) {
+        sort(accessor, instances, SortKey.ofDouble(index));
+    }
+}
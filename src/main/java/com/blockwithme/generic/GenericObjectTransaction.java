@@ -0,0 +1,530 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * GenericObjectTransaction updates multiple ConcurrentGenericObject
+ * atomically, without holding any lock while the transaction runs.
+ *
+ * Reads are done on the published storage instance of each
+ * ConcurrentGenericObject, which never changes, and record it. Writes are
+ * only buffered, in a write log made of primitive arrays (instance, slot index,
+ * type, and raw value bits), so that primitive values are never boxed.
+ * Reads of a slot written in the same transaction return the buffered
+ * value. commit() then locks all instances read or written, in a fixed
+ * global order, validates that the storage instances read are still the
+ * published ones, applies the writes, and publishes the instances written,
+ * before releasing the locks. Locks are therefore only held during the
+ * commit itself. Only the instances written are published again, so a
+ * commit does not invalidate the readers of the instances that were only
+ * read. If applying a write fails, nothing is published.
+ *
+ * If validation fails, commit() returns false, and the transaction should
+ * be retried from the start. Values read in a transaction that then fails
+ * to commit can be inconsistent, so they must not be used for anything else
+ * than computing the writes.
+ *
+ * Reading a slot that was written in the same transaction with another
+ * value type is not supported, and throws an IllegalStateException.
+ * Overlapping slots (for example, a long and an int in the INT layout) are
+ * not detected.
+ *
+ * A read-only transaction is validated without locking. A published
+ * storage instance is never published again once replaced, so if every
+ * instance read is still published, and none is being published by a
+ * commit, then all the values read were current at the same time.
+ *
+ * Instances are reusable, but not thread-safe; use one per thread.
+ *
+ * @see ConcurrentGenericObject
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class GenericObjectTransaction {
+
+    /** The initial capacity of the logs. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Orders the instances by ID. */
+    private static final Comparator<ConcurrentGenericObject<?>> BY_ID = new Comparator<ConcurrentGenericObject<?>>() {
+        @Override
+        public int compare(final ConcurrentGenericObject<?> a,
+                final ConcurrentGenericObject<?> b) {
+            return (a.id < b.id) ? -1 : ((a.id == b.id) ? 0 : 1);
+        }
+    };
+
+    /** The instances read. */
+    private ConcurrentGenericObject<?>[] readObjects = new ConcurrentGenericObject<?>[INITIAL_CAPACITY];
+
+    /** The storage instances read. */
+    private Object[] readInstances = new Object[INITIAL_CAPACITY];
+
+    /** The number of instances read. */
+    private int readCount;
+
+    /** The instance of each write. */
+    private ConcurrentGenericObject<?>[] writeObjects = new ConcurrentGenericObject<?>[INITIAL_CAPACITY];
+
+    /** The slot index of each write. */
+    private int[] writeIndexes = new int[INITIAL_CAPACITY];
+
+    /** The value type of each write. */
+    private ValueType[] writeTypes = new ValueType[INITIAL_CAPACITY];
+
+    /** The raw value bits of each primitive write. */
+    private long[] writeBits = new long[INITIAL_CAPACITY];
+
+    /** The value of each Object write; allocated on demand. */
+    private Object[] writeValues;
+
+    /** The number of writes. */
+    private int writeCount;
+
+    /** Receives the raw bits of the primitive reads. */
+    private final long[] bits = new long[1];
+
+    /** True, if a read already detected a conflict. */
+    private boolean failed;
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Returns the position of the last write to a slot, or -1. */
+    private int findWrite(final ConcurrentGenericObject<?> object,
+            final int index, final ValueType type) {
+        for (int i = writeCount - 1; i >= 0; i--) {
+            if ((writeObjects[i] == object) && (writeIndexes[i] == index)) {
+                if (writeTypes[i] != type) {
+                    throw new IllegalStateException("Slot " + index
+                            + " was written as " + writeTypes[i]);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Records the storage instance read. */
+    private void recordRead(final ConcurrentGenericObject<?> object,
+            final Object instance) {
+        for (int i = 0; i < readCount; i++) {
+            if (readObjects[i] == object) {
+                if (readInstances[i] != instance) {
+                    failed = true;
+                }
+                return;
+            }
+        }
+        if (readCount == readObjects.length) {
+            readObjects = Arrays.copyOf(readObjects, readCount * 2);
+            readInstances = Arrays.copyOf(readInstances, readCount * 2);
+        }
+        readObjects[readCount] = object;
+        readInstances[readCount] = instance;
+        readCount++;
+    }
+
+    /**
+     * Reads a value of the published storage instance, recording it.
+     * Primitive values are returned as raw bits, in bits[0].
+     */
+    private <STORAGE> Object read(
+            final ConcurrentGenericObject<STORAGE> object, final int index,
+            final ValueType type, final long[] bits) {
+        final IGenericObjectAccessor<STORAGE> accessor = object
+                .getGenericObjectAccessor();
+        final STORAGE instance = object.current;
+        recordRead(object, instance);
+        switch (type) {
+        case BOOLEAN:
+            bits[0] = accessor.getBooleanValue(instance, index) ? 1 : 0;
+            return null;
+        case INT:
+            bits[0] = accessor.getIntValue(instance, index);
+            return null;
+        case LONG:
+            bits[0] = accessor.getLongValue(instance, index);
+            return null;
+        case DOUBLE:
+            bits[0] = Double.doubleToRawLongBits(accessor.getDoubleValue(
+                    instance, index));
+            return null;
+        case OBJECT:
+            return accessor.getObjectValue(instance, index);
+        default:
+            throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+    }
+
+    /** Returns true, if the instance read is still published. */
+    private boolean valid(final int read) {
+        final ConcurrentGenericObject<?> object = readObjects[read];
+        return !object.publishing && (object.current == readInstances[read]);
+    }
+
+    /** Reads a primitive value as raw bits. */
+    private long readBits(final ConcurrentGenericObject<?> object,
+            final int index, final ValueType type) {
+        Objects.requireNonNull(object, "object");
+        final int pos = findWrite(object, index, type);
+        if (pos >= 0) {
+            return writeBits[pos];
+        }
+        read(object, index, type, bits);
+        return bits[0];
+    }
+
+    /** Appends a write to the log. */
+    private void write(final ConcurrentGenericObject<?> object,
+            final int index, final ValueType type, final long bits,
+            final Object value) {
+        Objects.requireNonNull(object, "object");
+        if (writeCount == writeObjects.length) {
+            final int capacity = writeCount * 2;
+            writeObjects = Arrays.copyOf(writeObjects, capacity);
+            writeIndexes = Arrays.copyOf(writeIndexes, capacity);
+            writeTypes = Arrays.copyOf(writeTypes, capacity);
+            writeBits = Arrays.copyOf(writeBits, capacity);
+            if (writeValues != null) {
+                writeValues = Arrays.copyOf(writeValues, capacity);
+            }
+        }
+        if ((type == ValueType.OBJECT) && (writeValues == null)) {
+            writeValues = new Object[writeObjects.length];
+        }
+        writeObjects[writeCount] = object;
+        writeIndexes[writeCount] = index;
+        writeTypes[writeCount] = type;
+        writeBits[writeCount] = bits;
+        if (writeValues != null) {
+            writeValues[writeCount] = value;
+        }
+        writeCount++;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads a boolean value, in this transaction.
+     *
+     * @param object The instance to read.
+     * @param index The slot index.
+     * @return The value.
+     */
+    public boolean getBooleanValue(final ConcurrentGenericObject<?> object,
+            final int index) {
+        return readBits(object, index, ValueType.BOOLEAN) != 0;
+    }
+
+    /**
+     * Reads an int value, in this transaction.
+     *
+     * @param object The instance to read.
+     * @param index The slot index.
+     * @return The value.
+     */
+    public int getIntValue(final ConcurrentGenericObject<?> object,
+            final int index) {
+        return (int) readBits(object, index, ValueType.INT);
+    }
+
+    /**
+     * Reads a long value, in this transaction.
+     *
+     * @param object The instance to read.
+     * @param index The slot index.
+     * @return The value.
+     */
+    public long getLongValue(final ConcurrentGenericObject<?> object,
+            final int index) {
+        return readBits(object, index, ValueType.LONG);
+    }
+
+    /**
+     * Reads a double value, in this transaction.
+     *
+     * @param object The instance to read.
+     * @param index The slot index.
+     * @return The value.
+     */
+    public double getDoubleValue(final ConcurrentGenericObject<?> object,
+            final int index) {
+        return Double.longBitsToDouble(readBits(object, index,
+                ValueType.DOUBLE));
+    }
+
+    /**
+     * Reads an Object value, in this transaction.
+     *
+     * @param object The instance to read.
+     * @param index The slot index.
+     * @return The value.
+     */
+    public Object getObjectValue(final ConcurrentGenericObject<?> object,
+            final int index) {
+        Objects.requireNonNull(object, "object");
+        final int pos = findWrite(object, index, ValueType.OBJECT);
+        if (pos >= 0) {
+            return writeValues[pos];
+        }
+        return read(object, index, ValueType.OBJECT, null);
+    }
+
+    /**
+     * Buffers the write of a boolean value, until commit().
+     *
+     * @param object The instance to write.
+     * @param index The slot index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectTransaction setBooleanValue(
+            final ConcurrentGenericObject<?> object, final int index,
+            final boolean value) {
+        write(object, index, ValueType.BOOLEAN, value ? 1 : 0, null);
+        return this;
+    }
+
+    /**
+     * Buffers the write of an int value, until commit().
+     *
+     * @param object The instance to write.
+     * @param index The slot index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectTransaction setIntValue(
+            final ConcurrentGenericObject<?> object, final int index,
+            final int value) {
+        write(object, index, ValueType.INT, value, null);
+        return this;
+    }
+
+    /**
+     * Buffers the write of a long value, until commit().
+     *
+     * @param object The instance to write.
+     * @param index The slot index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectTransaction setLongValue(
+            final ConcurrentGenericObject<?> object, final int index,
+            final long value) {
+        write(object, index, ValueType.LONG, value, null);
+        return this;
+    }
+
+    /**
+     * Buffers the write of a double value, until commit().
+     *
+     * @param object The instance to write.
+     * @param index The slot index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectTransaction setDoubleValue(
+            final ConcurrentGenericObject<?> object, final int index,
+            final double value) {
+        write(object, index, ValueType.DOUBLE,
+                Double.doubleToRawLongBits(value), null);
+        return this;
+    }
+
+    /**
+     * Buffers the write of an Object value, until commit().
+     *
+     * @param object The instance to write.
+     * @param index The slot index.
+     * @param value The value.
+     * @return this
+     */
+    public GenericObjectTransaction setObjectValue(
+            final ConcurrentGenericObject<?> object, final int index,
+            final Object value) {
+        write(object, index, ValueType.OBJECT, 0, value);
+        return this;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /** Returns the distinct instances of both arrays, ordered by ID. */
+    private static ConcurrentGenericObject<?>[] distinct(
+            final ConcurrentGenericObject<?>[] first, final int firstCount,
+            final ConcurrentGenericObject<?>[] second, final int secondCount) {
+        final ConcurrentGenericObject<?>[] all = new ConcurrentGenericObject<?>[firstCount
+                + secondCount];
+        System.arraycopy(first, 0, all, 0, firstCount);
+        System.arraycopy(second, 0, all, firstCount, secondCount);
+        Arrays.sort(all, BY_ID);
+        int count = 0;
+        for (int i = 0; i < all.length; i++) {
+            if ((count == 0) || (all[count - 1] != all[i])) {
+                all[count++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, count);
+    }
+
+    /**
+     * Locks the instances, in order, then validates, applies and publishes.
+     * The locks are taken in a loop, so the size of a transaction is not
+     * limited by the stack. Only the instances written are published, so
+     * that the instances only read stay valid for other readers. Releasing
+     * the locks discards the writes that were not published.
+     */
+    private boolean commit(final ConcurrentGenericObject<?>[] locked) {
+        int lockCount = 0;
+        try {
+            for (final ConcurrentGenericObject<?> object : locked) {
+                object.lock.lock();
+                lockCount++;
+            }
+            for (int i = 0; i < readCount; i++) {
+                if (!valid(i)) {
+                    return false;
+                }
+            }
+            // Checks all writes first, so that a commit is all-or-nothing
+            for (int i = 0; i < writeCount; i++) {
+                checkRange(writeObjects[i].object, i);
+            }
+            for (int i = 0; i < writeCount; i++) {
+                apply(writeObjects[i].object, i);
+            }
+            final ConcurrentGenericObject<?>[] written = distinct(
+                    writeObjects, writeCount, writeObjects, 0);
+            // Read-only transactions must never see part of the publication
+            for (final ConcurrentGenericObject<?> object : written) {
+                object.publishing = true;
+            }
+            for (final ConcurrentGenericObject<?> object : written) {
+                object.publish();
+            }
+            for (final ConcurrentGenericObject<?> object : written) {
+                object.publishing = false;
+            }
+            return true;
+        } finally {
+            for (int i = lockCount - 1; i >= 0; i--) {
+                locked[i].release();
+            }
+        }
+    }
+
+    /** Checks that a write is within the current slots of its instance. */
+    private void checkRange(final GenericObject<?> object, final int pos) {
+        final IGenericObjectAccessor<?> accessor = object
+                .getGenericObjectAccessor();
+        final int index = writeIndexes[pos];
+        final ValueType type = writeTypes[pos];
+        final int first;
+        final int last;
+        if (type == ValueType.OBJECT) {
+            first = accessor.getObjectValuesStartIndex();
+            last = object.getObjectValuesMaximumIndex();
+        } else if ((type == ValueType.BOOLEAN)
+                && accessor.isBooleanValuesIDSpaceIndependentFromPrimitive()) {
+            first = accessor.getBooleanValuesStartIndex();
+            last = object.getBooleanValuesMaximumIndex();
+        } else {
+            final boolean twoSlots = (type == ValueType.LONG) ? accessor
+                    .isLongUsingTwoPrimitiveSlots()
+                    : ((type == ValueType.DOUBLE) && accessor
+                            .isDoubleUsingTwoPrimitiveSlots());
+            first = accessor.getPrimitiveValuesStartIndex();
+            last = object.getPrimitiveValuesMaximumIndex()
+                    - (twoSlots ? 1 : 0);
+        }
+        if ((index < first) || (index > last)) {
+            throw new IndexOutOfBoundsException(type + " index " + index
+                    + " must be within [" + first + ", " + last + "]");
+        }
+    }
+
+    /** Applies a write. */
+    private void apply(final GenericObject<?> object, final int pos) {
+        final int index = writeIndexes[pos];
+        final long bits = writeBits[pos];
+        switch (writeTypes[pos]) {
+        case BOOLEAN:
+            object.setBooleanValue(index, bits != 0);
+            break;
+        case INT:
+            object.setIntValue(index, (int) bits);
+            break;
+        case LONG:
+            object.setLongValue(index, bits);
+            break;
+        case DOUBLE:
+            object.setDoubleValue(index, Double.longBitsToDouble(bits));
+            break;
+        default:
+            object.setObjectValue(index, writeValues[pos]);
+            break;
+        }
+    }
+
+    /**
+     * Tries to commit the transaction. If any instance read was modified
+     * since, nothing is written, and false is returned. In both cases, the
+     * transaction is reset, and can be reused.
+     *
+     * @return true, if the writes were applied.
+     *
+     * @throws IndexOutOfBoundsException if a write is outside the current
+     *         slots of its instance; nothing is written, and the transaction
+     *         is reset.
+     */
+    public boolean commit() {
+        try {
+            if (failed) {
+                return false;
+            }
+            if (writeCount == 0) {
+                // Read-only: only validate
+                for (int i = 0; i < readCount; i++) {
+                    if (!valid(i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return commit(distinct(readObjects, readCount, writeObjects,
+                    writeCount));
+        } finally {
+            reset();
+        }
+    }
+
+    /** Discards all the reads and writes of the transaction. */
+    public void reset() {
+        Arrays.fill(readObjects, 0, readCount, null);
+        Arrays.fill(readInstances, 0, readCount, null);
+        Arrays.fill(writeObjects, 0, writeCount, null);
+        if (writeValues != null) {
+            Arrays.fill(writeValues, 0, writeCount, null);
+        }
+        readCount = 0;
+        writeCount = 0;
+        failed = false;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+
+/**
+ * GenericObjects contains static helper methods that work on many generic
+ * objects at once.
+ *
+ * @see IGenericObjectAccessor for more documentation.
+ *
+ * @author monster
+ */
+public final class GenericObjects {
+
+    /** No instance. */
+    private GenericObjects() {
+        // NOP
+    }
+
+    /**
+     * Trims both the primitive and the Object values of one instance.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instance The generic object storage instance.
+     * @return The new replacement, or modified, generic object storage instance.
+     *
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public static <STORAGE> STORAGE trim(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE instance) {
+        return accessor.trimObjectValues(accessor
+                .trimPrimitiveValues(instance));
+    }
+
+    /** Returns true if trimming made the instance smaller. */
+    private static <STORAGE> boolean shrunk(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final int primitiveSlots, final int objectSlots,
+            final STORAGE trimmed) {
+        return (accessor
+                .getPrimitiveValuesSlotsAvailable(trimmed) < primitiveSlots)
+                || (accessor
+                        .getObjectValuesSlotsAvailable(trimmed) < objectSlots);
+    }
+
+    /**
+     * Trims all the instances of an array. The array elements are replaced
+     * by the trimmed instances. null elements are ignored.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @return The number of instances that were made smaller.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> int compact(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final STORAGE[] instances) {
+        Objects.requireNonNull(accessor, "accessor");
+        int result = 0;
+        for (int i = 0; i < instances.length; i++) {
+            final STORAGE instance = instances[i];
+            if (instance != null) {
+                final int primitiveSlots = accessor
+                        .getPrimitiveValuesSlotsAvailable(instance);
+                final int objectSlots = accessor
+                        .getObjectValuesSlotsAvailable(instance);
+                final STORAGE trimmed = trim(accessor, instance);
+                instances[i] = trimmed;
+                if (shrunk(accessor, primitiveSlots, objectSlots, trimmed)) {
+                    result++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Trims all the instances of a list. The list elements are replaced
+     * by the trimmed instances, so the list must support set().
+     * null elements are ignored.
+     *
+     * @param accessor The generic object accessor implementation.
+     * @param instances The generic object storage instances.
+     * @return The number of instances that were made smaller.
+     *
+     * @throws NullPointerException if accessor or instances is null
+     */
+    public static <STORAGE> int compact(
+            final IGenericObjectAccessor<STORAGE> accessor,
+            final List<STORAGE> instances) {
+        Objects.requireNonNull(accessor, "accessor");
+        int result = 0;
+        final ListIterator<STORAGE> iter = instances.listIterator();
+        while (iter.hasNext()) {
+            final STORAGE instance = iter.next();
+            if (instance != null) {
+                final int primitiveSlots = accessor
+                        .getPrimitiveValuesSlotsAvailable(instance);
+                final int objectSlots = accessor
+                        .getObjectValuesSlotsAvailable(instance);
+                final STORAGE trimmed = trim(accessor, instance);
+                if (trimmed != instance) {
+                    iter.set(trimmed);
+                }
+                if (shrunk(accessor, primitiveSlots, objectSlots, trimmed)) {
+                    result++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Trims all the given generic objects. Since generic objects replace
+     * their own storage, any Iterable can be used. null elements are ignored.
+     *
+     * @param objects The generic objects.
+     * @return The number of generic objects that were made smaller.
+     *
+     * @throws NullPointerException if objects is null
+     */
+    public static int compact(
+            final Iterable<? extends IGenericObject<?>> objects) {
+        int result = 0;
+        for (final IGenericObject<?> object : objects) {
+            if (object != null) {
+                final int primitiveSlots = object
+                        .getPrimitiveValuesSlotsAvailable();
+                final int objectSlots = object.getObjectValuesSlotsAvailable();
+                object.trimPrimitiveValues().trimObjectValues();
+                if ((object.getPrimitiveValuesSlotsAvailable() < primitiveSlots)
+                        || (object.getObjectValuesSlotsAvailable() < objectSlots)) {
+                    result++;
+                }
+            }
+        }
+        return result;
+    }
+}
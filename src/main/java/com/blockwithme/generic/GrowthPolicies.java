@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * GrowthPolicies contains the predefined IGrowthPolicy implementations.
+ *
+ * POWER_OF_TWO is the default policy of all implementations. EXACT is the
+ * only predefined policy that uses "optimal packing".
+ *
+ * @see IGrowthPolicy for more documentation.
+ *
+ * @author monster
+ */
+public final class GrowthPolicies {
+
+    /**
+     * Allocates exactly the requested number of slots ("optimal packing").
+     * Saves the most memory, but every growth means a new array.
+     */
+    public static final IGrowthPolicy EXACT = new IGrowthPolicy() {
+        @Override
+        public boolean isOptimalPacking() {
+            return true;
+        }
+
+        @Override
+        public int computeSlots(final int currentSlots,
+                final int requiredSlots, final int minimumSlots,
+                final int maximumSlots) {
+            return requiredSlots;
+        }
+
+        @Override
+        public String toString() {
+            return "EXACT";
+        }
+    };
+
+    /**
+     * Allocates the next power-of-two number of slots, but at least the
+     * minimum. This is the default policy.
+     */
+    public static final IGrowthPolicy POWER_OF_TWO = new IGrowthPolicy() {
+        @Override
+        public boolean isOptimalPacking() {
+            return false;
+        }
+
+        @Override
+        public int computeSlots(final int currentSlots,
+                final int requiredSlots, final int minimumSlots,
+                final int maximumSlots) {
+            return powerOfTwo(requiredSlots, minimumSlots, maximumSlots);
+        }
+
+        @Override
+        public String toString() {
+            return "POWER_OF_TWO";
+        }
+    };
+
+    /**
+     * Grows the number of slots by 50%, or to the requested number of slots,
+     * whichever is bigger, but at least to the minimum.
+     */
+    public static final IGrowthPolicy ONE_AND_A_HALF = new IGrowthPolicy() {
+        @Override
+        public boolean isOptimalPacking() {
+            return false;
+        }
+
+        @Override
+        public int computeSlots(final int currentSlots,
+                final int requiredSlots, final int minimumSlots,
+                final int maximumSlots) {
+            if (requiredSlots <= currentSlots) {
+                return currentSlots;
+            }
+            final long grown = currentSlots + (long) (currentSlots >> 1);
+            final long result = Math.max(Math.max(requiredSlots, grown),
+                    minimumSlots);
+            return (int) Math.min(result, maximumSlots);
+        }
+
+        @Override
+        public String toString() {
+            return "ONE_AND_A_HALF";
+        }
+    };
+
+    /**
+     * Allocates the smallest "size class" able to hold the requested
+     * number of slots, but at least the minimum. Requests bigger then the
+     * biggest size class fall back to POWER_OF_TWO.
+     */
+    private static final class SizeClassGrowthPolicy implements IGrowthPolicy {
+        /** The size classes, strictly increasing. */
+        private final int[] sizeClasses;
+
+        /** Creates a size-class policy. */
+        SizeClassGrowthPolicy(final int[] sizeClasses) {
+            this.sizeClasses = sizeClasses;
+        }
+
+        @Override
+        public boolean isOptimalPacking() {
+            return false;
+        }
+
+        @Override
+        public int computeSlots(final int currentSlots,
+                final int requiredSlots, final int minimumSlots,
+                final int maximumSlots) {
+            final int wanted = Math.max(requiredSlots, minimumSlots);
+            for (final int sizeClass : sizeClasses) {
+                if (sizeClass >= wanted) {
+                    return Math.min(sizeClass, maximumSlots);
+                }
+            }
+            return powerOfTwo(requiredSlots, minimumSlots, maximumSlots);
+        }
+
+        @Override
+        public String toString() {
+            return "SIZE_CLASSES" + Arrays.toString(sizeClasses);
+        }
+    }
+
+    /** No instance. */
+    private GrowthPolicies() {
+        // NOP
+    }
+
+    /**
+     * Computes the next power-of-two number of slots, but at least the
+     * minimum, and at most the maximum.
+     *
+     * @param requiredSlots The requested number of slots.
+     * @param minimumSlots The minimum number of slots.
+     * @param maximumSlots The maximum number of slots.
+     * @return The number of slots to allocate.
+     */
+    public static int powerOfTwo(final int requiredSlots,
+            final int minimumSlots, final int maximumSlots) {
+        if (requiredSlots <= minimumSlots) {
+            return minimumSlots;
+        }
+        final int powerOfTwo = 32 - Integer
+                .numberOfLeadingZeros(requiredSlots - 1);
+        if (powerOfTwo == 31) {
+            // Cannot represent (1 << 31) correctly
+            return maximumSlots;
+        }
+        return Math.min(1 << powerOfTwo, maximumSlots);
+    }
+
+    /**
+     * Creates a policy based on a table of "size classes". The size
+     * classes must be positive, and strictly increasing.
+     *
+     * @param sizeClasses The size classes
+     * @return A new size-class growth policy.
+     *
+     * @throws NullPointerException if sizeClasses is null
+     * @throws IllegalArgumentException if sizeClasses is empty, or not positive and strictly increasing.
+     */
+    public static IGrowthPolicy sizeClasses(final int... sizeClasses) {
+        Objects.requireNonNull(sizeClasses, "sizeClasses");
+        if (sizeClasses.length == 0) {
+            throw new IllegalArgumentException("sizeClasses is empty");
+        }
+        final int[] copy = sizeClasses.clone();
+        int last = 0;
+        for (final int sizeClass : copy) {
+            if (sizeClass <= last) {
+                throw new IllegalArgumentException(
+                        "sizeClasses must be positive and strictly increasing: "
+                                + Arrays.toString(copy));
+            }
+            last = sizeClass;
+        }
+        return new SizeClassGrowthPolicy(copy);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A hash-based SlotIndex, for exact-match lookups.
+ *
+ * The keys are stored in a primitive long array, using open addressing
+ * with linear probing, so keys are never boxed. Each key maps to the list
+ * of instances with that key.
+ *
+ * @see SlotIndex for more documentation.
+ *
+ * @author monster
+ */
+public final class HashSlotIndex<STORAGE> extends SlotIndex<STORAGE> {
+
+    /** The initial capacity; a power of two. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The keys. */
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    /** The instances of each key; null means the entry is free. */
+    private List<STORAGE>[] buckets = newBuckets(INITIAL_CAPACITY);
+
+    /** The number of distinct keys. */
+    private int distinct;
+
+    /** The number of instances. */
+    private int size;
+
+    /** Creates an index. */
+    HashSlotIndex(final IGenericObjectAccessor<STORAGE> accessor,
+            final int slot, final ValueType type) {
+        super(accessor, slot, type);
+    }
+
+    /** Creates the bucket array. */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static <S> List<S>[] newBuckets(final int capacity) {
+        return new List[capacity];
+    }
+
+    /** Computes the hash of a key. */
+    private static int hash(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) h;
+    }
+
+    /** Returns the position of the key, or (-insertion position - 1). */
+    private int find(final long key) {
+        final int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (buckets[i] != null) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -i - 1;
+    }
+
+    /** Doubles the capacity. */
+    private void grow() {
+        final long[] oldKeys = keys;
+        final List<STORAGE>[] oldBuckets = buckets;
+        keys = new long[oldKeys.length * 2];
+        buckets = newBuckets(keys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldBuckets[i] != null) {
+                final int pos = -find(oldKeys[i]) - 1;
+                keys[pos] = oldKeys[i];
+                buckets[pos] = oldBuckets[i];
+            }
+        }
+    }
+
+    /** Frees an entry, moving the following entries back if needed. */
+    private void free(final int pos) {
+        final int mask = keys.length - 1;
+        int i = pos;
+        buckets[i] = null;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (buckets[j] == null) {
+                return;
+            }
+            final int h = hash(keys[j]) & mask;
+            // Move entry j to i, unless it's home is cyclically in (i, j]
+            if ((i <= j) ? ((h <= i) || (h > j)) : ((h <= i) && (h > j))) {
+                keys[i] = keys[j];
+                buckets[i] = buckets[j];
+                buckets[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#insert(long, Object)
+     */
+    @Override
+    void insert(final long key, final STORAGE instance) {
+        int pos = find(key);
+        if (pos < 0) {
+            if ((distinct + 1) * 2 > keys.length) {
+                grow();
+                pos = find(key);
+            }
+            pos = -pos - 1;
+            keys[pos] = key;
+            buckets[pos] = new ArrayList<>(1);
+            distinct++;
+        }
+        buckets[pos].add(instance);
+        size++;
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#delete(long, Object)
+     */
+    @Override
+    boolean delete(final long key, final STORAGE instance) {
+        final int pos = find(key);
+        if (pos < 0) {
+            return false;
+        }
+        final List<STORAGE> bucket = buckets[pos];
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == instance) {
+                bucket.remove(i);
+                size--;
+                if (bucket.isEmpty()) {
+                    free(pos);
+                    distinct--;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#contains(long, Object)
+     */
+    @Override
+    boolean contains(final long key, final STORAGE instance) {
+        final int pos = find(key);
+        if (pos >= 0) {
+            for (final STORAGE other : buckets[pos]) {
+                if (other == instance) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns a copy of the instances with the given key. */
+    private List<STORAGE> lookup(final long key) {
+        final int pos = find(key);
+        if (pos < 0) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(buckets[pos]);
+    }
+
+    /**
+     * Returns the instances with the given key, for INT indexes.
+     *
+     * @param key The key.
+     * @return a new list of the instances with the given key.
+     *
+     * @throws IllegalStateException if this is not a INT index
+     */
+    public List<STORAGE> getInt(final int key) {
+        checkType(ValueType.INT);
+        return lookup(key);
+    }
+
+    /**
+     * Returns the instances with the given key, for LONG indexes.
+     *
+     * @param key The key.
+     * @return a new list of the instances with the given key.
+     *
+     * @throws IllegalStateException if this is not a LONG index
+     */
+    public List<STORAGE> getLong(final long key) {
+        checkType(ValueType.LONG);
+        return lookup(key);
+    }
+
+    /**
+     * Returns the instances with the given key, for DOUBLE indexes.
+     *
+     * @param key The key.
+     * @return a new list of the instances with the given key.
+     *
+     * @throws IllegalStateException if this is not a DOUBLE index
+     */
+    public List<STORAGE> getDouble(final double key) {
+        checkType(ValueType.DOUBLE);
+        return lookup(encode(key));
+    }
+}
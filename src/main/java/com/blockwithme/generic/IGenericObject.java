@@ -51,7 +51,7 @@ public interface IGenericObject<STORAGE> {
      *
      * @throws NullPointerException if instance is null
      */
-    public GenericObject<STORAGE> setGenericObjectStorage(STORAGE instance);
+    public IGenericObject<STORAGE> setGenericObjectStorage(STORAGE instance);
 
     /**
      * @see IGenericObjectAccessor#getPrimitiveValuesMaximumIndex(Object)
@@ -106,18 +106,28 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#resizePrimitiveValues(Object, int)
      */
-    public GenericObject<STORAGE> resizePrimitiveValues(int reservedSize);
+    public IGenericObject<STORAGE> resizePrimitiveValues(int reservedSize);
 
     /**
      * @see IGenericObjectAccessor#resizeBooleanValues(Object, int)
      */
-    public GenericObject<STORAGE> resizeBooleanValues(int reservedSize)
+    public IGenericObject<STORAGE> resizeBooleanValues(int reservedSize)
             throws UnsupportedOperationException;
 
     /**
      * @see IGenericObjectAccessor#resizeObjectValues(Object, int)
      */
-    public GenericObject<STORAGE> resizeObjectValues(int reservedSize);
+    public IGenericObject<STORAGE> resizeObjectValues(int reservedSize);
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    public IGenericObject<STORAGE> trimPrimitiveValues();
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public IGenericObject<STORAGE> trimObjectValues();
 
     /**
      * @see IGenericObjectAccessor#getBooleanValue(Object, int)
@@ -127,7 +137,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setBooleanValue(Object, int, boolean)
      */
-    public GenericObject<STORAGE> setBooleanValue(int index, boolean value);
+    public IGenericObject<STORAGE> setBooleanValue(int index, boolean value);
 
     /**
      * @see IGenericObjectAccessor#getByteValue(Object,int)
@@ -137,7 +147,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setByteValue(Object, int, byte)
      */
-    public GenericObject<STORAGE> setByteValue(int index, byte value);
+    public IGenericObject<STORAGE> setByteValue(int index, byte value);
 
     /**
      * @see IGenericObjectAccessor#getCharValue(Object, int)
@@ -147,7 +157,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setCharValue(Object, int, char)
      */
-    public GenericObject<STORAGE> setCharValue(int index, char value);
+    public IGenericObject<STORAGE> setCharValue(int index, char value);
 
     /**
      * @see IGenericObjectAccessor#getShortValue(Object, int)
@@ -157,7 +167,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setShortValue(Object, int, short)
      */
-    public GenericObject<STORAGE> setShortValue(int index, short value);
+    public IGenericObject<STORAGE> setShortValue(int index, short value);
 
     /**
      * @see IGenericObjectAccessor#getIntValue(Object, int)
@@ -167,7 +177,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setIntValue(Object, int, int)
      */
-    public GenericObject<STORAGE> setIntValue(int index, int value);
+    public IGenericObject<STORAGE> setIntValue(int index, int value);
 
     /**
      * @see IGenericObjectAccessor#getFloatValue(Object, int)
@@ -177,7 +187,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setFloatValue(Object, int, float)
      */
-    public GenericObject<STORAGE> setFloatValue(int index, float value);
+    public IGenericObject<STORAGE> setFloatValue(int index, float value);
 
     /**
      * @see IGenericObjectAccessor#getLongValue(Object, int)
@@ -187,7 +197,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setLongValue(Object, int, long)
      */
-    public GenericObject<STORAGE> setLongValue(int index, long value);
+    public IGenericObject<STORAGE> setLongValue(int index, long value);
 
     /**
      * @see IGenericObjectAccessor#getDoubleValue(Object, int)
@@ -197,7 +207,7 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setDoubleValue(Object, int, double)
      */
-    public GenericObject<STORAGE> setDoubleValue(int index, double value);
+    public IGenericObject<STORAGE> setDoubleValue(int index, double value);
 
     /**
      * @see IGenericObjectAccessor#getObjectValue(Object, int)
@@ -207,6 +217,6 @@ public interface IGenericObject<STORAGE> {
     /**
      * @see IGenericObjectAccessor#setObjectValue(Object, int, Object)
      */
-    public GenericObject<STORAGE> setObjectValue(int index, Object value);
+    public IGenericObject<STORAGE> setObjectValue(int index, Object value);
 
 }
\ No newline at end of file
@@ -530,6 +530,173 @@ public interface IGenericObjectAccessor<STORAGE> {
 
     //////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Shrinks the storage of primitive values, so that it is just big enough
+     * to hold the highest primitive slot actually used, that is, the highest
+     * slot not containing the default value. If longs or doubles use two
+     * slots, the slot after it is kept too, so that a two-slot value is never
+     * split. If "optimal packing" is NOT used, the new size is rounded up like
+     * for a new instance. The storage is never grown by this method.
+     *
+     * Fixed-size boolean values are not affected.
+     *
+     * @param instance The generic object storage instance.
+     * @return The new replacement, or modified, generic object storage instance.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance is invalid (null, or wrong type)
+     *
+     * @see #resizePrimitiveValues(Object, int)
+     */
+    STORAGE trimPrimitiveValues(STORAGE instance);
+
+    /**
+     * Shrinks the storage of Object values, so that it is just big enough
+     * to hold the highest Object slot actually used, that is, the highest
+     * slot not containing null. If "optimal packing" is NOT used, the new
+     * size is rounded up like for a new instance. The storage is never
+     * grown by this method.
+     *
+     * @param instance The generic object storage instance.
+     * @return The new replacement, or modified, generic object storage instance.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance is invalid (null, or wrong type)
+     *
+     * @see #resizeObjectValues(Object, int)
+     */
+    STORAGE trimObjectValues(STORAGE instance);
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Computes a hash code over the *content* of a generic object storage
+     * instance, that is, over the primitive and Object values actually used.
+     * Unused trailing slots and the reserved capacity are ignored, so that
+     * instances that only differ in their size have the same hash code.
+     * Object values contribute their own hashCode().
+     *
+     * @param instance The generic object storage instance.
+     * @return The hash code of the content of the instance.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance is invalid (null, or wrong type)
+     *
+     * @see #contentEquals(Object, Object)
+     */
+    int contentHashCode(STORAGE instance);
+
+    /**
+     * Compares the *content* of two generic object storage instances. Unused
+     * trailing slots and the reserved capacity are ignored. Object values
+     * are compared with equals(). Double values are compared bitwise.
+     *
+     * @param instance The generic object storage instance.
+     * @param other The other generic object storage instance.
+     * @return true, if both instances contain the same values.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance or other are invalid (null, or wrong type)
+     *
+     * @see #contentHashCode(Object)
+     */
+    boolean contentEquals(STORAGE instance, STORAGE other);
+
+    /**
+     * Creates a shallow copy of a generic object storage instance. The copy
+     * has the same size, and does not share any array with the original,
+     * but the Object values themselves are not copied.
+     *
+     * @param instance The generic object storage instance.
+     * @return The new copy.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance is invalid (null, or wrong type)
+     */
+    STORAGE copy(STORAGE instance);
+
+    /**
+     * Creates a copy of a generic object storage instance, that is just big
+     * enough to hold the highest slots actually used, like after calling
+     * trimPrimitiveValues() and trimObjectValues(). If copier is null, the
+     * copy is shallow, and the Object values are shared. Otherwise, every
+     * non-null Object value is replaced by the result of the copier,
+     * allowing deep copies.
+     *
+     * @param instance The generic object storage instance.
+     * @param copier The Object values copier; null for a shallow copy.
+     * @return The new copy.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance is invalid (null, or wrong type)
+     *
+     * @see GenericObjectCopier
+     */
+    STORAGE cloneStorage(STORAGE instance, IObjectCopier copier);
+
+    /**
+     * Replaces the primitive values of a generic object storage instance by
+     * a private copy, so that it does not share them anymore with any other
+     * instance (for example, the original of a copyObjectValues() call).
+     * Like resizePrimitiveValues(), this can modify the given instance.
+     *
+     * @param instance The generic object storage instance.
+     * @return The new replacement, or modified, generic object storage instance.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance is invalid (null, or wrong type)
+     *
+     * @see #copyObjectValues(Object)
+     */
+    STORAGE copyPrimitiveValues(STORAGE instance);
+
+    /**
+     * Creates a new generic object storage instance, with a private copy of
+     * the Object values, but *sharing* the primitive values with the given
+     * instance, which is not modified. Modifying the primitive values of
+     * either instance is only safe after calling copyPrimitiveValues() on
+     * it. The Object values themselves are not copied.
+     *
+     * @param instance The generic object storage instance.
+     * @return The new generic object storage instance.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if instance is invalid (null, or wrong type)
+     *
+     * @see #copyPrimitiveValues(Object)
+     */
+    STORAGE copyObjectValues(STORAGE instance);
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Compares two generic object storage instances, slot by slot, and
+     * returns the slots that differ. Slots beyond the size of one instance
+     * are compared to the default values. Object values are compared with
+     * equals(), and primitive values are compared bitwise. If longs or
+     * doubles use two slots, both neighbours of a changed primitive slot are
+     * reported too, so that a merge never splits a two-slot value.
+     *
+     * @param base The base generic object storage instance.
+     * @param changed The changed generic object storage instance.
+     * @return The slots that differ.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if base or changed are invalid (null, or wrong type)
+     *
+     * @see #merge(Object, Object, GenericObjectDiff)
+     */
+    GenericObjectDiff diff(STORAGE base, STORAGE changed);
+
+    /**
+     * Copies the slots listed in diff from changed to target, growing the
+     * target if needed. Used with a diff of changed relative to a base
+     * instance, this performs a three-way merge of changed into target.
+     *
+     * @param target The generic object storage instance to update.
+     * @param changed The generic object storage instance to copy from.
+     * @param diff The slots to copy.
+     * @return The new replacement, or modified, target instance.
+     *
+     * @throws RuntimeException The API is expected to throw *some* RuntimeException if target or changed are invalid (null, or wrong type)
+     *
+     * @see #diff(Object, Object)
+     */
+    STORAGE merge(STORAGE target, STORAGE changed, GenericObjectDiff diff);
+
+    //////////////////////////////////////////////////////////////////////////
+
     /**
      * Returns a boolean value at the given index.
      *
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * Receives the entries evicted from a GenericObjectCache, for example to
+ * move them to a second-tier store.
+ *
+ * The listener is called synchronously, by the thread whose put() caused
+ * the eviction, after the segment of the key was unlocked. It must be
+ * thread-safe, and can call back into the cache.
+ *
+ * @see GenericObjectCache#setEvictionListener(IGenericObjectCacheListener)
+ * @see OffHeapGenericObjectStore
+ *
+ * @author monster
+ */
+public interface IGenericObjectCacheListener<K, STORAGE> {
+    /**
+     * Called when an entry was evicted, to stay within the byte budget.
+     * Entries that are removed or replaced explicitly are not reported.
+     *
+     * @param key The key of the evicted entry.
+     * @param instance The evicted storage instance.
+     */
+    void evicted(K key, STORAGE instance);
+}
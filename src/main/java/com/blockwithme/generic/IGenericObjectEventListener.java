@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * Receives the allocation and resize events of the generic object
+ * implementations, for profiling purposes. Only allocations are reported;
+ * resizes that do not reallocate the storage are not.
+ *
+ * All sizes are *array lengths*, including any internal "header" slots,
+ * so that they map directly to the allocated memory.
+ *
+ * The listener is called synchronously, from the allocating thread, so
+ * it should be fast, and must be thread-safe. When running on Java 11+,
+ * this is the place to create and commit Java Flight Recorder events,
+ * after checking that they are enabled.
+ *
+ * @see GenericObjectEvents#setListener(IGenericObjectEventListener)
+ *
+ * @author monster
+ */
+public interface IGenericObjectEventListener {
+    /**
+     * Called when a new generic object was created.
+     *
+     * @param implementation The accessor implementation class.
+     * @param primitiveSize The length of the primitive array.
+     * @param objectSize The length of the Object array.
+     */
+    void newGenericObject(Class<?> implementation, int primitiveSize,
+            int objectSize);
+
+    /**
+     * Called when the primitive array was reallocated.
+     *
+     * @param implementation The accessor implementation class.
+     * @param oldSize The old length of the primitive array.
+     * @param newSize The new length of the primitive array.
+     */
+    void primitiveValuesResized(Class<?> implementation, int oldSize,
+            int newSize);
+
+    /**
+     * Called when the Object array was reallocated.
+     *
+     * @param implementation The accessor implementation class.
+     * @param oldSize The old length of the Object array.
+     * @param newSize The new length of the Object array.
+     */
+    void objectValuesResized(Class<?> implementation, int oldSize, int newSize);
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * Reads some values of a generic object. Used by ConcurrentGenericObject,
+ * which calls it once, with a snapshot of the current values.
+ *
+ * @see ConcurrentGenericObject#read(IGenericObjectReader)
+ *
+ * @author monster
+ */
+public interface IGenericObjectReader<STORAGE, R> {
+    /**
+     * Reads some values of the given generic object.
+     *
+     * @param object An immutable snapshot of the generic object.
+     * @return The result of the read.
+     */
+    R read(IGenericObject<STORAGE> object);
+}
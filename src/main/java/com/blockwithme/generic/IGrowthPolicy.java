@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * A growth policy decides how many "slots" a generic object implementation
+ * actually allocates, when a given number of slots is requested, either
+ * through newGenericObject(), or through one of the resize methods.
+ *
+ * Growth policies are used by the accessor implementations, and only deal
+ * with "slots"; the implementation is responsible for adding any internal
+ * "header" slots it might need, like the slot holding the primitive array.
+ *
+ * A growth policy that returns exactly the requested number of slots is
+ * said to use "optimal packing". Only then can an implementation report the
+ * "reserved size" of an instance, since it is then the same as the number
+ * of slots available.
+ *
+ * Implementations must be immutable and thread-safe.
+ *
+ * @see GrowthPolicies for the predefined policies.
+ * @see IGenericObjectAccessor for more documentation.
+ *
+ * @author monster
+ */
+public interface IGrowthPolicy {
+    /**
+     * Returns true, if this policy always allocates exactly the requested
+     * number of slots, which is what "optimal packing" means.
+     *
+     * @return True, if this policy uses "optimal packing".
+     */
+    boolean isOptimalPacking();
+
+    /**
+     * Computes the number of slots to allocate.
+     *
+     * The returned value must be within [requiredSlots, maximumSlots]. If
+     * the policy does NOT use "optimal packing", it should also not return
+     * less then minimumSlots. Implementations not using "optimal packing"
+     * never shrink the storage, whatever value is returned.
+     *
+     * @param currentSlots The number of slots currently available (0 for new instances).
+     * @param requiredSlots The requested number of slots (the "reserved size").
+     * @param minimumSlots The minimum number of slots preferred by the implementation.
+     * @param maximumSlots The maximum number of slots supported by the implementation.
+     * @return The number of slots to allocate.
+     */
+    int computeSlots(int currentSlots, int requiredSlots, int minimumSlots,
+            int maximumSlots);
+}
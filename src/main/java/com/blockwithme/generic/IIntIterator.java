@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * An iterator over int values, that does not require boxing, and can be
+ * split, to process the values in parallel.
+ *
+ * The method names match java.util.PrimitiveIterator and
+ * java.util.Spliterator, so adapting to Java 8 streams is trivial.
+ *
+ * @see GenericObjectIterators
+ *
+ * @author monster
+ */
+public interface IIntIterator {
+    /**
+     * Returns true, if there are more values.
+     *
+     * @return true, if there are more values.
+     */
+    boolean hasNext();
+
+    /**
+     * Returns the next value.
+     *
+     * @return the next value.
+     *
+     * @throws java.util.NoSuchElementException if there are no more values
+     */
+    int nextInt();
+
+    /**
+     * Returns the exact number of remaining values.
+     *
+     * @return the number of remaining values.
+     */
+    int estimateSize();
+
+    /**
+     * Splits off the first half of the remaining values, into a new
+     * iterator. This iterator keeps the second half.
+     *
+     * @return the new iterator, or null if there are too few values to split.
+     */
+    IIntIterator trySplit();
+}
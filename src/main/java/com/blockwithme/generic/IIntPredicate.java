@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * A predicate on int values, that does not require boxing.
+ *
+ * @author monster
+ */
+public interface IIntPredicate {
+    /**
+     * Evaluates this predicate on the given value.
+     *
+     * @param value The value to test.
+     * @return true if the value matches the predicate.
+     */
+    boolean test(int value);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes and decodes the Object values of a generic object, so that they
+ * can be stored outside of the heap.
+ *
+ * @see OffHeapGenericObjectStore
+ * @see BasicObjectCodec
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public interface IObjectCodec {
+    /**
+     * Encodes a value.
+     *
+     * @param value The value to encode; can be null.
+     * @param out The output.
+     *
+     * @throws IllegalArgumentException if the value is not supported
+     * @throws IOException if the output fails
+     */
+    void encode(Object value, DataOutput out) throws IOException;
+
+    /**
+     * Decodes a value, encoded by encode().
+     *
+     * @param in The input.
+     * @return The decoded value; can be null.
+     *
+     * @throws IOException if the input fails
+     */
+    Object decode(DataInput in) throws IOException;
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * Copies the Object values of a generic object, for deep copies.
+ *
+ * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+ *
+ * @author monster
+ */
+public interface IObjectCopier {
+    /**
+     * Returns a copy of the given value, or the value itself, if it should
+     * be shared.
+     *
+     * @param value The value to copy; never null.
+     * @return The copy of the value.
+     */
+    Object copy(Object value);
+}
@@ -0,0 +1,862 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * IndexingGenericObjectAccessor decorates another IGenericObjectAccessor,
+ * and keeps the SlotIndex instances it created up to date, when the
+ * indexed primitive slots are written through it.
+ *
+ * Writes that do not touch an indexed slot cost one loop over the indexes.
+ * Since the INT layout stores long and double values in two slots, a write
+ * is considered to touch an index if the slots overlap. When a resize, or
+ * trim, returns a new storage instance, it replaces the old one in the
+ * indexes.
+ *
+ * Writes that bypass this accessor (for example, through the decorated
+ * accessor) are *not* seen by the indexes. Neither this accessor, nor the
+ * indexes, are thread-safe.
+ *
+ * @see SlotIndex
+ * @see IGenericObjectAccessor for more documentation.
+ *
+ * @author monster
+ */
+public class IndexingGenericObjectAccessor<STORAGE> implements
+        IGenericObjectAccessor<STORAGE> {
+    /** The decorated accessor. */
+    private final IGenericObjectAccessor<STORAGE> delegate;
+
+    /** The indexes. */
+    private SlotIndex<STORAGE>[] indexes;
+
+    /** The number of primitive slots used by long values. */
+    private final int longWidth;
+
+    /** The number of primitive slots used by double values. */
+    private final int doubleWidth;
+
+    /** The number of primitive slots used by boolean values. */
+    private final int booleanWidth;
+
+    /**
+     * Creates an IndexingGenericObjectAccessor, without indexes.
+     *
+     * @param delegate The decorated accessor.
+     *
+     * @throws NullPointerException if delegate is null
+     */
+    public IndexingGenericObjectAccessor(
+            final IGenericObjectAccessor<STORAGE> delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        indexes = newIndexArray(0);
+        longWidth = delegate.isLongUsingTwoPrimitiveSlots() ? 2 : 1;
+        doubleWidth = delegate.isDoubleUsingTwoPrimitiveSlots() ? 2 : 1;
+        booleanWidth = delegate
+                .isBooleanValuesIDSpaceIndependentFromPrimitive() ? 0 : 1;
+    }
+
+    /**
+     * Returns the decorated accessor.
+     *
+     * @return the decorated accessor.
+     */
+    public final IGenericObjectAccessor<STORAGE> getDelegate() {
+        return delegate;
+    }
+
+    /** Creates an index array. */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static <STORAGE> SlotIndex<STORAGE>[] newIndexArray(
+            final int length) {
+        return new SlotIndex[length];
+    }
+
+    /** Registers a new index. */
+    private <I extends SlotIndex<STORAGE>> I register(final I index) {
+        final SlotIndex<STORAGE>[] newIndexes = newIndexArray(
+                indexes.length + 1);
+        System.arraycopy(indexes, 0, newIndexes, 0, indexes.length);
+        newIndexes[indexes.length] = index;
+        indexes = newIndexes;
+        return index;
+    }
+
+    /**
+     * Creates, and registers, a new empty hash index.
+     *
+     * @param slot The indexed primitive slot.
+     * @param type The type of the slot; INT, LONG or DOUBLE.
+     * @return the new index.
+     *
+     * @throws NullPointerException if type is null
+     * @throws IllegalArgumentException if slot or type is not supported
+     */
+    public final HashSlotIndex<STORAGE> newHashIndex(final int slot,
+            final ValueType type) {
+        return register(new HashSlotIndex<>(delegate, slot, type));
+    }
+
+    /**
+     * Creates, and registers, a new empty sorted index.
+     *
+     * @param slot The indexed primitive slot.
+     * @param type The type of the slot; INT, LONG or DOUBLE.
+     * @return the new index.
+     *
+     * @throws NullPointerException if type is null
+     * @throws IllegalArgumentException if slot or type is not supported
+     */
+    public final SortedSlotIndex<STORAGE> newSortedIndex(final int slot,
+            final ValueType type) {
+        return register(new SortedSlotIndex<>(delegate, slot, type));
+    }
+
+    /**
+     * Returns true, if the instance was added to any registered index.
+     *
+     * @param instance The generic object storage instance.
+     * @return true, if the instance is indexed.
+     */
+    public final boolean isIndexed(final STORAGE instance) {
+        for (final SlotIndex<STORAGE> slotIndex : indexes) {
+            if (slotIndex.contains(instance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unregisters an index. It will not be updated anymore.
+     *
+     * @param index The index.
+     * @return true, if the index was registered.
+     */
+    public final boolean removeIndex(final SlotIndex<STORAGE> index) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] == index) {
+                final SlotIndex<STORAGE>[] newIndexes = newIndexArray(
+                        indexes.length - 1);
+                System.arraycopy(indexes, 0, newIndexes, 0, i);
+                System.arraycopy(indexes, i + 1, newIndexes, i,
+                        newIndexes.length - i);
+                indexes = newIndexes;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the indexes, in which the instance could be, touched by a
+     * write of width primitive slots at index, or null if none. An instance
+     * too small to contain the key of an index cannot be in that index.
+     */
+    private SlotIndex<STORAGE>[] touched(final STORAGE instance,
+            final int index, final int width) {
+        SlotIndex<STORAGE>[] result = null;
+        int count = 0;
+        for (final SlotIndex<STORAGE> slotIndex : indexes) {
+            if (slotIndex.overlaps(index, width)
+                    && slotIndex.readable(instance)) {
+                if (result == null) {
+                    result = newIndexArray(indexes.length);
+                }
+                result[count++] = slotIndex;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexes, in which the instance could be, touched by
+     * writes to the given primitive slots, or null if none.
+     */
+    private SlotIndex<STORAGE>[] touched(final STORAGE instance,
+            final int[] slots) {
+        SlotIndex<STORAGE>[] result = null;
+        int count = 0;
+        for (final SlotIndex<STORAGE> slotIndex : indexes) {
+            if (slotIndex.readable(instance)) {
+                for (final int slot : slots) {
+                    if (slotIndex.overlaps(slot, 1)) {
+                        if (result == null) {
+                            result = newIndexArray(indexes.length);
+                        }
+                        result[count++] = slotIndex;
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Reads the current keys of the instance, in the touched indexes. */
+    private static <STORAGE> long[] keys(final SlotIndex<STORAGE>[] touched,
+            final STORAGE instance) {
+        final long[] result = new long[touched.length];
+        for (int i = 0; i < touched.length && touched[i] != null; i++) {
+            result[i] = touched[i].key(instance);
+        }
+        return result;
+    }
+
+    /** Updates the touched indexes, after a write. */
+    private static <STORAGE> STORAGE written(
+            final SlotIndex<STORAGE>[] touched, final long[] oldKeys,
+            final STORAGE oldInstance, final STORAGE newInstance) {
+        for (int i = 0; i < touched.length && touched[i] != null; i++) {
+            touched[i].update(oldKeys[i], oldInstance, newInstance);
+        }
+        return newInstance;
+    }
+
+    /** Replaces the old instance by the new one, in all indexes. */
+    private STORAGE replaced(final STORAGE oldInstance,
+            final STORAGE newInstance) {
+        if (oldInstance != newInstance) {
+            for (final SlotIndex<STORAGE> slotIndex : indexes) {
+                slotIndex.replace(oldInstance, newInstance);
+            }
+        }
+        return newInstance;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isBooleanValuesIDSpaceIndependentFromPrimitive()
+     */
+    @Override
+    public final boolean isBooleanValuesIDSpaceIndependentFromPrimitive() {
+        return delegate.isBooleanValuesIDSpaceIndependentFromPrimitive();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isBooleanValuesIDSpaceFixed()
+     */
+    @Override
+    public final boolean isBooleanValuesIDSpaceFixed() {
+        return delegate.isBooleanValuesIDSpaceFixed();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isPrimitiveValuesIDSpaceIndependentFromObject()
+     */
+    @Override
+    public final boolean isPrimitiveValuesIDSpaceIndependentFromObject() {
+        return delegate.isPrimitiveValuesIDSpaceIndependentFromObject();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesIDSpaceFixedSize()
+     */
+    @Override
+    public final int getBooleanValuesIDSpaceFixedSize() {
+        return delegate.getBooleanValuesIDSpaceFixedSize();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isImmutableInstancesUsed()
+     */
+    @Override
+    public final boolean isImmutableInstancesUsed() {
+        return delegate.isImmutableInstancesUsed();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isThreadSafeInstancesUsed()
+     */
+    @Override
+    public final boolean isThreadSafeInstancesUsed() {
+        return delegate.isThreadSafeInstancesUsed();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isLongUsingTwoPrimitiveSlots()
+     */
+    @Override
+    public final boolean isLongUsingTwoPrimitiveSlots() {
+        return delegate.isLongUsingTwoPrimitiveSlots();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isDoubleUsingTwoPrimitiveSlots()
+     */
+    @Override
+    public final boolean isDoubleUsingTwoPrimitiveSlots() {
+        return delegate.isDoubleUsingTwoPrimitiveSlots();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isOptimalPackingUsedForPrimitiveValues()
+     */
+    @Override
+    public final boolean isOptimalPackingUsedForPrimitiveValues() {
+        return delegate.isOptimalPackingUsedForPrimitiveValues();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isOptimalPackingUsedForBooleanValues()
+     */
+    @Override
+    public final boolean isOptimalPackingUsedForBooleanValues()
+            throws UnsupportedOperationException {
+        return delegate.isOptimalPackingUsedForBooleanValues();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isOptimalPackingUsedForObjectValues()
+     */
+    @Override
+    public final boolean isOptimalPackingUsedForObjectValues() {
+        return delegate.isOptimalPackingUsedForObjectValues();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesStartIndex()
+     */
+    @Override
+    public final int getPrimitiveValuesStartIndex() {
+        return delegate.getPrimitiveValuesStartIndex();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesStartIndex()
+     */
+    @Override
+    public final int getBooleanValuesStartIndex()
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesStartIndex();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesStartIndex()
+     */
+    @Override
+    public final int getObjectValuesStartIndex() {
+        return delegate.getObjectValuesStartIndex();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesMaximumCount()
+     */
+    @Override
+    public final int getPrimitiveValuesMaximumCount() {
+        return delegate.getPrimitiveValuesMaximumCount();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesMaximumCount()
+     */
+    @Override
+    public final int getBooleanValuesMaximumCount()
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesMaximumCount();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesMaximumCount()
+     */
+    @Override
+    public final int getObjectValuesMaximumCount() {
+        return delegate.getObjectValuesMaximumCount();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesMaximumIndex(Object)
+     */
+    @Override
+    public final int getPrimitiveValuesMaximumIndex(final STORAGE instance) {
+        return delegate.getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesMaximumIndex(Object)
+     */
+    @Override
+    public final int getBooleanValuesMaximumIndex(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesMaximumIndex(Object)
+     */
+    @Override
+    public final int getObjectValuesMaximumIndex(final STORAGE instance) {
+        return delegate.getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesSlotsAvailable(Object)
+     */
+    @Override
+    public final int getPrimitiveValuesSlotsAvailable(final STORAGE instance) {
+        return delegate.getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesSlotsAvailable(Object)
+     */
+    @Override
+    public final int getBooleanValuesSlotsAvailable(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesSlotsAvailable(Object)
+     */
+    @Override
+    public final int getObjectValuesSlotsAvailable(final STORAGE instance) {
+        return delegate.getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesReservedSize(Object)
+     */
+    @Override
+    public final int getPrimitiveValuesReservedSize(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesReservedSize(Object)
+     */
+    @Override
+    public final int getBooleanValuesReservedSize(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesReservedSize(Object)
+     */
+    @Override
+    public final int getObjectValuesReservedSize(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#newEmptyGenericObject()
+     */
+    @Override
+    public final STORAGE newEmptyGenericObject() {
+        return delegate.newEmptyGenericObject();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#newGenericObject(int,int,int)
+     */
+    @Override
+    public final STORAGE newGenericObject(final int requiredPrimitiveSlots,
+            final int requiredBooleanSlots, final int requiredObjectSlots)
+            throws UnsupportedOperationException {
+        return delegate.newGenericObject(requiredPrimitiveSlots,
+                requiredBooleanSlots, requiredObjectSlots);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#newGenericObject(int,int)
+     */
+    @Override
+    public final STORAGE newGenericObject(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        return delegate.newGenericObject(requiredPrimitiveSlots,
+                requiredObjectSlots);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#resizePrimitiveValues(Object, int)
+     */
+    @Override
+    public final STORAGE resizePrimitiveValues(final STORAGE instance,
+            final int reservedSize) {
+        return replaced(instance,
+                delegate.resizePrimitiveValues(instance, reservedSize));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#resizeBooleanValues(Object, int)
+     */
+    @Override
+    public final STORAGE resizeBooleanValues(final STORAGE instance,
+            final int reservedSize)
+            throws UnsupportedOperationException {
+        return replaced(instance,
+                delegate.resizeBooleanValues(instance, reservedSize));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#resizeObjectValues(Object, int)
+     */
+    @Override
+    public final STORAGE resizeObjectValues(final STORAGE instance,
+            final int reservedSize) {
+        return replaced(instance,
+                delegate.resizeObjectValues(instance, reservedSize));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    @Override
+    public final STORAGE trimPrimitiveValues(final STORAGE instance) {
+        return replaced(instance, delegate.trimPrimitiveValues(instance));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    @Override
+    public final STORAGE trimObjectValues(final STORAGE instance) {
+        return replaced(instance, delegate.trimObjectValues(instance));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    @Override
+    public final int contentHashCode(final STORAGE instance) {
+        return delegate.contentHashCode(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    @Override
+    public final boolean contentEquals(final STORAGE instance,
+            final STORAGE other) {
+        return delegate.contentEquals(instance, other);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    @Override
+    public final STORAGE copy(final STORAGE instance) {
+        return delegate.copy(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    @Override
+    public final STORAGE cloneStorage(final STORAGE instance,
+            final IObjectCopier copier) {
+        return delegate.cloneStorage(instance, copier);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    @Override
+    public final STORAGE copyPrimitiveValues(final STORAGE instance) {
+        return replaced(instance, delegate.copyPrimitiveValues(instance));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    @Override
+    public final STORAGE copyObjectValues(final STORAGE instance) {
+        return replaced(instance, delegate.copyObjectValues(instance));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    @Override
+    public final GenericObjectDiff diff(final STORAGE base,
+            final STORAGE changed) {
+        return delegate.diff(base, changed);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    @Override
+    public final STORAGE merge(final STORAGE target, final STORAGE changed,
+            final GenericObjectDiff diff) {
+        final SlotIndex<STORAGE>[] touched = touched(target,
+                diff.primitiveSlots);
+        if (touched == null) {
+            return replaced(target, delegate.merge(target, changed, diff));
+        }
+        final long[] oldKeys = keys(touched, target);
+        return replaced(target, written(touched, oldKeys, target,
+                delegate.merge(target, changed, diff)));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValue(Object, int)
+     */
+    @Override
+    public final boolean getBooleanValue(final STORAGE instance,
+            final int index) {
+        return delegate.getBooleanValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setBooleanValue(Object, int, boolean)
+     */
+    @Override
+    public final STORAGE setBooleanValue(final STORAGE instance,
+            final int index, final boolean value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                booleanWidth);
+        if (touched == null) {
+            return delegate.setBooleanValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setBooleanValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getByteValue(Object, int)
+     */
+    @Override
+    public final byte getByteValue(final STORAGE instance, final int index) {
+        return delegate.getByteValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setByteValue(Object, int, byte)
+     */
+    @Override
+    public final STORAGE setByteValue(final STORAGE instance,
+            final int index, final byte value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                1);
+        if (touched == null) {
+            return delegate.setByteValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setByteValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getCharValue(Object, int)
+     */
+    @Override
+    public final char getCharValue(final STORAGE instance, final int index) {
+        return delegate.getCharValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setCharValue(Object, int, char)
+     */
+    @Override
+    public final STORAGE setCharValue(final STORAGE instance,
+            final int index, final char value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                1);
+        if (touched == null) {
+            return delegate.setCharValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setCharValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getShortValue(Object, int)
+     */
+    @Override
+    public final short getShortValue(final STORAGE instance, final int index) {
+        return delegate.getShortValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setShortValue(Object, int, short)
+     */
+    @Override
+    public final STORAGE setShortValue(final STORAGE instance,
+            final int index, final short value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                1);
+        if (touched == null) {
+            return delegate.setShortValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setShortValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getIntValue(Object, int)
+     */
+    @Override
+    public final int getIntValue(final STORAGE instance, final int index) {
+        return delegate.getIntValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setIntValue(Object, int, int)
+     */
+    @Override
+    public final STORAGE setIntValue(final STORAGE instance,
+            final int index, final int value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                1);
+        if (touched == null) {
+            return delegate.setIntValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setIntValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getFloatValue(Object, int)
+     */
+    @Override
+    public final float getFloatValue(final STORAGE instance, final int index) {
+        return delegate.getFloatValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setFloatValue(Object, int, float)
+     */
+    @Override
+    public final STORAGE setFloatValue(final STORAGE instance,
+            final int index, final float value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                1);
+        if (touched == null) {
+            return delegate.setFloatValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setFloatValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getLongValue(Object, int)
+     */
+    @Override
+    public final long getLongValue(final STORAGE instance, final int index) {
+        return delegate.getLongValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setLongValue(Object, int, long)
+     */
+    @Override
+    public final STORAGE setLongValue(final STORAGE instance,
+            final int index, final long value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                longWidth);
+        if (touched == null) {
+            return delegate.setLongValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setLongValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getDoubleValue(Object, int)
+     */
+    @Override
+    public final double getDoubleValue(final STORAGE instance,
+            final int index) {
+        return delegate.getDoubleValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setDoubleValue(Object, int, double)
+     */
+    @Override
+    public final STORAGE setDoubleValue(final STORAGE instance,
+            final int index, final double value) {
+        final SlotIndex<STORAGE>[] touched = touched(instance, index,
+                doubleWidth);
+        if (touched == null) {
+            return delegate.setDoubleValue(instance, index, value);
+        }
+        final long[] oldKeys = keys(touched, instance);
+        return written(touched, oldKeys, instance,
+                delegate.setDoubleValue(instance, index, value));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValue(Object, int)
+     */
+    @Override
+    public final Object getObjectValue(final STORAGE instance,
+            final int index) {
+        return delegate.getObjectValue(instance, index);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setObjectValue(Object, int, Object)
+     */
+    @Override
+    public final STORAGE setObjectValue(final STORAGE instance,
+            final int index, final Object value) {
+        return delegate.setObjectValue(instance, index, value);
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.blockwithme.generic;
 
+import java.util.Objects;
+
 /**
  * IntGenericObjectAccessor implements IGenericObjectAccessor using ints.
  * Booleans are stored as normal primitives. Instances are not immutable/thread-safe.
@@ -69,53 +71,65 @@ public class IntGenericObjectAccessor implements
     }
 
     /** Computes a "new size" for primitive values */
-    private static int newPrimitiveSize(final int reservedSize,
-            final String name) {
+    private static int newPrimitiveSize(final IGrowthPolicy policy,
+            final int currentSlots, final int reservedSize, final String name) {
         if ((reservedSize < 0) || (reservedSize > PRIMITIVE_MAX_SIZE)) {
             throw new IllegalArgumentException(name + ": " + reservedSize);
         }
-        final int newSize;
-        if (reservedSize > (PRIMITIVE_MIN_SIZE - PRIMITIVE_START_INDEX)) {
-            final int powerOfTwo = 32 - Integer
-                    .numberOfLeadingZeros(reservedSize - 1);
-            if (powerOfTwo == 31) {
-                // Cannot represent (1 << 31) correctly
-                newSize = Integer.MAX_VALUE;
-            } else {
-                newSize = (1 << powerOfTwo);
-            }
-        } else {
-            newSize = PRIMITIVE_MIN_SIZE;
-        }
-        return newSize;
+        return policy.computeSlots(currentSlots, reservedSize,
+                PRIMITIVE_MIN_SIZE - PRIMITIVE_START_INDEX,
+                PRIMITIVE_MAX_SIZE) + PRIMITIVE_START_INDEX;
     }
 
     /** Computes a "new size" for Objects */
-    private static int newObjectSize(final int reservedSize, final String name) {
+    private static int newObjectSize(final IGrowthPolicy policy,
+            final int currentSlots, final int reservedSize, final String name) {
         if ((reservedSize < 0) || (reservedSize > OBJECT_MAX_SIZE)) {
             throw new IllegalArgumentException(name + ": " + reservedSize);
         }
-        final int newSize;
-        if (reservedSize > (OBJECT_MIN_SIZE - OBJECT_START_INDEX)) {
-            final int powerOfTwo = 32 - Integer
-                    .numberOfLeadingZeros(reservedSize - 1);
-            if (powerOfTwo == 31) {
-                // Cannot represent (1 << 31) correctly
-                newSize = Integer.MAX_VALUE;
-            } else {
-                newSize = (1 << powerOfTwo) + 1 /* For int[] */;
-            }
-        } else {
-            newSize = OBJECT_MIN_SIZE;
-        }
-        return newSize;
+        return policy.computeSlots(currentSlots, reservedSize,
+                OBJECT_MIN_SIZE - OBJECT_START_INDEX,
+                OBJECT_MAX_SIZE) + OBJECT_START_INDEX /* For int[] */;
     }
 
     /** Returns the primitive array */
-    private static int[] getPrimitiveArray(final Object[] instance) {
+    static int[] getPrimitiveArray(final Object[] instance) {
         return (int[]) instance[0];
     }
 
+    /** Returns the number of primitive slots actually used. */
+    private static int usedPrimitiveSlots(final int[] data) {
+        for (int i = data.length - 1; i >= PRIMITIVE_START_INDEX; i--) {
+            if (data[i] != 0) {
+                return i + 1 - PRIMITIVE_START_INDEX;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of primitive slots to keep when trimming. Longs and
+     * doubles use two int slots, so the slot after the last nonzero one is
+     * kept too, as it can be the (zero) high half of a two-slot value.
+     */
+    private static int keptPrimitiveSlots(final int[] data) {
+        final int used = usedPrimitiveSlots(data);
+        if (used == 0) {
+            return 0;
+        }
+        return Math.min(used + 1, data.length - PRIMITIVE_START_INDEX);
+    }
+
+    /** Returns the number of Object slots actually used. */
+    private static int usedObjectSlots(final Object[] data) {
+        for (int i = data.length - 1; i >= OBJECT_START_INDEX; i--) {
+            if (data[i] != null) {
+                return i + 1 - OBJECT_START_INDEX;
+            }
+        }
+        return 0;
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /**
@@ -260,6 +274,14 @@ public class IntGenericObjectAccessor implements
         return result;
     }
 
+    /**
+     * @see IGenericObjectAccessor#newEmptyGenericObject()
+     */
+    public static Object[] _newEmptyGenericObject(final IGrowthPolicy policy) {
+        return _newGenericObject(policy, PRIMITIVE_MIN_SIZE
+                - PRIMITIVE_START_INDEX, OBJECT_MIN_SIZE - OBJECT_START_INDEX);
+    }
+
     /**
      * @see IGenericObjectAccessor#newGenericObject(int,int,int)
      */
@@ -275,12 +297,23 @@ public class IntGenericObjectAccessor implements
      */
     public static Object[] _newGenericObject(final int requiredPrimitiveSlots,
             final int requiredObjectSlots) {
-        final int newPrimitiveSize = newPrimitiveSize(requiredPrimitiveSlots,
-                "requiredPrimitiveSlots");
-        final int newObjectSize = newObjectSize(requiredObjectSlots,
-                "requiredObjectSlots");
+        return _newGenericObject(GrowthPolicies.POWER_OF_TWO,
+                requiredPrimitiveSlots, requiredObjectSlots);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#newGenericObject(int,int)
+     */
+    public static Object[] _newGenericObject(final IGrowthPolicy policy,
+            final int requiredPrimitiveSlots, final int requiredObjectSlots) {
+        final int newPrimitiveSize = newPrimitiveSize(policy, 0,
+                requiredPrimitiveSlots, "requiredPrimitiveSlots");
+        final int newObjectSize = newObjectSize(policy, 0,
+                requiredObjectSlots, "requiredObjectSlots");
         final Object[] result = new Object[newObjectSize];
         result[0] = new int[newPrimitiveSize];
+        GenericObjectEvents.fireNew(IntGenericObjectAccessor.class,
+                newPrimitiveSize, newObjectSize);
         return result;
     }
 
@@ -345,6 +378,19 @@ public class IntGenericObjectAccessor implements
                 "Reserved size is not available");
     }
 
+    /**
+     * @see IGenericObjectAccessor#getPrimitiveValuesReservedSize(Object)
+     */
+    public static int _getPrimitiveValuesReservedSize(
+            final IGrowthPolicy policy, final Object[] instance)
+            throws UnsupportedOperationException {
+        if (!policy.isOptimalPacking()) {
+            throw new UnsupportedOperationException(
+                    "Reserved size is not available");
+        }
+        return _getPrimitiveValuesSlotsAvailable(instance);
+    }
+
     /**
      * @see IGenericObjectAccessor#getBooleanValuesReservedSize(Object)
      */
@@ -363,6 +409,18 @@ public class IntGenericObjectAccessor implements
                 "Reserved size is not available");
     }
 
+    /**
+     * @see IGenericObjectAccessor#getObjectValuesReservedSize(Object)
+     */
+    public static int _getObjectValuesReservedSize(final IGrowthPolicy policy,
+            final Object[] instance) throws UnsupportedOperationException {
+        if (!policy.isOptimalPacking()) {
+            throw new UnsupportedOperationException(
+                    "Reserved size is not available");
+        }
+        return _getObjectValuesSlotsAvailable(instance);
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /**
@@ -370,13 +428,27 @@ public class IntGenericObjectAccessor implements
      */
     public static Object[] _resizePrimitiveValues(final Object[] instance,
             final int reservedSize) {
+        return _resizePrimitiveValues(GrowthPolicies.POWER_OF_TWO, instance,
+                reservedSize);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#resizePrimitiveValues(Object, int)
+     */
+    public static Object[] _resizePrimitiveValues(final IGrowthPolicy policy,
+            final Object[] instance, final int reservedSize) {
         final int[] oldData = getPrimitiveArray(instance);
         final int oldSize = oldData.length;
-        final int newSize = newPrimitiveSize(reservedSize, "reservedSize");
-        if (oldSize < newSize) {
+        final int newSize = newPrimitiveSize(policy, oldSize
+                - PRIMITIVE_START_INDEX, reservedSize, "reservedSize");
+        if ((oldSize < newSize)
+                || ((oldSize > newSize) && policy.isOptimalPacking())) {
             final int[] newData = new int[newSize];
-            System.arraycopy(oldData, 0, newData, 0, oldSize);
+            System.arraycopy(oldData, 0, newData, 0,
+                    Math.min(oldSize, newSize));
             instance[0] = newData;
+            GenericObjectEvents.firePrimitiveResized(
+                    IntGenericObjectAccessor.class, oldSize, newSize);
         }
         return instance;
     }
@@ -395,12 +467,26 @@ public class IntGenericObjectAccessor implements
      */
     public static Object[] _resizeObjectValues(final Object[] instance,
             final int reservedSize) {
+        return _resizeObjectValues(GrowthPolicies.POWER_OF_TWO, instance,
+                reservedSize);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#resizeObjectValues(Object, int)
+     */
+    public static Object[] _resizeObjectValues(final IGrowthPolicy policy,
+            final Object[] instance, final int reservedSize) {
         final Object[] oldData = instance;
         final int oldSize = oldData.length;
-        final int newSize = newObjectSize(reservedSize, "reservedSize");
-        if (oldSize < newSize) {
+        final int newSize = newObjectSize(policy, oldSize
+                - OBJECT_START_INDEX, reservedSize, "reservedSize");
+        if ((oldSize < newSize)
+                || ((oldSize > newSize) && policy.isOptimalPacking())) {
             final Object[] newData = new Object[newSize];
-            System.arraycopy(oldData, 0, newData, 0, oldSize);
+            System.arraycopy(oldData, 0, newData, 0,
+                    Math.min(oldSize, newSize));
+            GenericObjectEvents.fireObjectResized(
+                    IntGenericObjectAccessor.class, oldSize, newSize);
             return newData;
         }
         return instance;
@@ -408,13 +494,270 @@ public class IntGenericObjectAccessor implements
 
     //////////////////////////////////////////////////////////////////////////
 
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    public static Object[] _trimPrimitiveValues(final Object[] instance) {
+        return _trimPrimitiveValues(GrowthPolicies.POWER_OF_TWO, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    public static Object[] _trimPrimitiveValues(final IGrowthPolicy policy,
+            final Object[] instance) {
+        final int[] oldData = getPrimitiveArray(instance);
+        final int newSize = newPrimitiveSize(policy, 0,
+                keptPrimitiveSlots(oldData), "usedSlots");
+        if (newSize < oldData.length) {
+            final int[] newData = new int[newSize];
+            System.arraycopy(oldData, 0, newData, 0, newSize);
+            instance[0] = newData;
+            GenericObjectEvents.firePrimitiveResized(
+                    IntGenericObjectAccessor.class, oldData.length, newSize);
+        }
+        return instance;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public static Object[] _trimObjectValues(final Object[] instance) {
+        return _trimObjectValues(GrowthPolicies.POWER_OF_TWO, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public static Object[] _trimObjectValues(final IGrowthPolicy policy,
+            final Object[] instance) {
+        final int newSize = newObjectSize(policy, 0, usedObjectSlots(instance),
+                "usedSlots");
+        if (newSize < instance.length) {
+            final Object[] newData = new Object[newSize];
+            System.arraycopy(instance, 0, newData, 0, newSize);
+            GenericObjectEvents.fireObjectResized(
+                    IntGenericObjectAccessor.class, instance.length, newSize);
+            return newData;
+        }
+        return instance;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    public static int _contentHashCode(final Object[] instance) {
+        final int[] data = getPrimitiveArray(instance);
+        final int primitiveEnd = PRIMITIVE_START_INDEX
+                + usedPrimitiveSlots(data);
+        int result = 1;
+        for (int i = 0; i < primitiveEnd; i++) {
+            result = 31 * result + data[i];
+        }
+        final int objectEnd = OBJECT_START_INDEX + usedObjectSlots(instance);
+        for (int i = OBJECT_START_INDEX; i < objectEnd; i++) {
+            result = 31 * result + Objects.hashCode(instance[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    public static boolean _contentEquals(final Object[] instance,
+            final Object[] other) {
+        if (instance == other) {
+            return true;
+        }
+        final int[] data = getPrimitiveArray(instance);
+        final int[] otherData = getPrimitiveArray(other);
+        final int primitiveEnd = PRIMITIVE_START_INDEX
+                + usedPrimitiveSlots(data);
+        if (primitiveEnd != PRIMITIVE_START_INDEX
+                + usedPrimitiveSlots(otherData)) {
+            return false;
+        }
+        for (int i = 0; i < primitiveEnd; i++) {
+            if (data[i] != otherData[i]) {
+                return false;
+            }
+        }
+        final int objectEnd = OBJECT_START_INDEX + usedObjectSlots(instance);
+        if (objectEnd != OBJECT_START_INDEX + usedObjectSlots(other)) {
+            return false;
+        }
+        for (int i = OBJECT_START_INDEX; i < objectEnd; i++) {
+            if (!Objects.equals(instance[i], other[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    public static Object[] _copy(final Object[] instance) {
+        final int[] data = getPrimitiveArray(instance);
+        final int[] newData = new int[data.length];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        final Object[] result = new Object[instance.length];
+        System.arraycopy(instance, 0, result, 0, instance.length);
+        result[0] = newData;
+        GenericObjectEvents.fireNew(IntGenericObjectAccessor.class,
+                newData.length, result.length);
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    public static Object[] _cloneStorage(final Object[] instance,
+            final IObjectCopier copier) {
+        return _cloneStorage(GrowthPolicies.POWER_OF_TWO, instance, copier);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    public static Object[] _cloneStorage(final IGrowthPolicy policy,
+            final Object[] instance, final IObjectCopier copier) {
+        final int[] data = getPrimitiveArray(instance);
+        final int primitiveSize = newPrimitiveSize(policy, 0,
+                keptPrimitiveSlots(data), "usedSlots");
+        final int objectSize = newObjectSize(policy, 0,
+                usedObjectSlots(instance), "usedSlots");
+        final int[] newData = new int[primitiveSize];
+        System.arraycopy(data, 0, newData, 0,
+                Math.min(data.length, primitiveSize));
+        final Object[] result = new Object[objectSize];
+        System.arraycopy(instance, 0, result, 0,
+                Math.min(instance.length, objectSize));
+        result[0] = newData;
+        if (copier != null) {
+            for (int i = OBJECT_START_INDEX; i < objectSize; i++) {
+                if (result[i] != null) {
+                    result[i] = copier.copy(result[i]);
+                }
+            }
+        }
+        GenericObjectEvents.fireNew(IntGenericObjectAccessor.class,
+                primitiveSize, objectSize);
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    public static Object[] _copyPrimitiveValues(final Object[] instance) {
+        final int[] data = getPrimitiveArray(instance);
+        final int[] newData = new int[data.length];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        instance[0] = newData;
+        GenericObjectEvents.firePrimitiveResized(IntGenericObjectAccessor.class,
+                data.length, newData.length);
+        return instance;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    public static Object[] _copyObjectValues(final Object[] instance) {
+        final Object[] result = new Object[instance.length];
+        System.arraycopy(instance, 0, result, 0, instance.length);
+        GenericObjectEvents.fireObjectResized(IntGenericObjectAccessor.class,
+                instance.length, result.length);
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    public static GenericObjectDiff _diff(final Object[] base,
+            final Object[] changed) {
+        final GenericObjectDiff.Builder builder =
+                new GenericObjectDiff.Builder();
+        final int[] a = getPrimitiveArray(base);
+        final int[] b = getPrimitiveArray(changed);
+        final int common = Math.min(a.length, b.length);
+        final int[] longer = (a.length > b.length) ? a : b;
+        // Longs and doubles use two slots
+        final int limit = longer.length - PRIMITIVE_START_INDEX;
+        for (int i = PRIMITIVE_START_INDEX; i < common; i++) {
+            if (a[i] != b[i]) {
+                builder.addPrimitivePair(i - PRIMITIVE_START_INDEX, limit);
+            }
+        }
+        final int start = Math.max(common, PRIMITIVE_START_INDEX);
+        for (int i = start; i < longer.length; i++) {
+            if (longer[i] != 0) {
+                builder.addPrimitivePair(i - PRIMITIVE_START_INDEX, limit);
+            }
+        }
+        builder.addObjects(base, changed, OBJECT_START_INDEX);
+        return builder.build();
+    }
+
+    /**
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    public static Object[] _merge(final Object[] target,
+            final Object[] changed, final GenericObjectDiff diff) {
+        return _merge(GrowthPolicies.POWER_OF_TWO, target, changed, diff);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    public static Object[] _merge(final IGrowthPolicy policy,
+            final Object[] target, final Object[] changed,
+            final GenericObjectDiff diff) {
+        Object[] result = target;
+        final int[] primitiveSlots = diff.primitiveSlots;
+        if (primitiveSlots.length > 0) {
+            final int max = primitiveSlots[primitiveSlots.length - 1];
+            if (max >= _getPrimitiveValuesSlotsAvailable(result)) {
+                result = _resizePrimitiveValues(policy, result, max + 1);
+            }
+        }
+        final int[] objectSlots = diff.objectSlots;
+        if (objectSlots.length > 0) {
+            final int max = objectSlots[objectSlots.length - 1];
+            if (max >= _getObjectValuesSlotsAvailable(result)) {
+                result = _resizeObjectValues(policy, result, max + 1);
+            }
+        }
+        final int[] source = getPrimitiveArray(changed);
+        final int[] dest = getPrimitiveArray(result);
+        for (final int slot : primitiveSlots) {
+            final int i = slot + PRIMITIVE_START_INDEX;
+            dest[i] = (i < source.length) ? source[i] : 0;
+        }
+        for (final int slot : objectSlots) {
+            final int i = slot + OBJECT_START_INDEX;
+            result[i] = (i < changed.length) ? changed[i] : null;
+        }
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
     /**
      * @see IGenericObjectAccessor#getBooleanValue(Object, int)
      */
     public static boolean _getBooleanValue(final Object[] instance,
             final int index) {
+        return getBooleanValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a boolean value, directly from the primitive array. */
+    static boolean getBooleanValue(final int[] array, final int index) {
         checkPrimitiveIndex(index);
-        return getPrimitiveArray(instance)[index + PRIMITIVE_START_INDEX] != 0;
+        return array[index + PRIMITIVE_START_INDEX] != 0;
     }
 
     /**
@@ -434,8 +777,13 @@ public class IntGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getByteValue(Object, int)
      */
     public static byte _getByteValue(final Object[] instance, final int index) {
+        return getByteValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a byte value, directly from the primitive array. */
+    static byte getByteValue(final int[] array, final int index) {
         checkPrimitiveIndex(index);
-        return (byte) getPrimitiveArray(instance)[index + PRIMITIVE_START_INDEX];
+        return (byte) array[index + PRIMITIVE_START_INDEX];
     }
 
     /**
@@ -454,8 +802,13 @@ public class IntGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getCharValue(Object, int)
      */
     public static char _getCharValue(final Object[] instance, final int index) {
+        return getCharValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a char value, directly from the primitive array. */
+    static char getCharValue(final int[] array, final int index) {
         checkPrimitiveIndex(index);
-        return (char) getPrimitiveArray(instance)[index + PRIMITIVE_START_INDEX];
+        return (char) array[index + PRIMITIVE_START_INDEX];
     }
 
     /**
@@ -474,8 +827,13 @@ public class IntGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getShortValue(Object, int)
      */
     public static short _getShortValue(final Object[] instance, final int index) {
+        return getShortValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a short value, directly from the primitive array. */
+    static short getShortValue(final int[] array, final int index) {
         checkPrimitiveIndex(index);
-        return (short) getPrimitiveArray(instance)[index
+        return (short) array[index
                 + PRIMITIVE_START_INDEX];
     }
 
@@ -495,8 +853,13 @@ public class IntGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getIntValue(Object, int)
      */
     public static int _getIntValue(final Object[] instance, final int index) {
+        return getIntValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads an int value, directly from the primitive array. */
+    static int getIntValue(final int[] array, final int index) {
         checkPrimitiveIndex(index);
-        return getPrimitiveArray(instance)[index + PRIMITIVE_START_INDEX];
+        return array[index + PRIMITIVE_START_INDEX];
     }
 
     /**
@@ -515,7 +878,12 @@ public class IntGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getFloatValue(Object, int)
      */
     public static float _getFloatValue(final Object[] instance, final int index) {
-        return Float.intBitsToFloat(_getIntValue(instance, index));
+        return getFloatValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a float value, directly from the primitive array. */
+    static float getFloatValue(final int[] array, final int index) {
+        return Float.intBitsToFloat(getIntValue(array, index));
     }
 
     /**
@@ -532,9 +900,13 @@ public class IntGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getLongValue(Object, int)
      */
     public static long _getLongValue(final Object[] instance, final int index) {
+        return getLongValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a long value, directly from the primitive array. */
+    static long getLongValue(final int[] array, final int index) {
         checkPrimitiveIndex(index);
         checkPrimitiveIndex(index + 1);
-        final int[] array = getPrimitiveArray(instance);
         final int low = array[index + PRIMITIVE_START_INDEX];
         final int high = array[index + PRIMITIVE_START_INDEX + 1];
         return ((long) high << 32) | (low & 0xFFFFFFFFL);
@@ -562,7 +934,12 @@ public class IntGenericObjectAccessor implements
      */
     public static double _getDoubleValue(final Object[] instance,
             final int index) {
-        return Double.longBitsToDouble(_getLongValue(instance, index));
+        return getDoubleValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a double value, directly from the primitive array. */
+    static double getDoubleValue(final int[] array, final int index) {
+        return Double.longBitsToDouble(getLongValue(array, index));
     }
 
     /**
@@ -596,6 +973,37 @@ public class IntGenericObjectAccessor implements
 
     //////////////////////////////////////////////////////////////////////////
 
+    /** The growth policy of this accessor. */
+    private final IGrowthPolicy growthPolicy;
+
+    /** Creates an accessor using the default POWER_OF_TWO growth policy. */
+    public IntGenericObjectAccessor() {
+        this(GrowthPolicies.POWER_OF_TWO);
+    }
+
+    /**
+     * Creates an accessor using the given growth policy.
+     *
+     * @param growthPolicy The growth policy
+     *
+     * @throws NullPointerException if growthPolicy is null
+     */
+    public IntGenericObjectAccessor(final IGrowthPolicy growthPolicy) {
+        this.growthPolicy = Objects.requireNonNull(growthPolicy,
+                "growthPolicy");
+    }
+
+    /**
+     * Returns the growth policy of this accessor.
+     *
+     * @return the growth policy of this accessor.
+     */
+    public final IGrowthPolicy getGrowthPolicy() {
+        return growthPolicy;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
     /**
      * @see IGenericObjectAccessor#isBooleanValuesIDSpaceIndependentFromPrimitive()
      */
@@ -667,7 +1075,7 @@ public class IntGenericObjectAccessor implements
      */
     @Override
     public final boolean isOptimalPackingUsedForPrimitiveValues() {
-        return _isOptimalPackingUsedForPrimitiveValues();
+        return growthPolicy.isOptimalPacking();
     }
 
     /**
@@ -684,7 +1092,7 @@ public class IntGenericObjectAccessor implements
      */
     @Override
     public final boolean isOptimalPackingUsedForObjectValues() {
-        return _isOptimalPackingUsedForObjectValues();
+        return growthPolicy.isOptimalPacking();
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -748,7 +1156,7 @@ public class IntGenericObjectAccessor implements
      */
     @Override
     public final Object[] newEmptyGenericObject() {
-        return _newEmptyGenericObject();
+        return _newEmptyGenericObject(growthPolicy);
     }
 
     /**
@@ -768,7 +1176,8 @@ public class IntGenericObjectAccessor implements
     @Override
     public final Object[] newGenericObject(final int requiredPrimitiveSlots,
             final int requiredObjectSlots) {
-        return _newGenericObject(requiredPrimitiveSlots, requiredObjectSlots);
+        return _newGenericObject(growthPolicy, requiredPrimitiveSlots,
+                requiredObjectSlots);
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -833,7 +1242,7 @@ public class IntGenericObjectAccessor implements
     @Override
     public final int getPrimitiveValuesReservedSize(final Object[] instance)
             throws UnsupportedOperationException {
-        return _getPrimitiveValuesReservedSize(instance);
+        return _getPrimitiveValuesReservedSize(growthPolicy, instance);
     }
 
     /**
@@ -851,7 +1260,7 @@ public class IntGenericObjectAccessor implements
     @Override
     public final int getObjectValuesReservedSize(final Object[] instance)
             throws UnsupportedOperationException {
-        return _getObjectValuesReservedSize(instance);
+        return _getObjectValuesReservedSize(growthPolicy, instance);
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -862,7 +1271,7 @@ public class IntGenericObjectAccessor implements
     @Override
     public final Object[] resizePrimitiveValues(final Object[] instance,
             final int reservedSize) {
-        return _resizePrimitiveValues(instance, reservedSize);
+        return _resizePrimitiveValues(growthPolicy, instance, reservedSize);
     }
 
     /**
@@ -880,7 +1289,97 @@ public class IntGenericObjectAccessor implements
     @Override
     public final Object[] resizeObjectValues(final Object[] instance,
             final int reservedSize) {
-        return _resizeObjectValues(instance, reservedSize);
+        return _resizeObjectValues(growthPolicy, instance, reservedSize);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    @Override
+    public final Object[] trimPrimitiveValues(final Object[] instance) {
+        return _trimPrimitiveValues(growthPolicy, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    @Override
+    public final Object[] trimObjectValues(final Object[] instance) {
+        return _trimObjectValues(growthPolicy, instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    @Override
+    public final int contentHashCode(final Object[] instance) {
+        return _contentHashCode(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    @Override
+    public final boolean contentEquals(final Object[] instance,
+            final Object[] other) {
+        return _contentEquals(instance, other);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    @Override
+    public final Object[] copy(final Object[] instance) {
+        return _copy(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    @Override
+    public final Object[] cloneStorage(final Object[] instance,
+            final IObjectCopier copier) {
+        return _cloneStorage(growthPolicy, instance, copier);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    @Override
+    public final Object[] copyPrimitiveValues(final Object[] instance) {
+        return _copyPrimitiveValues(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    @Override
+    public final Object[] copyObjectValues(final Object[] instance) {
+        return _copyObjectValues(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    @Override
+    public final GenericObjectDiff diff(final Object[] base,
+            final Object[] changed) {
+        return _diff(base, changed);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    @Override
+    public final Object[] merge(final Object[] target,
+            final Object[] changed, final GenericObjectDiff diff) {
+        return _merge(growthPolicy, target, changed, diff);
     }
 
     //////////////////////////////////////////////////////////////////////////
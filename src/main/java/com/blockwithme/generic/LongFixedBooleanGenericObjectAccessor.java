@@ -15,6 +15,8 @@
  */
 package com.blockwithme.generic;
 
+import java.util.Objects;
+
 /**
  * LongFixedBooleanGenericObjectAccessor implements IGenericObjectAccessor using longs.
  * Booleans are fixed to 64. Instances are not immutable/thread-safe.
@@ -67,31 +69,41 @@ public class LongFixedBooleanGenericObjectAccessor implements
     }
 
     /** Computes a "new size" */
-    private static int newSize(final int reservedSize, final String name) {
+    private static int newSize(final IGrowthPolicy policy,
+            final int currentSlots, final int reservedSize, final String name) {
         if ((reservedSize < 0) || (reservedSize > MAX_SIZE)) {
             throw new IllegalArgumentException(name + ": " + reservedSize);
         }
-        final int newSize;
-        if (reservedSize > (MIN_SIZE - START_INDEX)) {
-            final int powerOfTwo = 32 - Integer
-                    .numberOfLeadingZeros(reservedSize - 1);
-            if (powerOfTwo == 31) {
-                // Cannot represent (1 << 31) correctly
-                newSize = Integer.MAX_VALUE;
-            } else {
-                newSize = (1 << powerOfTwo) + 1 /* For booleans */;
-            }
-        } else {
-            newSize = MIN_SIZE;
-        }
-        return newSize;
+        return policy.computeSlots(currentSlots, reservedSize,
+                MIN_SIZE - START_INDEX, MAX_SIZE)
+                + START_INDEX /* For booleans */;
     }
 
     /** Returns the primitive array */
-    private static long[] getPrimitiveArray(final Object[] instance) {
+    static long[] getPrimitiveArray(final Object[] instance) {
         return (long[]) instance[0];
     }
 
+    /** Returns the number of primitive slots actually used. */
+    private static int usedPrimitiveSlots(final long[] data) {
+        for (int i = data.length - 1; i >= START_INDEX; i--) {
+            if (data[i] != 0) {
+                return i + 1 - START_INDEX;
+            }
+        }
+        return 0;
+    }
+
+    /** Returns the number of Object slots actually used. */
+    private static int usedObjectSlots(final Object[] data) {
+        for (int i = data.length - 1; i >= START_INDEX; i--) {
+            if (data[i] != null) {
+                return i + 1 - START_INDEX;
+            }
+        }
+        return 0;
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /**
@@ -234,6 +246,14 @@ public class LongFixedBooleanGenericObjectAccessor implements
         return result;
     }
 
+    /**
+     * @see IGenericObjectAccessor#newEmptyGenericObject()
+     */
+    public static Object[] _newEmptyGenericObject(final IGrowthPolicy policy) {
+        return _newGenericObject(policy, MIN_SIZE - START_INDEX, MIN_SIZE
+                - START_INDEX);
+    }
+
     /**
      * @see IGenericObjectAccessor#newGenericObject(int,int,int)
      */
@@ -248,12 +268,23 @@ public class LongFixedBooleanGenericObjectAccessor implements
      */
     public static Object[] _newGenericObject(final int requiredPrimitiveSlots,
             final int requiredObjectSlots) {
-        final int newPrimitiveSize = newSize(requiredPrimitiveSlots,
-                "requiredPrimitiveSlots");
-        final int newObjectSize = newSize(requiredObjectSlots,
+        return _newGenericObject(GrowthPolicies.POWER_OF_TWO,
+                requiredPrimitiveSlots, requiredObjectSlots);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#newGenericObject(int,int)
+     */
+    public static Object[] _newGenericObject(final IGrowthPolicy policy,
+            final int requiredPrimitiveSlots, final int requiredObjectSlots) {
+        final int newPrimitiveSize = newSize(policy, 0,
+                requiredPrimitiveSlots, "requiredPrimitiveSlots");
+        final int newObjectSize = newSize(policy, 0, requiredObjectSlots,
                 "requiredObjectSlots");
         final Object[] result = new Object[newObjectSize];
         result[0] = new long[newPrimitiveSize];
+        GenericObjectEvents.fireNew(LongFixedBooleanGenericObjectAccessor.class,
+                newPrimitiveSize, newObjectSize);
         return result;
     }
 
@@ -316,6 +347,19 @@ public class LongFixedBooleanGenericObjectAccessor implements
                 "Reserved size is not available");
     }
 
+    /**
+     * @see IGenericObjectAccessor#getPrimitiveValuesReservedSize(Object)
+     */
+    public static int _getPrimitiveValuesReservedSize(
+            final IGrowthPolicy policy, final Object[] instance)
+            throws UnsupportedOperationException {
+        if (!policy.isOptimalPacking()) {
+            throw new UnsupportedOperationException(
+                    "Reserved size is not available");
+        }
+        return _getPrimitiveValuesSlotsAvailable(instance);
+    }
+
     /**
      * @see IGenericObjectAccessor#getBooleanValuesReservedSize(Object)
      */
@@ -334,6 +378,18 @@ public class LongFixedBooleanGenericObjectAccessor implements
                 "Reserved size is not available");
     }
 
+    /**
+     * @see IGenericObjectAccessor#getObjectValuesReservedSize(Object)
+     */
+    public static int _getObjectValuesReservedSize(final IGrowthPolicy policy,
+            final Object[] instance) throws UnsupportedOperationException {
+        if (!policy.isOptimalPacking()) {
+            throw new UnsupportedOperationException(
+                    "Reserved size is not available");
+        }
+        return _getObjectValuesSlotsAvailable(instance);
+    }
+
     //////////////////////////////////////////////////////////////////////////
 
     /**
@@ -341,13 +397,28 @@ public class LongFixedBooleanGenericObjectAccessor implements
      */
     public static Object[] _resizePrimitiveValues(final Object[] instance,
             final int reservedSize) {
+        return _resizePrimitiveValues(GrowthPolicies.POWER_OF_TWO, instance,
+                reservedSize);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#resizePrimitiveValues(Object, int)
+     */
+    public static Object[] _resizePrimitiveValues(final IGrowthPolicy policy,
+            final Object[] instance, final int reservedSize) {
         final long[] oldData = getPrimitiveArray(instance);
         final int oldSize = oldData.length;
-        final int newSize = newSize(reservedSize, "reservedSize");
-        if (oldSize < newSize) {
+        final int newSize = newSize(policy, oldSize - START_INDEX,
+                reservedSize, "reservedSize");
+        if ((oldSize < newSize)
+                || ((oldSize > newSize) && policy.isOptimalPacking())) {
             final long[] newData = new long[newSize];
-            System.arraycopy(oldData, 0, newData, 0, oldSize);
+            System.arraycopy(oldData, 0, newData, 0,
+                    Math.min(oldSize, newSize));
             instance[0] = newData;
+            GenericObjectEvents.firePrimitiveResized(
+                    LongFixedBooleanGenericObjectAccessor.class, oldSize,
+                    newSize);
         }
         return instance;
     }
@@ -365,12 +436,27 @@ public class LongFixedBooleanGenericObjectAccessor implements
      */
     public static Object[] _resizeObjectValues(final Object[] instance,
             final int reservedSize) {
+        return _resizeObjectValues(GrowthPolicies.POWER_OF_TWO, instance,
+                reservedSize);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#resizeObjectValues(Object, int)
+     */
+    public static Object[] _resizeObjectValues(final IGrowthPolicy policy,
+            final Object[] instance, final int reservedSize) {
         final Object[] oldData = instance;
         final int oldSize = oldData.length;
-        final int newSize = newSize(reservedSize, "reservedSize");
-        if (oldSize < newSize) {
+        final int newSize = newSize(policy, oldSize - START_INDEX,
+                reservedSize, "reservedSize");
+        if ((oldSize < newSize)
+                || ((oldSize > newSize) && policy.isOptimalPacking())) {
             final Object[] newData = new Object[newSize];
-            System.arraycopy(oldData, 0, newData, 0, oldSize);
+            System.arraycopy(oldData, 0, newData, 0,
+                    Math.min(oldSize, newSize));
+            GenericObjectEvents.fireObjectResized(
+                    LongFixedBooleanGenericObjectAccessor.class, oldSize,
+                    newSize);
             return newData;
         }
         return instance;
@@ -378,13 +464,278 @@ public class LongFixedBooleanGenericObjectAccessor implements
 
     //////////////////////////////////////////////////////////////////////////
 
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    public static Object[] _trimPrimitiveValues(final Object[] instance) {
+        return _trimPrimitiveValues(GrowthPolicies.POWER_OF_TWO, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    public static Object[] _trimPrimitiveValues(final IGrowthPolicy policy,
+            final Object[] instance) {
+        final long[] oldData = getPrimitiveArray(instance);
+        final int newSize = newSize(policy, 0, usedPrimitiveSlots(oldData),
+                "usedSlots");
+        if (newSize < oldData.length) {
+            final long[] newData = new long[newSize];
+            System.arraycopy(oldData, 0, newData, 0, newSize);
+            instance[0] = newData;
+            GenericObjectEvents.firePrimitiveResized(
+                    LongFixedBooleanGenericObjectAccessor.class, oldData.length,
+                    newSize);
+        }
+        return instance;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public static Object[] _trimObjectValues(final Object[] instance) {
+        return _trimObjectValues(GrowthPolicies.POWER_OF_TWO, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    public static Object[] _trimObjectValues(final IGrowthPolicy policy,
+            final Object[] instance) {
+        final int newSize = newSize(policy, 0, usedObjectSlots(instance),
+                "usedSlots");
+        if (newSize < instance.length) {
+            final Object[] newData = new Object[newSize];
+            System.arraycopy(instance, 0, newData, 0, newSize);
+            GenericObjectEvents.fireObjectResized(
+                    LongFixedBooleanGenericObjectAccessor.class,
+                    instance.length, newSize);
+            return newData;
+        }
+        return instance;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    public static int _contentHashCode(final Object[] instance) {
+        final long[] data = getPrimitiveArray(instance);
+        final int primitiveEnd = START_INDEX + usedPrimitiveSlots(data);
+        int result = 1;
+        for (int i = 0; i < primitiveEnd; i++) {
+            final long value = data[i];
+            result = 31 * result + (int) (value ^ (value >>> 32));
+        }
+        final int objectEnd = START_INDEX + usedObjectSlots(instance);
+        for (int i = START_INDEX; i < objectEnd; i++) {
+            result = 31 * result + Objects.hashCode(instance[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    public static boolean _contentEquals(final Object[] instance,
+            final Object[] other) {
+        if (instance == other) {
+            return true;
+        }
+        final long[] data = getPrimitiveArray(instance);
+        final long[] otherData = getPrimitiveArray(other);
+        final int primitiveEnd = START_INDEX + usedPrimitiveSlots(data);
+        if (primitiveEnd != START_INDEX + usedPrimitiveSlots(otherData)) {
+            return false;
+        }
+        for (int i = 0; i < primitiveEnd; i++) {
+            if (data[i] != otherData[i]) {
+                return false;
+            }
+        }
+        final int objectEnd = START_INDEX + usedObjectSlots(instance);
+        if (objectEnd != START_INDEX + usedObjectSlots(other)) {
+            return false;
+        }
+        for (int i = START_INDEX; i < objectEnd; i++) {
+            if (!Objects.equals(instance[i], other[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    public static Object[] _copy(final Object[] instance) {
+        final long[] data = getPrimitiveArray(instance);
+        final long[] newData = new long[data.length];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        final Object[] result = new Object[instance.length];
+        System.arraycopy(instance, 0, result, 0, instance.length);
+        result[0] = newData;
+        GenericObjectEvents.fireNew(LongFixedBooleanGenericObjectAccessor.class,
+                newData.length, result.length);
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    public static Object[] _cloneStorage(final Object[] instance,
+            final IObjectCopier copier) {
+        return _cloneStorage(GrowthPolicies.POWER_OF_TWO, instance, copier);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    public static Object[] _cloneStorage(final IGrowthPolicy policy,
+            final Object[] instance, final IObjectCopier copier) {
+        final long[] data = getPrimitiveArray(instance);
+        final int primitiveSize = newSize(policy, 0,
+                usedPrimitiveSlots(data), "usedSlots");
+        final int objectSize = newSize(policy, 0,
+                usedObjectSlots(instance), "usedSlots");
+        final long[] newData = new long[primitiveSize];
+        System.arraycopy(data, 0, newData, 0,
+                Math.min(data.length, primitiveSize));
+        final Object[] result = new Object[objectSize];
+        System.arraycopy(instance, 0, result, 0,
+                Math.min(instance.length, objectSize));
+        result[0] = newData;
+        if (copier != null) {
+            for (int i = START_INDEX; i < objectSize; i++) {
+                if (result[i] != null) {
+                    result[i] = copier.copy(result[i]);
+                }
+            }
+        }
+        GenericObjectEvents.fireNew(LongFixedBooleanGenericObjectAccessor.class,
+                primitiveSize, objectSize);
+        return result;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    public static Object[] _copyPrimitiveValues(final Object[] instance) {
+        final long[] data = getPrimitiveArray(instance);
+        final long[] newData = new long[data.length];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        instance[0] = newData;
+        GenericObjectEvents.firePrimitiveResized(
+                LongFixedBooleanGenericObjectAccessor.class, data.length,
+                newData.length);
+        return instance;
+    }
+
+    /**
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    public static Object[] _copyObjectValues(final Object[] instance) {
+        final Object[] result = new Object[instance.length];
+        System.arraycopy(instance, 0, result, 0, instance.length);
+        GenericObjectEvents.fireObjectResized(
+                LongFixedBooleanGenericObjectAccessor.class, instance.length,
+                result.length);
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    public static GenericObjectDiff _diff(final Object[] base,
+            final Object[] changed) {
+        final GenericObjectDiff.Builder builder =
+                new GenericObjectDiff.Builder();
+        final long[] a = getPrimitiveArray(base);
+        final long[] b = getPrimitiveArray(changed);
+        builder.addBooleans(a[0] ^ b[0], START_BOOLEAN_INDEX);
+        final int common = Math.min(a.length, b.length);
+        for (int i = START_INDEX; i < common; i++) {
+            if (a[i] != b[i]) {
+                builder.addPrimitive(i - START_INDEX);
+            }
+        }
+        final long[] longer = (a.length > b.length) ? a : b;
+        for (int i = Math.max(common, START_INDEX); i < longer.length; i++) {
+            if (longer[i] != 0) {
+                builder.addPrimitive(i - START_INDEX);
+            }
+        }
+        builder.addObjects(base, changed, START_INDEX);
+        return builder.build();
+    }
+
+    /**
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    public static Object[] _merge(final Object[] target,
+            final Object[] changed, final GenericObjectDiff diff) {
+        return _merge(GrowthPolicies.POWER_OF_TWO, target, changed, diff);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    public static Object[] _merge(final IGrowthPolicy policy,
+            final Object[] target, final Object[] changed,
+            final GenericObjectDiff diff) {
+        Object[] result = target;
+        final int[] primitiveSlots = diff.primitiveSlots;
+        if (primitiveSlots.length > 0) {
+            final int max = primitiveSlots[primitiveSlots.length - 1];
+            if (max >= _getPrimitiveValuesSlotsAvailable(result)) {
+                result = _resizePrimitiveValues(policy, result, max + 1);
+            }
+        }
+        final int[] objectSlots = diff.objectSlots;
+        if (objectSlots.length > 0) {
+            final int max = objectSlots[objectSlots.length - 1];
+            if (max >= _getObjectValuesSlotsAvailable(result)) {
+                result = _resizeObjectValues(policy, result, max + 1);
+            }
+        }
+        final long[] source = getPrimitiveArray(changed);
+        final long[] dest = getPrimitiveArray(result);
+        if (diff.booleanSlots.length > 0) {
+            long booleans = dest[0];
+            for (final int slot : diff.booleanSlots) {
+                final long mask = 1L << (slot - START_BOOLEAN_INDEX);
+                booleans = (booleans & ~mask) | (source[0] & mask);
+            }
+            dest[0] = booleans;
+        }
+        for (final int slot : primitiveSlots) {
+            final int i = slot + START_INDEX;
+            dest[i] = (i < source.length) ? source[i] : 0;
+        }
+        for (final int slot : objectSlots) {
+            final int i = slot + START_INDEX;
+            result[i] = (i < changed.length) ? changed[i] : null;
+        }
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
     /**
      * @see IGenericObjectAccessor#getBooleanValue(Object, int)
      */
     public static boolean _getBooleanValue(final Object[] instance,
             final int index) {
+        return getBooleanValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a boolean value, directly from the primitive array. */
+    static boolean getBooleanValue(final long[] array, final int index) {
         checkBooleanIndex(index);
-        final long booleans = getPrimitiveArray(instance)[0];
+        final long booleans = array[0];
         return (booleans & (1L << index)) != 0;
     }
 
@@ -410,8 +761,13 @@ public class LongFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getByteValue(Object, int)
      */
     public static byte _getByteValue(final Object[] instance, final int index) {
+        return getByteValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a byte value, directly from the primitive array. */
+    static byte getByteValue(final long[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (byte) getPrimitiveArray(instance)[index + START_INDEX];
+        return (byte) array[index + START_INDEX];
     }
 
     /**
@@ -430,8 +786,13 @@ public class LongFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getCharValue(Object, int)
      */
     public static char _getCharValue(final Object[] instance, final int index) {
+        return getCharValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a char value, directly from the primitive array. */
+    static char getCharValue(final long[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (char) getPrimitiveArray(instance)[index + START_INDEX];
+        return (char) array[index + START_INDEX];
     }
 
     /**
@@ -450,8 +811,13 @@ public class LongFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getShortValue(Object, int)
      */
     public static short _getShortValue(final Object[] instance, final int index) {
+        return getShortValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a short value, directly from the primitive array. */
+    static short getShortValue(final long[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (short) getPrimitiveArray(instance)[index + START_INDEX];
+        return (short) array[index + START_INDEX];
     }
 
     /**
@@ -470,8 +836,13 @@ public class LongFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getIntValue(Object, int)
      */
     public static int _getIntValue(final Object[] instance, final int index) {
+        return getIntValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads an int value, directly from the primitive array. */
+    static int getIntValue(final long[] array, final int index) {
         checkNonBooleanIndex(index);
-        return (int) getPrimitiveArray(instance)[index + START_INDEX];
+        return (int) array[index + START_INDEX];
     }
 
     /**
@@ -490,7 +861,12 @@ public class LongFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getFloatValue(Object, int)
      */
     public static float _getFloatValue(final Object[] instance, final int index) {
-        return Float.intBitsToFloat(_getIntValue(instance, index));
+        return getFloatValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a float value, directly from the primitive array. */
+    static float getFloatValue(final long[] array, final int index) {
+        return Float.intBitsToFloat(getIntValue(array, index));
     }
 
     /**
@@ -507,8 +883,13 @@ public class LongFixedBooleanGenericObjectAccessor implements
      * @see IGenericObjectAccessor#getLongValue(Object, int)
      */
     public static long _getLongValue(final Object[] instance, final int index) {
+        return getLongValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a long value, directly from the primitive array. */
+    static long getLongValue(final long[] array, final int index) {
         checkNonBooleanIndex(index);
-        return getPrimitiveArray(instance)[index + START_INDEX];
+        return array[index + START_INDEX];
     }
 
     /**
@@ -528,7 +909,12 @@ public class LongFixedBooleanGenericObjectAccessor implements
      */
     public static double _getDoubleValue(final Object[] instance,
             final int index) {
-        return Double.longBitsToDouble(_getLongValue(instance, index));
+        return getDoubleValue(getPrimitiveArray(instance), index);
+    }
+
+    /** Reads a double value, directly from the primitive array. */
+    static double getDoubleValue(final long[] array, final int index) {
+        return Double.longBitsToDouble(getLongValue(array, index));
     }
 
     /**
@@ -562,6 +948,38 @@ public class LongFixedBooleanGenericObjectAccessor implements
 
     //////////////////////////////////////////////////////////////////////////
 
+    /** The growth policy of this accessor. */
+    private final IGrowthPolicy growthPolicy;
+
+    /** Creates an accessor using the default POWER_OF_TWO growth policy. */
+    public LongFixedBooleanGenericObjectAccessor() {
+        this(GrowthPolicies.POWER_OF_TWO);
+    }
+
+    /**
+     * Creates an accessor using the given growth policy.
+     *
+     * @param growthPolicy The growth policy
+     *
+     * @throws NullPointerException if growthPolicy is null
+     */
+    public LongFixedBooleanGenericObjectAccessor(
+            final IGrowthPolicy growthPolicy) {
+        this.growthPolicy = Objects.requireNonNull(growthPolicy,
+                "growthPolicy");
+    }
+
+    /**
+     * Returns the growth policy of this accessor.
+     *
+     * @return the growth policy of this accessor.
+     */
+    public final IGrowthPolicy getGrowthPolicy() {
+        return growthPolicy;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
     /**
      * @see IGenericObjectAccessor#isBooleanValuesIDSpaceIndependentFromPrimitive()
      */
@@ -633,7 +1051,7 @@ public class LongFixedBooleanGenericObjectAccessor implements
      */
     @Override
     public final boolean isOptimalPackingUsedForPrimitiveValues() {
-        return _isOptimalPackingUsedForPrimitiveValues();
+        return growthPolicy.isOptimalPacking();
     }
 
     /**
@@ -650,7 +1068,7 @@ public class LongFixedBooleanGenericObjectAccessor implements
      */
     @Override
     public final boolean isOptimalPackingUsedForObjectValues() {
-        return _isOptimalPackingUsedForObjectValues();
+        return growthPolicy.isOptimalPacking();
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -714,7 +1132,7 @@ public class LongFixedBooleanGenericObjectAccessor implements
      */
     @Override
     public final Object[] newEmptyGenericObject() {
-        return _newEmptyGenericObject();
+        return _newEmptyGenericObject(growthPolicy);
     }
 
     /**
@@ -734,7 +1152,8 @@ public class LongFixedBooleanGenericObjectAccessor implements
     @Override
     public final Object[] newGenericObject(final int requiredPrimitiveSlots,
             final int requiredObjectSlots) {
-        return _newGenericObject(requiredPrimitiveSlots, requiredObjectSlots);
+        return _newGenericObject(growthPolicy, requiredPrimitiveSlots,
+                requiredObjectSlots);
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -799,7 +1218,7 @@ public class LongFixedBooleanGenericObjectAccessor implements
     @Override
     public final int getPrimitiveValuesReservedSize(final Object[] instance)
             throws UnsupportedOperationException {
-        return _getPrimitiveValuesReservedSize(instance);
+        return _getPrimitiveValuesReservedSize(growthPolicy, instance);
     }
 
     /**
@@ -817,7 +1236,7 @@ public class LongFixedBooleanGenericObjectAccessor implements
     @Override
     public final int getObjectValuesReservedSize(final Object[] instance)
             throws UnsupportedOperationException {
-        return _getObjectValuesReservedSize(instance);
+        return _getObjectValuesReservedSize(growthPolicy, instance);
     }
 
     //////////////////////////////////////////////////////////////////////////
@@ -828,7 +1247,7 @@ public class LongFixedBooleanGenericObjectAccessor implements
     @Override
     public final Object[] resizePrimitiveValues(final Object[] instance,
             final int reservedSize) {
-        return _resizePrimitiveValues(instance, reservedSize);
+        return _resizePrimitiveValues(growthPolicy, instance, reservedSize);
     }
 
     /**
@@ -846,7 +1265,97 @@ public class LongFixedBooleanGenericObjectAccessor implements
     @Override
     public final Object[] resizeObjectValues(final Object[] instance,
             final int reservedSize) {
-        return _resizeObjectValues(instance, reservedSize);
+        return _resizeObjectValues(growthPolicy, instance, reservedSize);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    @Override
+    public final Object[] trimPrimitiveValues(final Object[] instance) {
+        return _trimPrimitiveValues(growthPolicy, instance);
+    }
+
+    /**
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    @Override
+    public final Object[] trimObjectValues(final Object[] instance) {
+        return _trimObjectValues(growthPolicy, instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    @Override
+    public final int contentHashCode(final Object[] instance) {
+        return _contentHashCode(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    @Override
+    public final boolean contentEquals(final Object[] instance,
+            final Object[] other) {
+        return _contentEquals(instance, other);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    @Override
+    public final Object[] copy(final Object[] instance) {
+        return _copy(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    @Override
+    public final Object[] cloneStorage(final Object[] instance,
+            final IObjectCopier copier) {
+        return _cloneStorage(growthPolicy, instance, copier);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    @Override
+    public final Object[] copyPrimitiveValues(final Object[] instance) {
+        return _copyPrimitiveValues(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    @Override
+    public final Object[] copyObjectValues(final Object[] instance) {
+        return _copyObjectValues(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    @Override
+    public final GenericObjectDiff diff(final Object[] base,
+            final Object[] changed) {
+        return _diff(base, changed);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    @Override
+    public final Object[] merge(final Object[] target,
+            final Object[] changed, final GenericObjectDiff diff) {
+        return _merge(growthPolicy, target, changed, diff);
     }
 
     //////////////////////////////////////////////////////////////////////////
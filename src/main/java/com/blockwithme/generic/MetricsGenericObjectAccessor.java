@@ -0,0 +1,805 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * MetricsGenericObjectAccessor decorates another IGenericObjectAccessor,
+ * and counts the accesses, allocations and resizes in a
+ * GenericObjectMetrics instance, so that the "initial slot counts" can be
+ * tuned, and "resize storms" detected, in production.
+ *
+ * Only resizes (and trims) that actually reallocate the storage are
+ * counted. Failed index checks are the IllegalArgumentException and
+ * IndexOutOfBoundsException thrown by the decorated accessor on get/set;
+ * they are counted, and re-thrown.
+ *
+ * The thread-safety of the instances is the same as for the decorated
+ * accessor.
+ *
+ * @see GenericObjectMetrics
+ * @see IGenericObjectAccessor for more documentation.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public class MetricsGenericObjectAccessor<STORAGE> implements
+        IGenericObjectAccessor<STORAGE> {
+    /** The decorated accessor. */
+    private final IGenericObjectAccessor<STORAGE> delegate;
+
+    /** The metrics. */
+    private final GenericObjectMetrics metrics;
+
+    /**
+     * Creates a MetricsGenericObjectAccessor, with new metrics.
+     *
+     * @param delegate The decorated accessor.
+     *
+     * @throws NullPointerException if delegate is null
+     */
+    public MetricsGenericObjectAccessor(
+            final IGenericObjectAccessor<STORAGE> delegate) {
+        this(delegate, new GenericObjectMetrics());
+    }
+
+    /**
+     * Creates a MetricsGenericObjectAccessor, with the given metrics.
+     * The metrics can be shared by multiple accessors.
+     *
+     * @param delegate The decorated accessor.
+     * @param metrics The metrics.
+     *
+     * @throws NullPointerException if delegate or metrics is null
+     */
+    public MetricsGenericObjectAccessor(
+            final IGenericObjectAccessor<STORAGE> delegate,
+            final GenericObjectMetrics metrics) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+    }
+
+    /**
+     * Returns the decorated accessor.
+     *
+     * @return the decorated accessor.
+     */
+    public final IGenericObjectAccessor<STORAGE> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Returns the metrics.
+     *
+     * @return the metrics.
+     */
+    public final GenericObjectMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Estimates the size of the primitive values of an instance. */
+    private long primitiveBytes(final STORAGE instance) {
+        return GenericObjectMetrics.primitiveBytes(delegate, instance);
+    }
+
+    /** Estimates the size of the Object values of an instance. */
+    private long objectBytes(final STORAGE instance) {
+        return GenericObjectMetrics.objectBytes(delegate, instance);
+    }
+
+    /** Records a new instance. */
+    private STORAGE newInstance(final STORAGE instance) {
+        metrics.recordNewGenericObject(primitiveBytes(instance)
+                + objectBytes(instance));
+        return instance;
+    }
+
+    /** Records a primitive resize, if one happened. */
+    private STORAGE primitiveResized(final int oldSlots,
+            final STORAGE instance) {
+        if (delegate.getPrimitiveValuesSlotsAvailable(instance) != oldSlots) {
+            metrics.recordPrimitiveResize(primitiveBytes(instance));
+        }
+        return instance;
+    }
+
+    /** Records an Object resize, if one happened. */
+    private STORAGE objectResized(final int oldSlots, final STORAGE instance) {
+        if (delegate.getObjectValuesSlotsAvailable(instance) != oldSlots) {
+            metrics.recordObjectResize(objectBytes(instance));
+        }
+        return instance;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isBooleanValuesIDSpaceIndependentFromPrimitive()
+     */
+    @Override
+    public final boolean isBooleanValuesIDSpaceIndependentFromPrimitive() {
+        return delegate.isBooleanValuesIDSpaceIndependentFromPrimitive();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isBooleanValuesIDSpaceFixed()
+     */
+    @Override
+    public final boolean isBooleanValuesIDSpaceFixed() {
+        return delegate.isBooleanValuesIDSpaceFixed();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isPrimitiveValuesIDSpaceIndependentFromObject()
+     */
+    @Override
+    public final boolean isPrimitiveValuesIDSpaceIndependentFromObject() {
+        return delegate.isPrimitiveValuesIDSpaceIndependentFromObject();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesIDSpaceFixedSize()
+     */
+    @Override
+    public final int getBooleanValuesIDSpaceFixedSize() {
+        return delegate.getBooleanValuesIDSpaceFixedSize();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isImmutableInstancesUsed()
+     */
+    @Override
+    public final boolean isImmutableInstancesUsed() {
+        return delegate.isImmutableInstancesUsed();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isThreadSafeInstancesUsed()
+     */
+    @Override
+    public final boolean isThreadSafeInstancesUsed() {
+        return delegate.isThreadSafeInstancesUsed();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isLongUsingTwoPrimitiveSlots()
+     */
+    @Override
+    public final boolean isLongUsingTwoPrimitiveSlots() {
+        return delegate.isLongUsingTwoPrimitiveSlots();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isDoubleUsingTwoPrimitiveSlots()
+     */
+    @Override
+    public final boolean isDoubleUsingTwoPrimitiveSlots() {
+        return delegate.isDoubleUsingTwoPrimitiveSlots();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isOptimalPackingUsedForPrimitiveValues()
+     */
+    @Override
+    public final boolean isOptimalPackingUsedForPrimitiveValues() {
+        return delegate.isOptimalPackingUsedForPrimitiveValues();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isOptimalPackingUsedForBooleanValues()
+     */
+    @Override
+    public final boolean isOptimalPackingUsedForBooleanValues()
+            throws UnsupportedOperationException {
+        return delegate.isOptimalPackingUsedForBooleanValues();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#isOptimalPackingUsedForObjectValues()
+     */
+    @Override
+    public final boolean isOptimalPackingUsedForObjectValues() {
+        return delegate.isOptimalPackingUsedForObjectValues();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesStartIndex()
+     */
+    @Override
+    public final int getPrimitiveValuesStartIndex() {
+        return delegate.getPrimitiveValuesStartIndex();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesStartIndex()
+     */
+    @Override
+    public final int getBooleanValuesStartIndex()
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesStartIndex();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesStartIndex()
+     */
+    @Override
+    public final int getObjectValuesStartIndex() {
+        return delegate.getObjectValuesStartIndex();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesMaximumCount()
+     */
+    @Override
+    public final int getPrimitiveValuesMaximumCount() {
+        return delegate.getPrimitiveValuesMaximumCount();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesMaximumCount()
+     */
+    @Override
+    public final int getBooleanValuesMaximumCount()
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesMaximumCount();
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesMaximumCount()
+     */
+    @Override
+    public final int getObjectValuesMaximumCount() {
+        return delegate.getObjectValuesMaximumCount();
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesMaximumIndex(Object)
+     */
+    @Override
+    public final int getPrimitiveValuesMaximumIndex(final STORAGE instance) {
+        return delegate.getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesMaximumIndex(Object)
+     */
+    @Override
+    public final int getBooleanValuesMaximumIndex(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesMaximumIndex(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesMaximumIndex(Object)
+     */
+    @Override
+    public final int getObjectValuesMaximumIndex(final STORAGE instance) {
+        return delegate.getObjectValuesMaximumIndex(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesSlotsAvailable(Object)
+     */
+    @Override
+    public final int getPrimitiveValuesSlotsAvailable(final STORAGE instance) {
+        return delegate.getPrimitiveValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesSlotsAvailable(Object)
+     */
+    @Override
+    public final int getBooleanValuesSlotsAvailable(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesSlotsAvailable(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesSlotsAvailable(Object)
+     */
+    @Override
+    public final int getObjectValuesSlotsAvailable(final STORAGE instance) {
+        return delegate.getObjectValuesSlotsAvailable(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getPrimitiveValuesReservedSize(Object)
+     */
+    @Override
+    public final int getPrimitiveValuesReservedSize(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getPrimitiveValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValuesReservedSize(Object)
+     */
+    @Override
+    public final int getBooleanValuesReservedSize(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getBooleanValuesReservedSize(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValuesReservedSize(Object)
+     */
+    @Override
+    public final int getObjectValuesReservedSize(final STORAGE instance)
+            throws UnsupportedOperationException {
+        return delegate.getObjectValuesReservedSize(instance);
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#newEmptyGenericObject()
+     */
+    @Override
+    public final STORAGE newEmptyGenericObject() {
+        return newInstance(delegate.newEmptyGenericObject());
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#newGenericObject(int,int,int)
+     */
+    @Override
+    public final STORAGE newGenericObject(final int requiredPrimitiveSlots,
+            final int requiredBooleanSlots, final int requiredObjectSlots)
+            throws UnsupportedOperationException {
+        return newInstance(delegate.newGenericObject(requiredPrimitiveSlots,
+                requiredBooleanSlots, requiredObjectSlots));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#newGenericObject(int,int)
+     */
+    @Override
+    public final STORAGE newGenericObject(final int requiredPrimitiveSlots,
+            final int requiredObjectSlots) {
+        return newInstance(delegate.newGenericObject(requiredPrimitiveSlots,
+                requiredObjectSlots));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#resizePrimitiveValues(Object, int)
+     */
+    @Override
+    public final STORAGE resizePrimitiveValues(final STORAGE instance,
+            final int reservedSize) {
+        return primitiveResized(
+                delegate.getPrimitiveValuesSlotsAvailable(instance),
+                delegate.resizePrimitiveValues(instance, reservedSize));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#resizeBooleanValues(Object, int)
+     */
+    @Override
+    public final STORAGE resizeBooleanValues(final STORAGE instance,
+            final int reservedSize)
+            throws UnsupportedOperationException {
+        return delegate.resizeBooleanValues(instance, reservedSize);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#resizeObjectValues(Object, int)
+     */
+    @Override
+    public final STORAGE resizeObjectValues(final STORAGE instance,
+            final int reservedSize) {
+        return objectResized(delegate.getObjectValuesSlotsAvailable(instance),
+                delegate.resizeObjectValues(instance, reservedSize));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#trimPrimitiveValues(Object)
+     */
+    @Override
+    public final STORAGE trimPrimitiveValues(final STORAGE instance) {
+        return primitiveResized(
+                delegate.getPrimitiveValuesSlotsAvailable(instance),
+                delegate.trimPrimitiveValues(instance));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#trimObjectValues(Object)
+     */
+    @Override
+    public final STORAGE trimObjectValues(final STORAGE instance) {
+        return objectResized(delegate.getObjectValuesSlotsAvailable(instance),
+                delegate.trimObjectValues(instance));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentHashCode(Object)
+     */
+    @Override
+    public final int contentHashCode(final STORAGE instance) {
+        return delegate.contentHashCode(instance);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#contentEquals(Object, Object)
+     */
+    @Override
+    public final boolean contentEquals(final STORAGE instance,
+            final STORAGE other) {
+        return delegate.contentEquals(instance, other);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copy(Object)
+     */
+    @Override
+    public final STORAGE copy(final STORAGE instance) {
+        return newInstance(delegate.copy(instance));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#cloneStorage(Object, IObjectCopier)
+     */
+    @Override
+    public final STORAGE cloneStorage(final STORAGE instance,
+            final IObjectCopier copier) {
+        return newInstance(delegate.cloneStorage(instance, copier));
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyPrimitiveValues(Object)
+     */
+    @Override
+    public final STORAGE copyPrimitiveValues(final STORAGE instance) {
+        final STORAGE result = delegate.copyPrimitiveValues(instance);
+        metrics.recordPrimitiveResize(primitiveBytes(result));
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#copyObjectValues(Object)
+     */
+    @Override
+    public final STORAGE copyObjectValues(final STORAGE instance) {
+        final STORAGE result = delegate.copyObjectValues(instance);
+        metrics.recordObjectResize(objectBytes(result));
+        return result;
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#diff(Object, Object)
+     */
+    @Override
+    public final GenericObjectDiff diff(final STORAGE base,
+            final STORAGE changed) {
+        return delegate.diff(base, changed);
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#merge(Object, Object, GenericObjectDiff)
+     */
+    @Override
+    public final STORAGE merge(final STORAGE target, final STORAGE changed,
+            final GenericObjectDiff diff) {
+        final int oldPrimitiveSlots = delegate
+                .getPrimitiveValuesSlotsAvailable(target);
+        final int oldObjectSlots = delegate
+                .getObjectValuesSlotsAvailable(target);
+        return objectResized(oldObjectSlots, primitiveResized(
+                oldPrimitiveSlots, delegate.merge(target, changed, diff)));
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getBooleanValue(Object, int)
+     */
+    @Override
+    public final boolean getBooleanValue(final STORAGE instance,
+            final int index) {
+        metrics.recordGet(ValueType.BOOLEAN);
+        try {
+            return delegate.getBooleanValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setBooleanValue(Object, int, boolean)
+     */
+    @Override
+    public final STORAGE setBooleanValue(final STORAGE instance,
+            final int index, final boolean value) {
+        metrics.recordSet(ValueType.BOOLEAN);
+        try {
+            return delegate.setBooleanValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getByteValue(Object, int)
+     */
+    @Override
+    public final byte getByteValue(final STORAGE instance, final int index) {
+        metrics.recordGet(ValueType.BYTE);
+        try {
+            return delegate.getByteValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setByteValue(Object, int, byte)
+     */
+    @Override
+    public final STORAGE setByteValue(final STORAGE instance,
+            final int index, final byte value) {
+        metrics.recordSet(ValueType.BYTE);
+        try {
+            return delegate.setByteValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getCharValue(Object, int)
+     */
+    @Override
+    public final char getCharValue(final STORAGE instance, final int index) {
+        metrics.recordGet(ValueType.CHAR);
+        try {
+            return delegate.getCharValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setCharValue(Object, int, char)
+     */
+    @Override
+    public final STORAGE setCharValue(final STORAGE instance,
+            final int index, final char value) {
+        metrics.recordSet(ValueType.CHAR);
+        try {
+            return delegate.setCharValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getShortValue(Object, int)
+     */
+    @Override
+    public final short getShortValue(final STORAGE instance, final int index) {
+        metrics.recordGet(ValueType.SHORT);
+        try {
+            return delegate.getShortValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setShortValue(Object, int, short)
+     */
+    @Override
+    public final STORAGE setShortValue(final STORAGE instance,
+            final int index, final short value) {
+        metrics.recordSet(ValueType.SHORT);
+        try {
+            return delegate.setShortValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getIntValue(Object, int)
+     */
+    @Override
+    public final int getIntValue(final STORAGE instance, final int index) {
+        metrics.recordGet(ValueType.INT);
+        try {
+            return delegate.getIntValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setIntValue(Object, int, int)
+     */
+    @Override
+    public final STORAGE setIntValue(final STORAGE instance,
+            final int index, final int value) {
+        metrics.recordSet(ValueType.INT);
+        try {
+            return delegate.setIntValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getFloatValue(Object, int)
+     */
+    @Override
+    public final float getFloatValue(final STORAGE instance, final int index) {
+        metrics.recordGet(ValueType.FLOAT);
+        try {
+            return delegate.getFloatValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setFloatValue(Object, int, float)
+     */
+    @Override
+    public final STORAGE setFloatValue(final STORAGE instance,
+            final int index, final float value) {
+        metrics.recordSet(ValueType.FLOAT);
+        try {
+            return delegate.setFloatValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getLongValue(Object, int)
+     */
+    @Override
+    public final long getLongValue(final STORAGE instance, final int index) {
+        metrics.recordGet(ValueType.LONG);
+        try {
+            return delegate.getLongValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setLongValue(Object, int, long)
+     */
+    @Override
+    public final STORAGE setLongValue(final STORAGE instance,
+            final int index, final long value) {
+        metrics.recordSet(ValueType.LONG);
+        try {
+            return delegate.setLongValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getDoubleValue(Object, int)
+     */
+    @Override
+    public final double getDoubleValue(final STORAGE instance,
+            final int index) {
+        metrics.recordGet(ValueType.DOUBLE);
+        try {
+            return delegate.getDoubleValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setDoubleValue(Object, int, double)
+     */
+    @Override
+    public final STORAGE setDoubleValue(final STORAGE instance,
+            final int index, final double value) {
+        metrics.recordSet(ValueType.DOUBLE);
+        try {
+            return delegate.setDoubleValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#getObjectValue(Object, int)
+     */
+    @Override
+    public final Object getObjectValue(final STORAGE instance,
+            final int index) {
+        metrics.recordGet(ValueType.OBJECT);
+        try {
+            return delegate.getObjectValue(instance, index);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see IGenericObjectAccessor#setObjectValue(Object, int, Object)
+     */
+    @Override
+    public final STORAGE setObjectValue(final STORAGE instance,
+            final int index, final Object value) {
+        metrics.recordSet(ValueType.OBJECT);
+        try {
+            return delegate.setObjectValue(instance, index, value);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.recordFailedIndexCheck();
+            throw e;
+        }
+    }
+}
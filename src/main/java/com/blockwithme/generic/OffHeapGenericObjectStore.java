@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * OffHeapGenericObjectStore is a second-tier store, for the Object[] based
+ * storage instances evicted from a GenericObjectCache. It copies the
+ * instances to direct ByteBuffer "slabs", outside of the heap, and
+ * rehydrates them in new Object[] on access.
+ *
+ * The primitive array is bulk-copied; the Object values are encoded with
+ * an IObjectCodec (BasicObjectCodec by default). Instances are appended to
+ * the current slab ("log-structured"). Once all slabs are used, the oldest
+ * slab is emptied, and all the instances it contains are evicted at once
+ * (FIFO). Replaced and removed instances keep using their space, until
+ * their slab is reused.
+ *
+ * All methods are synchronized.
+ *
+ * @see GenericObjectCache#setEvictionListener(IGenericObjectCacheListener)
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class OffHeapGenericObjectStore<K> implements
+        IGenericObjectCacheListener<K, Object[]> {
+
+    /** The type of an int primitive array. */
+    private static final int INT_ARRAY = 0;
+
+    /** The type of a long primitive array. */
+    private static final int LONG_ARRAY = 1;
+
+    /** The type of a double primitive array. */
+    private static final int DOUBLE_ARRAY = 2;
+
+    /** The size of the header of an instance: type and two lengths. */
+    private static final int HEADER_BYTES = 1 + 4 + 4;
+
+    /** A slab. */
+    private static final class Slab<K> {
+        /** The off-heap memory. */
+        final ByteBuffer buffer;
+        /** The keys of the instances written to this slab. */
+        final List<K> keys = new ArrayList<>();
+
+        /** Creates a slab. */
+        Slab(final int slabSize) {
+            buffer = ByteBuffer.allocateDirect(slabSize);
+        }
+    }
+
+    /** The location of an instance. */
+    private static final class Location<K> {
+        /** The slab. */
+        final Slab<K> slab;
+        /** The offset in the slab. */
+        final int offset;
+        /** The length in the slab. */
+        final int length;
+
+        /** Creates a location. */
+        Location(final Slab<K> slab, final int offset, final int length) {
+            this.slab = slab;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /** The codec of the Object values. */
+    private final IObjectCodec codec;
+
+    /** The size of a slab. */
+    private final int slabSize;
+
+    /** The maximum number of slabs. */
+    private final int maxSlabs;
+
+    /** The slabs, from the oldest to the current. */
+    private final ArrayDeque<Slab<K>> slabs = new ArrayDeque<>();
+
+    /** The locations of the instances. */
+    private final Map<K, Location<K>> locations = new HashMap<>();
+
+    /** Buffer used to encode the Object values. */
+    private final ByteArrayOutputStream objectBytes = new ByteArrayOutputStream();
+
+    /** Output used to encode the Object values. */
+    private final DataOutputStream objectOutput = new DataOutputStream(
+            objectBytes);
+
+    /** The number of evicted instances. */
+    private long evictions;
+
+    /** The number of rejected instances. */
+    private long rejections;
+
+    /**
+     * Creates a store, with a BasicObjectCodec.
+     *
+     * @param slabSize The size of a slab, in bytes.
+     * @param maxSlabs The maximum number of slabs.
+     *
+     * @throws IllegalArgumentException if slabSize or maxSlabs is not positive
+     */
+    public OffHeapGenericObjectStore(final int slabSize, final int maxSlabs) {
+        this(slabSize, maxSlabs, BasicObjectCodec.INSTANCE);
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param slabSize The size of a slab, in bytes.
+     * @param maxSlabs The maximum number of slabs.
+     * @param codec The codec of the Object values.
+     *
+     * @throws IllegalArgumentException if slabSize or maxSlabs is not positive
+     * @throws NullPointerException if codec is null
+     */
+    public OffHeapGenericObjectStore(final int slabSize, final int maxSlabs,
+            final IObjectCodec codec) {
+        if (slabSize <= 0) {
+            throw new IllegalArgumentException("slabSize: " + slabSize);
+        }
+        if (maxSlabs <= 0) {
+            throw new IllegalArgumentException("maxSlabs: " + maxSlabs);
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = maxSlabs;
+        this.codec = Objects.requireNonNull(codec, "codec");
+    }
+
+    /** Returns a view of the slab, positioned at offset. */
+    private static ByteBuffer view(final Slab<?> slab, final int offset) {
+        final ByteBuffer result = slab.buffer.duplicate();
+        result.position(offset);
+        return result;
+    }
+
+    /** Returns a slab with at least length bytes left. */
+    private Slab<K> slabFor(final int length) {
+        Slab<K> slab = slabs.peekLast();
+        if ((slab != null) && (slab.buffer.remaining() >= length)) {
+            return slab;
+        }
+        if (slabs.size() < maxSlabs) {
+            slab = new Slab<>(slabSize);
+        } else {
+            slab = slabs.pollFirst();
+            for (final K key : slab.keys) {
+                final Location<K> location = locations.get(key);
+                if ((location != null) && (location.slab == slab)) {
+                    locations.remove(key);
+                    evictions++;
+                }
+            }
+            slab.keys.clear();
+            slab.buffer.clear();
+        }
+        slabs.addLast(slab);
+        return slab;
+    }
+
+    /**
+     * Copies the storage instance to the store, replacing the previous
+     * instance of the key, if any.
+     *
+     * @return false, if the instance is bigger than a slab, and so was not
+     *         stored. The previous instance of the key is removed anyway,
+     *         even if this method throws.
+     *
+     * @throws NullPointerException if key or instance is null
+     * @throws IllegalArgumentException if the primitive array is not an
+     *         int[], long[] or double[], or if the codec does not support
+     *         an Object value.
+     * @throws IllegalStateException if the codec fails to encode a value
+     */
+    public synchronized boolean put(final K key, final Object[] instance) {
+        Objects.requireNonNull(key, "key");
+        locations.remove(key);
+        final Object primitives = instance[0];
+        final int type;
+        final int primitiveLength;
+        final int primitiveBytes;
+        if (primitives instanceof int[]) {
+            type = INT_ARRAY;
+            primitiveLength = ((int[]) primitives).length;
+            primitiveBytes = primitiveLength * 4;
+        } else if (primitives instanceof long[]) {
+            type = LONG_ARRAY;
+            primitiveLength = ((long[]) primitives).length;
+            primitiveBytes = primitiveLength * 8;
+        } else if (primitives instanceof double[]) {
+            type = DOUBLE_ARRAY;
+            primitiveLength = ((double[]) primitives).length;
+            primitiveBytes = primitiveLength * 8;
+        } else {
+            throw new IllegalArgumentException("Unsupported primitive array: "
+                    + primitives);
+        }
+        objectBytes.reset();
+        try {
+            for (int i = 1; i < instance.length; i++) {
+                codec.encode(instance[i], objectOutput);
+            }
+            objectOutput.flush();
+        } catch (final IOException e) {
+            throw new IllegalStateException("Could not encode " + key, e);
+        }
+        final long length = ((long) HEADER_BYTES) + primitiveBytes
+                + objectBytes.size();
+        if (length > slabSize) {
+            rejections++;
+            return false;
+        }
+        final Slab<K> slab = slabFor((int) length);
+        final ByteBuffer buffer = slab.buffer;
+        final int offset = buffer.position();
+        buffer.put((byte) type);
+        buffer.putInt(primitiveLength);
+        buffer.putInt(instance.length);
+        final ByteBuffer view = view(slab, buffer.position());
+        if (type == INT_ARRAY) {
+            view.asIntBuffer().put((int[]) primitives);
+        } else if (type == LONG_ARRAY) {
+            view.asLongBuffer().put((long[]) primitives);
+        } else {
+            view.asDoubleBuffer().put((double[]) primitives);
+        }
+        buffer.position(buffer.position() + primitiveBytes);
+        buffer.put(objectBytes.toByteArray());
+        slab.keys.add(key);
+        locations.put(key, new Location<>(slab, offset, (int) length));
+        return true;
+    }
+
+    /**
+     * Rehydrates the storage instance of the key, in a new Object[].
+     * The instance stays in the store.
+     *
+     * @return the new instance, or null if the key is not in the store.
+     */
+    public synchronized Object[] get(final K key) {
+        final Location<K> location = locations.get(key);
+        if (location == null) {
+            return null;
+        }
+        final ByteBuffer view = view(location.slab, location.offset);
+        final int type = view.get();
+        final int primitiveLength = view.getInt();
+        final Object[] result = new Object[view.getInt()];
+        final int primitiveBytes;
+        if (type == INT_ARRAY) {
+            final int[] array = new int[primitiveLength];
+            view.asIntBuffer().get(array);
+            result[0] = array;
+            primitiveBytes = primitiveLength * 4;
+        } else if (type == LONG_ARRAY) {
+            final long[] array = new long[primitiveLength];
+            view.asLongBuffer().get(array);
+            result[0] = array;
+            primitiveBytes = primitiveLength * 8;
+        } else {
+            final double[] array = new double[primitiveLength];
+            view.asDoubleBuffer().get(array);
+            result[0] = array;
+            primitiveBytes = primitiveLength * 8;
+        }
+        view.position(view.position() + primitiveBytes);
+        final byte[] encoded = new byte[location.length - HEADER_BYTES
+                - primitiveBytes];
+        view.get(encoded);
+        final DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(encoded));
+        try {
+            for (int i = 1; i < result.length; i++) {
+                result[i] = codec.decode(in);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Could not decode " + key, e);
+        }
+        return result;
+    }
+
+    /**
+     * Rehydrates the storage instance of the key, in a new Object[], and
+     * removes it from the store.
+     *
+     * @return the new instance, or null if the key is not in the store.
+     */
+    public synchronized Object[] remove(final K key) {
+        final Object[] result = get(key);
+        if (result != null) {
+            locations.remove(key);
+        }
+        return result;
+    }
+
+    /** Returns true, if the store contains the key. */
+    public synchronized boolean containsKey(final K key) {
+        return locations.containsKey(key);
+    }
+
+    /**
+     * Stores the evicted instance. Instances that cannot be stored, for
+     * whatever reason, are dropped, and counted as rejections, so that an
+     * eviction never fails the put() of the cache that caused it.
+     *
+     * @see IGenericObjectCacheListener#evicted(Object, Object)
+     */
+    @Override
+    public synchronized void evicted(final K key, final Object[] instance) {
+        try {
+            put(key, instance);
+        } catch (final RuntimeException e) {
+            rejections++;
+        }
+    }
+
+    /** Removes all instances, and frees the slabs. */
+    public synchronized void clear() {
+        locations.clear();
+        slabs.clear();
+    }
+
+    /** Returns the number of instances. */
+    public synchronized int size() {
+        return locations.size();
+    }
+
+    /** Returns the number of slabs in use. */
+    public synchronized int getSlabCount() {
+        return slabs.size();
+    }
+
+    /** Returns the number of instances evicted so far. */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /** Returns the number of instances that could not be stored. */
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return "OffHeapGenericObjectStore(size=" + locations.size()
+                + ", slabs=" + slabs.size() + "/" + maxSlabs + ", slabSize="
+                + slabSize + ", evictions=" + evictions + ", rejections="
+                + rejections + ")";
+    }
+}
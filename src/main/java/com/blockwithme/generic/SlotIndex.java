@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.Objects;
+
+/**
+ * SlotIndex is the base class of the secondary indexes on one primitive
+ * slot of a set of generic objects. The index stores the generic object
+ * storage instances by the value of the slot, which is the "key".
+ *
+ * int, long and double slots can be indexed. All keys are stored as long,
+ * without boxing; double keys are encoded so that their order is preserved
+ * (-0.0 is less than 0.0, and NaN is greater then all other values).
+ *
+ * Indexes are created by, and kept up to date by, an
+ * IndexingGenericObjectAccessor. Only the instances that were explicitly
+ * added to an index are indexed. Indexes are not thread-safe.
+ *
+ * @see IndexingGenericObjectAccessor
+ *
+ * @author monster
+ */
+public abstract class SlotIndex<STORAGE> {
+
+    /** The accessor used to read the keys; *not* the indexing accessor. */
+    private final IGenericObjectAccessor<STORAGE> accessor;
+
+    /** The indexed primitive slot. */
+    private final int slot;
+
+    /** The type of the indexed slot. */
+    private final ValueType type;
+
+    /** The number of primitive slots used by the key. */
+    private final int width;
+
+    /** Creates an index. */
+    SlotIndex(final IGenericObjectAccessor<STORAGE> accessor, final int slot,
+            final ValueType type) {
+        this.accessor = Objects.requireNonNull(accessor, "accessor");
+        this.type = Objects.requireNonNull(type, "type");
+        if (slot < accessor.getPrimitiveValuesStartIndex()) {
+            throw new IllegalArgumentException("Invalid slot: " + slot);
+        }
+        this.slot = slot;
+        if (type == ValueType.INT) {
+            width = 1;
+        } else if (type == ValueType.LONG) {
+            width = accessor.isLongUsingTwoPrimitiveSlots() ? 2 : 1;
+        } else if (type == ValueType.DOUBLE) {
+            width = accessor.isDoubleUsingTwoPrimitiveSlots() ? 2 : 1;
+        } else {
+            throw new IllegalArgumentException("Unsupported key type: "
+                    + type);
+        }
+    }
+
+    /**
+     * Encodes a double key as a long, preserving the order.
+     *
+     * @param value The double value.
+     * @return The encoded key.
+     */
+    protected static long encode(final double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the indexed primitive slot.
+     *
+     * @return the indexed primitive slot.
+     */
+    public final int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Returns the type of the indexed slot.
+     *
+     * @return the type of the indexed slot.
+     */
+    public final ValueType getType() {
+        return type;
+    }
+
+    /**
+     * Checks that the lookup type matches the type of the index.
+     *
+     * @throws IllegalStateException if this index has another type
+     */
+    final void checkType(final ValueType lookupType) {
+        if (type != lookupType) {
+            throw new IllegalStateException(lookupType
+                    + " lookup in an index of type " + type);
+        }
+    }
+
+    /**
+     * Returns the key of an instance, as currently stored.
+     *
+     * @param instance The generic object storage instance.
+     * @return the key, as a long.
+     */
+    final long key(final STORAGE instance) {
+        if (type == ValueType.INT) {
+            return accessor.getIntValue(instance, slot);
+        }
+        if (type == ValueType.LONG) {
+            return accessor.getLongValue(instance, slot);
+        }
+        return encode(accessor.getDoubleValue(instance, slot));
+    }
+
+    /**
+     * Returns true, if a write of width primitive slots at index would
+     * change the key.
+     */
+    final boolean overlaps(final int index, final int writeWidth) {
+        return (index < slot + width) && (slot < index + writeWidth);
+    }
+
+    /**
+     * Updates the index, after the key of an instance might have changed,
+     * or the instance was replaced. Does nothing, if oldInstance was not
+     * indexed.
+     */
+    final void update(final long oldKey, final STORAGE oldInstance,
+            final STORAGE newInstance) {
+        final long newKey = key(newInstance);
+        if (((oldKey != newKey) || (oldInstance != newInstance))
+                && delete(oldKey, oldInstance)) {
+            insert(newKey, newInstance);
+        }
+    }
+
+    /** Returns true, if the instance is big enough to contain the key. */
+    final boolean readable(final STORAGE instance) {
+        return slot + width - 1 <= accessor
+                .getPrimitiveValuesMaximumIndex(instance);
+    }
+
+    /**
+     * Replaces an instance by another one, with the same values. Does
+     * nothing, if oldInstance was not indexed.
+     */
+    final void replace(final STORAGE oldInstance, final STORAGE newInstance) {
+        if (readable(newInstance)) {
+            final long key = key(newInstance);
+            if (delete(key, oldInstance)) {
+                insert(key, newInstance);
+            }
+        }
+    }
+
+    /**
+     * Adds an instance to the index. Adding the same instance twice is not
+     * supported.
+     *
+     * @param instance The generic object storage instance.
+     *
+     * @throws NullPointerException if instance is null
+     */
+    public final void add(final STORAGE instance) {
+        insert(key(Objects.requireNonNull(instance, "instance")), instance);
+    }
+
+    /**
+     * Removes an instance from the index.
+     *
+     * @param instance The generic object storage instance.
+     * @return true, if the instance was indexed.
+     */
+    public final boolean remove(final STORAGE instance) {
+        return (instance != null) && delete(key(instance), instance);
+    }
+
+    /**
+     * Returns true, if the instance is indexed.
+     *
+     * @param instance The generic object storage instance.
+     * @return true, if the instance is indexed.
+     */
+    public final boolean contains(final STORAGE instance) {
+        return (instance != null) && readable(instance)
+                && contains(key(instance), instance);
+    }
+
+    /**
+     * Returns the number of indexed instances.
+     *
+     * @return the number of indexed instances.
+     */
+    public abstract int size();
+
+    /** Adds an instance, with the given key. */
+    abstract void insert(long key, STORAGE instance);
+
+    /** Removes an instance, with the given key. Returns true if found. */
+    abstract boolean delete(long key, STORAGE instance);
+
+    /** Returns true, if the instance is indexed with the given key. */
+    abstract boolean contains(long key, STORAGE instance);
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sorted SlotIndex, for exact-match and range lookups.
+ *
+ * The keys are stored sorted in a primitive long array, with the instances
+ * in a parallel array, so keys are never boxed. Lookups use binary search,
+ * while inserts and removals are O(n), since they shift the arrays.
+ *
+ * @see SlotIndex for more documentation.
+ *
+ * @author monster
+ */
+public final class SortedSlotIndex<STORAGE> extends SlotIndex<STORAGE> {
+
+    /** The initial capacity. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The sorted keys. */
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    /** The instances, in key order. */
+    private Object[] instances = new Object[INITIAL_CAPACITY];
+
+    /** The number of instances. */
+    private int size;
+
+    /** Creates an index. */
+    SortedSlotIndex(final IGenericObjectAccessor<STORAGE> accessor,
+            final int slot, final ValueType type) {
+        super(accessor, slot, type);
+    }
+
+    /** Returns the position of the first key >= key. */
+    private int lowerBound(final long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Returns the position of the first key > key. */
+    private int upperBound(final long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#insert(long, Object)
+     */
+    @Override
+    void insert(final long key, final STORAGE instance) {
+        if (size == keys.length) {
+            final long[] newKeys = new long[size * 2];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            keys = newKeys;
+            final Object[] newInstances = new Object[size * 2];
+            System.arraycopy(instances, 0, newInstances, 0, size);
+            instances = newInstances;
+        }
+        final int pos = upperBound(key);
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(instances, pos, instances, pos + 1, size - pos);
+        keys[pos] = key;
+        instances[pos] = instance;
+        size++;
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#delete(long, Object)
+     */
+    @Override
+    boolean delete(final long key, final STORAGE instance) {
+        final int end = upperBound(key);
+        for (int pos = lowerBound(key); pos < end; pos++) {
+            if (instances[pos] == instance) {
+                size--;
+                System.arraycopy(keys, pos + 1, keys, pos, size - pos);
+                System.arraycopy(instances, pos + 1, instances, pos, size
+                        - pos);
+                instances[size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#contains(long, Object)
+     */
+    @Override
+    boolean contains(final long key, final STORAGE instance) {
+        final int end = upperBound(key);
+        for (int pos = lowerBound(key); pos < end; pos++) {
+            if (instances[pos] == instance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see SlotIndex#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns the instances with from <= key <= to, in key order. */
+    @SuppressWarnings("unchecked")
+    private List<STORAGE> lookup(final long from, final long to) {
+        final int start = lowerBound(from);
+        final int end = (from <= to) ? upperBound(to) : start;
+        final List<STORAGE> result = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            result.add((STORAGE) instances[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the instances with from <= key <= to, in key order, for INT
+     * indexes.
+     *
+     * @param from The lowest key, inclusive.
+     * @param to The highest key, inclusive.
+     * @return a new list of the instances in the range.
+     *
+     * @throws IllegalStateException if this is not a INT index
+     */
+    public List<STORAGE> rangeInt(final int from, final int to) {
+        checkType(ValueType.INT);
+        return lookup(from, to);
+    }
+
+    /**
+     * Returns the instances with from <= key <= to, in key order, for LONG
+     * indexes.
+     *
+     * @param from The lowest key, inclusive.
+     * @param to The highest key, inclusive.
+     * @return a new list of the instances in the range.
+     *
+     * @throws IllegalStateException if this is not a LONG index
+     */
+    public List<STORAGE> rangeLong(final long from, final long to) {
+        checkType(ValueType.LONG);
+        return lookup(from, to);
+    }
+
+    /**
+     * Returns the instances with from <= key <= to, in key order, for DOUBLE
+     * indexes.
+     *
+     * @param from The lowest key, inclusive.
+     * @param to The highest key, inclusive.
+     * @return a new list of the instances in the range.
+     *
+     * @throws IllegalStateException if this is not a DOUBLE index
+     */
+    public List<STORAGE> rangeDouble(final double from, final double to) {
+        checkType(ValueType.DOUBLE);
+        return lookup(encode(from), encode(to));
+    }
+
+    /**
+     * Returns the instances with the given key, for INT indexes.
+     *
+     * @param key The key.
+     * @return a new list of the instances with the given key.
+     *
+     * @throws IllegalStateException if this is not a INT index
+     */
+    public List<STORAGE> getInt(final int key) {
+        checkType(ValueType.INT);
+        return lookup(key, key);
+    }
+
+    /**
+     * Returns the instances with the given key, for LONG indexes.
+     *
+     * @param key The key.
+     * @return a new list of the instances with the given key.
+     *
+     * @throws IllegalStateException if this is not a LONG index
+     */
+    public List<STORAGE> getLong(final long key) {
+        checkType(ValueType.LONG);
+        return lookup(key, key);
+    }
+
+    /**
+     * Returns the instances with the given key, for DOUBLE indexes.
+     *
+     * @param key The key.
+     * @return a new list of the instances with the given key.
+     *
+     * @throws IllegalStateException if this is not a DOUBLE index
+     */
+    public List<STORAGE> getDouble(final double key) {
+        checkType(ValueType.DOUBLE);
+        final long encoded = encode(key);
+        return lookup(encoded, encoded);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * The storage layouts of the Object[] based generic object implementations,
+ * with an *estimated* relative cost of accessing each value type.
+ *
+ * The costs are derived from the encoding used by each implementation: 1
+ * means the value is stored "as is", while higher values mean that the
+ * value must be split, combined, or converted on every access. For
+ * example, a long in the INT layout requires accessing two ints.
+ *
+ * @see AdaptiveGenericObject
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public enum StorageLayout {
+    /** The IntGenericObjectAccessor layout. */
+    INT(1, 1, 1, 1, 1, 2, 3, 3, 1) {
+        @Override
+        public IGenericObjectAccessor<Object[]> newAccessor(
+                final IGrowthPolicy policy) {
+            return new IntGenericObjectAccessor(policy);
+        }
+    },
+    /** The LongFixedBooleanGenericObjectAccessor layout. */
+    LONG(2, 1, 1, 1, 1, 2, 1, 2, 1) {
+        @Override
+        public IGenericObjectAccessor<Object[]> newAccessor(
+                final IGrowthPolicy policy) {
+            return new LongFixedBooleanGenericObjectAccessor(policy);
+        }
+    },
+    /** The DoubleFixedBooleanGenericObjectAccessor layout. */
+    DOUBLE(2, 1, 1, 1, 1, 1, 2, 1, 1) {
+        @Override
+        public IGenericObjectAccessor<Object[]> newAccessor(
+                final IGrowthPolicy policy) {
+            return new DoubleFixedBooleanGenericObjectAccessor(policy);
+        }
+    };
+
+    /** The access cost, per ValueType. */
+    private final int[] costs;
+
+    /** Creates a layout, with the costs in ValueType order. */
+    private StorageLayout(final int... costs) {
+        this.costs = costs;
+    }
+
+    /**
+     * Returns the estimated relative cost of accessing a value of the given
+     * type, in this layout.
+     *
+     * @param type The value type.
+     * @return the estimated relative access cost, at least 1.
+     */
+    public int getAccessCost(final ValueType type) {
+        return costs[type.ordinal()];
+    }
+
+    /**
+     * Creates a new accessor using this layout.
+     *
+     * @param policy The growth policy.
+     * @return a new accessor using this layout.
+     *
+     * @throws NullPointerException if policy is null
+     */
+    public abstract IGenericObjectAccessor<Object[]> newAccessor(
+            IGrowthPolicy policy);
+}
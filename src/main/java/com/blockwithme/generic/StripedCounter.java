@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A low-overhead, thread-safe counter, similar to Java 8's LongAdder.
+ *
+ * The count is spread over several "cells", each on it's own cache line,
+ * and the cell is chosen based on the current thread ID. Incrementing is
+ * therefore mostly contention-free, while reading the count requires
+ * summing all cells, and so is slower, and not atomic.
+ *
+ * @author monster
+ */
+@GwtIncompatible
+public final class StripedCounter {
+    /** Number of longs per cell; 8 longs == 64 bytes == one cache line. */
+    private static final int PADDING = 8;
+
+    /** Number of cells; a power of two. */
+    private static final int CELLS = cellCount();
+
+    /** Mask to compute the cell of a thread. */
+    private static final int MASK = CELLS - 1;
+
+    /** The cells, padded. */
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS
+            * PADDING);
+
+    /** Computes the number of cells. */
+    private static int cellCount() {
+        final int cpus = Runtime.getRuntime().availableProcessors();
+        return Math.min(64, Integer.highestOneBit(Math.max(1, cpus - 1)) << 1);
+    }
+
+    /** Returns the index of the cell of the current thread. */
+    private static int cell() {
+        final long id = Thread.currentThread().getId();
+        return ((((int) (id * 0x9E3779B9L)) >>> 16) & MASK) * PADDING;
+    }
+
+    /** Increments the count by one. */
+    public void increment() {
+        cells.getAndIncrement(cell());
+    }
+
+    /**
+     * Adds the given value to the count.
+     *
+     * @param value The value to add
+     */
+    public void add(final long value) {
+        cells.getAndAdd(cell(), value);
+    }
+
+    /**
+     * Returns the current count. Not an atomic snapshot, if updates
+     * are happening concurrently.
+     *
+     * @return the current count.
+     */
+    public long sum() {
+        long result = 0;
+        for (int i = 0; i < CELLS; i++) {
+            result += cells.get(i * PADDING);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the current count, and resets it to 0. Not atomic, if
+     * updates are happening concurrently.
+     *
+     * @return the count before the reset.
+     */
+    public long sumThenReset() {
+        long result = 0;
+        for (int i = 0; i < CELLS; i++) {
+            result += cells.getAndSet(i * PADDING, 0);
+        }
+        return result;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.valueOf(sum());
+    }
+}
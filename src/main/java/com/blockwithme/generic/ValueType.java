@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blockwithme.generic;
+
+/**
+ * The types of values that can be stored in a generic object.
+ *
+ * Note that the generic object implementations do NOT store the type of the
+ * values; this enum is only used by code that needs to describe accesses.
+ *
+ * @author monster
+ */
+public enum ValueType {
+    /** boolean values. */
+    BOOLEAN,
+    /** byte values. */
+    BYTE,
+    /** char values. */
+    CHAR,
+    /** short values. */
+    SHORT,
+    /** int values. */
+    INT,
+    /** float values. */
+    FLOAT,
+    /** long values. */
+    LONG,
+    /** double values. */
+    DOUBLE,
+    /** Object values. */
+    OBJECT;
+
+    /**
+     * Returns true, for all types except OBJECT.
+     *
+     * @return true, if this type is a primitive type.
+     */
+    public boolean isPrimitive() {
+        return this != OBJECT;
+    }
+}
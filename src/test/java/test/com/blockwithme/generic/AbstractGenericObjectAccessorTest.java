@@ -16,15 +16,19 @@
 package test.com.blockwithme.generic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import org.junit.Test;
 
+import com.blockwithme.generic.GenericObjectDiff;
 import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IObjectCopier;
 
 /**
  * Base class for tests of IGenericObjectAccessor.
@@ -729,6 +733,232 @@ public abstract class AbstractGenericObjectAccessorTest<STORAGE> {
         }
     }
 
+    @Test
+    public void testTrimPrimitiveValues() {
+        STORAGE instance = getAccessor().newGenericObject(100, 100);
+        final int index = getAccessor().getPrimitiveValuesStartIndex() + 2;
+        instance = getAccessor().setIntValue(instance, index, 42);
+        instance = getAccessor().trimPrimitiveValues(instance);
+        if (getAccessor().isOptimalPackingUsedForPrimitiveValues()) {
+            // The slot after the last used one is kept, when longs or
+            // doubles use two slots
+            final int twoSlots = (getAccessor()
+                    .isLongUsingTwoPrimitiveSlots() || getAccessor()
+                    .isDoubleUsingTwoPrimitiveSlots()) ? 1 : 0;
+            assertEquals("GetPrimitiveValuesSlotsAvailable", index + 1
+                    + twoSlots, getAccessor()
+                    .getPrimitiveValuesSlotsAvailable(instance));
+        } else {
+            assertEquals("GetPrimitiveValuesSlotsAvailable", 8, getAccessor()
+                    .getPrimitiveValuesSlotsAvailable(instance));
+        }
+        assertEquals("IntValue[" + index + "]", 42, getAccessor()
+                .getIntValue(instance, index));
+    }
+
+    @Test
+    public void testTrimKeepsTwoSlotValue() {
+        STORAGE instance = getAccessor().newGenericObject(17, 1);
+        final int index = getAccessor().getPrimitiveValuesStartIndex() + 15;
+        instance = getAccessor().setLongValue(instance, index, 1L);
+        instance = getAccessor().trimPrimitiveValues(instance);
+        assertEquals("LongValue[" + index + "]", 1L, getAccessor()
+                .getLongValue(instance, index));
+    }
+
+    @Test
+    public void testTrimObjectValues() {
+        STORAGE instance = getAccessor().newGenericObject(100, 100);
+        final int index = getAccessor().getObjectValuesStartIndex() + 2;
+        instance = getAccessor().setObjectValue(instance, index, "42");
+        instance = getAccessor().trimObjectValues(instance);
+        if (getAccessor().isOptimalPackingUsedForObjectValues()) {
+            assertEquals("GetObjectValuesSlotsAvailable", index + 1,
+                    getAccessor().getObjectValuesSlotsAvailable(instance));
+        } else {
+            assertEquals("GetObjectValuesSlotsAvailable", 8, getAccessor()
+                    .getObjectValuesSlotsAvailable(instance));
+        }
+        assertEquals("ObjectValue[" + index + "]", "42", getAccessor()
+                .getObjectValue(instance, index));
+    }
+
+    @Test
+    public void testContentEquals() {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        final int index = a.getPrimitiveValuesStartIndex() + 2;
+        final int objectIndex = a.getObjectValuesStartIndex() + 1;
+        STORAGE small = a.newGenericObject(8, 8);
+        STORAGE big = a.newGenericObject(100, 100);
+        assertTrue("empty", a.contentEquals(small, big));
+        assertEquals("empty hash", a.contentHashCode(small),
+                a.contentHashCode(big));
+        small = a.setIntValue(small, index, 42);
+        assertFalse("int", a.contentEquals(small, big));
+        big = a.setIntValue(big, index, 42);
+        small = a.setObjectValue(small, objectIndex, new String("42"));
+        big = a.setObjectValue(big, objectIndex, "42");
+        assertTrue("int+Object", a.contentEquals(small, big));
+        assertEquals("int+Object hash", a.contentHashCode(small),
+                a.contentHashCode(big));
+        big = a.setBooleanValue(big, 0, true);
+        assertFalse("boolean", a.contentEquals(small, big));
+        assertFalse("boolean reversed", a.contentEquals(big, small));
+    }
+
+    @Test
+    public void testCopy() {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        final int index = a.getPrimitiveValuesStartIndex() + 2;
+        final int objectIndex = a.getObjectValuesStartIndex() + 1;
+        STORAGE instance = a.setIntValue(a.newGenericObject(8, 8), index, 42);
+        instance = a.setObjectValue(instance, objectIndex, "42");
+        STORAGE copy = a.copy(instance);
+        assertTrue("copy", a.contentEquals(instance, copy));
+        assertEquals("GetPrimitiveValuesSlotsAvailable",
+                a.getPrimitiveValuesSlotsAvailable(instance),
+                a.getPrimitiveValuesSlotsAvailable(copy));
+        copy = a.setIntValue(copy, index, 24);
+        copy = a.setObjectValue(copy, objectIndex, "24");
+        assertEquals("IntValue[" + index + "]", 42,
+                a.getIntValue(instance, index));
+        assertEquals("ObjectValue[" + objectIndex + "]", "42",
+                a.getObjectValue(instance, objectIndex));
+    }
+
+    @Test
+    public void testCloneStorage() {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        final int index = a.getPrimitiveValuesStartIndex() + 2;
+        final int objectIndex = a.getObjectValuesStartIndex() + 1;
+        STORAGE instance = a.setIntValue(a.newGenericObject(100, 100), index,
+                42);
+        instance = a.setObjectValue(instance, objectIndex, "42");
+        final STORAGE shallow = a.cloneStorage(instance, null);
+        assertTrue("shallow", a.contentEquals(instance, shallow));
+        assertEquals("GetObjectValuesSlotsAvailable",
+                a.getObjectValuesSlotsAvailable(a.trimObjectValues(a
+                        .copy(instance))),
+                a.getObjectValuesSlotsAvailable(shallow));
+        assertTrue("trimmed", a.getPrimitiveValuesSlotsAvailable(shallow) < 100);
+        final STORAGE deep = a.cloneStorage(instance, new IObjectCopier() {
+            @Override
+            public Object copy(final Object value) {
+                return value + "!";
+            }
+        });
+        assertEquals("IntValue[" + index + "]", 42, a.getIntValue(deep, index));
+        assertEquals("ObjectValue[" + objectIndex + "]", "42!",
+                a.getObjectValue(deep, objectIndex));
+        assertEquals("ObjectValue[" + objectIndex + "]", "42",
+                a.getObjectValue(instance, objectIndex));
+    }
+
+    @Test
+    public void testCloneStorageKeepsTwoSlotValue() {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        final int index = a.getPrimitiveValuesStartIndex() + 15;
+        final STORAGE instance = a.setLongValue(a.newGenericObject(17, 1),
+                index, 1L);
+        final STORAGE clone = a.cloneStorage(instance, null);
+        assertTrue("clone", a.contentEquals(instance, clone));
+        assertEquals("LongValue[" + index + "]", 1L,
+                a.getLongValue(clone, index));
+    }
+
+    /**
+     * Returns the primitive slots expected in a diff, when only slot changed.
+     * The neighbours are reported too, if longs or doubles use two slots.
+     */
+    private String expectedSlots(final int slot) {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        if (a.isLongUsingTwoPrimitiveSlots()
+                || a.isDoubleUsingTwoPrimitiveSlots()) {
+            return "[" + (slot - 1) + ", " + slot + ", " + (slot + 1) + "]";
+        }
+        return "[" + slot + "]";
+    }
+
+    @Test
+    public void testDiffAndMerge() {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        final int index = a.getPrimitiveValuesStartIndex() + 2;
+        final int objectIndex = a.getObjectValuesStartIndex() + 1;
+        STORAGE base = a.setIntValue(a.newGenericObject(8, 8), index, 42);
+        base = a.setObjectValue(base, objectIndex, "42");
+        STORAGE client = a.copy(base);
+        client = a.setIntValue(client, index, 24);
+        client = a.resizeObjectValues(client, 40);
+        client = a.setObjectValue(client, objectIndex + 30, "new");
+        STORAGE server = a.copy(base);
+        server = a.setIntValue(server, index + 3, 7);
+        server = a.setObjectValue(server, objectIndex, new String("42"));
+
+        final GenericObjectDiff mine = a.diff(base, client);
+        assertEquals("primitive", expectedSlots(index),
+                Arrays.toString(mine.getPrimitiveSlots()));
+        assertEquals("object", "[" + (objectIndex + 30) + "]",
+                Arrays.toString(mine.getObjectSlots()));
+        final GenericObjectDiff theirs = a.diff(base, server);
+        assertEquals("object equals", 0, theirs.getObjectSlots().length);
+        assertTrue("no conflict", mine.intersect(theirs).isEmpty());
+        assertFalse("conflict", mine.intersect(mine).isEmpty());
+
+        server = a.merge(server, client, mine);
+        assertEquals("IntValue[" + index + "]", 24,
+                a.getIntValue(server, index));
+        assertEquals("IntValue[" + (index + 3) + "]", 7,
+                a.getIntValue(server, index + 3));
+        assertEquals("ObjectValue", "new",
+                a.getObjectValue(server, objectIndex + 30));
+        assertTrue("empty", a.diff(server, server).isEmpty());
+
+        final STORAGE flags = a.setBooleanValue(a.copy(base), 3, true);
+        final GenericObjectDiff booleans = a.diff(base, flags);
+        if (a.isBooleanValuesIDSpaceIndependentFromPrimitive()) {
+            assertEquals("boolean", "[3]",
+                    Arrays.toString(booleans.getBooleanSlots()));
+        } else {
+            assertEquals("boolean", expectedSlots(3),
+                    Arrays.toString(booleans.getPrimitiveSlots()));
+        }
+        assertTrue("BooleanValue[3]",
+                a.getBooleanValue(a.merge(a.copy(base), flags, booleans), 3));
+    }
+
+    @Test
+    public void testMergeNeverMixesLongHalves() {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        final int index = a.getPrimitiveValuesStartIndex() + 2;
+        final STORAGE base = a.newGenericObject(8, 8);
+        final STORAGE changed = a.setLongValue(a.copy(base), index, 5L);
+        STORAGE target = a.setLongValue(a.copy(base), index, 7L << 32);
+        final GenericObjectDiff mine = a.diff(base, changed);
+        final GenericObjectDiff theirs = a.diff(base, target);
+        assertFalse("conflict", mine.intersect(theirs).isEmpty());
+        target = a.merge(target, changed, mine);
+        assertEquals("LongValue[" + index + "]", 5L,
+                a.getLongValue(target, index));
+    }
+
+    @Test
+    public void testCopyObjectAndPrimitiveValues() {
+        final IGenericObjectAccessor<STORAGE> a = getAccessor();
+        final int index = a.getPrimitiveValuesStartIndex() + 2;
+        final int objectIndex = a.getObjectValuesStartIndex() + 1;
+        STORAGE instance = a.setIntValue(a.newGenericObject(8, 8), index, 42);
+        instance = a.setObjectValue(instance, objectIndex, "42");
+        STORAGE copy = a.copyObjectValues(instance);
+        copy = a.setObjectValue(copy, objectIndex, "24");
+        assertEquals("ObjectValue[" + objectIndex + "]", "42",
+                a.getObjectValue(instance, objectIndex));
+        copy = a.copyPrimitiveValues(copy);
+        copy = a.setIntValue(copy, index, 24);
+        assertEquals("IntValue[" + index + "]", 42,
+                a.getIntValue(instance, index));
+        assertEquals("IntValue[" + index + "]", 24, a.getIntValue(copy, index));
+    }
+
     /**
      * Creates and returns a new instance.
      *
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.AccessorRegistry;
+import com.blockwithme.generic.AccessorRegistry.Requirements;
+import com.blockwithme.generic.DoubleFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests AccessorRegistry.
+ *
+ * @author monster
+ */
+public class AccessorRegistryTest {
+
+    private final IntGenericObjectAccessor intAccessor = new IntGenericObjectAccessor();
+
+    private final LongFixedBooleanGenericObjectAccessor longAccessor = new LongFixedBooleanGenericObjectAccessor();
+
+    private final DoubleFixedBooleanGenericObjectAccessor doubleAccessor = new DoubleFixedBooleanGenericObjectAccessor();
+
+    private final AccessorRegistry registry = new AccessorRegistry(
+            Arrays.<IGenericObjectAccessor<?>> asList(intAccessor,
+                    longAccessor, doubleAccessor));
+
+    @Test
+    public void testGet() {
+        assertSame(intAccessor, registry.get("IntGenericObjectAccessor"));
+        assertSame(longAccessor,
+                registry.get(LongFixedBooleanGenericObjectAccessor.class
+                        .getName()));
+        assertSame(longAccessor,
+                registry.get("LongFixedBooleanGenericObjectAccessor"));
+        try {
+            registry.get("NoSuchAccessor");
+            fail("NoSuchAccessor");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+        assertEquals(3, registry.getAccessors().size());
+    }
+
+    @Test
+    public void testFind() {
+        assertSame(intAccessor, registry.find(Requirements.NONE));
+        assertSame(longAccessor,
+                registry.find(Requirements.NONE.longInOneSlot()));
+        assertSame(longAccessor,
+                registry.find(Requirements.NONE.doubleInOneSlot()));
+        assertSame(longAccessor, registry.find(Requirements.NONE
+                .minBooleans(60).doubleInOneSlot()));
+        assertNull(registry.find(Requirements.NONE.minBooleans(65)
+                .longInOneSlot()));
+        // Without a long-only registration, the double implementation matches
+        final AccessorRegistry noLong = new AccessorRegistry(
+                Arrays.<IGenericObjectAccessor<?>> asList(intAccessor,
+                        doubleAccessor));
+        assertSame(doubleAccessor, noLong.find(Requirements.NONE
+                .doubleInOneSlot().minBooleans(52)));
+        assertNull(noLong.find(Requirements.NONE.doubleInOneSlot()
+                .minBooleans(53)));
+        assertNull(registry.find(Requirements.NONE.threadSafe()));
+        assertEquals(Requirements.NONE.minBooleans(3),
+                Requirements.NONE.minBooleans(3));
+    }
+
+    @Test
+    public void testFindByStorage() {
+        final IGenericObjectAccessor<Object[]> accessor = registry.find(
+                Object[].class, Requirements.NONE.doubleInOneSlot());
+        assertSame(longAccessor, accessor);
+        assertNull(registry.find(String.class, Requirements.NONE));
+    }
+
+    @Test
+    public void testGetConfigured() {
+        final String old = System.getProperty(AccessorRegistry.ACCESSOR_PROPERTY);
+        try {
+            System.clearProperty(AccessorRegistry.ACCESSOR_PROPERTY);
+            assertSame(intAccessor, registry.getConfigured());
+            System.setProperty(AccessorRegistry.ACCESSOR_PROPERTY,
+                    "DoubleFixedBooleanGenericObjectAccessor");
+            assertSame(doubleAccessor, registry.getConfigured());
+        } finally {
+            if (old == null) {
+                System.clearProperty(AccessorRegistry.ACCESSOR_PROPERTY);
+            } else {
+                System.setProperty(AccessorRegistry.ACCESSOR_PROPERTY, old);
+            }
+        }
+    }
+
+    @Test
+    public void testLoad() {
+        final AccessorRegistry loaded = AccessorRegistry
+                .load(AccessorRegistry.class.getClassLoader());
+        assertNotNull(loaded.getAccessors());
+        for (final IGenericObjectAccessor<?> accessor : loaded.getAccessors()) {
+            assertSame(accessor, loaded.get(accessor.getClass().getName()));
+        }
+    }
+}
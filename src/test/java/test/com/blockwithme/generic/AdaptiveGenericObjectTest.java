@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.AdaptiveGenericObject;
+import com.blockwithme.generic.GrowthPolicies;
+import com.blockwithme.generic.StorageLayout;
+import com.blockwithme.generic.ValueType;
+
+/**
+ * Tests of AdaptiveGenericObject.
+ *
+ * @author monster
+ */
+public class AdaptiveGenericObjectTest {
+
+    @Test
+    public void testNotEvaluated() {
+        final AdaptiveGenericObject obj = new AdaptiveGenericObject();
+        assertEquals(StorageLayout.DOUBLE, obj.getStorageLayout());
+        assertEquals("not evaluated yet", obj.getReport().getReason());
+        assertEquals(0, obj.getReport().getMigrations());
+    }
+
+    @Test
+    public void testMigratesToLong() {
+        final AdaptiveGenericObject obj = new AdaptiveGenericObject(
+                StorageLayout.INT, GrowthPolicies.POWER_OF_TWO, 100);
+        obj.setIntValue(1, 42).setDoubleValue(4, 0.5).setBooleanValue(6, true)
+                .setObjectValue(1, "one");
+        for (int i = 0; i < 100; i++) {
+            obj.setLongValue(2, i);
+        }
+        assertEquals(StorageLayout.LONG, obj.getStorageLayout());
+        final AdaptiveGenericObject.Report report = obj.getReport();
+        assertEquals(StorageLayout.LONG, report.getLowestCostLayout());
+        assertEquals(1, report.getMigrations());
+        assertEquals("migrated from INT", report.getReason());
+        assertEquals(96, report.getAccesses(ValueType.LONG));
+        assertEquals(96 * 3 + 4 + 1 + 1,
+                report.getCost(StorageLayout.INT));
+        assertEquals(42, obj.getIntValue(1));
+        assertEquals(99L, obj.getLongValue(2));
+        assertEquals(0.5, obj.getDoubleValue(4), 0.0);
+        assertTrue(obj.getBooleanValue(6));
+        assertEquals("one", obj.getObjectValue(1));
+        assertEquals(64, obj.getBooleanValuesSlotsAvailable());
+    }
+
+    @Test
+    public void testMigrationKeepsSlots() {
+        final AdaptiveGenericObject obj = new AdaptiveGenericObject(
+                StorageLayout.INT, GrowthPolicies.POWER_OF_TWO, 16, 100, 4);
+        for (int i = 0; i < 20; i++) {
+            obj.setLongValue(1, i);
+        }
+        assertEquals(StorageLayout.LONG, obj.getStorageLayout());
+        assertTrue(obj.getPrimitiveValuesSlotsAvailable() >= 100);
+        assertTrue(obj.getObjectValuesSlotsAvailable() >= 4);
+        obj.setIntValue(50, 7);
+        assertEquals(7, obj.getIntValue(50));
+        assertEquals(19L, obj.getLongValue(1));
+    }
+
+    @Test
+    public void testCannotMigrate() {
+        final AdaptiveGenericObject obj = new AdaptiveGenericObject(
+                StorageLayout.LONG, GrowthPolicies.POWER_OF_TWO, 10);
+        obj.setLongValue(1, 7L).setIntValue(2, 3);
+        for (int i = 0; i < 8; i++) {
+            obj.getBooleanValue(5);
+        }
+        assertEquals(StorageLayout.LONG, obj.getStorageLayout());
+        assertEquals(StorageLayout.INT, obj.getReport().getLowestCostLayout());
+        assertEquals("cannot migrate to INT: LONG at index 1 would overlap index 2",
+                obj.getReport().getReason());
+        assertEquals(7L, obj.getLongValue(1));
+    }
+
+    @Test
+    public void testStorageReplaced() {
+        final AdaptiveGenericObject obj = new AdaptiveGenericObject(
+                StorageLayout.DOUBLE, GrowthPolicies.POWER_OF_TWO, 10);
+        obj.setGenericObjectStorage(obj.getGenericObjectAccessor()
+                .newGenericObject(8, 8));
+        for (int i = 0; i < 10; i++) {
+            obj.setLongValue(1, i);
+        }
+        assertEquals(StorageLayout.DOUBLE, obj.getStorageLayout());
+        assertEquals(
+                "cannot migrate to LONG: value types unknown, since the storage was replaced",
+                obj.getReport().getReason());
+    }
+}
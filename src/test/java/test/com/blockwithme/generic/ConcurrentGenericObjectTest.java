@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.ConcurrentGenericObject;
+import com.blockwithme.generic.GenericObjectSnapshot;
+import com.blockwithme.generic.IGenericObject;
+import com.blockwithme.generic.IGenericObjectReader;
+import com.blockwithme.generic.IGenericObjectUpdater;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of ConcurrentGenericObject.
+ *
+ * @author monster
+ */
+public class ConcurrentGenericObjectTest {
+
+    private static final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+
+    private static final int[] INDEXES = { 1, 2, 3 };
+
+    @Test
+    public void testBatch() {
+        final ConcurrentGenericObject<Object[]> object = new ConcurrentGenericObject<>(
+                accessor);
+        object.setLongValues(INDEXES, new long[] { 1, 2, 3 });
+        final long[] longs = new long[3];
+        object.getLongValues(INDEXES, longs);
+        assertArrayEquals(new long[] { 1, 2, 3 }, longs);
+        object.setDoubleValues(INDEXES, new double[] { 1.5, 2.5, 3.5 });
+        final double[] doubles = new double[3];
+        object.getDoubleValues(INDEXES, doubles);
+        assertArrayEquals(new double[] { 1.5, 2.5, 3.5 }, doubles, 0.0);
+        object.setIntValues(INDEXES, new int[] { 4, 5, 6 });
+        final int[] ints = new int[3];
+        object.getIntValues(INDEXES, ints);
+        assertArrayEquals(new int[] { 4, 5, 6 }, ints);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLength() {
+        new ConcurrentGenericObject<>(accessor).setLongValues(INDEXES,
+                new long[2]);
+    }
+
+    @Test
+    public void testPublishedStorage() {
+        final ConcurrentGenericObject<Object[]> object = new ConcurrentGenericObject<>(
+                accessor);
+        final Object[] storage = object.getGenericObjectStorage();
+        assertEquals(0, accessor.getLongValue(storage, 1));
+        object.setLongValues(INDEXES, new long[] { 1, 2, 3 });
+        // The published storage is never modified
+        assertEquals(0, accessor.getLongValue(storage, 1));
+        assertNotSame(storage, object.getGenericObjectStorage());
+        assertEquals(1, accessor.getLongValue(
+                object.getGenericObjectStorage(), 1));
+    }
+
+    @Test
+    public void testFailedUpdateIsDiscarded() {
+        final ConcurrentGenericObject<Object[]> object = new ConcurrentGenericObject<>(
+                accessor);
+        object.setLongValues(INDEXES, new long[] { 1, 2, 3 });
+        final Object[] storage = object.getGenericObjectStorage();
+        try {
+            object.update(new IGenericObjectUpdater<Object[]>() {
+                @Override
+                public void update(final IGenericObject<Object[]> obj) {
+                    obj.setLongValue(1, 10);
+                    throw new IllegalStateException("failed");
+                }
+            });
+            fail("update()");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        assertSame(storage, object.getGenericObjectStorage());
+        object.setLongValues(new int[] { 2 }, new long[] { 20 });
+        final long[] values = new long[3];
+        object.getLongValues(INDEXES, values);
+        assertArrayEquals(new long[] { 1, 20, 3 }, values);
+    }
+
+    @Test
+    public void testSnapshot() {
+        final ConcurrentGenericObject<Object[]> object = new ConcurrentGenericObject<>(
+                accessor);
+        object.setLongValues(INDEXES, new long[] { 1, 2, 3 });
+        final GenericObjectSnapshot<Object[]> snapshot = object.snapshot();
+        object.setLongValues(INDEXES, new long[] { 4, 5, 6 });
+        assertEquals(1, snapshot.getLongValue(1));
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        final ConcurrentGenericObject<Object[]> object = new ConcurrentGenericObject<>(
+                accessor);
+        final AtomicReference<String> failure = new AtomicReference<>();
+        // Invariant: value(1) + value(2) == 0
+        final IGenericObjectReader<Object[], Long> reader = new IGenericObjectReader<Object[], Long>() {
+            @Override
+            public Long read(final IGenericObject<Object[]> obj) {
+                return obj.getLongValue(1) + obj.getLongValue(2);
+            }
+        };
+        final Thread[] readers = new Thread[3];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread() {
+                @Override
+                public void run() {
+                    final long[] values = new long[2];
+                    for (int i = 0; i < 20000; i++) {
+                        object.getLongValues(new int[] { 1, 2 }, values);
+                        if (values[0] + values[1] != 0) {
+                            failure.set("getLongValues " + values[0] + " "
+                                    + values[1]);
+                        }
+                        if (object.read(reader).longValue() != 0) {
+                            failure.set("read");
+                        }
+                    }
+                }
+            };
+            readers[t].start();
+        }
+        for (int i = 0; i < 20000; i++) {
+            final long value = i;
+            object.update(new IGenericObjectUpdater<Object[]>() {
+                @Override
+                public void update(final IGenericObject<Object[]> obj) {
+                    obj.setLongValue(1, value);
+                    obj.setLongValue(2, -value);
+                }
+            });
+        }
+        for (final Thread thread : readers) {
+            thread.join();
+        }
+        assertEquals(null, failure.get());
+    }
+}
@@ -15,6 +15,10 @@
  */
 package test.com.blockwithme.generic;
 
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
 import com.blockwithme.generic.DoubleFixedBooleanGenericObjectAccessor;
 import com.blockwithme.generic.IGenericObjectAccessor;
 
@@ -37,4 +41,16 @@ public class DoubleFixedBooleanGenericObjectAccessorTest extends
     protected IGenericObjectAccessor<Object[]> getAccessor() {
         return accessor;
     }
+
+    @Test
+    public void testTrimKeepsNegativeZero() {
+        Object[] instance = accessor.newGenericObject(100, 100);
+        instance = accessor.setDoubleValue(instance, 20, -0.0);
+        instance = accessor.trimPrimitiveValues(instance);
+        assertEquals("GetPrimitiveValuesSlotsAvailable", 32,
+                accessor.getPrimitiveValuesSlotsAvailable(instance));
+        assertEquals("DoubleValue[20]", Double.doubleToRawLongBits(-0.0),
+                Double.doubleToRawLongBits(accessor.getDoubleValue(instance,
+                        20)));
+    }
 }
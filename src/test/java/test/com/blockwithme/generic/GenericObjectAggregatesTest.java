@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.DoubleFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.GenericObjectAggregates;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IndexingGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectAggregates.
+ *
+ * @author monster
+ */
+public class GenericObjectAggregatesTest {
+
+    private static final int COUNT = 11;
+
+    private static final long BIG = 1L << 40;
+
+    private static Object[][] newInstances(
+            final IGenericObjectAccessor<Object[]> accessor) {
+        final Object[][] result = new Object[COUNT][];
+        for (int i = 0; i < COUNT; i++) {
+            Object[] instance = accessor.newGenericObject(8, 8);
+            instance = accessor.setLongValue(instance, 1, BIG * (i - 5));
+            instance = accessor.setDoubleValue(instance, 3, i * 0.5);
+            instance = accessor.setIntValue(instance, 5, -i);
+            result[i] = instance;
+        }
+        return result;
+    }
+
+    private static void check(final IGenericObjectAccessor<Object[]> accessor) {
+        final Object[][] instances = newInstances(accessor);
+        final long[] longs = GenericObjectAggregates.longColumn(accessor,
+                instances, 1);
+        assertEquals(0L, GenericObjectAggregates.sum(longs));
+        assertEquals(-5 * BIG, GenericObjectAggregates.min(longs));
+        assertEquals(5 * BIG, GenericObjectAggregates.max(longs));
+        assertArrayEquals(new int[] { 5, 6 },
+                GenericObjectAggregates.histogram(longs, -5 * BIG, 5 * BIG, 2));
+
+        final double[] doubles = GenericObjectAggregates.doubleColumn(
+                accessor, instances, 3);
+        assertEquals(27.5, GenericObjectAggregates.sum(doubles), 0.0);
+        assertEquals(0.0, GenericObjectAggregates.min(doubles), 0.0);
+        assertEquals(5.0, GenericObjectAggregates.max(doubles), 0.0);
+        assertArrayEquals(new int[] { 2, 2, 2, 2, 3 },
+                GenericObjectAggregates.histogram(doubles, 0.0, 5.0, 5));
+
+        final int[] ints = GenericObjectAggregates.intColumn(accessor,
+                instances, 5);
+        assertEquals(-55L, GenericObjectAggregates.sum(ints));
+        assertEquals(-10, GenericObjectAggregates.min(ints));
+        assertEquals(0, GenericObjectAggregates.max(ints));
+        assertArrayEquals(new int[] { 5, 6 },
+                GenericObjectAggregates.histogram(ints, -10, 0, 2));
+    }
+
+    @Test
+    public void testInt() {
+        check(new IntGenericObjectAccessor());
+    }
+
+    @Test
+    public void testLong() {
+        check(new LongFixedBooleanGenericObjectAccessor());
+    }
+
+    @Test
+    public void testDouble() {
+        check(new DoubleFixedBooleanGenericObjectAccessor());
+    }
+
+    @Test
+    public void testOtherAccessor() {
+        // The indexing accessor hides the layout, so it is read indirectly
+        check(new IndexingGenericObjectAccessor<>(
+                new LongFixedBooleanGenericObjectAccessor()));
+    }
+
+    @Test
+    public void testIntHistogramFullRange() {
+        assertArrayEquals(new int[] { 2, 2 }, GenericObjectAggregates
+                .histogram(new int[] { Integer.MIN_VALUE, -1, 0,
+                        Integer.MAX_VALUE }, Integer.MIN_VALUE,
+                        Integer.MAX_VALUE, 2));
+    }
+
+    @Test
+    public void testLongHistogramCloseBounds() {
+        // min and max are distinct, but round to the same double
+        final long min = 1L << 62;
+        final long max = min + 1;
+        assertEquals((double) min, (double) max, 0.0);
+        assertArrayEquals(new int[] { 1, 1 }, GenericObjectAggregates
+                .histogram(new long[] { min, max }, min, max, 2));
+    }
+
+    @Test
+    public void testLongHistogramFullRange() {
+        assertArrayEquals(new int[] { 2, 2 }, GenericObjectAggregates
+                .histogram(new long[] { Long.MIN_VALUE, -BIG, 0,
+                        Long.MAX_VALUE }, Long.MIN_VALUE, Long.MAX_VALUE, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIntHistogramEmptyRange() {
+        GenericObjectAggregates.histogram(new int[0], 1, 1, 2);
+    }
+
+    @Test
+    public void testSumOverflowsToLong() {
+        assertEquals(3L * Integer.MAX_VALUE, GenericObjectAggregates
+                .sum(new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE,
+                        Integer.MAX_VALUE }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinEmpty() {
+        GenericObjectAggregates.min(new double[0]);
+    }
+}
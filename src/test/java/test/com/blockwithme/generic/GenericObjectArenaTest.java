@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.DoubleFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.GenericObjectArena;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests GenericObjectArena.
+ *
+ * @author monster
+ */
+public class GenericObjectArenaTest {
+
+    @Test
+    public void testAllocateAndReset() {
+        final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+        final GenericObjectArena arena = new GenericObjectArena(accessor);
+        final Object[][] first = new Object[20][];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = arena.allocate(8, 4);
+            first[i] = accessor.setLongValue(first[i], 1, i);
+            first[i] = accessor.setBooleanValue(first[i], 3, true);
+            first[i] = accessor.setObjectValue(first[i], 1, "v" + i);
+        }
+        arena.allocate(2, 2);
+        assertEquals(21, arena.getAllocated());
+        assertEquals(21, arena.getCapacity());
+        arena.reset();
+        assertEquals(0, arena.getAllocated());
+
+        // The same instances are handed out again, zeroed
+        for (int i = 0; i < first.length; i++) {
+            final Object[] instance = arena.allocate(8, 4);
+            assertSame(first[i], instance);
+            assertEquals(0L, accessor.getLongValue(instance, 1));
+            assertEquals(false, accessor.getBooleanValue(instance, 3));
+            assertNull(accessor.getObjectValue(instance, 1));
+            assertTrue(accessor.getPrimitiveValuesSlotsAvailable(instance) >= 8);
+        }
+        assertEquals(21, arena.getCapacity());
+        arena.release();
+        assertEquals(0, arena.getCapacity());
+    }
+
+    @Test
+    public void testPreallocateAndClose() {
+        final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor();
+        final GenericObjectArena arena = new GenericObjectArena(accessor)
+                .preallocate(4, 4, 100);
+        assertEquals(100, arena.getCapacity());
+        for (int tick = 0; tick < 3; tick++) {
+            try (GenericObjectArena scope = arena) {
+                for (int i = 0; i < 100; i++) {
+                    final Object[] instance = scope.allocate(4, 4);
+                    assertEquals(0, accessor.getIntValue(instance, 0));
+                    accessor.setIntValue(instance, 0, i + 1);
+                }
+            }
+        }
+        assertEquals(100, arena.getCapacity());
+        assertEquals(0, arena.getAllocated());
+    }
+
+    @Test
+    public void testManyShapes() {
+        final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor();
+        final GenericObjectArena arena = new GenericObjectArena(accessor);
+        // More shapes than the initial capacity of the pool table
+        final Object[][] first = new Object[100][];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = arena.allocate(i % 10, i / 10);
+        }
+        assertEquals(100, arena.getAllocated());
+        assertEquals(100, arena.getCapacity());
+        arena.reset();
+        for (int i = 0; i < first.length; i++) {
+            assertSame(first[i], arena.allocate(i % 10, i / 10));
+        }
+        assertEquals(100, arena.getCapacity());
+        arena.release();
+        assertEquals(0, arena.getCapacity());
+        arena.allocate(1, 1);
+        assertEquals(1, arena.getAllocated());
+    }
+
+    @Test
+    public void testDoubleLayout() {
+        final DoubleFixedBooleanGenericObjectAccessor accessor = new DoubleFixedBooleanGenericObjectAccessor();
+        final GenericObjectArena arena = new GenericObjectArena(accessor);
+        final Object[] instance = arena.allocate(4, 1);
+        accessor.setDoubleValue(instance, 2, 1.5);
+        arena.reset();
+        assertEquals(0.0, accessor.getDoubleValue(arena.allocate(4, 1), 2),
+                0.0);
+        try {
+            arena.allocate(-1, 1);
+            fail("allocate(-1, 1)");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
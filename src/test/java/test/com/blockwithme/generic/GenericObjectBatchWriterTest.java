@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.GenericObjectBatchWriter;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectBatchWriter.
+ *
+ * @author monster
+ */
+public class GenericObjectBatchWriterTest {
+
+    /** Records one write of each type. */
+    private static void record(final GenericObjectBatchWriter<Object[]> batch) {
+        batch.setBooleanValue(1, true).setByteValue(2, (byte) -2)
+                .setCharValue(3, 'c').setShortValue(4, (short) -4)
+                .setIntValue(5, 5).setFloatValue(6, 6.5f)
+                .setLongValue(7, -7L << 40).setDoubleValue(20, 20.25)
+                .setObjectValue(1, "one").setObjectValue(30, "thirty");
+    }
+
+    /** Checks the values written by record(). */
+    private static void check(final IGenericObjectAccessor<Object[]> a,
+            final Object[] instance) {
+        assertTrue(a.getBooleanValue(instance, 1));
+        assertEquals(-2, a.getByteValue(instance, 2));
+        assertEquals('c', a.getCharValue(instance, 3));
+        assertEquals(-4, a.getShortValue(instance, 4));
+        assertEquals(5, a.getIntValue(instance, 5));
+        assertEquals(6.5f, a.getFloatValue(instance, 6), 0.0f);
+        assertEquals(-7L << 40, a.getLongValue(instance, 7));
+        assertEquals(20.25, a.getDoubleValue(instance, 20), 0.0);
+        assertEquals("one", a.getObjectValue(instance, 1));
+        assertEquals("thirty", a.getObjectValue(instance, 30));
+    }
+
+    @Test
+    public void testCreate() {
+        final IntGenericObjectAccessor a = new IntGenericObjectAccessor();
+        final GenericObjectBatchWriter<Object[]> batch = new GenericObjectBatchWriter<>(
+                a);
+        record(batch);
+        assertEquals(10, batch.size());
+        final Object[] instance = batch.create();
+        check(a, instance);
+        // The double at 20 uses slots 20 and 21 in the INT layout
+        assertTrue(a.getPrimitiveValuesSlotsAvailable(instance) >= 22);
+        // Reuse
+        batch.clear();
+        assertEquals(0, batch.size());
+        final Object[] empty = batch.create();
+        assertEquals(null, a.getObjectValue(empty, 1));
+    }
+
+    @Test
+    public void testApplyTo() {
+        final LongFixedBooleanGenericObjectAccessor a = new LongFixedBooleanGenericObjectAccessor();
+        final GenericObjectBatchWriter<Object[]> batch = new GenericObjectBatchWriter<>(
+                a);
+        record(batch);
+        final Object[] instance = batch.applyTo(a.newEmptyGenericObject());
+        check(a, instance);
+        assertEquals(32, a.getPrimitiveValuesSlotsAvailable(instance));
+        assertEquals(32, a.getObjectValuesSlotsAvailable(instance));
+
+        final GenericObject<Object[]> object = new GenericObject<>(a);
+        object.snapshot();
+        object.write(batch);
+        check(a, object.getGenericObjectStorage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentAccessor() {
+        new GenericObject<>(new IntGenericObjectAccessor())
+                .write(new GenericObjectBatchWriter<Object[]>(
+                        new IntGenericObjectAccessor()));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObjectCache;
+import com.blockwithme.generic.GenericObjectMetrics;
+import com.blockwithme.generic.GrowthPolicies;
+import com.blockwithme.generic.IGenericObjectCacheListener;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests GenericObjectCache.
+ *
+ * @author monster
+ */
+public class GenericObjectCacheTest {
+
+    private final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor(
+            GrowthPolicies.EXACT);
+
+    /** An instance with 8 primitive and 8 Object slots. */
+    private Object[] small() {
+        return accessor.newGenericObject(8, 8);
+    }
+
+    @Test
+    public void testEstimateBytes() {
+        assertEquals(16 + 8 * 8 + 16 + 8 * 4,
+                GenericObjectMetrics.estimateBytes(accessor, small()));
+    }
+
+    @Test
+    public void testByteBudget() {
+        final long size = GenericObjectMetrics.estimateBytes(accessor,
+                small());
+        final GenericObjectCache<Integer, Object[]> cache = new GenericObjectCache<>(
+                accessor, 10 * size, 1);
+        for (int i = 0; i < 10; i++) {
+            assertNull(cache.put(i, small()));
+        }
+        assertEquals(10, cache.size());
+        assertEquals(10 * size, cache.getBytes());
+        assertEquals(0, cache.getEvictions());
+
+        // One big instance evicts many small ones
+        final Object[] big = accessor.newGenericObject(64, 8);
+        cache.put(100, big);
+        assertSame(big, cache.get(100));
+        assertTrue(cache.getBytes() <= cache.getMaxBytes());
+        assertTrue(cache.size() < 10);
+        assertEquals(11 - cache.size(), cache.getEvictions());
+
+        // Instances bigger than the budget are not cached
+        assertSame(big, cache.put(100, accessor.newGenericObject(1000, 8)));
+        assertNull(cache.get(100));
+    }
+
+    @Test
+    public void testSecondChance() {
+        final long size = GenericObjectMetrics.estimateBytes(accessor,
+                small());
+        final GenericObjectCache<Integer, Object[]> cache = new GenericObjectCache<>(
+                accessor, 4 * size, 1);
+        final Object[] hot = small();
+        cache.put(0, hot);
+        for (int i = 1; i < 100; i++) {
+            assertSame(hot, cache.get(0));
+            cache.put(i, small());
+        }
+        assertSame(hot, cache.get(0));
+        assertEquals(4, cache.size());
+        assertEquals(96, cache.getEvictions());
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        final GenericObjectCache<String, Object[]> cache = new GenericObjectCache<>(
+                accessor, 1 << 20);
+        final Object[] a = small();
+        final Object[] b = accessor.newGenericObject(16, 16);
+        cache.put("x", a);
+        assertSame(a, cache.put("x", b));
+        assertEquals(GenericObjectMetrics.estimateBytes(accessor, b),
+                cache.getBytes());
+        assertSame(b, cache.remove("x"));
+        assertNull(cache.remove("x"));
+        assertEquals(0, cache.getBytes());
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("k" + i, small());
+        }
+        assertEquals(100, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    /** The listener runs outside the segment lock, and can use the cache. */
+    @Test
+    public void testListenerOutsideLock() {
+        final long size = GenericObjectMetrics.estimateBytes(accessor,
+                small());
+        final GenericObjectCache<Integer, Object[]> cache = new GenericObjectCache<>(
+                accessor, 2 * size, 1);
+        final List<Integer> evicted = new ArrayList<>();
+        cache.setEvictionListener(new IGenericObjectCacheListener<Integer, Object[]>() {
+            @Override
+            public void evicted(final Integer key, final Object[] instance) {
+                evicted.add(key);
+                // Another thread can lock the (only) segment
+                final Thread other = new Thread() {
+                    @Override
+                    public void run() {
+                        cache.remove(-1);
+                    }
+                };
+                other.start();
+                try {
+                    other.join(10000);
+                } catch (final InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                assertFalse(other.isAlive());
+                // Calling back into the cache
+                if (key < 100) {
+                    cache.put(key + 100, instance);
+                }
+            }
+        });
+        for (int i = 0; i < 4; i++) {
+            cache.put(i, small());
+        }
+        assertEquals(2, cache.size());
+        assertTrue(evicted.size() >= 2);
+        assertEquals(Integer.valueOf(0), evicted.get(0));
+        assertTrue(cache.getBytes() <= 2 * size);
+    }
+}
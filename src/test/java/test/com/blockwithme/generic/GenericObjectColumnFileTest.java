@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.BasicObjectCodec;
+import com.blockwithme.generic.ColumnEncoding;
+import com.blockwithme.generic.GenericObjectColumn;
+import com.blockwithme.generic.GenericObjectColumnReader;
+import com.blockwithme.generic.GenericObjectColumnWriter;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.ValueType;
+
+/**
+ * Tests GenericObjectColumnWriter and GenericObjectColumnReader.
+ *
+ * @author monster
+ */
+public class GenericObjectColumnFileTest {
+
+    private static final int ROWS = 1000;
+
+    private final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+
+    private final GenericObjectColumn[] columns = {
+            new GenericObjectColumn(1, ValueType.INT),
+            new GenericObjectColumn(2, ValueType.LONG),
+            new GenericObjectColumn(3, ValueType.SHORT),
+            new GenericObjectColumn(4, ValueType.DOUBLE),
+            new GenericObjectColumn(5, ValueType.CHAR),
+            new GenericObjectColumn(6, ValueType.FLOAT),
+            new GenericObjectColumn(7, ValueType.BYTE),
+            new GenericObjectColumn(0, ValueType.BOOLEAN),
+            new GenericObjectColumn(1, ValueType.OBJECT) };
+
+    private Object[][] newRows() {
+        final Random random = new Random(42);
+        final Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            Object[] row = accessor.newGenericObject(8, 2);
+            // Random
+            row = accessor.setIntValue(row, 1, random.nextInt());
+            // Increasing
+            row = accessor.setLongValue(row, 2, 1000000000000L + i * 3);
+            // Constant
+            row = accessor.setShortValue(row, 3, (short) -5);
+            // Few distinct values
+            row = accessor.setDoubleValue(row, 4, random.nextInt(10) * 0.5);
+            row = accessor.setCharValue(row, 5, (char) (60000 + i));
+            row = accessor.setFloatValue(row, 6, i / 4.0f);
+            row = accessor.setByteValue(row, 7, (byte) i);
+            row = accessor.setBooleanValue(row, 0, (i % 3) == 0);
+            row = accessor.setObjectValue(row, 1, (i % 2) == 0 ? "row" + i
+                    : null);
+            rows[i] = row;
+        }
+        return rows;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final Path file = Files.createTempFile("columns", ".gocf");
+        try {
+            final Object[][] rows = newRows();
+            final List<GenericObjectColumn> written = GenericObjectColumnWriter
+                    .write(file, accessor, rows, columns);
+            assertEquals(ColumnEncoding.PLAIN, written.get(0).getEncoding());
+            assertEquals(ColumnEncoding.DELTA, written.get(1).getEncoding());
+            assertEquals(ColumnEncoding.RUN_LENGTH, written.get(2)
+                    .getEncoding());
+            assertEquals(ColumnEncoding.DICTIONARY, written.get(3)
+                    .getEncoding());
+            assertEquals(ColumnEncoding.BIT_PACKED, written.get(7)
+                    .getEncoding());
+            assertEquals(ColumnEncoding.CODEC, written.get(8).getEncoding());
+
+            try (GenericObjectColumnReader reader = new GenericObjectColumnReader(
+                    file)) {
+                assertEquals(ROWS, reader.getRowCount());
+                assertEquals(written, reader.getColumns());
+                assertSame(ColumnEncoding.DELTA,
+                        reader.getColumn(2, ValueType.LONG).getEncoding());
+                assertNull(reader.getColumn(2, ValueType.INT));
+                final Object[][] read = reader.read(accessor,
+                        new Object[ROWS][]);
+                for (int i = 0; i < ROWS; i++) {
+                    assertEquals(accessor.contentHashCode(rows[i]),
+                            accessor.contentHashCode(read[i]));
+                    assertTrue(accessor.contentEquals(rows[i], read[i]));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testProjection() throws IOException {
+        final Path file = Files.createTempFile("columns", ".gocf");
+        try {
+            final Object[][] rows = newRows();
+            GenericObjectColumnWriter.write(file, accessor, rows, columns);
+            final IntGenericObjectAccessor intAccessor = new IntGenericObjectAccessor();
+            try (GenericObjectColumnReader reader = new GenericObjectColumnReader(
+                    file)) {
+                final Object[][] read = reader.read(intAccessor,
+                        new Object[ROWS][],
+                        BasicObjectCodec.INSTANCE,
+                        new GenericObjectColumn(2, ValueType.LONG),
+                        new GenericObjectColumn(1, ValueType.OBJECT));
+                for (int i = 0; i < ROWS; i++) {
+                    assertEquals(accessor.getLongValue(rows[i], 2),
+                            intAccessor.getLongValue(read[i], 2));
+                    assertEquals(accessor.getObjectValue(rows[i], 1),
+                            intAccessor.getObjectValue(read[i], 1));
+                    assertEquals(0, intAccessor.getIntValue(read[i], 1));
+                }
+                try {
+                    reader.read(intAccessor, new Object[ROWS][],
+                            BasicObjectCodec.INSTANCE,
+                            new GenericObjectColumn(9, ValueType.INT));
+                    fail("Unknown column");
+                } catch (final IllegalArgumentException e) {
+                    // Expected
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testColumnsLargerThanBuffer() throws IOException {
+        // Each column is larger than the 1 MiB I/O buffer
+        final int rows = 300000;
+        final Random random = new Random(42);
+        final Object[][] instances = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            Object[] row = accessor.newGenericObject(3, 2);
+            row = accessor.setLongValue(row, 1, random.nextLong());
+            row = accessor.setIntValue(row, 2, random.nextInt());
+            row = accessor.setObjectValue(row, 1, "value" + i);
+            instances[i] = row;
+        }
+        final Path file = Files.createTempFile("columns", ".gocf");
+        try {
+            GenericObjectColumnWriter.write(file, accessor, instances,
+                    new GenericObjectColumn(1, ValueType.LONG),
+                    new GenericObjectColumn(2, ValueType.INT),
+                    new GenericObjectColumn(1, ValueType.OBJECT));
+            try (GenericObjectColumnReader reader = new GenericObjectColumnReader(
+                    file)) {
+                final Object[][] read = reader.read(accessor,
+                        new Object[rows][]);
+                for (int i = 0; i < rows; i++) {
+                    assertTrue(accessor.contentEquals(instances[i], read[i]));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testInvalidColumnLength() throws IOException {
+        final Path file = Files.createTempFile("columns", ".gocf");
+        try {
+            GenericObjectColumnWriter.write(file, accessor, newRows(),
+                    columns);
+            // The length of the first column, as if it was 2 GiB
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.WRITE)) {
+                final ByteBuffer length = ByteBuffer.allocate(8);
+                length.putLong(1L << 31).flip();
+                channel.write(length, 16 + 4 + 1 + 1 + 8);
+            }
+            try {
+                new GenericObjectColumnReader(file).close();
+                fail("Invalid column length");
+            } catch (final IOException e) {
+                // Expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testDuplicateColumn() throws IOException {
+        final Path file = Files.createTempFile("columns", ".gocf");
+        try {
+            GenericObjectColumnWriter.write(file, accessor, newRows(),
+                    new GenericObjectColumn(1, ValueType.INT),
+                    new GenericObjectColumn(1, ValueType.INT));
+            fail("Duplicate column");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.GenericObjectCopier;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of GenericObject.copy() and GenericObjectCopier.
+ *
+ * @author monster
+ */
+public class GenericObjectCopierTest {
+
+    private static final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+
+    @Test
+    public void testShallowCopy() {
+        final GenericObject<Object[]> child = new GenericObject<>(accessor);
+        final GenericObject<Object[]> parent = new GenericObject<>(accessor,
+                100, 100);
+        parent.setLongValue(3, 33L).setObjectValue(2, child);
+        final GenericObject<Object[]> copy = parent.copy();
+        assertEquals(33L, copy.getLongValue(3));
+        assertSame(child, copy.getObjectValue(2));
+        assertTrue(copy.getObjectValuesSlotsAvailable() < 100);
+        copy.setLongValue(3, 0L);
+        assertEquals(33L, parent.getLongValue(3));
+    }
+
+    @Test
+    public void testDeepCopy() {
+        final GenericObject<Object[]> child = new GenericObject<>(accessor);
+        child.setIntValue(1, 11);
+        final GenericObject<Object[]> parent = new GenericObject<>(accessor);
+        // Shared child, and a cycle
+        parent.setObjectValue(1, child).setObjectValue(2, child)
+                .setObjectValue(3, parent).setObjectValue(4, "shared");
+        final GenericObject<Object[]> copy = parent
+                .copy(new GenericObjectCopier());
+        final Object childCopy = copy.getObjectValue(1);
+        assertTrue(childCopy != child);
+        assertSame(childCopy, copy.getObjectValue(2));
+        assertSame(copy, copy.getObjectValue(3));
+        assertSame("shared", copy.getObjectValue(4));
+        assertEquals(11, ((GenericObject<?>) childCopy).getIntValue(1));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObjectCursor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests GenericObjectCursor.
+ *
+ * @author monster
+ */
+public class GenericObjectCursorTest {
+
+    private final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+
+    private Object[][] newTable(final int rows) {
+        final Object[][] result = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            result[i] = accessor.setIntValue(accessor.newGenericObject(4, 2),
+                    1, i);
+        }
+        return result;
+    }
+
+    @Test
+    public void testNext() {
+        final Object[][] table = newTable(100);
+        final GenericObjectCursor<Object[]> cursor = new GenericObjectCursor<>(
+                accessor, table);
+        assertEquals(100, cursor.getRowCount());
+        long sum = 0;
+        while (cursor.next()) {
+            sum += cursor.getIntValue(1);
+            cursor.setLongValue(2, cursor.getRow() * 10L).setBooleanValue(
+                    0, true);
+        }
+        assertEquals(99 * 100 / 2, sum);
+        assertFalse(cursor.next());
+        for (int i = 0; i < table.length; i++) {
+            assertEquals(i * 10L, accessor.getLongValue(table[i], 2));
+            assertTrue(accessor.getBooleanValue(table[i], 0));
+        }
+        cursor.reset();
+        assertTrue(cursor.next());
+        assertEquals(0, cursor.getRow());
+    }
+
+    @Test
+    public void testRangeAndMoveTo() {
+        final Object[][] table = newTable(10);
+        final GenericObjectCursor<Object[]> cursor = new GenericObjectCursor<>(
+                accessor, table, 3, 6);
+        int rows = 0;
+        while (cursor.next()) {
+            assertEquals(cursor.getRow(), cursor.getIntValue(1));
+            rows++;
+        }
+        assertEquals(3, rows);
+        assertSame(table[4], cursor.moveTo(4).getGenericObjectStorage());
+        try {
+            cursor.moveTo(6);
+            fail("moveTo(6)");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            new GenericObjectCursor<>(accessor, table, 5, 11);
+            fail("[5, 11[");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testWriteBack() {
+        final Object[][] table = newTable(3);
+        final GenericObjectCursor<Object[]> cursor = new GenericObjectCursor<>(
+                accessor, table);
+        cursor.moveTo(1).resizeObjectValues(100).setObjectValue(99, "x");
+        assertSame(table[1], cursor.getGenericObjectStorage());
+        assertEquals("x", accessor.getObjectValue(table[1], 99));
+        final Object[] other = accessor.newGenericObject(1, 1);
+        cursor.moveTo(2).setGenericObjectStorage(other);
+        assertSame(other, table[2]);
+    }
+
+    @Test
+    public void testWriteOffRow() {
+        final Object[][] table = newTable(3);
+        final GenericObjectCursor<Object[]> cursor = new GenericObjectCursor<>(
+                accessor, table, 1, 2);
+        final Object[] other = accessor.newGenericObject(1, 1);
+        try {
+            cursor.setGenericObjectStorage(other);
+            fail("before first row");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+        try {
+            cursor.setGenericObjectStorage(other);
+            fail("after last row");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        assertTrue(table[2] != other);
+    }
+
+    @Test
+    public void testReadOffRow() {
+        final Object[][] table = newTable(3);
+        final GenericObjectCursor<Object[]> cursor = new GenericObjectCursor<>(
+                accessor, table);
+        try {
+            cursor.getIntValue(1);
+            fail("before first row");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        while (cursor.next()) {
+            cursor.getIntValue(1);
+        }
+        try {
+            cursor.getObjectValuesSlotsAvailable();
+            fail("after last row");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        assertNull(cursor.getGenericObjectStorage());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObjectEvents;
+import com.blockwithme.generic.IGenericObjectEventListener;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectEvents.
+ *
+ * @author monster
+ */
+public class GenericObjectEventsTest {
+
+    /** Records the events as Strings. */
+    private static final class Recorder implements
+            IGenericObjectEventListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void newGenericObject(final Class<?> implementation,
+                final int primitiveSize, final int objectSize) {
+            events.add("new(" + implementation.getSimpleName() + ","
+                    + primitiveSize + "," + objectSize + ")");
+        }
+
+        @Override
+        public void primitiveValuesResized(final Class<?> implementation,
+                final int oldSize, final int newSize) {
+            events.add("primitive(" + implementation.getSimpleName() + ","
+                    + oldSize + "," + newSize + ")");
+        }
+
+        @Override
+        public void objectValuesResized(final Class<?> implementation,
+                final int oldSize, final int newSize) {
+            events.add("object(" + implementation.getSimpleName() + ","
+                    + oldSize + "," + newSize + ")");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        GenericObjectEvents.setListener(null);
+    }
+
+    @Test
+    public void testEvents() {
+        final Recorder recorder = new Recorder();
+        GenericObjectEvents.setListener(recorder);
+        final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor();
+        Object[] instance = accessor.newGenericObject(8, 8);
+        instance = accessor.resizePrimitiveValues(instance, 8);
+        instance = accessor.resizePrimitiveValues(instance, 20);
+        instance = accessor.resizeObjectValues(instance, 20);
+        final List<String> expected = new ArrayList<>();
+        expected.add("new(IntGenericObjectAccessor,8,9)");
+        expected.add("primitive(IntGenericObjectAccessor,8,32)");
+        expected.add("object(IntGenericObjectAccessor,9,33)");
+        assertEquals(expected, recorder.events);
+
+        GenericObjectEvents.setListener(null);
+        accessor.resizePrimitiveValues(instance, 100);
+        assertEquals(3, recorder.events.size());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.GenericObjectInterner;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectInterner, and GenericObject copy-on-write.
+ *
+ * @author monster
+ */
+public class GenericObjectInternerTest {
+
+    private final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+
+    /** Creates a "template" record. */
+    private GenericObject<Object[]> newTemplate(final int id, final int size) {
+        final GenericObject<Object[]> result = new GenericObject<>(accessor,
+                size, size);
+        result.setIntValue(1, id).setBooleanValue(3, true)
+                .setObjectValue(2, "template" + id);
+        return result;
+    }
+
+    @Test
+    public void testIntern() {
+        final GenericObjectInterner<Object[]> interner = new GenericObjectInterner<>(
+                accessor);
+        final Object[][] canonical = new Object[50][];
+        for (int i = 0; i < canonical.length; i++) {
+            final Object[] instance = newTemplate(i, 8)
+                    .getGenericObjectStorage();
+            canonical[i] = interner.intern(instance);
+            assertTrue("copy", canonical[i] != instance);
+            assertTrue("equal", accessor.contentEquals(instance, canonical[i]));
+        }
+        assertEquals(50, interner.size());
+        for (int i = 0; i < canonical.length; i++) {
+            assertSame(canonical[i], interner.intern(newTemplate(i, 100)
+                    .getGenericObjectStorage()));
+        }
+        assertEquals(50, interner.size());
+        interner.clear();
+        assertEquals(0, interner.size());
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        final GenericObjectInterner<Object[]> interner = new GenericObjectInterner<>(
+                accessor);
+        final GenericObject<Object[]> first = newTemplate(1, 8).intern(
+                interner);
+        final GenericObject<Object[]> second = newTemplate(1, 8).intern(
+                interner);
+        assertTrue(first.isShared());
+        assertSame(first.getGenericObjectStorage(),
+                second.getGenericObjectStorage());
+
+        first.setIntValue(1, 42);
+        assertFalse(first.isShared());
+        assertTrue(second.isShared());
+        assertEquals(42, first.getIntValue(1));
+        assertEquals(1, second.getIntValue(1));
+        assertEquals("template1", first.getObjectValue(2));
+
+        second.resizePrimitiveValues(100);
+        assertFalse(second.isShared());
+        assertEquals(1, newTemplate(1, 8).intern(interner).getIntValue(1));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void testCopyOnWriteKeepsSlots() {
+        final GenericObjectInterner<Object[]> interner = new GenericObjectInterner<>(
+                accessor);
+        final GenericObject<Object[]> object = newTemplate(1, 100).intern(
+                interner);
+        object.setIntValue(50, 7);
+        assertEquals(7, object.getIntValue(50));
+        assertEquals(1, object.getIntValue(1));
+        assertTrue(object.getPrimitiveValuesSlotsAvailable() >= 100);
+        assertTrue(object.getObjectValuesSlotsAvailable() >= 100);
+    }
+
+    @Test
+    public void testInternKeepsTwoSlotValue() {
+        final IntGenericObjectAccessor intAccessor = new IntGenericObjectAccessor();
+        final GenericObject<Object[]> object = new GenericObject<>(
+                intAccessor, 17, 1);
+        object.setLongValue(15, 1L).intern(
+                new GenericObjectInterner<>(intAccessor));
+        assertEquals(1L, object.getLongValue(15));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentAccessor() {
+        newTemplate(1, 8).intern(
+                new GenericObjectInterner<Object[]>(
+                        new IntGenericObjectAccessor()));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.DoubleFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.GenericObjectIterators;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IDoubleIterator;
+import com.blockwithme.generic.IIntIterator;
+import com.blockwithme.generic.ILongIterator;
+import com.blockwithme.generic.IndexingGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectIterators.
+ *
+ * @author monster
+ */
+public class GenericObjectIteratorsTest {
+
+    @Test
+    public void testIntSlots() {
+        final GenericObject<Object[]> object = new GenericObject<>(
+                new IntGenericObjectAccessor(), 10, 1);
+        for (int i = 0; i < 10; i++) {
+            object.setIntValue(i, i * 10);
+        }
+        final IIntIterator second = GenericObjectIterators.intSlots(object,
+                2, 9);
+        assertEquals(7, second.estimateSize());
+        final IIntIterator first = second.trySplit();
+        assertEquals(3, first.estimateSize());
+        assertEquals(4, second.estimateSize());
+        long sum = 0;
+        while (first.hasNext()) {
+            sum += first.nextInt();
+        }
+        assertEquals(20 + 30 + 40, sum);
+        assertEquals(50, second.nextInt());
+        assertEquals(3, second.estimateSize());
+    }
+
+    @Test
+    public void testLongSlotsUseTwoSlots() {
+        final GenericObject<Object[]> object = new GenericObject<>(
+                new IntGenericObjectAccessor(), 8, 1);
+        object.setLongValue(0, -1L).setLongValue(2, 1L << 40)
+                .setLongValue(4, 3L);
+        final ILongIterator iter = GenericObjectIterators.longSlots(object,
+                0, 6);
+        assertEquals(3, iter.estimateSize());
+        assertEquals(-1L, iter.nextLong());
+        assertEquals(1L << 40, iter.nextLong());
+        assertEquals(3L, iter.nextLong());
+        assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testDoubleColumn() {
+        final DoubleFixedBooleanGenericObjectAccessor accessor = new DoubleFixedBooleanGenericObjectAccessor();
+        final Object[][] instances = new Object[5][];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = accessor.setDoubleValue(
+                    accessor.newGenericObject(4, 1), 1, i + 0.5);
+        }
+        final IDoubleIterator second = GenericObjectIterators.doubleColumn(
+                accessor, instances, 1);
+        final IDoubleIterator first = second.trySplit();
+        final IDoubleIterator firstFirst = first.trySplit();
+        assertNull(firstFirst.trySplit());
+        assertEquals(0.5, firstFirst.nextDouble(), 0.0);
+        assertEquals(1.5, first.nextDouble(), 0.0);
+        assertEquals(2.5, second.nextDouble(), 0.0);
+        assertEquals(2, second.estimateSize());
+    }
+
+    /** Checks that the direct reads match the reads through the accessor. */
+    private static void checkLayout(
+            final IGenericObjectAccessor<Object[]> direct) {
+        // The indexing accessor hides the layout, so it is read indirectly
+        final IGenericObjectAccessor<Object[]> indirect = new IndexingGenericObjectAccessor<>(
+                direct);
+        final Object[][] instances = new Object[3][];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = direct.setIntValue(direct.setLongValue(
+                    direct.setDoubleValue(direct.newGenericObject(8, 1), 4,
+                            i - 0.25), 2, -1L << (20 * i)), 1, i - 1);
+        }
+        for (final IGenericObjectAccessor<Object[]> accessor : Arrays.asList(
+                direct, indirect)) {
+            final IIntIterator ints = GenericObjectIterators.intColumn(
+                    accessor, instances, 1);
+            final ILongIterator longs = GenericObjectIterators.longColumn(
+                    accessor, instances, 2);
+            final IDoubleIterator doubles = GenericObjectIterators
+                    .doubleColumn(accessor, instances, 4);
+            for (int i = 0; i < instances.length; i++) {
+                assertEquals(i - 1, ints.nextInt());
+                assertEquals(-1L << (20 * i), longs.nextLong());
+                assertEquals(i - 0.25, doubles.nextDouble(), 0.0);
+            }
+            final GenericObject<Object[]> object = new GenericObject<>(
+                    accessor, instances[2]);
+            assertEquals(1, GenericObjectIterators.intSlots(object, 1, 2)
+                    .nextInt());
+            assertEquals(-1L << 40, GenericObjectIterators.longSlots(object,
+                    2, 3).nextLong());
+            assertEquals(1.75, GenericObjectIterators.doubleSlots(object, 4,
+                    5).nextDouble(), 0.0);
+        }
+    }
+
+    @Test
+    public void testLayouts() {
+        checkLayout(new IntGenericObjectAccessor());
+        checkLayout(new LongFixedBooleanGenericObjectAccessor());
+        checkLayout(new DoubleFixedBooleanGenericObjectAccessor());
+    }
+}
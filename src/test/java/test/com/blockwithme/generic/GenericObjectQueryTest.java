@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObjectQuery;
+import com.blockwithme.generic.IDoublePredicate;
+import com.blockwithme.generic.IIntPredicate;
+import com.blockwithme.generic.ILongPredicate;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectQuery.
+ *
+ * @author monster
+ */
+public class GenericObjectQueryTest {
+
+    private static final int COUNT = 1000;
+
+    private static final IntGenericObjectAccessor ACCESSOR = new IntGenericObjectAccessor();
+
+    private static final IIntPredicate EVEN = new IIntPredicate() {
+        @Override
+        public boolean test(final int value) {
+            return (value & 1) == 0;
+        }
+    };
+
+    private static Object[][] newInstances() {
+        final Object[][] result = new Object[COUNT][];
+        for (int i = 0; i < COUNT; i++) {
+            Object[] instance = ACCESSOR.newGenericObject(8, 8);
+            instance = ACCESSOR.setIntValue(instance, 0, i);
+            instance = ACCESSOR.setLongValue(instance, 2, i * (1L << 33));
+            instance = ACCESSOR.setDoubleValue(instance, 4, i * 0.25);
+            result[i] = instance;
+        }
+        return result;
+    }
+
+    private static void check(final GenericObjectQuery<Object[]> all,
+            final Object[][] instances) {
+        final GenericObjectQuery<Object[]> even = all.whereInt(0, EVEN);
+        assertEquals(COUNT, all.count());
+        assertEquals(COUNT / 2, even.count());
+        assertEquals(249500L, even.sumInt(0));
+        assertEquals(249500L * (1L << 33), even.sumLong(2));
+        assertEquals(249500 * 0.25, even.sumDouble(4), 0.0);
+        final List<Object[]> selected = even.select();
+        assertEquals(COUNT / 2, selected.size());
+        assertSame(instances[2], selected.get(1));
+        final int[] ints = even.projectInt(0);
+        assertEquals(COUNT / 2, ints.length);
+        assertEquals(998, ints[ints.length - 1]);
+
+        final GenericObjectQuery<Object[]> range = even.whereLong(2,
+                new ILongPredicate() {
+                    @Override
+                    public boolean test(final long value) {
+                        return value >= 10 * (1L << 33);
+                    }
+                }).whereDouble(4, new IDoublePredicate() {
+            @Override
+            public boolean test(final double value) {
+                return value < 4.0;
+            }
+        });
+        assertArrayEquals(new long[] { 10 * (1L << 33), 12 * (1L << 33),
+                14 * (1L << 33) }, range.projectLong(2));
+        assertArrayEquals(new double[] { 2.5, 3.0, 3.5 },
+                range.projectDouble(4), 0.0);
+    }
+
+    @Test
+    public void testSequential() {
+        final Object[][] instances = newInstances();
+        check(GenericObjectQuery.from(ACCESSOR, instances), instances);
+    }
+
+    @Test
+    public void testParallel() {
+        final Object[][] instances = newInstances();
+        check(GenericObjectQuery.from(ACCESSOR, Arrays.asList(instances))
+                .parallel().threshold(7), instances);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObjectSort;
+import com.blockwithme.generic.GenericObjectSort.SortKey;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectSort.
+ *
+ * @author monster
+ */
+public class GenericObjectSortTest {
+
+    @Test
+    public void testOrder() {
+        final Random random = new Random(42);
+        final long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (i % 3 == 0) ? random.nextLong() : random.nextInt(10) - 5;
+        }
+        final int[] order = GenericObjectSort.order(keys);
+        final long[] sorted = new long[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = keys[order[i]];
+            if ((i > 0) && (sorted[i] == sorted[i - 1])) {
+                // Stable
+                assertEquals(true, order[i] > order[i - 1]);
+            }
+        }
+        final long[] expected = keys.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    public void testSortByDouble() {
+        final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+        final double[] values = { 2.5, Double.NaN, -0.0, -3.0, 0.0,
+                Double.NEGATIVE_INFINITY, 1e300 };
+        final Object[][] instances = new Object[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            instances[i] = accessor.setDoubleValue(
+                    accessor.newGenericObject(4, 1), 1, values[i]);
+        }
+        GenericObjectSort.sortByDouble(accessor, instances, 1);
+        final double[] actual = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            actual[i] = accessor.getDoubleValue(instances[i], 1);
+        }
+        final double[] expected = values.clone();
+        Arrays.sort(expected);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]),
+                    Double.doubleToRawLongBits(actual[i]));
+        }
+    }
+
+    @Test
+    public void testMultiKey() {
+        final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor();
+        final Object[][] instances = new Object[6][];
+        final int[] groups = { 1, 0, 1, 0, 1, 0 };
+        final long[] values = { -5L << 40, 3, 7L << 40, -1, 0, 3 };
+        for (int i = 0; i < instances.length; i++) {
+            Object[] instance = accessor.newGenericObject(4, 1);
+            instance = accessor.setIntValue(instance, 0, groups[i]);
+            instance = accessor.setLongValue(instance, 1, values[i]);
+            instances[i] = instance;
+        }
+        final Object[][] original = instances.clone();
+        GenericObjectSort.sort(accessor, instances, SortKey.ofInt(0),
+                SortKey.ofLong(1).descending());
+        assertArrayEquals(new Object[] { original[1], original[5],
+                original[3], original[2], original[4], original[0] },
+                instances);
+        GenericObjectSort.sortByLong(accessor, instances, 1);
+        assertArrayEquals(new Object[] { original[0], original[3],
+                original[4], original[1], original[5], original[2] },
+                instances);
+    }
+}
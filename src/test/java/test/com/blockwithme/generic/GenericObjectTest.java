@@ -16,7 +16,9 @@
 package test.com.blockwithme.generic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Random;
@@ -24,6 +26,7 @@ import java.util.Random;
 import org.junit.Test;
 
 import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.GenericObjectSnapshot;
 import com.blockwithme.generic.IGenericObject;
 import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
 
@@ -410,6 +413,45 @@ public class GenericObjectTest {
                 instance.getObjectValuesSlotsAvailable());
     }
 
+    @Test
+    public void testSnapshot() {
+        final GenericObject<Object[]> instance = new GenericObject<Object[]>(
+                accessor);
+        instance.setIntValue(1, 42).setObjectValue(1, "42");
+        final GenericObjectSnapshot<Object[]> snapshot = instance.snapshot();
+        assertTrue(instance.isShared());
+        assertSame(instance.getGenericObjectStorage(),
+                snapshot.getGenericObjectStorage());
+
+        // Object write only copies the Object values
+        instance.setObjectValue(1, "24");
+        final Object[] storage = instance.getGenericObjectStorage();
+        assertTrue(storage != snapshot.getGenericObjectStorage());
+        assertSame(storage[0], snapshot.getGenericObjectStorage()[0]);
+        assertTrue(instance.isShared());
+
+        instance.setIntValue(1, 24).setLongValue(3, 24L);
+        assertFalse(instance.isShared());
+        assertSame(storage, instance.getGenericObjectStorage());
+        assertEquals(24, instance.getIntValue(1));
+        assertEquals("24", instance.getObjectValue(1));
+        assertEquals(42, snapshot.getIntValue(1));
+        assertEquals(0L, snapshot.getLongValue(3));
+        assertEquals("42", snapshot.getObjectValue(1));
+
+        // Primitive write first copies everything
+        final GenericObjectSnapshot<Object[]> second = instance.snapshot();
+        instance.setBooleanValue(5, true);
+        assertFalse(instance.isShared());
+        assertFalse(second.getBooleanValue(5));
+        assertEquals("24", second.getObjectValue(1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+        new GenericObject<Object[]>(accessor).snapshot().setIntValue(1, 42);
+    }
+
     /**
      * Creates and returns a new instance.
      *
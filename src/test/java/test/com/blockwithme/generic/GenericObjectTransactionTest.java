@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.ConcurrentGenericObject;
+import com.blockwithme.generic.GenericObjectTransaction;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjectTransaction.
+ *
+ * @author monster
+ */
+public class GenericObjectTransactionTest {
+
+    private static final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+
+    /** The balance slot. */
+    private static final int BALANCE = 1;
+
+    private static ConcurrentGenericObject<Object[]> newAccount(
+            final long balance) {
+        final ConcurrentGenericObject<Object[]> result = new ConcurrentGenericObject<>(
+                accessor);
+        result.setLongValues(new int[] { BALANCE }, new long[] { balance });
+        return result;
+    }
+
+    private static long balance(final ConcurrentGenericObject<Object[]> account) {
+        final long[] result = new long[1];
+        account.getLongValues(new int[] { BALANCE }, result);
+        return result[0];
+    }
+
+    /** Transfers amount from a to b, retrying on conflicts. */
+    private static void transfer(final GenericObjectTransaction tx,
+            final ConcurrentGenericObject<Object[]> a,
+            final ConcurrentGenericObject<Object[]> b, final long amount) {
+        do {
+            tx.setLongValue(a, BALANCE, tx.getLongValue(a, BALANCE) - amount);
+            tx.setLongValue(b, BALANCE, tx.getLongValue(b, BALANCE) + amount);
+        } while (!tx.commit());
+    }
+
+    @Test
+    public void testCommitIsAllOrNothing() {
+        final ConcurrentGenericObject<Object[]> a = newAccount(100);
+        final Object[] storage = a.getGenericObjectStorage();
+        final GenericObjectTransaction tx = new GenericObjectTransaction();
+        tx.setLongValue(a, BALANCE, 42).setIntValue(a, 1000, 1);
+        try {
+            tx.commit();
+            fail("index 1000 is out of range");
+        } catch (final IndexOutOfBoundsException e) {
+            // expected
+        }
+        assertEquals(100, balance(a));
+        assertSame(storage, a.getGenericObjectStorage());
+        // The transaction was reset
+        assertTrue(tx.commit());
+        assertEquals(100, balance(a));
+    }
+
+    @Test
+    public void testCommit() {
+        final ConcurrentGenericObject<Object[]> a = newAccount(100);
+        final ConcurrentGenericObject<Object[]> b = newAccount(0);
+        final GenericObjectTransaction tx = new GenericObjectTransaction();
+        tx.setLongValue(a, BALANCE, 60).setDoubleValue(a, 2, 1.5)
+                .setObjectValue(b, 1, "b").setBooleanValue(b, 3, true);
+        // Read your writes
+        assertEquals(60, tx.getLongValue(a, BALANCE));
+        assertEquals(1.5, tx.getDoubleValue(a, 2), 0.0);
+        assertEquals("b", tx.getObjectValue(b, 1));
+        assertTrue(tx.getBooleanValue(b, 3));
+        // Not visible before commit
+        assertEquals(100, balance(a));
+        assertTrue(tx.commit());
+        assertEquals(60, balance(a));
+        assertEquals("b", b.snapshot().getObjectValue(1));
+        assertTrue(b.snapshot().getBooleanValue(3));
+    }
+
+    @Test
+    public void testConflict() {
+        final ConcurrentGenericObject<Object[]> a = newAccount(100);
+        final ConcurrentGenericObject<Object[]> b = newAccount(0);
+        final GenericObjectTransaction tx = new GenericObjectTransaction();
+        tx.setLongValue(b, BALANCE, tx.getLongValue(a, BALANCE));
+        // Concurrent modification of a
+        a.setLongValues(new int[] { BALANCE }, new long[] { 50 });
+        assertFalse(tx.commit());
+        assertEquals(0, balance(b));
+        // The transaction was reset
+        tx.setLongValue(b, BALANCE, tx.getLongValue(a, BALANCE));
+        assertTrue(tx.commit());
+        assertEquals(50, balance(b));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMixedTypes() {
+        final ConcurrentGenericObject<Object[]> a = newAccount(100);
+        final GenericObjectTransaction tx = new GenericObjectTransaction();
+        tx.setLongValue(a, BALANCE, 1);
+        tx.getDoubleValue(a, BALANCE);
+    }
+
+    @Test
+    public void testConcurrentTransfers() throws InterruptedException {
+        final List<ConcurrentGenericObject<Object[]>> accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accounts.add(newAccount(1000));
+        }
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    final GenericObjectTransaction tx = new GenericObjectTransaction();
+                    for (int i = 0; i < 5000; i++) {
+                        final int from = (i + offset) % accounts.size();
+                        final int to = (from + 1 + (i % 3)) % accounts.size();
+                        transfer(tx, accounts.get(from), accounts.get(to),
+                                1 + (i % 7));
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        long total = 0;
+        for (final ConcurrentGenericObject<Object[]> account : accounts) {
+            total += balance(account);
+        }
+        assertEquals(4000, total);
+    }
+
+    @Test
+    public void testReadOnlyInstanceStaysValid() {
+        final ConcurrentGenericObject<Object[]> a = newAccount(100);
+        final ConcurrentGenericObject<Object[]> b = newAccount(0);
+        final Object[] storage = a.getGenericObjectStorage();
+        final GenericObjectTransaction other = new GenericObjectTransaction();
+        assertEquals(100, other.getLongValue(a, BALANCE));
+        final GenericObjectTransaction tx = new GenericObjectTransaction();
+        tx.setLongValue(b, BALANCE, tx.getLongValue(a, BALANCE));
+        assertTrue(tx.commit());
+        assertEquals(100, balance(b));
+        // a was only read, so its readers are not invalidated
+        assertSame(storage, a.getGenericObjectStorage());
+        assertTrue(other.commit());
+    }
+
+    @Test
+    public void testLargeCommit() {
+        final GenericObjectTransaction tx = new GenericObjectTransaction();
+        final List<ConcurrentGenericObject<Object[]>> accounts = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            final ConcurrentGenericObject<Object[]> account = newAccount(i);
+            accounts.add(account);
+            tx.setLongValue(account, BALANCE, tx.getLongValue(account,
+                    BALANCE) + 1);
+        }
+        assertTrue(tx.commit());
+        assertEquals(1, balance(accounts.get(0)));
+        assertEquals(20000, balance(accounts.get(19999)));
+    }
+
+    @Test
+    public void testConsistentReadOnlyTransactions()
+            throws InterruptedException {
+        final List<ConcurrentGenericObject<Object[]>> accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accounts.add(newAccount(1000));
+        }
+        final Thread writer = new Thread() {
+            @Override
+            public void run() {
+                final GenericObjectTransaction tx = new GenericObjectTransaction();
+                for (int i = 0; i < 20000; i++) {
+                    final int from = i % accounts.size();
+                    transfer(tx, accounts.get(from),
+                            accounts.get((from + 1) % accounts.size()), 1);
+                }
+            }
+        };
+        writer.start();
+        final GenericObjectTransaction tx = new GenericObjectTransaction();
+        while (writer.isAlive()) {
+            long total = 0;
+            for (final ConcurrentGenericObject<Object[]> account : accounts) {
+                total += tx.getLongValue(account, BALANCE);
+            }
+            if (tx.commit()) {
+                assertEquals(4000, total);
+            }
+        }
+        writer.join();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.GenericObjects;
+import com.blockwithme.generic.GrowthPolicies;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+
+/**
+ * Tests of GenericObjects.
+ *
+ * @author monster
+ */
+public class GenericObjectsTest {
+    private static final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor(
+            GrowthPolicies.EXACT);
+
+    private Object[] newWideInstance(final int used) {
+        final Object[] instance = accessor.newGenericObject(100, 100);
+        accessor.setIntValue(instance, used - 1, used);
+        return accessor.setObjectValue(instance, used - 1, "used");
+    }
+
+    @Test
+    public void testCompactArray() {
+        final Object[][] instances = new Object[][] { newWideInstance(3),
+                null, newWideInstance(100) };
+        assertEquals("compact", 1, GenericObjects.compact(accessor, instances));
+        // One more slot is kept, for the high half of a long or double
+        assertEquals("GetPrimitiveValuesSlotsAvailable", 4,
+                accessor.getPrimitiveValuesSlotsAvailable(instances[0]));
+        assertEquals("GetObjectValuesSlotsAvailable", 3,
+                accessor.getObjectValuesSlotsAvailable(instances[0]));
+        assertEquals("ObjectValue[2]", "used",
+                accessor.getObjectValue(instances[0], 2));
+        assertEquals("GetPrimitiveValuesSlotsAvailable", 100,
+                accessor.getPrimitiveValuesSlotsAvailable(instances[2]));
+    }
+
+    @Test
+    public void testCompactList() {
+        final List<Object[]> instances = new ArrayList<>(Arrays.asList(
+                newWideInstance(5), newWideInstance(7)));
+        assertEquals("compact", 2, GenericObjects.compact(accessor, instances));
+        assertEquals("GetObjectValuesSlotsAvailable", 5,
+                accessor.getObjectValuesSlotsAvailable(instances.get(0)));
+        assertEquals("IntValue[6]", 7,
+                accessor.getIntValue(instances.get(1), 6));
+    }
+
+    @Test
+    public void testCompactGenericObjects() {
+        final List<GenericObject<Object[]>> objects = new ArrayList<>();
+        objects.add(new GenericObject<>(accessor, newWideInstance(2)));
+        objects.add(new GenericObject<>(accessor, accessor
+                .newGenericObject(0, 0)));
+        assertEquals("compact", 1, GenericObjects.compact(objects));
+        assertEquals("GetPrimitiveValuesSlotsAvailable", 3, objects.get(0)
+                .getPrimitiveValuesSlotsAvailable());
+        assertEquals("GetObjectValuesSlotsAvailable", 2, objects.get(0)
+                .getObjectValuesSlotsAvailable());
+    }
+}
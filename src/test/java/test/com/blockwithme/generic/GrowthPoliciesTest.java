@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GrowthPolicies;
+import com.blockwithme.generic.IGrowthPolicy;
+
+/**
+ * Tests of GrowthPolicies.
+ *
+ * @author monster
+ */
+public class GrowthPoliciesTest {
+
+    private static final int MAX = Integer.MAX_VALUE - 1;
+
+    @Test
+    public void testExact() {
+        final IGrowthPolicy policy = GrowthPolicies.EXACT;
+        assertTrue("isOptimalPacking", policy.isOptimalPacking());
+        assertEquals("computeSlots(0,65)", 65,
+                policy.computeSlots(0, 65, 8, MAX));
+        assertEquals("computeSlots(0,3)", 3, policy.computeSlots(0, 3, 8, MAX));
+        assertEquals("computeSlots(128,65)", 65,
+                policy.computeSlots(128, 65, 8, MAX));
+    }
+
+    @Test
+    public void testPowerOfTwo() {
+        final IGrowthPolicy policy = GrowthPolicies.POWER_OF_TWO;
+        assertFalse("isOptimalPacking", policy.isOptimalPacking());
+        assertEquals("computeSlots(0,3)", 8, policy.computeSlots(0, 3, 8, MAX));
+        assertEquals("computeSlots(0,64)", 64,
+                policy.computeSlots(0, 64, 8, MAX));
+        assertEquals("computeSlots(0,65)", 128,
+                policy.computeSlots(0, 65, 8, MAX));
+        assertEquals("computeSlots(0,MAX)", MAX,
+                policy.computeSlots(0, MAX, 8, MAX));
+    }
+
+    @Test
+    public void testOneAndAHalf() {
+        final IGrowthPolicy policy = GrowthPolicies.ONE_AND_A_HALF;
+        assertFalse("isOptimalPacking", policy.isOptimalPacking());
+        assertEquals("computeSlots(0,3)", 8, policy.computeSlots(0, 3, 8, MAX));
+        assertEquals("computeSlots(64,65)", 96,
+                policy.computeSlots(64, 65, 8, MAX));
+        assertEquals("computeSlots(64,100)", 100,
+                policy.computeSlots(64, 100, 8, MAX));
+        assertEquals("computeSlots(64,10)", 64,
+                policy.computeSlots(64, 10, 8, MAX));
+        assertEquals("computeSlots(MAX-1,MAX)", MAX,
+                policy.computeSlots(MAX - 1, MAX, 8, MAX));
+    }
+
+    @Test
+    public void testSizeClasses() {
+        final IGrowthPolicy policy = GrowthPolicies.sizeClasses(12, 24, 80);
+        assertFalse("isOptimalPacking", policy.isOptimalPacking());
+        assertEquals("computeSlots(0,3)", 12, policy.computeSlots(0, 3, 8, MAX));
+        assertEquals("computeSlots(0,13)", 24,
+                policy.computeSlots(0, 13, 8, MAX));
+        assertEquals("computeSlots(0,65)", 80,
+                policy.computeSlots(0, 65, 8, MAX));
+        assertEquals("computeSlots(0,81)", 128,
+                policy.computeSlots(0, 81, 8, MAX));
+    }
+
+    @Test
+    public void testSizeClassesValidation() {
+        boolean failed = false;
+        try {
+            GrowthPolicies.sizeClasses(12, 12);
+        } catch (final IllegalArgumentException e) {
+            failed = true;
+        }
+        assertTrue("sizeClasses(12, 12)", failed);
+    }
+}
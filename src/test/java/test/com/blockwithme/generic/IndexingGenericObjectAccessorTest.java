@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.GenericObjectInterner;
+import com.blockwithme.generic.GenericObjectSnapshot;
+import com.blockwithme.generic.HashSlotIndex;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IndexingGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.SortedSlotIndex;
+import com.blockwithme.generic.ValueType;
+
+/**
+ * Tests IndexingGenericObjectAccessor, decorating an
+ * IntGenericObjectAccessor, and the slot indexes.
+ *
+ * @author monster
+ */
+public class IndexingGenericObjectAccessorTest extends
+        AbstractGenericObjectAccessorTest<Object[]> {
+
+    private final IndexingGenericObjectAccessor<Object[]> accessor = new IndexingGenericObjectAccessor<>(
+            new IntGenericObjectAccessor());
+
+    public IndexingGenericObjectAccessorTest() {
+        expectedGetPrimitiveValuesStartIndex = 0;
+        expectedGetBooleanValuesIDSpaceFixedSize = -1;
+        expectedGetPrimitiveValuesMaximumCount = Integer.MAX_VALUE;
+        expectedIsBooleanValuesIDSpaceIndependentFromPrimitive = false;
+        expectedIsBooleanValuesIDSpaceFixed = false;
+        expectedIsLongUsingTwoPrimitiveSlots = true;
+        expectedIsDoubleUsingTwoPrimitiveSlots = true;
+    }
+
+    @Override
+    protected IGenericObjectAccessor<Object[]> getAccessor() {
+        return accessor;
+    }
+
+    @Test
+    public void testWriteBelowUnreadableKey() {
+        final HashSlotIndex<Object[]> index = accessor.newHashIndex(7,
+                ValueType.LONG);
+        // The long key at 7 needs slot 8, which this instance does not have
+        Object[] instance = accessor.newGenericObject(8, 8);
+        instance = accessor.setIntValue(instance, 7, 5);
+        assertEquals(5, accessor.getIntValue(instance, 7));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testHashIndex() {
+        final HashSlotIndex<Object[]> index = accessor.newHashIndex(3,
+                ValueType.INT);
+        final Object[][] instances = new Object[100][];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = accessor.setIntValue(
+                    accessor.newGenericObject(8, 8), 3, i % 40);
+            index.add(instances[i]);
+        }
+        assertEquals(100, index.size());
+        assertEquals(3, index.getInt(5).size());
+        assertEquals(2, index.getInt(39).size());
+        assertTrue(index.getInt(40).isEmpty());
+
+        // Writes through the accessor update the index
+        for (int i = 0; i < 40; i++) {
+            instances[i] = accessor.setIntValue(instances[i], 3, 1000 + i);
+        }
+        assertEquals(2, index.getInt(5).size());
+        assertEquals(1, index.getInt(1005).size());
+        assertSame(instances[5], index.getInt(1005).get(0));
+
+        // A long at 2 also writes slot 3, in the INT layout
+        instances[0] = accessor.setLongValue(instances[0], 2, 777L << 32);
+        assertTrue(index.getInt(1000).isEmpty());
+        assertSame(instances[0], index.getInt(777).get(0));
+
+        // Replaced instances are replaced in the index
+        final Object[] resized = accessor.resizeObjectValues(instances[1],
+                100);
+        assertTrue(resized != instances[1]);
+        assertSame(resized, index.getInt(1001).get(0));
+
+        for (int i = 2; i < instances.length; i++) {
+            assertTrue(index.remove(instances[i]));
+        }
+        assertFalse(index.remove(instances[2]));
+        assertEquals(2, index.size());
+        assertTrue(accessor.removeIndex(index));
+        accessor.setIntValue(resized, 3, 0);
+        assertSame(resized, index.getInt(1001).get(0));
+    }
+
+    @Test
+    public void testSortedIndex() {
+        final IndexingGenericObjectAccessor<Object[]> longAccessor = new IndexingGenericObjectAccessor<>(
+                new LongFixedBooleanGenericObjectAccessor());
+        final SortedSlotIndex<Object[]> index = longAccessor.newSortedIndex(
+                2, ValueType.DOUBLE);
+        final double[] values = { 3.5, -1.0, 0.0, -0.0, 2.0, -7.25, 100.0 };
+        final Object[][] instances = new Object[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            instances[i] = longAccessor.setDoubleValue(
+                    longAccessor.newGenericObject(8, 8), 2, values[i]);
+            index.add(instances[i]);
+        }
+        final List<Object[]> range = index.rangeDouble(-2.0, 3.5);
+        assertEquals(5, range.size());
+        assertSame(instances[1], range.get(0));
+        assertSame(instances[3], range.get(1));
+        assertSame(instances[2], range.get(2));
+        assertSame(instances[4], range.get(3));
+        assertSame(instances[0], range.get(4));
+
+        longAccessor.setDoubleValue(instances[6], 2, -100.0);
+        assertSame(instances[6], index.rangeDouble(-1000.0, -10.0).get(0));
+        assertEquals(1, index.getDouble(-100.0).size());
+        assertTrue(index.rangeDouble(10.0, -10.0).isEmpty());
+    }
+
+    @Test
+    public void testLookupTypeMismatch() {
+        final HashSlotIndex<Object[]> hash = accessor.newHashIndex(3,
+                ValueType.INT);
+        try {
+            hash.getLong(5);
+            fail("getLong() on an INT index");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        try {
+            hash.getDouble(5.0);
+            fail("getDouble() on an INT index");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        final SortedSlotIndex<Object[]> sorted = accessor.newSortedIndex(4,
+                ValueType.DOUBLE);
+        try {
+            sorted.getInt(5);
+            fail("getInt() on a DOUBLE index");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        try {
+            sorted.rangeLong(0, 5);
+            fail("rangeLong() on a DOUBLE index");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        assertTrue(hash.getInt(5).isEmpty());
+        assertTrue(sorted.rangeDouble(0.0, 5.0).isEmpty());
+    }
+
+    /** Copy-on-write after a snapshot moves the index to the new storage. */
+    @Test
+    public void testSnapshotCopyOnWrite() {
+        final HashSlotIndex<Object[]> index = accessor.newHashIndex(3,
+                ValueType.INT);
+        final GenericObject<Object[]> object = new GenericObject<>(accessor,
+                accessor.setIntValue(accessor.newGenericObject(8, 8), 3, 1));
+        index.add(object.getGenericObjectStorage());
+        final GenericObjectSnapshot<Object[]> snapshot = object.snapshot();
+        object.setObjectValue(1, "x");
+        object.setIntValue(3, 2);
+        assertTrue(index.getInt(1).isEmpty());
+        assertEquals(1, index.getInt(2).size());
+        assertSame(object.getGenericObjectStorage(), index.getInt(2).get(0));
+        assertEquals(1, snapshot.getIntValue(3));
+
+        // Primitive write first
+        final GenericObjectSnapshot<Object[]> snapshot2 = object.snapshot();
+        object.setIntValue(3, 5);
+        assertTrue(index.getInt(2).isEmpty());
+        assertSame(object.getGenericObjectStorage(), index.getInt(5).get(0));
+        assertEquals(2, snapshot2.getIntValue(3));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testInternIndexed() {
+        final HashSlotIndex<Object[]> index = accessor.newHashIndex(3,
+                ValueType.INT);
+        final GenericObject<Object[]> object = new GenericObject<>(accessor,
+                accessor.setIntValue(accessor.newGenericObject(8, 8), 3, 1));
+        final Object[] storage = object.getGenericObjectStorage();
+        index.add(storage);
+        assertTrue(accessor.isIndexed(storage));
+        try {
+            object.intern(new GenericObjectInterner<>(accessor));
+            fail("intern()");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+        assertSame(storage, object.getGenericObjectStorage());
+        assertFalse(object.isShared());
+        assertSame(storage, index.getInt(1).get(0));
+
+        index.remove(storage);
+        assertFalse(accessor.isIndexed(storage));
+        object.intern(new GenericObjectInterner<>(accessor));
+        assertTrue(object.getGenericObjectStorage() != storage);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GrowthPolicies;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+
+/**
+ * Tests IntGenericObjectAccessor using the EXACT growth policy.
+ *
+ * @author monster
+ */
+public class IntGenericObjectAccessorExactTest extends
+        AbstractGenericObjectAccessorTest<Object[]> {
+
+    private static final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor(
+            GrowthPolicies.EXACT);
+
+    public IntGenericObjectAccessorExactTest() {
+        expectedGetPrimitiveValuesStartIndex = 0;
+        expectedGetBooleanValuesIDSpaceFixedSize = -1;
+        expectedGetPrimitiveValuesMaximumCount = Integer.MAX_VALUE;
+        expectedIsBooleanValuesIDSpaceIndependentFromPrimitive = false;
+        expectedIsBooleanValuesIDSpaceFixed = false;
+        expectedIsLongUsingTwoPrimitiveSlots = true;
+        expectedIsDoubleUsingTwoPrimitiveSlots = true;
+        expectedIsOptimalPackingUsedForPrimitiveValues = true;
+        expectedIsOptimalPackingUsedForObjectValues = true;
+        expectedGetPrimitiveValuesReservedSize = 8;
+        expectedGetObjectValuesReservedSize = 8;
+    }
+
+    @Override
+    protected IGenericObjectAccessor<Object[]> getAccessor() {
+        return accessor;
+    }
+
+    @Test
+    public void testReservedSizeTracksResize() {
+        Object[] instance = accessor.newGenericObject(65, 3);
+        assertEquals("GetPrimitiveValuesReservedSize", 65,
+                accessor.getPrimitiveValuesReservedSize(instance));
+        assertEquals("GetObjectValuesReservedSize", 3,
+                accessor.getObjectValuesReservedSize(instance));
+        accessor.setIntValue(instance, 2, 42);
+        instance = accessor.resizePrimitiveValues(instance, 5);
+        instance = accessor.resizeObjectValues(instance, 10);
+        assertEquals("GetPrimitiveValuesReservedSize", 5,
+                accessor.getPrimitiveValuesReservedSize(instance));
+        assertEquals("GetObjectValuesReservedSize", 10,
+                accessor.getObjectValuesReservedSize(instance));
+        assertEquals("IntValue[2]", 42, accessor.getIntValue(instance, 2));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.GenericObjectMetrics;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.MetricsGenericObjectAccessor;
+import com.blockwithme.generic.ValueType;
+
+/**
+ * Tests MetricsGenericObjectAccessor, decorating a
+ * LongFixedBooleanGenericObjectAccessor.
+ *
+ * @author monster
+ */
+public class MetricsGenericObjectAccessorTest extends
+        AbstractGenericObjectAccessorTest<Object[]> {
+
+    private final MetricsGenericObjectAccessor<Object[]> accessor = new MetricsGenericObjectAccessor<>(
+            new LongFixedBooleanGenericObjectAccessor());
+
+    @Override
+    protected IGenericObjectAccessor<Object[]> getAccessor() {
+        return accessor;
+    }
+
+    @Test
+    public void testCounters() {
+        Object[] instance = accessor.newGenericObject(8, 8);
+        instance = accessor.setIntValue(instance, 1, 42);
+        accessor.getIntValue(instance, 1);
+        accessor.getIntValue(instance, 1);
+        instance = accessor.setObjectValue(instance, 1, "42");
+        // No reallocation
+        instance = accessor.resizePrimitiveValues(instance, 4);
+        instance = accessor.resizePrimitiveValues(instance, 100);
+        instance = accessor.resizeObjectValues(instance, 100);
+        try {
+            accessor.getLongValue(instance, -1);
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+        final GenericObjectMetrics.Snapshot snapshot = accessor.getMetrics()
+                .snapshot();
+        assertEquals("gets(INT)", 2, snapshot.getGets(ValueType.INT));
+        assertEquals("sets(INT)", 1, snapshot.getSets(ValueType.INT));
+        assertEquals("gets(LONG)", 1, snapshot.getGets(ValueType.LONG));
+        assertEquals("sets(OBJECT)", 1, snapshot.getSets(ValueType.OBJECT));
+        assertEquals("totalGets", 3, snapshot.getTotalGets());
+        assertEquals("totalSets", 2, snapshot.getTotalSets());
+        assertEquals("newGenericObjects", 1, snapshot.getNewGenericObjects());
+        assertEquals("primitiveResizes", 1, snapshot.getPrimitiveResizes());
+        assertEquals("objectResizes", 1, snapshot.getObjectResizes());
+        assertEquals("failedIndexChecks", 1, snapshot.getFailedIndexChecks());
+        // 2 new arrays of 8 slots, 2 resized arrays of 128 slots
+        assertEquals("bytesAllocated", 16 + 8 * 8 + 16 + 8 * 4 + 16 + 128
+                * 8 + 16 + 128 * 4, snapshot.getBytesAllocated());
+
+        accessor.getMetrics().reset();
+        assertEquals("totalGets", 0, accessor.getMetrics().getTotalGets());
+        assertTrue("getGetsPerType", accessor.getMetrics().getGetsPerType()
+                .containsKey("INT"));
+    }
+}
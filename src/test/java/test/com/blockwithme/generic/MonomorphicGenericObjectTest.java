@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.DoubleFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.DoubleGenericObject;
+import com.blockwithme.generic.EmbeddedDoubleGenericObject;
+import com.blockwithme.generic.EmbeddedIntGenericObject;
+import com.blockwithme.generic.EmbeddedLongGenericObject;
+import com.blockwithme.generic.GenericObject;
+import com.blockwithme.generic.IGenericObject;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObject;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.LongGenericObject;
+
+/**
+ * Tests the monomorphic IntGenericObject, LongGenericObject and
+ * DoubleGenericObject, and their "Embedded" variants, against a
+ * GenericObject with the same accessor.
+ *
+ * @author monster
+ */
+public class MonomorphicGenericObjectTest {
+
+    /** Applies the test writes to an object. */
+    private static void write(final IGenericObject<Object[]> obj) {
+        obj.resizePrimitiveValues(20).resizeObjectValues(20);
+        obj.setIntValue(1, 42).setLongValue(2, -7L).setDoubleValue(6, 1.5)
+                .setByteValue(10, (byte) 3).setCharValue(11, 'x')
+                .setShortValue(12, (short) -2).setFloatValue(13, 0.25f)
+                .setBooleanValue(14, true).setObjectValue(19, "z");
+    }
+
+    /** Applies the same writes to both objects, and compares them. */
+    private static void check(final IGenericObject<Object[]> expected,
+            final IGenericObject<Object[]> actual) {
+        final Class<?> accessorType = expected.getGenericObjectAccessor()
+                .getClass();
+        assertSame(accessorType, actual.getGenericObjectAccessor().getClass());
+        write(expected);
+        write(actual);
+        final IGenericObjectAccessor<Object[]> accessor = expected
+                .getGenericObjectAccessor();
+        assertTrue(accessor.contentEquals(expected.getGenericObjectStorage(),
+                actual.getGenericObjectStorage()));
+        assertEquals(42, actual.getIntValue(1));
+        assertEquals(-7L, actual.getLongValue(2));
+        assertEquals(1.5, actual.getDoubleValue(6), 0.0);
+        assertEquals(3, actual.getByteValue(10));
+        assertEquals('x', actual.getCharValue(11));
+        assertEquals(-2, actual.getShortValue(12));
+        assertEquals(0.25f, actual.getFloatValue(13), 0.0f);
+        assertTrue(actual.getBooleanValue(14));
+        assertEquals("z", actual.getObjectValue(19));
+        assertEquals(expected.getPrimitiveValuesSlotsAvailable(),
+                actual.getPrimitiveValuesSlotsAvailable());
+        assertEquals(expected.getObjectValuesSlotsAvailable(),
+                actual.getObjectValuesSlotsAvailable());
+        assertEquals(expected.getPrimitiveValuesMaximumIndex(),
+                actual.getPrimitiveValuesMaximumIndex());
+
+        expected.setObjectValue(19, null).trimObjectValues();
+        actual.setObjectValue(19, null).trimObjectValues();
+        assertEquals(expected.getObjectValuesSlotsAvailable(),
+                actual.getObjectValuesSlotsAvailable());
+    }
+
+    @Test
+    public void testIntGenericObject() {
+        check(new GenericObject<Object[]>(new IntGenericObjectAccessor(), 8,
+                8), new IntGenericObject(8, 8));
+    }
+
+    @Test
+    public void testLongGenericObject() {
+        check(new GenericObject<Object[]>(
+                new LongFixedBooleanGenericObjectAccessor(), 8, 8),
+                new LongGenericObject(8, 8));
+    }
+
+    @Test
+    public void testDoubleGenericObject() {
+        check(new GenericObject<Object[]>(
+                new DoubleFixedBooleanGenericObjectAccessor(), 8, 8),
+                new DoubleGenericObject(8, 8));
+    }
+
+    @Test
+    public void testEmbeddedIntGenericObject() {
+        check(new GenericObject<Object[]>(new IntGenericObjectAccessor(), 8,
+                8), new EmbeddedIntGenericObject(8, 8));
+    }
+
+    @Test
+    public void testEmbeddedLongGenericObject() {
+        check(new GenericObject<Object[]>(
+                new LongFixedBooleanGenericObjectAccessor(), 8, 8),
+                new EmbeddedLongGenericObject(8, 8));
+    }
+
+    @Test
+    public void testEmbeddedDoubleGenericObject() {
+        check(new GenericObject<Object[]>(
+                new DoubleFixedBooleanGenericObjectAccessor(), 8, 8),
+                new EmbeddedDoubleGenericObject(8, 8));
+    }
+
+    @Test
+    public void testEmbeddedStorage() {
+        final EmbeddedLongGenericObject obj = new EmbeddedLongGenericObject();
+        obj.resizePrimitiveValues(4).setLongValue(3, 99L);
+        assertEquals(99L, obj.getLongValue(3));
+        obj.resizePrimitiveValues(100).setDoubleValue(90, 2.5);
+        assertEquals(2.5, obj.getDoubleValue(90), 0.0);
+        assertEquals(99L, obj.getLongValue(3));
+
+        final Object[] other = LongFixedBooleanGenericObjectAccessor
+                ._newGenericObject(4, 4);
+        LongFixedBooleanGenericObjectAccessor._setIntValue(other, 1, 7);
+        assertEquals(7, obj.setGenericObjectStorage(other).getIntValue(1));
+    }
+
+    @Test
+    public void testEmbeddedStorageResizedByAccessor() {
+        final EmbeddedIntGenericObject obj = new EmbeddedIntGenericObject(8, 8);
+        final IGenericObjectAccessor<Object[]> accessor = obj
+                .getGenericObjectAccessor();
+        // The resized storage must be passed back
+        obj.setGenericObjectStorage(accessor.resizePrimitiveValues(
+                obj.getGenericObjectStorage(), 64));
+        assertEquals(64, obj.getPrimitiveValuesSlotsAvailable());
+        obj.setIntValue(0, 5);
+        assertEquals(5, obj.getIntValue(0));
+        assertEquals(5, accessor.getIntValue(obj.getGenericObjectStorage(), 0));
+    }
+
+    @Test
+    public void testStorage() {
+        final Object[] storage = IntGenericObjectAccessor._newGenericObject(4,
+                4);
+        final IntGenericObject obj = new IntGenericObject(storage);
+        assertSame(storage, obj.getGenericObjectStorage());
+        obj.setIntValue(3, 5);
+        assertEquals(5, IntGenericObjectAccessor._getIntValue(storage, 3));
+        final Object[] other = IntGenericObjectAccessor._newEmptyGenericObject();
+        assertSame(other, obj.setGenericObjectStorage(other)
+                .getGenericObjectStorage());
+        assertEquals(
+                IntGenericObjectAccessor._getObjectValuesSlotsAvailable(other),
+                new IntGenericObject().getObjectValuesSlotsAvailable());
+    }
+}
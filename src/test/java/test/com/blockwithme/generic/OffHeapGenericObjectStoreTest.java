@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014 Sebastien Diot.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.com.blockwithme.generic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.blockwithme.generic.DoubleFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.GenericObjectCache;
+import com.blockwithme.generic.GenericObjectMetrics;
+import com.blockwithme.generic.IGenericObjectAccessor;
+import com.blockwithme.generic.IntGenericObjectAccessor;
+import com.blockwithme.generic.LongFixedBooleanGenericObjectAccessor;
+import com.blockwithme.generic.OffHeapGenericObjectStore;
+
+/**
+ * Tests OffHeapGenericObjectStore.
+ *
+ * @author monster
+ */
+public class OffHeapGenericObjectStoreTest {
+
+    /** Writes some values, and checks that the store round-trips them. */
+    private static void roundTrip(
+            final IGenericObjectAccessor<Object[]> accessor) {
+        final OffHeapGenericObjectStore<String> store = new OffHeapGenericObjectStore<>(
+                4096, 2);
+        Object[] instance = accessor.newGenericObject(8, 8);
+        instance = accessor.setBooleanValue(instance, 1, true);
+        instance = accessor.setIntValue(instance, 2, -42);
+        instance = accessor.setLongValue(instance, 4, Long.MIN_VALUE + 3);
+        instance = accessor.setDoubleValue(instance, 6, Math.PI);
+        instance = accessor.setObjectValue(instance, 1, "text");
+        instance = accessor.setObjectValue(instance, 2, 7L);
+        assertTrue(store.put("a", instance));
+        final Object[] copy = store.get("a");
+        assertTrue(copy != instance);
+        assertTrue(accessor.contentEquals(instance, copy));
+        assertEquals(instance.length, copy.length);
+        assertEquals(Math.PI, accessor.getDoubleValue(copy, 6), 0.0);
+        assertEquals("text", accessor.getObjectValue(copy, 1));
+        assertTrue(accessor.getBooleanValue(copy, 1));
+        assertTrue(accessor.contentEquals(instance, store.remove("a")));
+        assertNull(store.get("a"));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        roundTrip(new IntGenericObjectAccessor());
+        roundTrip(new LongFixedBooleanGenericObjectAccessor());
+        roundTrip(new DoubleFixedBooleanGenericObjectAccessor());
+    }
+
+    @Test
+    public void testSlabEviction() {
+        final LongFixedBooleanGenericObjectAccessor accessor = new LongFixedBooleanGenericObjectAccessor();
+        // Each instance: 9 header + 9*8 primitive + 8 null Objects = 89 bytes
+        final OffHeapGenericObjectStore<Integer> store = new OffHeapGenericObjectStore<>(
+                200, 3);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(store.put(i, accessor.newGenericObject(8, 8)));
+        }
+        assertEquals(6, store.size());
+        assertEquals(3, store.getSlabCount());
+        // The oldest slab is reused
+        store.put(6, accessor.newGenericObject(8, 8));
+        assertEquals(5, store.size());
+        assertEquals(2, store.getEvictions());
+        assertFalse(store.containsKey(0));
+        assertFalse(store.containsKey(1));
+        assertTrue(store.containsKey(6));
+
+        // Too big for a slab
+        assertFalse(store.put(2, accessor.newGenericObject(100, 8)));
+        assertFalse(store.containsKey(2));
+        assertEquals(1, store.getRejections());
+        store.clear();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testSecondTier() {
+        final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor();
+        final long size = GenericObjectMetrics.estimateBytes(accessor,
+                accessor.newGenericObject(8, 8));
+        final GenericObjectCache<Integer, Object[]> cache = new GenericObjectCache<>(
+                accessor, 4 * size, 1);
+        final OffHeapGenericObjectStore<Integer> store = new OffHeapGenericObjectStore<>(
+                1 << 16, 4);
+        cache.setEvictionListener(store);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, accessor.setIntValue(accessor.newGenericObject(8, 8),
+                    0, i));
+        }
+        assertEquals(4, cache.size());
+        assertEquals(6, store.size());
+        for (int i = 0; i < 10; i++) {
+            Object[] instance = cache.get(i);
+            if (instance == null) {
+                instance = store.remove(i);
+            }
+            assertEquals(i, accessor.getIntValue(instance, 0));
+        }
+        assertEquals(0, store.size());
+
+        // Unsupported Object values are dropped
+        cache.clear();
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, accessor.setObjectValue(
+                    accessor.newGenericObject(8, 8), 1, new Object()));
+        }
+        assertEquals(1, store.getRejections());
+    }
+
+    /** An instance that fails to encode never leaves a stale copy. */
+    @Test
+    public void testEvictedEncodingFailure() {
+        final IntGenericObjectAccessor accessor = new IntGenericObjectAccessor();
+        final OffHeapGenericObjectStore<Integer> store = new OffHeapGenericObjectStore<>(
+                1 << 16, 2);
+        assertTrue(store.put(1, accessor.newGenericObject(8, 8)));
+        // writeUTF() rejects Strings longer than 64K
+        final char[] chars = new char[70000];
+        Arrays.fill(chars, 'x');
+        store.evicted(1, accessor.setObjectValue(
+                accessor.newGenericObject(8, 8), 1, new String(chars)));
+        assertFalse(store.containsKey(1));
+        assertEquals(1, store.getRejections());
+    }
+}